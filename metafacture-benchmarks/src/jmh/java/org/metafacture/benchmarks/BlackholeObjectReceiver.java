@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.benchmarks;
+
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Object receiver which feeds all objects into a JMH {@link Blackhole} to
+ * prevent dead code elimination.
+ *
+ * @param <T> object type
+ */
+public final class BlackholeObjectReceiver<T> extends DefaultObjectReceiver<T> {
+
+    private final Blackhole blackhole;
+
+    /**
+     * Creates a receiver consuming all objects into the given blackhole.
+     *
+     * @param blackhole the blackhole provided by JMH
+     */
+    public BlackholeObjectReceiver(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void process(final T obj) {
+        blackhole.consume(obj);
+    }
+
+}
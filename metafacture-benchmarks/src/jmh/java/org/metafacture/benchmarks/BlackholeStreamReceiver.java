@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.benchmarks;
+
+import org.metafacture.framework.helpers.DefaultStreamReceiver;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Stream receiver which feeds all events into a JMH {@link Blackhole} to
+ * prevent dead code elimination.
+ */
+public final class BlackholeStreamReceiver extends DefaultStreamReceiver {
+
+    private final Blackhole blackhole;
+
+    /**
+     * Creates a receiver consuming all events into the given blackhole.
+     *
+     * @param blackhole the blackhole provided by JMH
+     */
+    public BlackholeStreamReceiver(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void startRecord(final String identifier) {
+        blackhole.consume(identifier);
+    }
+
+    @Override
+    public void startEntity(final String name) {
+        blackhole.consume(name);
+    }
+
+    @Override
+    public void literal(final String name, final String value) {
+        blackhole.consume(name);
+        blackhole.consume(value);
+    }
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.benchmarks;
+
+import org.metafacture.biblio.marc21.Marc21Encoder;
+import org.metafacture.biblio.marc21.Marc21EventNames;
+import org.metafacture.biblio.pica.PicaEncoder;
+import org.metafacture.flowcontrol.StreamBuffer;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.StreamPipe;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+import org.metafacture.json.JsonEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates deterministic test corpora for the benchmarks. All records are
+ * created from a pseudo random generator with a fixed seed so that every
+ * benchmark run works on exactly the same data.
+ * <p>
+ * The generated records mimic the shape of bibliographic records: a few
+ * control fields followed by a variable number of data fields. The number of
+ * data fields is skewed so that some records are much larger than the
+ * average.
+ */
+public final class Corpus {
+
+    public static final long SEED = 20110101L;
+
+    private static final String[] MARC_CONTROL_TAGS = {"003", "005", "008"};
+    private static final String[] MARC_DATA_TAGS = {
+        "020", "035", "040", "041", "082", "100", "245", "246", "250", "260",
+        "264", "300", "490", "500", "505", "520", "650", "651", "655", "700",
+        "710", "776", "856", "880", "924"
+    };
+    private static final String[] PICA_TAGS = {
+        "001A", "001B", "001D", "002@", "004A", "007A", "010@", "011@", "021A",
+        "028A", "028C", "032@", "033A", "034D", "036E", "041A", "044K", "045E",
+        "047A", "101@", "144Z", "209A"
+    };
+    private static final String[] WORDS = {
+        "library", "catalogue", "metadata", "record", "title", "author",
+        "edition", "publisher", "subject", "history", "science", "music",
+        "Berlin", "Frankfurt am Main", "Leipzig", "Köln", "Zürich", "éditions",
+        "data", "processing", "semantic", "web", "linked", "open"
+    };
+    private static final char[] INDICATORS = {' ', '0', '1', '2', '4'};
+    private static final char[] SUBFIELD_CODES = {'a', 'b', 'c', 'd', 'e', '0', '6', '9'};
+
+    private static final int MIN_FIELDS = 8;
+    private static final int MAX_EXTRA_FIELDS = 24;
+    private static final int LARGE_RECORD_RATIO = 10;
+    private static final int LARGE_RECORD_FACTOR = 8;
+    private static final int MAX_SUBFIELDS = 4;
+    private static final int MAX_WORDS = 6;
+    private static final int ID_OFFSET = 100000000;
+
+    private Corpus() {
+        // No instances allowed
+    }
+
+    /**
+     * Emits MARC 21 records as stream events in the shape produced by the
+     * {@link org.metafacture.biblio.marc21.Marc21Decoder}.
+     *
+     * @param count    the number of records to generate
+     * @param receiver the receiver of the generated events
+     */
+    public static void emitMarc21Records(final int count, final StreamReceiver receiver) {
+        final Random random = new Random(SEED);
+        for (int i = 0; i < count; ++i) {
+            final String id = recordId(i);
+            receiver.startRecord(id);
+            receiver.startEntity(Marc21EventNames.LEADER_ENTITY);
+            receiver.literal(Marc21EventNames.RECORD_STATUS_LITERAL, "n");
+            receiver.literal(Marc21EventNames.RECORD_TYPE_LITERAL, "a");
+            receiver.literal(Marc21EventNames.BIBLIOGRAPHIC_LEVEL_LITERAL, "m");
+            receiver.literal(Marc21EventNames.CHARACTER_CODING_LITERAL, "a");
+            receiver.endEntity();
+            receiver.literal("001", id);
+            for (final String tag : MARC_CONTROL_TAGS) {
+                receiver.literal(tag, words(random));
+            }
+            final int fieldCount = fieldCount(random);
+            for (int j = 0; j < fieldCount; ++j) {
+                final String tag = MARC_DATA_TAGS[random.nextInt(MARC_DATA_TAGS.length)];
+                receiver.startEntity(tag + pick(random, INDICATORS) + pick(random, INDICATORS));
+                emitSubfields(random, receiver);
+                receiver.endEntity();
+            }
+            receiver.endRecord();
+        }
+    }
+
+    /**
+     * Emits PICA+ records as stream events in the shape produced by the
+     * {@link org.metafacture.biblio.pica.PicaDecoder}.
+     *
+     * @param count    the number of records to generate
+     * @param receiver the receiver of the generated events
+     */
+    public static void emitPicaRecords(final int count, final StreamReceiver receiver) {
+        final Random random = new Random(SEED);
+        for (int i = 0; i < count; ++i) {
+            final String id = recordId(i);
+            receiver.startRecord(id);
+            receiver.startEntity("003@");
+            receiver.literal("0", id);
+            receiver.endEntity();
+            final int fieldCount = fieldCount(random);
+            for (int j = 0; j < fieldCount; ++j) {
+                receiver.startEntity(PICA_TAGS[random.nextInt(PICA_TAGS.length)]);
+                emitSubfields(random, receiver);
+                receiver.endEntity();
+            }
+            receiver.endRecord();
+        }
+    }
+
+    /**
+     * Records MARC 21 events in a {@link StreamBuffer} so that they can be
+     * replayed without the cost of generating them.
+     *
+     * @param count the number of records to generate
+     * @return a buffer containing the events of all records
+     */
+    public static StreamBuffer marc21Events(final int count) {
+        final StreamBuffer buffer = new StreamBuffer();
+        emitMarc21Records(count, buffer);
+        return buffer;
+    }
+
+    /**
+     * Generates MARC 21 records in ISO 2709 format.
+     *
+     * @param count the number of records to generate
+     * @return a list containing one string per record
+     */
+    public static List<String> marc21Records(final int count) {
+        final List<String> records = new ArrayList<>(count);
+        emitMarc21Records(count, encodeTo(new Marc21Encoder(), records));
+        return records;
+    }
+
+    /**
+     * Generates records in PICA+ format.
+     *
+     * @param count the number of records to generate
+     * @return a list containing one string per record
+     */
+    public static List<String> picaRecords(final int count) {
+        final List<String> records = new ArrayList<>(count);
+        emitPicaRecords(count, encodeTo(new PicaEncoder(), records));
+        return records;
+    }
+
+    /**
+     * Generates records as JSON objects.
+     *
+     * @param count the number of records to generate
+     * @return a list containing one string per record
+     */
+    public static List<String> jsonRecords(final int count) {
+        final List<String> records = new ArrayList<>(count);
+        emitMarc21Records(count, encodeTo(new JsonEncoder(), records));
+        return records;
+    }
+
+    /**
+     * Concatenates records into a single string using the given separator.
+     *
+     * @param records   the records to join
+     * @param separator the separator appended after each record
+     * @return the joined records
+     */
+    public static String join(final List<String> records, final String separator) {
+        final StringBuilder builder = new StringBuilder();
+        for (final String record : records) {
+            builder.append(record).append(separator);
+        }
+        return builder.toString();
+    }
+
+    private static StreamReceiver encodeTo(final StreamPipe<ObjectReceiver<String>> encoder,
+            final List<String> records) {
+        encoder.setReceiver(new DefaultObjectReceiver<String>() {
+
+            @Override
+            public void process(final String obj) {
+                records.add(obj);
+            }
+
+        });
+        return encoder;
+    }
+
+    private static void emitSubfields(final Random random, final StreamReceiver receiver) {
+        final int subfieldCount = 1 + random.nextInt(MAX_SUBFIELDS);
+        for (int k = 0; k < subfieldCount; ++k) {
+            receiver.literal(String.valueOf(SUBFIELD_CODES[k]), words(random));
+        }
+    }
+
+    private static int fieldCount(final Random random) {
+        final int fieldCount = MIN_FIELDS + random.nextInt(MAX_EXTRA_FIELDS);
+        return random.nextInt(LARGE_RECORD_RATIO) == 0 ? fieldCount * LARGE_RECORD_FACTOR : fieldCount;
+    }
+
+    private static String recordId(final int index) {
+        return String.valueOf(ID_OFFSET + index);
+    }
+
+    private static char pick(final Random random, final char[] chars) {
+        return chars[random.nextInt(chars.length)];
+    }
+
+    private static String words(final Random random) {
+        final int wordCount = 1 + random.nextInt(MAX_WORDS);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < wordCount; ++i) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.benchmarks;
+
+import org.metafacture.flowcontrol.StreamBuffer;
+import org.metafacture.json.JsonEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link JsonEncoder}. One operation encodes the
+ * whole generated corpus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class JsonEncoderBenchmark {
+
+    @Param("1000")
+    public int recordCount; // checkstyle-disable-line VisibilityModifier
+
+    private StreamBuffer events;
+
+    /**
+     * Generates the corpus and sets up the encoder.
+     *
+     * @param blackhole the blackhole provided by JMH
+     */
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        final JsonEncoder encoder = new JsonEncoder();
+        encoder.setReceiver(new BlackholeObjectReceiver<>(blackhole));
+        events = Corpus.marc21Events(recordCount);
+        events.setReceiver(encoder);
+    }
+
+    /**
+     * Encodes all records of the corpus.
+     */
+    @Benchmark
+    public void encode() {
+        events.replay();
+    }
+
+}
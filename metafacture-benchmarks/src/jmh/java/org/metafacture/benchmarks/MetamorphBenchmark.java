@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.benchmarks;
+
+import org.metafacture.flowcontrol.StreamBuffer;
+import org.metafacture.metamorph.Metamorph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link Metamorph} on MARC 21 shaped events. The
+ * {@code morph} parameter selects between a definition with explicit source
+ * paths and one with several hundred wildcard patterns. One operation
+ * transforms the whole corpus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class MetamorphBenchmark {
+
+    private static final String MORPH_PATH = "org/metafacture/benchmarks/%s-morph.xml";
+
+    @Param("1000")
+    public int recordCount; // checkstyle-disable-line VisibilityModifier
+
+    @Param({"simple", "wildcard"})
+    public String morph; // checkstyle-disable-line VisibilityModifier
+
+    private StreamBuffer events;
+
+    /**
+     * Generates the corpus and builds the Metamorph instance.
+     *
+     * @param blackhole the blackhole provided by JMH
+     */
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        final Metamorph metamorph = new Metamorph(String.format(MORPH_PATH, morph));
+        metamorph.setReceiver(new BlackholeStreamReceiver(blackhole));
+        events = Corpus.marc21Events(recordCount);
+        events.setReceiver(metamorph);
+    }
+
+    /**
+     * Transforms all records of the corpus.
+     */
+    @Benchmark
+    public void transform() {
+        events.replay();
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.benchmarks;
+package org.metafacture.benchmarks;
+
+import org.metafacture.flowcontrol.StreamBuffer;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.helpers.DefaultStreamPipe;
+import org.metafacture.monitoring.MetricsRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of collecting stage metrics with
+ * {@link MetricsRegistry#instrument}. MARC 21 shaped events are passed
+ * through a chain of stages which only forward the events. With
+ * {@code instrumented} set, every stage is wrapped and connected the way
+ * Flux does when metrics are enabled. One operation passes the whole corpus
+ * through the chain.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param("1000")
+    public int recordCount; // checkstyle-disable-line VisibilityModifier
+
+    @Param("4")
+    public int stageCount; // checkstyle-disable-line VisibilityModifier
+
+    @Param({"false", "true"})
+    public boolean instrumented; // checkstyle-disable-line VisibilityModifier
+
+    private StreamBuffer events;
+
+    /**
+     * Generates the corpus and assembles the chain of stages.
+     *
+     * @param blackhole the blackhole provided by JMH
+     */
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        final MetricsRegistry registry = new MetricsRegistry();
+        StreamReceiver next = new BlackholeStreamReceiver(blackhole);
+        for (int i = stageCount; i > 0; --i) {
+            final ForwardingStage stage = new ForwardingStage();
+            stage.setReceiver(next);
+            next = instrumented ? (StreamReceiver) registry.instrument("stage#" + i, stage) : stage;
+        }
+        events = Corpus.marc21Events(recordCount);
+        events.setReceiver(next);
+    }
+
+    /**
+     * Passes all records of the corpus through the chain.
+     */
+    @Benchmark
+    public void forward() {
+        events.replay();
+    }
+
+    /**
+     * Passes all events on to the next stage.
+     */
+    private static final class ForwardingStage extends DefaultStreamPipe<StreamReceiver> {
+
+        ForwardingStage() {
+        }
+
+        @Override
+        public void startRecord(final String identifier) {
+            getReceiver().startRecord(identifier);
+        }
+
+        @Override
+        public void endRecord() {
+            getReceiver().endRecord();
+        }
+
+        @Override
+        public void startEntity(final String name) {
+            getReceiver().startEntity(name);
+        }
+
+        @Override
+        public void endEntity() {
+            getReceiver().endEntity();
+        }
+
+        @Override
+        public void literal(final String name, final String value) {
+            getReceiver().literal(name, value);
+        }
+
+    }
+
+}
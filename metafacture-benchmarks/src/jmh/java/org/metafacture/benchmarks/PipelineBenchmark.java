@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.benchmarks;
+
+import org.metafacture.biblio.marc21.Marc21Decoder;
+import org.metafacture.io.RecordReader;
+import org.metafacture.json.JsonEncoder;
+import org.metafacture.metamorph.Metamorph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a complete MARC 21 to JSON pipeline:
+ * {@code as-records | decode-marc21 | morph | encode-json}. One operation
+ * processes the whole generated dump.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+
+    private static final String MORPH_PATH = "org/metafacture/benchmarks/%s-morph.xml";
+
+    @Param("1000")
+    public int recordCount; // checkstyle-disable-line VisibilityModifier
+
+    @Param({"simple", "wildcard"})
+    public String morph; // checkstyle-disable-line VisibilityModifier
+
+    private String dump;
+    private RecordReader pipeline;
+
+    /**
+     * Generates the dump and assembles the pipeline.
+     *
+     * @param blackhole the blackhole provided by JMH
+     */
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        dump = Corpus.join(Corpus.marc21Records(recordCount), "");
+        pipeline = new RecordReader();
+        pipeline
+                .setReceiver(new Marc21Decoder())
+                .setReceiver(new Metamorph(String.format(MORPH_PATH, morph)))
+                .setReceiver(new JsonEncoder())
+                .setReceiver(new BlackholeObjectReceiver<>(blackhole));
+    }
+
+    /**
+     * Runs the dump through the pipeline.
+     */
+    @Benchmark
+    public void process() {
+        pipeline.process(new StringReader(dump));
+    }
+
+}
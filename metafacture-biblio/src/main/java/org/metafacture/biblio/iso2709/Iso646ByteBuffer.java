@@ -27,6 +27,10 @@
  * All methods except for the {#stringAt(int, int, Charset)} method assume
  * that the bytes in the buffer represent characters encoded with the
  * encoding defined by ISO 646 (which is mostly equivalent with 7-bit ASCII).
+ * <p>
+ * A buffer for reading may cover only a part of a larger byte array. All
+ * indices are relative to the start of this part. Buffers for writing always
+ * cover a complete array.
  *
  * @author Christoph Böhme
  */
@@ -35,6 +39,8 @@ final class Iso646ByteBuffer {
     private static final int RADIX = 10;
 
     private final byte[] byteArray;
+    private final int offset;
+    private final int length;
 
     private int writePosition;
 
@@ -43,8 +49,15 @@ final class Iso646ByteBuffer {
     }
 
     Iso646ByteBuffer(final byte[] byteArray) {
+        this(byteArray, 0, byteArray.length);
+    }
+
+    Iso646ByteBuffer(final byte[] byteArray, final int offset, final int length) {
         assert byteArray != null;
+        assert 0 <= offset && 0 <= length && offset + length <= byteArray.length;
         this.byteArray = byteArray;
+        this.offset = offset;
+        this.length = length;
     }
 
     byte[] getByteArray() {
@@ -52,15 +65,15 @@ byte[] getByteArray() {
     }
 
     int getLength() {
-        return byteArray.length;
+        return length;
     }
 
     int getFreeSpace() {
-        return byteArray.length - writePosition;
+        return length - writePosition;
     }
 
     void setWritePosition(final int writePosition) {
-        assert 0 <= writePosition && writePosition <= byteArray.length;
+        assert 0 <= writePosition && writePosition <= length;
         this.writePosition = writePosition;
     }
 
@@ -81,10 +94,10 @@ int getWritePosition() {
      * none is found to the end of the buffer.
      */
     int distanceTo(final byte byteValue, final int fromIndex) {
-        assert 0 <= fromIndex && fromIndex < byteArray.length;
+        assert 0 <= fromIndex && fromIndex < length;
         int index = fromIndex;
-        for (; index < byteArray.length; ++index) {
-            if (byteValue == byteArray[index]) {
+        for (; index < length; ++index) {
+            if (byteValue == byteArray[offset + index]) {
                 break;
             }
         }
@@ -104,10 +117,10 @@ int distanceTo(final byte byteValue, final int fromIndex) {
      * none is found to the end of the buffer.
      */
     int distanceTo(final byte[] bytes, final int fromIndex) {
-        assert 0 <= fromIndex && fromIndex < byteArray.length;
+        assert 0 <= fromIndex && fromIndex < length;
         int index = fromIndex;
-        for (; index < byteArray.length; ++index) {
-            if (containsByte(bytes, byteArray[index])) {
+        for (; index < length; ++index) {
+            if (containsByte(bytes, byteArray[offset + index])) {
                 break;
             }
         }
@@ -128,7 +141,7 @@ private boolean containsByte(final byte[] haystack, final byte needle) {
      * record.
      *
      * @param fromIndex index of the first byte of the string.
-     * @param length number of bytes to include in the string. If zero an empty
+     * @param stringLength number of bytes to include in the string. If zero an empty
      *               string is returned.
      * @param charset used for decoding the byte sequence into characters. It is
      *                callers responsibility to make sure that the selected byte
@@ -136,9 +149,9 @@ private boolean containsByte(final byte[] haystack, final byte needle) {
      *                multi-byte encodings such as UTF-8.
      * @return the string represented by the bytes in the given range
      */
-    String stringAt(final int fromIndex, final int length,
+    String stringAt(final int fromIndex, final int stringLength,
             final Charset charset) {
-        return new String(byteArray, fromIndex, length, charset);
+        return new String(byteArray, offset + fromIndex, stringLength, charset);
     }
 
     /**
@@ -151,18 +164,18 @@ char charAt(final int index) {
         return byteToChar(index);
     }
 
-    char[] charsAt(final int fromIndex, final int length) {
-        assert length >= 0;
-        assert 0 <= fromIndex && (fromIndex + length) <= byteArray.length;
-        final char[] chars = new char[length];
-        for (int i = 0; i < length; ++i) {
+    char[] charsAt(final int fromIndex, final int charsLength) {
+        assert charsLength >= 0;
+        assert 0 <= fromIndex && (fromIndex + charsLength) <= length;
+        final char[] chars = new char[charsLength];
+        for (int i = 0; i < charsLength; ++i) {
             chars[i] = byteToChar(fromIndex + i);
         }
         return chars;
     }
 
     private char byteToChar(final int index) {
-        final byte value = byteArray[index];
+        final byte value = byteArray[offset + index];
         if (value < 0) {
             throw new FormatException("Invalid character code found at index " +
                     index);
@@ -171,7 +184,7 @@ private char byteToChar(final int index) {
     }
 
     byte byteAt(final int index) {
-        return byteArray[index];
+        return byteArray[offset + index];
     }
 
     /**
@@ -193,18 +206,18 @@ int parseIntAt(final int index) {
      * a radix of 10.
      *
      * @param fromIndex position fo the byte range to convert into an integer
-     * @param length number of bytes to include in the range
+     * @param digits number of bytes to include in the range
      * @return the integer value represented by the characters at the given
      * range in the buffer.
      * @throws NumberFormatException if a non-digit character was encountered or
      *                               an overflow occurred.
      */
-    int parseIntAt(final int fromIndex, final int length) {
-        assert length >= 0;
-        assert 0 <= fromIndex && (fromIndex + length) <= byteArray.length;
+    int parseIntAt(final int fromIndex, final int digits) {
+        assert digits >= 0;
+        assert 0 <= fromIndex && (fromIndex + digits) <= length;
         final int multiplyMax = Integer.MAX_VALUE / RADIX;
         int result = 0;
-        for (int i = 0; i < length; ++i) {
+        for (int i = 0; i < digits; ++i) {
             if (result > multiplyMax) {
                 throwNumberIsToLargeException(fromIndex);
             }
@@ -219,7 +232,7 @@ int parseIntAt(final int fromIndex, final int length) {
     }
 
     private int byteToDigit(final int index) {
-        final byte digit = byteArray[index];
+        final byte digit = byteArray[offset + index];
         if (digit < Iso646Constants.ZERO || Iso646Constants.NINE < digit) {
             throw new NumberFormatException("digit expected at index " + index +
                     " but got 0x" + Integer.toHexString(digit));
@@ -276,7 +289,7 @@ void writeInt(final int value, final int digits) {
 
     @Override
     public String toString() {
-        return stringAt(0, byteArray.length, Iso646Constants.CHARSET);
+        return stringAt(0, length, Iso646Constants.CHARSET);
     }
 
 }
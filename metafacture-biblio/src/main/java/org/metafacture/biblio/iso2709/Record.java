@@ -55,9 +55,25 @@ public final class Record {
      * @param recordData a byte array containing a record in ISO 2709:2008 format.
      */
     public Record(final byte[] recordData) {
-        Require.notNull(recordData);
-        checkRecordDataLength(recordData);
-        buffer = new Iso646ByteBuffer(recordData);
+        this(Require.notNull(recordData), 0, recordData.length);
+    }
+
+    /**
+     * Creates an instance of {@code Record} which provides access to a record
+     * stored in a part of the array passed as argument. The array is not
+     * copied, so it must not be modified while the record is in use.
+     *
+     * @param data   a byte array containing a record in ISO 2709:2008 format.
+     * @param offset the index of the first byte of the record
+     * @param length the number of bytes in the record
+     */
+    public Record(final byte[] data, final int offset, final int length) {
+        Require.notNull(data);
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IndexOutOfBoundsException("record is outside of the array");
+        }
+        checkRecordDataLength(length);
+        buffer = new Iso646ByteBuffer(data, offset, length);
         label = new Label(buffer);
         baseAddress = label.getBaseAddress();
         checkBaseAddress();
@@ -68,8 +84,8 @@ public Record(final byte[] recordData) {
         recordIdFieldStart = findRecordIdFieldStart();
     }
 
-    private void checkRecordDataLength(final byte[] recordData) {
-        if (recordData.length < Iso2709Constants.MIN_RECORD_LENGTH) {
+    private void checkRecordDataLength(final int length) {
+        if (length < Iso2709Constants.MIN_RECORD_LENGTH) {
             throw new FormatException("record is too short");
         }
     }
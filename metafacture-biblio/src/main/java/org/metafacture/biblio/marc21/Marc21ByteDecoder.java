@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.biblio.marc21;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+import org.metafacture.framework.helpers.DefaultObjectPipe;
+
+/**
+ * Decodes MARC 21 records which are passed in as byte arrays. The decoder
+ * behaves exactly like {@link Marc21Decoder} but reads the UTF-8 encoded
+ * records directly from the bytes. Together with
+ * {@code org.metafacture.io.ByteRecordReader} this avoids decoding the input
+ * into strings only to encode it again for parsing:
+ * <pre>
+ * "records.mrc" | open-file-stream | as-byte-records | decode-marc21-bytes | ...
+ * </pre>
+ */
+@In(byte[].class)
+@Out(StreamReceiver.class)
+@Description("Decodes MARC 21 records given as byte arrays (UTF-8 encoding expected).")
+@FluxCommand("decode-marc21-bytes")
+public final class Marc21ByteDecoder extends DefaultObjectPipe<byte[], StreamReceiver> {
+
+    private final Marc21Decoder decoder = new Marc21Decoder();
+
+    /**
+     * Creates an instance of {@link Marc21ByteDecoder}.
+     */
+    public Marc21ByteDecoder() {
+    }
+
+    /**
+     * Controls whether records without an identifier are accepted. See
+     * {@link Marc21Decoder#setIgnoreMissingId(boolean)}.
+     * <p>
+     * <strong>Default value: {@value Marc21Decoder#IGNORE_MISSING_ID}</strong>
+     *
+     * @param ignoreMissingId if true, missing identifiers are silently ignored.
+     */
+    public void setIgnoreMissingId(final boolean ignoreMissingId) {
+        decoder.setIgnoreMissingId(ignoreMissingId);
+    }
+
+    /**
+     * Gets the flag to decide whether to ignore missing identifiers.
+     *
+     * @return true if missing identifiers are silently ignored
+     */
+    public boolean getIgnoreMissingId() {
+        return decoder.getIgnoreMissingId();
+    }
+
+    /**
+     * Controls whether the record leader is emitted as a whole. See
+     * {@link Marc21Decoder#setEmitLeaderAsWhole(boolean)}.
+     * <p>
+     * <strong>Default value: {@value Marc21Decoder#EMIT_LEADER_AS_WHOLE}</strong>
+     *
+     * @param emitLeaderAsWhole true if the record leader should be emitted as
+     *                          a whole
+     */
+    public void setEmitLeaderAsWhole(final boolean emitLeaderAsWhole) {
+        decoder.setEmitLeaderAsWhole(emitLeaderAsWhole);
+    }
+
+    /**
+     * Gets the flag to decide whether the record leader is emitted as a whole.
+     *
+     * @return true if the record leader is emitted as a whole
+     */
+    public boolean getEmitLeaderAsWhole() {
+        return decoder.getEmitLeaderAsWhole();
+    }
+
+    @Override
+    public void process(final byte[] obj) {
+        decoder.process(obj);
+    }
+
+    @Override
+    protected void onSetReceiver() {
+        decoder.setReceiver(getReceiver());
+    }
+
+}
@@ -208,10 +208,38 @@ public boolean getEmitLeaderAsWhole() {
 
     @Override
     public void process(final String obj) {
-        if (obj.isEmpty()) {
-            return;
+        if (!obj.isEmpty()) {
+            decode(new Record(obj.getBytes(Marc21Constants.MARC21_CHARSET)));
         }
-        final Record record = new Record(obj.getBytes(Marc21Constants.MARC21_CHARSET));
+    }
+
+    /**
+     * Decodes a record which is stored as UTF-8 encoded bytes. Unlike
+     * {@link #process(String)} the record is read directly from the array
+     * without decoding and re-encoding it first.
+     *
+     * @param recordData a byte array containing a single record
+     */
+    public void process(final byte[] recordData) {
+        process(recordData, 0, recordData.length);
+    }
+
+    /**
+     * Decodes a record which is stored as UTF-8 encoded bytes in a part of an
+     * array. The array is not copied and must not be modified while the
+     * record is decoded.
+     *
+     * @param data   a byte array containing the record
+     * @param offset the index of the first byte of the record
+     * @param length the number of bytes in the record
+     */
+    public void process(final byte[] data, final int offset, final int length) {
+        if (length > 0) {
+            decode(new Record(data, offset, length));
+        }
+    }
+
+    private void decode(final Record record) {
         record.setCharset(Marc21Constants.MARC21_CHARSET);
 
         requireMarc21RecordFormat(record.getRecordFormat());
@@ -25,12 +25,12 @@
 import org.metafacture.framework.annotations.Out;
 import org.metafacture.framework.helpers.DefaultStreamPipe;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.function.Function;
-
 /**
  * Encodes a stream into MARCXML.
+ * <p>
+ * By default the XML of each record is passed on as a string of its own. To
+ * reduce the number of strings handed to the next module, several records
+ * can be passed on together with {@link #setBatchSize(int)}.
  *
  * @author some Jan (Eberhardt) did almost all
  * @author Pascal Christoph (dr0i) dug it up again
@@ -51,32 +51,35 @@ public final class MarcXmlEncoder extends DefaultStreamPipe<ObjectReceiver<Strin
     private static final String ROOT_OPEN = "<marc:collection xmlns:marc=\"http://www.loc.gov/MARC21/slim\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://www.loc.gov/MARC21/slim http://www.loc.gov/standards/marcxml/schema/MARC21slim.xsd\">";
     private static final String ROOT_CLOSE = "</marc:collection>";
 
-    private enum Tag {
-
-        collection(" xmlns%s=\"" + NAMESPACE + "\"%s"),
-        controlfield(" tag=\"%s\""),
-        datafield(" tag=\"%s\" ind1=\"%s\" ind2=\"%s\""),
-        leader(""),
-        record(""),
-        subfield(" code=\"%s\"");
-
-        private static final String OPEN_TEMPLATE = "<%%s%s%s>";
-        private static final String CLOSE_TEMPLATE = "</%%s%s>";
+    public static final int BATCH_SIZE = 1;
 
-        private final String openTemplate;
-        private final String closeTemplate;
-
-        Tag(final String template) {
-            openTemplate = String.format(OPEN_TEMPLATE, name(), template);
-            closeTemplate = String.format(CLOSE_TEMPLATE, name());
-        }
+    private enum Tag {
 
-        public String open(final Object[] args) {
-            return String.format(openTemplate, args);
+        collection,
+        controlfield,
+        datafield,
+        leader,
+        record,
+        subfield;
+
+        private final String openWithNamespace = "<" + NAMESPACE_PREFIX + name();
+        private final String openWithoutNamespace = "<" + name();
+        private final String closeWithNamespace = "</" + NAMESPACE_PREFIX + name() + ">";
+        private final String closeWithoutNamespace = "</" + name() + ">";
+
+        /**
+         * Returns the start of the opening tag. Attributes and the closing
+         * angle bracket need to be appended.
+         *
+         * @param emitNamespace true if the tag is prefixed with the namespace
+         * @return the start of the opening tag
+         */
+        public String open(final boolean emitNamespace) {
+            return emitNamespace ? openWithNamespace : openWithoutNamespace;
         }
 
-        public String close(final Object[] args) {
-            return String.format(closeTemplate, args);
+        public String close(final boolean emitNamespace) {
+            return emitNamespace ? closeWithNamespace : closeWithoutNamespace;
         }
 
     }
@@ -87,13 +90,8 @@ public String close(final Object[] args) {
 
     private static final String SCHEMA_ATTRIBUTES = " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"" + NAMESPACE + " http://www.loc.gov/standards/marcxml/schema/MARC21slim.xsd\"";
 
-    private static final String ATTRIBUTE_TEMPLATE = " %s=\"%s\"";
-
-    private static final String NEW_LINE = "\n";
-    private static final String INDENT = "\t";
-    private static final String EMPTY = "";
-
-    private static final String XML_DECLARATION_TEMPLATE = "<?xml version=\"%s\" encoding=\"%s\"?>";
+    private static final char NEW_LINE = '\n';
+    private static final char INDENT = '\t';
 
     private static final int LEADER_ENTITY_LENGTH = 5;
 
@@ -115,12 +113,14 @@ public String close(final Object[] args) {
     private String currentEntity = "";
 
     private boolean emitNamespace = true;
-    private Object[] namespacePrefix = new Object[]{emitNamespace ? NAMESPACE_PREFIX : EMPTY};
 
     private int indentationLevel;
     private boolean formatted = PRETTY_PRINTED;
     private int recordAttributeOffset;
 
+    private int batchSize = BATCH_SIZE;
+    private int recordsInBatch;
+
     /**
      * Creates an instance of {@link MarcXmlEncoder}.
      */
@@ -135,7 +135,6 @@ public MarcXmlEncoder() {
      */
     public void setEmitNamespace(final boolean emitNamespace) {
         this.emitNamespace = emitNamespace;
-        namespacePrefix = new Object[]{emitNamespace ? NAMESPACE_PREFIX : EMPTY};
     }
 
     /**
@@ -183,6 +182,32 @@ public void setFormatted(final boolean formatted) {
         this.formatted = formatted;
     }
 
+    /**
+     * Sets the number of records which are passed on together as a single
+     * string. Larger batches reduce the number of strings created for the
+     * next module. The XML of the records collected so far is always passed
+     * on when the stream is closed or reset.
+     * <p>
+     * <strong>Default value: {@value #BATCH_SIZE}</strong>
+     *
+     * @param batchSize the number of records per string
+     */
+    public void setBatchSize(final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the number of records which are passed on together.
+     *
+     * @return the number of records per string
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
     @Override
     public void startRecord(final String identifier) {
         if (atStreamStart) {
@@ -190,14 +215,14 @@ public void startRecord(final String identifier) {
                 writeHeader();
                 prettyPrintNewLine();
             }
-            writeTag(Tag.collection::open, emitNamespace ? NAMESPACE_SUFFIX : EMPTY, emitNamespace ? SCHEMA_ATTRIBUTES : EMPTY);
+            writeCollectionTag();
             prettyPrintNewLine();
             incrementIndentationLevel();
         }
         atStreamStart = false;
 
         prettyPrintIndentation();
-        writeTag(Tag.record::open);
+        builder.append(Tag.record.open(emitNamespace)).append('>');
         recordAttributeOffset = builder.length() - 1;
         prettyPrintNewLine();
 
@@ -208,9 +233,12 @@ public void startRecord(final String identifier) {
     public void endRecord() {
         decrementIndentationLevel();
         prettyPrintIndentation();
-        writeTag(Tag.record::close);
+        writeEndTag(Tag.record);
         prettyPrintNewLine();
-        sendAndClearData();
+        ++recordsInBatch;
+        if (recordsInBatch >= batchSize) {
+            sendAndClearData();
+        }
     }
 
     @Override
@@ -223,11 +251,12 @@ public void startEntity(final String name) {
                 throw new MetafactureException(message);
             }
 
-            final String tag = name.substring(TAG_BEGIN, TAG_END);
-            final String ind1 = name.substring(IND1_BEGIN, IND1_END);
-            final String ind2 = name.substring(IND2_BEGIN, IND2_END);
             prettyPrintIndentation();
-            writeTag(Tag.datafield::open, tag, ind1, ind2);
+            builder.append(Tag.datafield.open(emitNamespace));
+            builder.append(" tag=\"").append(name, TAG_BEGIN, TAG_END);
+            builder.append("\" ind1=\"").append(name, IND1_BEGIN, IND1_END);
+            builder.append("\" ind2=\"").append(name, IND2_BEGIN, IND2_END);
+            builder.append("\">");
             prettyPrintNewLine();
             incrementIndentationLevel();
         }
@@ -238,7 +267,7 @@ public void endEntity() {
         if (!currentEntity.equals(Marc21EventNames.LEADER_ENTITY)) {
             decrementIndentationLevel();
             prettyPrintIndentation();
-            writeTag(Tag.datafield::close);
+            writeEndTag(Tag.datafield);
             prettyPrintNewLine();
         }
         currentEntity = "";
@@ -249,24 +278,24 @@ public void literal(final String name, final String value) {
         if ("".equals(currentEntity)) {
             if (name.equals(Marc21EventNames.MARCXML_TYPE_LITERAL)) {
                 if (value != null) {
-                    builder.insert(recordAttributeOffset, String.format(ATTRIBUTE_TEMPLATE, name, value));
+                    builder.insert(recordAttributeOffset, " " + name + "=\"" + value + "\"");
                 }
             }
             else if (!writeLeader(name, value)) {
                 prettyPrintIndentation();
-                writeTag(Tag.controlfield::open, name);
+                writeStartTag(Tag.controlfield, " tag=\"", name);
                 if (value != null) {
                     writeEscaped(value.trim());
                 }
-                writeTag(Tag.controlfield::close);
+                writeEndTag(Tag.controlfield);
                 prettyPrintNewLine();
             }
         }
         else if (!writeLeader(currentEntity, value)) {
             prettyPrintIndentation();
-            writeTag(Tag.subfield::open, name);
+            writeStartTag(Tag.subfield, " code=\"", name);
             writeEscaped(value.trim());
-            writeTag(Tag.subfield::close);
+            writeEndTag(Tag.subfield);
             prettyPrintNewLine();
         }
     }
@@ -298,12 +327,26 @@ private void decrementIndentationLevel() {
 
     /** Adds a XML Header */
     private void writeHeader() {
-        writeRaw(String.format(XML_DECLARATION_TEMPLATE, xmlVersion, xmlEncoding));
+        builder.append("<?xml version=\"").append(xmlVersion)
+                .append("\" encoding=\"").append(xmlEncoding).append("\"?>");
+    }
+
+    /** Opens the root tag */
+    private void writeCollectionTag() {
+        builder.append(Tag.collection.open(emitNamespace));
+        if (emitNamespace) {
+            builder.append(" xmlns").append(NAMESPACE_SUFFIX).append("=\"").append(NAMESPACE).append('"');
+            builder.append(SCHEMA_ATTRIBUTES);
+        }
+        else {
+            builder.append(" xmlns=\"").append(NAMESPACE).append('"');
+        }
+        builder.append('>');
     }
 
     /** Closes the root tag */
     private void writeFooter() {
-        writeTag(Tag.collection::close);
+        writeEndTag(Tag.collection);
     }
 
     /**
@@ -321,15 +364,15 @@ private void writeRaw(final String str) {
     * @param str the unescaped sequence to be written
     */
     private void writeEscaped(final String str) {
-        builder.append(XmlUtil.escape(str, false));
+        XmlUtil.escape(builder, str, false);
     }
 
     private boolean writeLeader(final String name, final String value) {
         if (name.equals(Marc21EventNames.LEADER_ENTITY)) {
             prettyPrintIndentation();
-            writeTag(Tag.leader::open);
+            builder.append(Tag.leader.open(emitNamespace)).append('>');
             writeRaw(value);
-            writeTag(Tag.leader::close);
+            writeEndTag(Tag.leader);
             prettyPrintNewLine();
 
             return true;
@@ -339,16 +382,19 @@ private boolean writeLeader(final String name, final String value) {
         }
     }
 
-    private void writeTag(final Function<Object[], String> function, final Object... args) {
-        final Object[] allArgs = Arrays.copyOf(namespacePrefix, namespacePrefix.length + args.length);
-        System.arraycopy(args, 0, allArgs, namespacePrefix.length, args.length);
-        writeRaw(function.apply(allArgs));
+    private void writeStartTag(final Tag tag, final String attributeStart, final String attributeValue) {
+        builder.append(tag.open(emitNamespace)).append(attributeStart).append(attributeValue).append("\">");
+    }
+
+    private void writeEndTag(final Tag tag) {
+        builder.append(tag.close(emitNamespace));
     }
 
     private void prettyPrintIndentation() {
         if (formatted) {
-            final String prefix = String.join("", Collections.nCopies(indentationLevel, INDENT));
-            builder.append(prefix);
+            for (int i = 0; i < indentationLevel; ++i) {
+                builder.append(INDENT);
+            }
         }
     }
 
@@ -360,8 +406,9 @@ private void prettyPrintNewLine() {
 
     private void sendAndClearData() {
         getReceiver().process(builder.toString());
-        builder.delete(0, builder.length());
+        builder.setLength(0);
         recordAttributeOffset = 0;
+        recordsInBatch = 0;
     }
 
 }
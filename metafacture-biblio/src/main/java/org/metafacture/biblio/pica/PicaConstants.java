@@ -33,6 +33,9 @@ enum PicaConstants {
     FIELD_END_MARKER('\n', '\n'), //
     NO_MARKER('\0', '\0');
 
+    // values() returns a new copy of the array on each call:
+    private static final PicaConstants[] VALUES = values();
+
     private final char normalized;
     private final char nonNormalized;
 
@@ -46,7 +49,7 @@ public char get(final boolean isNormalized) {
     }
 
     public static PicaConstants from(final boolean isNormalized, final char ch) {
-        for (final PicaConstants value : values()) {
+        for (final PicaConstants value : VALUES) {
             if (ch == (isNormalized ? value.normalized : value.nonNormalized)) {
                 return value;
             }
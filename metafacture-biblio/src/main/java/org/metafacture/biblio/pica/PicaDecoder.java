@@ -16,7 +16,6 @@
 
 package org.metafacture.biblio.pica;
 
-import org.metafacture.commons.StringUtil;
 import org.metafacture.framework.FluxCommand;
 import org.metafacture.framework.MissingIdException;
 import org.metafacture.framework.StreamReceiver;
@@ -25,9 +24,6 @@
 import org.metafacture.framework.annotations.Out;
 import org.metafacture.framework.helpers.DefaultObjectPipe;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Parses pica+ records. The parser only parses single records. A string
  * containing multiple records must be split into individual records before
@@ -156,15 +152,13 @@
 @FluxCommand("decode-pica")
 public final class PicaDecoder extends DefaultObjectPipe<String, StreamReceiver> {
 
-    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final String[] ID_FIELDS = {"003@", "107F", "203@"};
+    private static final String OCCURRENCE_FIELD = "203@";
+    private static final char OCCURRENCE_MARKER = '/';
+    private static final int MIN_OCCURRENCE_LENGTH = 2;
 
-    private Matcher idFieldMatcher;
-    private final StringBuilder idBuilder = new StringBuilder();
     private final PicaParserContext parserContext = new PicaParserContext();
 
-    private char[] buffer = new char[BUFFER_SIZE];
-    private int recordLen;
-
     private boolean ignoreMissingIdn;
     private boolean isNormalized;
 
@@ -195,15 +189,6 @@ public PicaDecoder(final boolean normalized) {
      */
     public void setNormalizedSerialization(final boolean normalized) {
         this.isNormalized = normalized;
-
-        final String startMarkers = "(?:^|" + PicaConstants.FIELD_MARKER.get(isNormalized) + "|" +
-                PicaConstants.FIELD_END_MARKER.get(isNormalized) + "|" +
-                PicaConstants.RECORD_MARKER.get(isNormalized) + "|.*\n" + ")";
-        final Pattern idFieldsPattern = Pattern
-                .compile(startMarkers + "(?:003@|203@(?:/..+)?|107F) " +
-                        " ?(\\" + PicaConstants.SUBFIELD_MARKER.get(isNormalized) + "|" +
-                        PicaConstants.SUBFIELD_MARKER.get(isNormalized) + ")0");
-        idFieldMatcher = idFieldsPattern.matcher("");
     }
 
     /**
@@ -312,14 +297,11 @@ public boolean getTrimFieldNames() {
     public void process(final String record) {
         assert !isClosed();
 
-        buffer = StringUtil.copyToBuffer(record, buffer);
-        recordLen = record.length();
-
-        if (isRecordEmpty()) {
+        if (isRecordEmpty(record)) {
             return;
         }
 
-        String id = extractRecordId();
+        String id = extractRecordId(record);
         if (id == null) {
             if (!ignoreMissingIdn) {
                 throw new MissingIdException("Record has no id");
@@ -329,8 +311,9 @@ public void process(final String record) {
         getReceiver().startRecord(id);
 
         PicaParserState state = PicaParserState.FIELD_NAME;
+        final int recordLen = record.length();
         for (int i = 0; i < recordLen; ++i) {
-            state = state.parseChar(buffer[i], parserContext, isNormalized);
+            state = state.parseChar(record.charAt(i), parserContext, isNormalized);
         }
         state.endOfInput(parserContext);
 
@@ -347,37 +330,109 @@ protected void onResetStream() {
         parserContext.reset();
     }
 
-    private boolean isRecordEmpty() {
-        for (int i = 0; i < recordLen; ++i) {
-            if (buffer[i] != ' ' && buffer[i] != '\t') {
+    private static boolean isRecordEmpty(final CharSequence record) {
+        for (int i = 0; i < record.length(); ++i) {
+            final char ch = record.charAt(i);
+            if (ch != ' ' && ch != '\t') {
                 return false;
             }
         }
         return true;
     }
 
-    private String extractRecordId() {
-        final int idFromIndex = findRecordId();
+    private String extractRecordId(final CharSequence record) {
+        final int idFromIndex = findRecordId(record);
         if (idFromIndex == -1) {
             return null;
         }
-        idBuilder.setLength(0);
-        for (int i = idFromIndex; i < recordLen; ++i) {
-            final char ch = buffer[i];
-            if (isMarker(ch)) {
-                break;
+        int idToIndex = idFromIndex;
+        while (idToIndex < record.length() && !isMarker(record.charAt(idToIndex))) {
+            ++idToIndex;
+        }
+        return record.subSequence(idFromIndex, idToIndex).toString();
+    }
+
+    /**
+     * Finds the value of the first ID field in the record. Only the
+     * beginnings of fields are inspected so that the record is not scanned
+     * beyond the ID field.
+     *
+     * @param record the record to search
+     * @return the index of the first character of the ID or -1 if the record
+     *         contains no ID field
+     */
+    private int findRecordId(final CharSequence record) {
+        int fieldStart = 0;
+        while (fieldStart < record.length()) {
+            final int idFromIndex = matchIdField(record, fieldStart);
+            if (idFromIndex != -1) {
+                return idFromIndex;
+            }
+            fieldStart = nextFieldStart(record, fieldStart);
+        }
+        return -1;
+    }
+
+    private int nextFieldStart(final CharSequence record, final int fromIndex) {
+        for (int i = fromIndex; i < record.length(); ++i) {
+            switch (PicaConstants.from(isNormalized, record.charAt(i))) {
+                case RECORD_MARKER:
+                case FIELD_MARKER:
+                case FIELD_END_MARKER:
+                    return i + 1;
+                default:
+                    break;
             }
-            idBuilder.append(ch);
         }
-        return idBuilder.toString();
+        return record.length();
     }
 
-    private int findRecordId() {
-        idFieldMatcher.reset(new String(buffer, 0, recordLen));
-        if (!idFieldMatcher.find()) {
+    private int matchIdField(final CharSequence record, final int fieldStart) {
+        int i = -1;
+        for (final String idField : ID_FIELDS) {
+            if (startsWith(record, fieldStart, idField)) {
+                i = fieldStart + idField.length();
+                if (idField.equals(OCCURRENCE_FIELD)) {
+                    i = skipOccurrence(record, i);
+                }
+                break;
+            }
+        }
+        if (i == -1 || !startsWith(record, i, " ")) {
             return -1;
         }
-        return idFieldMatcher.end();
+        ++i;
+        if (startsWith(record, i, " ")) {
+            ++i;
+        }
+        final char subfieldMarker = PicaConstants.SUBFIELD_MARKER.get(isNormalized);
+        if (i + 1 < record.length() && record.charAt(i) == subfieldMarker && record.charAt(i + 1) == '0') {
+            return i + 2;
+        }
+        return -1;
+    }
+
+    private int skipOccurrence(final CharSequence record, final int fromIndex) {
+        if (fromIndex >= record.length() || record.charAt(fromIndex) != OCCURRENCE_MARKER) {
+            return fromIndex;
+        }
+        int i = fromIndex + 1;
+        while (i < record.length() && record.charAt(i) != ' ' && !isMarker(record.charAt(i))) {
+            ++i;
+        }
+        return i - fromIndex - 1 >= MIN_OCCURRENCE_LENGTH ? i : -1;
+    }
+
+    private static boolean startsWith(final CharSequence record, final int fromIndex, final String prefix) {
+        if (fromIndex < 0 || fromIndex + prefix.length() > record.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); ++i) {
+            if (record.charAt(fromIndex + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private boolean isMarker(final char ch) {
@@ -31,7 +31,21 @@
  */
 final class PicaParserContext {
 
+    // PICA+ uses only a few hundred distinct field names. They are kept in
+    // a direct-mapped cache to avoid creating a new string for each field:
+    private static final int FIELD_NAME_CACHE_SIZE = 1024;
+    private static final int HASH_MULTIPLIER = 31;
+
+    private static final String[] SUBFIELD_NAMES = new String[128];
+
+    static {
+        for (char ch = 0; ch < SUBFIELD_NAMES.length; ++ch) {
+            SUBFIELD_NAMES[ch] = String.valueOf(ch);
+        }
+    }
+
     private final StringBuilder builder = new StringBuilder();
+    private final String[] fieldNames = new String[FIELD_NAME_CACHE_SIZE];
 
     private boolean normalizeUTF8;
     private boolean skipEmptyFields = true;
@@ -91,10 +105,7 @@ protected void emitStartEntity() {
         // until a literal is emitted in order to able
         // to skip empty entities
 
-        entityName = getTextAndReset();
-        if (trimFieldNames) {
-            entityName = entityName.trim();
-        }
+        entityName = getFieldNameAndReset();
         literalsEmitted = false;
     }
 
@@ -110,7 +121,7 @@ protected void emitEndEntity() {
     }
 
     protected void setSubfieldName(final char name) {
-        subfieldName = String.valueOf(name);
+        subfieldName = name < SUBFIELD_NAMES.length ? SUBFIELD_NAMES[name] : String.valueOf(name);
     }
 
     protected void emitLiteral() {
@@ -131,6 +142,44 @@ protected void emitLiteral() {
         subfieldName = null;
     }
 
+    private String getFieldNameAndReset() {
+        int start = 0;
+        int end = builder.length();
+        if (trimFieldNames) {
+            // Same definition of whitespace as String#trim():
+            while (start < end && builder.charAt(start) <= ' ') {
+                ++start;
+            }
+            while (end > start && builder.charAt(end - 1) <= ' ') {
+                --end;
+            }
+        }
+        int hash = 0;
+        for (int i = start; i < end; ++i) {
+            hash = HASH_MULTIPLIER * hash + builder.charAt(i);
+        }
+        final int slot = hash & (FIELD_NAME_CACHE_SIZE - 1);
+        String fieldName = fieldNames[slot];
+        if (fieldName == null || !contentEquals(fieldName, start, end)) {
+            fieldName = builder.substring(start, end);
+            fieldNames[slot] = fieldName;
+        }
+        builder.setLength(0);
+        return fieldName;
+    }
+
+    private boolean contentEquals(final String str, final int start, final int end) {
+        if (str.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; ++i) {
+            if (str.charAt(i - start) != builder.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private String getTextAndReset() {
         final String text = builder.toString();
         builder.setLength(0);
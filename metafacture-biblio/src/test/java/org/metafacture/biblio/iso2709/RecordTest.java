@@ -75,6 +75,16 @@ public void getIdentifier_shouldReturnRecordIdentifier() {
         assertEquals("ID", record.getRecordId());
     }
 
+    @Test
+    public void getIdentifier_shouldReturnRecordIdentifierOfRecordInPartOfArray() {
+        final byte[] data = asBytes("xx" + "00034SIMPL0000030SYS110R" +
+                "00120\u001e" + "ID\u001e\u001d" + "yy");
+
+        record = new Record(data, 2, data.length - 4);
+
+        assertEquals("ID", record.getRecordId());
+    }
+
     @Test
     public void getIdentifier_shouldReturnNullIfRecordHasNoIdentifier() {
         final byte[] data = asBytes("00034SIMPL0000030SYS110R" + "00220\u001e" +
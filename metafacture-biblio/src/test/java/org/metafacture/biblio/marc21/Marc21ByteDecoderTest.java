@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.biblio.marc21;
+
+import static org.mockito.Mockito.inOrder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.metafacture.framework.MissingIdException;
+import org.metafacture.framework.StreamReceiver;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for class {@link Marc21ByteDecoder}.
+ */
+public final class Marc21ByteDecoderTest {
+
+    private static final String FIELD_SEPARATOR = "\u001e";
+    private static final String RECORD_SEPARATOR = "\u001d";
+
+    private static final String RECORD = "00049noa a2200037zu 4500" +
+        "001001100000" + FIELD_SEPARATOR + "identifier" + FIELD_SEPARATOR +
+        RECORD_SEPARATOR;
+    private static final String RECORD_WITHOUT_ID = "00026noa a2200025zu 4500" +
+        FIELD_SEPARATOR + RECORD_SEPARATOR;
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private StreamReceiver receiver;
+
+    private Marc21ByteDecoder marc21ByteDecoder;
+
+    @Before
+    public void setup() {
+        marc21ByteDecoder = new Marc21ByteDecoder();
+        marc21ByteDecoder.setReceiver(receiver);
+    }
+
+    @After
+    public void cleanup() {
+        marc21ByteDecoder.closeStream();
+    }
+
+    @Test
+    public void shouldDecodeRecordFromBytes() {
+        marc21ByteDecoder.setEmitLeaderAsWhole(true);
+
+        marc21ByteDecoder.process(RECORD.getBytes(StandardCharsets.UTF_8));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).startRecord("identifier");
+        ordered.verify(receiver).startEntity("leader");
+        ordered.verify(receiver).literal("leader", "00049noa a2200037zu 4500");
+        ordered.verify(receiver).endEntity();
+        ordered.verify(receiver).literal("001", "identifier");
+        ordered.verify(receiver).endRecord();
+        ordered.verify(receiver).closeStream();
+    }
+
+    @Test(expected = MissingIdException.class)
+    public void shouldThrowMissingIdExceptionByDefault() {
+        marc21ByteDecoder.process(RECORD_WITHOUT_ID.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldPassOnSettingsToDecoder() {
+        marc21ByteDecoder.setIgnoreMissingId(true);
+
+        marc21ByteDecoder.process(RECORD_WITHOUT_ID.getBytes(StandardCharsets.UTF_8));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).startRecord("");
+        ordered.verify(receiver).endRecord();
+    }
+
+}
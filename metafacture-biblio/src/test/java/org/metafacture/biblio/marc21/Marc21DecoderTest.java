@@ -28,6 +28,8 @@
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Tests for class {@link Marc21Decoder}.
  *
@@ -102,6 +104,32 @@ public void shouldProcessMarc21Record() {
         ordered.verify(receiver).endRecord();
     }
 
+    @Test
+    public void shouldProcessMarc21RecordInPartOfByteArray() {
+        final byte[] data = ("xx" + RECORD + "yy").getBytes(StandardCharsets.UTF_8);
+
+        marc21Decoder.process(data, 2, data.length - 4);
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).startRecord(RECORD_ID);
+        ordered.verify(receiver).literal("001", RECORD_ID);
+        ordered.verify(receiver).literal("002", CONTROLFIELD_VALUE);
+        ordered.verify(receiver).startEntity("100AB");
+        ordered.verify(receiver).literal("1", "value1");
+        ordered.verify(receiver).endEntity();
+        ordered.verify(receiver).startEntity("200CD");
+        ordered.verify(receiver).literal("2", "value2");
+        ordered.verify(receiver).literal("3", "value3");
+        ordered.verify(receiver).endEntity();
+        ordered.verify(receiver).endRecord();
+    }
+
+    @Test
+    public void shouldIgnoreEmptyByteRecords() {
+        marc21Decoder.process(new byte[0]);
+        verifyZeroInteractions(receiver);
+    }
+
     @Test
     public void shouldIgnoreEmptyRecords() {
         marc21Decoder.process("");
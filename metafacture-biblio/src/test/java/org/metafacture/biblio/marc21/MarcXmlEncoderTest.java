@@ -25,6 +25,9 @@
 import org.metafacture.framework.MetafactureException;
 import org.metafacture.framework.helpers.DefaultObjectReceiver;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Tests for class {@link MarcXmlEncoder}.
  *
@@ -168,6 +171,25 @@ public void createTwoRecordsInOneCollection() {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void shouldPassOnRecordsInBatches() {
+        final List<String> results = new ArrayList<>();
+        encoder.setReceiver(new DefaultObjectReceiver<String>() {
+            @Override
+            public void process(final String obj) {
+                results.add(obj);
+            }
+        });
+        encoder.setBatchSize(2);
+        addOneRecord(encoder);
+        addOneRecord(encoder);
+        addOneRecord(encoder);
+        encoder.closeStream();
+        assertEquals(2, results.size());
+        assertEquals(XML_DECLARATION + XML_ROOT_OPEN + XML_RECORD + XML_RECORD, results.get(0));
+        assertEquals(XML_RECORD + XML_MARC_COLLECTION_END_TAG, results.get(1));
+    }
+
     @Test
     public void issue403_shouldNotEmitNamespaceIfDisabled() {
         encoder.setEmitNamespace(false);
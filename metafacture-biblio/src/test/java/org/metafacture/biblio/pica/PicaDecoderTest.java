@@ -347,6 +347,27 @@ public void shouldExtractCopyControlNumberWithThreeDigitOccurrenceAsRecordId() {
         verify(receiver).startRecord(RECORD_ID);
     }
 
+    @Test
+    public void shouldIgnoreCopyControlNumberWithOneDigitOccurrence() {
+        picaDecoder.setIgnoreMissingIdn(true);
+
+        picaDecoder.process("203@/1 " + SUBFIELD_MARKER + "0" + RECORD_ID);
+
+        verify(receiver).startRecord("");
+    }
+
+    @Test
+    public void shouldExtractRecordIdFromNonNormalizedPica() {
+        picaDecoder.setNormalizedSerialization(false);
+
+        picaDecoder.process(
+                NONNORMALIZED_FIELD_001AT_0_TEST +
+                NONNORMALIZED_FIELD_END_MARKER +
+                NONNORMALIZED_FIELD_003AT_0_ID);
+
+        verify(receiver).startRecord(RECORD_ID);
+    }
+
     @Test(expected=MissingIdException.class)
     public void shouldThrowMissingIdExceptionIfNoRecordIdIsFound() {
         picaDecoder.process(FIELD_001AT_0_TEST);
@@ -20,7 +20,6 @@
 import org.w3c.dom.NodeList;
 
 import java.io.StringWriter;
-import java.util.stream.Collectors;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -142,18 +141,39 @@ public static String escape(final String unescaped) {
      * @return the escaped String
      */
     public static String escape(final String unescaped, final boolean escapeUnicode) {
-        return unescaped.codePoints()
-                .mapToObj(value -> escapeCodePoint(value, escapeUnicode))
-                .collect(Collectors.joining());
+        final StringBuilder builder = new StringBuilder(unescaped.length());
+        escape(builder, unescaped, escapeUnicode);
+        return builder.toString();
     }
 
-    private static String escapeCodePoint(final int codePoint, final boolean escapeUnicode) {
-        final String entity = entityFor(codePoint);
-        if (entity != null) {
-            return entity;
+    /**
+     * Escapes XML special characters and appends the result to a
+     * StringBuilder. May also escape non-ASCII characters (aka Unicode).
+     *
+     * @param builder       the StringBuilder to append to
+     * @param unescaped     the String to be escaped
+     * @param escapeUnicode boolean if Unicode should be also escaped
+     */
+    public static void escape(final StringBuilder builder, final String unescaped, final boolean escapeUnicode) {
+        final int length = unescaped.length();
+        int i = 0;
+        while (i < length) {
+            final char ch = unescaped.charAt(i);
+            final String entity = entityFor(ch);
+            if (entity != null) {
+                builder.append(entity);
+                ++i;
+            }
+            else if (escapeUnicode && ch > ESCAPE_CODE_POINT_THRESHOLD) {
+                final int codePoint = unescaped.codePointAt(i);
+                builder.append("&#").append(codePoint).append(';');
+                i += Character.charCount(codePoint);
+            }
+            else {
+                builder.append(ch);
+                ++i;
+            }
         }
-        return escapeUnicode && codePoint > ESCAPE_CODE_POINT_THRESHOLD ?
-            "&#" + Integer.toString(codePoint) + ";" : Character.toString((char) codePoint);
     }
 
     private static String entityFor(final int ch) {
@@ -16,14 +16,10 @@
 
 package org.metafacture.commons.reflection;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Provides method for creating and initialising classes. The
@@ -31,21 +27,17 @@
  * using the first constructor that matches the varargs argument of the methods.
  * <p>
  * Instances of this class wrap {@link Class}. The wrapped instance is available
- * via {@link #getPlainClass()}.
+ * via {@link #getPlainClass()}. The setters and the constructors chosen for the
+ * argument types are looked up once per class and shared by all instances
+ * wrapping the same class.
  *
  * @param <T> object type
  * @author Christoph Böhme
  */
 public final class ConfigurableClass<T> {
 
-    private static final String SETTER_PREFIX = "set";
-    private static final Set<Class<?>> ELIGIBLE_TYPES = new HashSet<>(
-            Arrays.asList(boolean.class, int.class, String.class));
-
     private final Class<T> plainClass;
 
-    private Map<String, Method> settersCache;
-
     /**
      *
      * Creates an instance of {@link ConfigurableClass} defined by a Class.
@@ -68,34 +60,14 @@ public Class<T> getPlainClass() {
     /**
      * Gets all public "set" methods of this class.
      *
-     * @return the Map of the setter methods of this class
+     * @return an unmodifiable Map of the setter methods of this class
      */
     public Map<String, Method> getSetters() {
-        if (settersCache == null) {
-            initSettersCache();
-        }
-        return settersCache;
+        return getPlan().getSetters();
     }
 
-    private void initSettersCache() {
-        settersCache = new HashMap<>();
-        for (final Method method : plainClass.getMethods()) {
-            if (isSetter(method)) {
-                final String setterName = method.getName().substring(
-                        SETTER_PREFIX.length()).toLowerCase();
-                settersCache.put(setterName, method);
-            }
-        }
-    }
-
-    private boolean isSetter(final Method method) {
-        if (method.getParameterTypes().length == 1) {
-            final Class<?> type = method.getParameterTypes()[0];
-            if (ELIGIBLE_TYPES.contains(type) || type.isEnum()) {
-                return method.getName().startsWith(SETTER_PREFIX);
-            }
-        }
-        return false;
+    private InstantiationPlan<T> getPlan() {
+        return InstantiationPlan.of(plainClass);
     }
 
     /**
@@ -140,9 +112,9 @@ public T newInstance() {
      */
     public T newInstance(final Map<String, String> setterValues, final Object... constructorArgs) {
         try {
-            final Constructor<T> constructor = findConstructor(constructorArgs);
-            final T instance = constructor.newInstance(constructorArgs);
-            applySetters(instance, setterValues);
+            final InstantiationPlan<T> plan = getPlan();
+            final T instance = plan.getCreator(constructorArgs).create(constructorArgs);
+            applySetters(plan, instance, setterValues);
             return instance;
         }
         catch (final ReflectiveOperationException e) {
@@ -151,44 +123,16 @@ public T newInstance(final Map<String, String> setterValues, final Object... con
         }
     }
 
-    private Constructor<T> findConstructor(final Object... arguments) throws NoSuchMethodException {
-        @SuppressWarnings("unchecked")  // getConstructors() returns correct types
-        final Constructor<T>[] constructors =
-                (Constructor<T>[]) plainClass.getConstructors();
-        for (final Constructor<T> constructor : constructors) {
-            if (checkArgumentTypes(constructor, arguments)) {
-                return constructor;
-            }
-        }
-        throw new NoSuchMethodException(
-                "no appropriate constructor found for class " + plainClass);
-    }
-
-    private boolean checkArgumentTypes(final Constructor<?> constructor, final Object[] constructorArgs) { // checkstyle-disable-line ReturnCount
-        final Class<?>[] argTypes = constructor.getParameterTypes();
-        if (argTypes.length != constructorArgs.length) {
-            return false;
-        }
-        for (int i = 0; i < argTypes.length; ++i) {
-            if (!argTypes[i].isAssignableFrom(constructorArgs[i].getClass())) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private void applySetters(final T target, final Map<String, String> setterValues) {
+    private void applySetters(final InstantiationPlan<T> plan, final T target, final Map<String, String> setterValues) {
         for (final Map.Entry<String, String> setterValue : setterValues.entrySet()) {
             final String setterName = setterValue.getKey().toLowerCase();
-            final Method setter = getSetters().get(setterName);
+            final InstantiationPlan.Setter setter = plan.getSetter(setterName);
             if (setter == null) {
                 throw new ReflectionException("Method " + target.getClass()
                         .getSimpleName() + "." + setterName + " does not exist");
             }
-            final Class<?> valueType = setter.getParameterTypes()[0];
-            final Object value = convertValue(setterValue.getValue(), valueType);
             try {
-                setter.invoke(target, value);
+                setter.apply(target, setterValue.getValue());
             }
             catch (final ReflectiveOperationException e) {
                 throw new ReflectionException("Cannot set " + setterName +
@@ -197,25 +141,4 @@ private void applySetters(final T target, final Map<String, String> setterValues
         }
     }
 
-    private <T extends Enum<T>> Object convertValue(final String value, final Class<?> type) {
-        final Object result;
-
-        if (type == boolean.class) {
-            result = Boolean.valueOf(value);
-        }
-        else if (type == int.class) {
-            result = Integer.valueOf(value);
-        }
-        else if (type.isEnum()) {
-            @SuppressWarnings("unchecked")  // protected by type.isEnum() check
-            final Class<T> enumType = (Class<T>) type;
-            result = Enum.valueOf(enumType, value.toUpperCase());
-        }
-        else {
-            result = value;
-        }
-
-        return result;
-    }
-
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.commons.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Holds everything needed to create and configure instances of a class: the
+ * public setters with their value conversions and the constructors already
+ * chosen for the argument types seen so far. Constructors and setters are
+ * invoked through method handles.
+ * <p>
+ * Plans are created once per class and shared by all {@link ConfigurableClass}
+ * instances wrapping that class, so repeatedly loading the same class (e.g.
+ * when building several Metamorph instances from one morph definition) does
+ * not repeat the reflective lookups. Plans are thread-safe.
+ *
+ * @param <T> object type
+ */
+final class InstantiationPlan<T> {
+
+    private static final String SETTER_PREFIX = "set";
+    private static final Set<Class<?>> ELIGIBLE_TYPES = new HashSet<>(
+            Arrays.asList(boolean.class, int.class, String.class));
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<InstantiationPlan<?>> PLANS = new ClassValue<InstantiationPlan<?>>() {
+        @Override
+        protected InstantiationPlan<?> computeValue(final Class<?> type) {
+            return new InstantiationPlan<>(type);
+        }
+    };
+
+    private final Class<T> plainClass;
+    private final Constructor<?>[] constructors;
+    private final Map<String, Method> setters;
+    private final Map<String, Setter> setterPlans;
+    private final Map<List<Class<?>>, Creator<T>> creators = new ConcurrentHashMap<>();
+
+    private InstantiationPlan(final Class<T> plainClass) {
+        this.plainClass = plainClass;
+        constructors = plainClass.getConstructors();
+
+        final Map<String, Method> setterMethods = new HashMap<>();
+        for (final Method method : plainClass.getMethods()) {
+            if (isSetter(method)) {
+                final String setterName = method.getName().substring(
+                        SETTER_PREFIX.length()).toLowerCase();
+                setterMethods.put(setterName, method);
+            }
+        }
+        setters = Collections.unmodifiableMap(setterMethods);
+
+        setterPlans = new HashMap<>();
+        for (final Map.Entry<String, Method> entry : setters.entrySet()) {
+            setterPlans.put(entry.getKey(), new Setter(entry.getValue()));
+        }
+    }
+
+    /**
+     * Gets the plan for a class.
+     *
+     * @param <T>        object type
+     * @param plainClass the class
+     * @return the plan shared by all users of the class
+     */
+    @SuppressWarnings("unchecked")  // plans are created for the class they are stored for
+    static <T> InstantiationPlan<T> of(final Class<T> plainClass) {
+        return (InstantiationPlan<T>) PLANS.get(plainClass);
+    }
+
+    private static boolean isSetter(final Method method) {
+        if (method.getParameterTypes().length == 1) {
+            final Class<?> type = method.getParameterTypes()[0];
+            if (ELIGIBLE_TYPES.contains(type) || type.isEnum()) {
+                return method.getName().startsWith(SETTER_PREFIX);
+            }
+        }
+        return false;
+    }
+
+    Map<String, Method> getSetters() {
+        return setters;
+    }
+
+    /**
+     * Gets the setter for a property.
+     *
+     * @param setterName the lower-case name of the property
+     * @return the setter or null if the class has no setter for the property
+     */
+    Setter getSetter(final String setterName) {
+        return setterPlans.get(setterName);
+    }
+
+    /**
+     * Gets the creator using the first constructor that matches the types of
+     * the given arguments. The choice is remembered for the argument types.
+     *
+     * @param arguments the constructor arguments
+     * @return the creator
+     * @throws NoSuchMethodException  if no constructor matches the arguments
+     * @throws IllegalAccessException if the constructor is not accessible
+     */
+    Creator<T> getCreator(final Object[] arguments) throws NoSuchMethodException, IllegalAccessException {
+        final Class<?>[] argumentTypes = new Class<?>[arguments.length];
+        for (int i = 0; i < arguments.length; ++i) {
+            argumentTypes[i] = arguments[i].getClass();
+        }
+        final List<Class<?>> signature = Arrays.asList(argumentTypes);
+
+        Creator<T> creator = creators.get(signature);
+        if (creator == null) {
+            creator = new Creator<>(findConstructor(argumentTypes));
+            creators.putIfAbsent(signature, creator);
+        }
+        return creator;
+    }
+
+    private Constructor<?> findConstructor(final Class<?>[] argumentTypes) throws NoSuchMethodException {
+        for (final Constructor<?> constructor : constructors) {
+            if (checkArgumentTypes(constructor, argumentTypes)) {
+                return constructor;
+            }
+        }
+        throw new NoSuchMethodException(
+                "no appropriate constructor found for class " + plainClass);
+    }
+
+    private static boolean checkArgumentTypes(final Constructor<?> constructor, final Class<?>[] argumentTypes) { // checkstyle-disable-line ReturnCount
+        final Class<?>[] parameterTypes = constructor.getParameterTypes();
+        if (parameterTypes.length != argumentTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            if (!parameterTypes[i].isAssignableFrom(argumentTypes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <E extends Enum<E>> Function<String, Object> converterFor(final Class<?> type) {
+        final Function<String, Object> converter;
+
+        if (type == boolean.class) {
+            converter = Boolean::valueOf;
+        }
+        else if (type == int.class) {
+            converter = Integer::valueOf;
+        }
+        else if (type.isEnum()) {
+            @SuppressWarnings("unchecked")  // protected by type.isEnum() check
+            final Class<E> enumType = (Class<E>) type;
+            converter = value -> Enum.valueOf(enumType, value.toUpperCase());
+        }
+        else {
+            converter = value -> value;
+        }
+
+        return converter;
+    }
+
+    /**
+     * Invokes a constructor with a fixed number of arguments.
+     *
+     * @param <T> object type
+     */
+    static final class Creator<T> {
+
+        private final MethodHandle handle;
+
+        Creator(final Constructor<?> constructor) throws IllegalAccessException {
+            handle = MethodHandles.publicLookup().unreflectConstructor(constructor)
+                .asSpreader(Object[].class, constructor.getParameterCount())
+                .asType(CONSTRUCTOR_TYPE);
+        }
+
+        @SuppressWarnings("unchecked")  // handle is a constructor of T
+        T create(final Object[] arguments) throws InvocationTargetException {
+            try {
+                return (T) (Object) handle.invokeExact(arguments);
+            }
+            catch (final Throwable e) { // checkstyle-disable-line IllegalCatch
+                throw new InvocationTargetException(e);
+            }
+        }
+
+    }
+
+    /**
+     * Converts a string value to the parameter type of a setter and invokes
+     * the setter.
+     */
+    static final class Setter {
+
+        private final Method method;
+        private final MethodHandle handle;
+        private final Function<String, Object> converter;
+
+        Setter(final Method method) {
+            this.method = method;
+            converter = converterFor(method.getParameterTypes()[0]);
+
+            MethodHandle setterHandle;
+            try {
+                setterHandle = MethodHandles.publicLookup().unreflect(method).asType(SETTER_TYPE);
+            }
+            catch (final IllegalAccessException e) {
+                // Leave it to Method.invoke() to report the error if the setter is used
+                setterHandle = null;
+            }
+            handle = setterHandle;
+        }
+
+        void apply(final Object target, final String value) throws ReflectiveOperationException {
+            final Object convertedValue = converter.apply(value);
+            if (handle == null) {
+                method.invoke(target, convertedValue);
+                return;
+            }
+            try {
+                handle.invokeExact(target, convertedValue);
+            }
+            catch (final Throwable e) { // checkstyle-disable-line IllegalCatch
+                throw new InvocationTargetException(e);
+            }
+        }
+
+    }
+
+}
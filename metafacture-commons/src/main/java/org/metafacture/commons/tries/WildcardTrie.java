@@ -17,15 +17,25 @@
 package org.metafacture.commons.tries;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
 
 /**
  * A simple Trie, which accepts a trailing wildcard
+ * <p>
+ * Lookups run on a deterministic automaton whose states are sets of trie
+ * nodes. The states and their transitions are created on demand during
+ * lookups and reused afterwards, so that looking up a key whose characters
+ * have been seen before does not allocate any objects. Adding keys discards
+ * the automaton.
  *
  * @param <P> type of value stored
  * @author Markus Michael Geipel
@@ -38,10 +48,13 @@
     public static final String OR_STRING = "|";
 
     private static final Pattern OR_PATTERN = Pattern.compile(OR_STRING, Pattern.LITERAL);
-    private final Node<P> root = new Node<P>();
+    private static final int MAX_STATES = 10000;
 
-    private Set<Node<P>> nodes = new HashSet<Node<P>>();
-    private Set<Node<P>> nextNodes = new HashSet<Node<P>>();
+    private final Node<P> root = new Node<P>(0);
+    private int nodeCount = 1;
+
+    private final Map<StateKey, State<P>> states = new HashMap<>();
+    private State<P> initialState;
 
     /**
      * Creates an instance of {@link WildcardTrie}.
@@ -66,6 +79,8 @@ public void put(final String keys, final P value) {
         else {
             simplyPut(keys, value);
         }
+        states.clear();
+        initialState = null;
     }
 
     private void simplyPut(final String key, final P value) {
@@ -76,7 +91,8 @@ private void simplyPut(final String key, final P value) {
         for (int i = 0; i < length; ++i) {
             next = node.getNext(key.charAt(i));
             if (next == null) {
-                next = node.addNext(key.charAt(i));
+                next = node.addNext(key.charAt(i), nodeCount);
+                ++nodeCount;
             }
             node = next;
         }
@@ -84,59 +100,69 @@ private void simplyPut(final String key, final P value) {
     }
 
     /**
-     * Gets the List of values identified by a key.
+     * Gets the List of values identified by a key. The returned list must not
+     * be modified.
      *
      * @param key the key
      * @return the List of
      */
     public List<P> get(final String key) {
-        nodes.add(root);
+        if (initialState == null || states.size() > MAX_STATES) {
+            states.clear();
+            initialState = stateFor(Collections.singleton(root));
+        }
+        State<P> state = initialState;
         final int length = key.length();
-        for (int i = 0; i < length; ++i) {
-            for (final Node<P> node : nodes) {
-                Node<P> temp = node.getNext(key.charAt(i));
-                if (temp != null) {
-                    nextNodes.add(temp);
-                }
-                temp = node.getNext(Q_WILDCARD);
-                if (temp != null) {
-                    nextNodes.add(temp);
-                }
+        for (int i = 0; i < length && !state.isDead(); ++i) {
+            final char c = key.charAt(i);
+            State<P> next = state.transitions.get(c);
+            if (next == null) {
+                next = stateFor(step(state.nodes, c));
+                state.transitions.put(c, next);
+            }
+            state = next;
+        }
+        return state.values;
+    }
 
-                temp = node.getNext(STAR_WILDCARD);
-                if (temp != null) {
-                    nextNodes.add(temp);
-                    if (temp != node) {
-                        temp = temp.getNext(key.charAt(i));
-                        if (temp != null) {
-                            nextNodes.add(temp);
-                        }
+    private static <P> Set<Node<P>> step(final Node<P>[] nodes, final char c) {
+        final Set<Node<P>> nextNodes = new LinkedHashSet<>();
+        for (final Node<P> node : nodes) {
+            Node<P> temp = node.getNext(c);
+            if (temp != null) {
+                nextNodes.add(temp);
+            }
+            temp = node.getNext(Q_WILDCARD);
+            if (temp != null) {
+                nextNodes.add(temp);
+            }
+
+            temp = node.getNext(STAR_WILDCARD);
+            if (temp != null) {
+                nextNodes.add(temp);
+                if (temp != node) {
+                    temp = temp.getNext(c);
+                    if (temp != null) {
+                        nextNodes.add(temp);
                     }
                 }
             }
-            nodes.clear();
-            final Set<Node<P>> temp = nodes;
-            nodes = nextNodes;
-            nextNodes = temp;
         }
-
-        return matches();
+        return nextNodes;
     }
 
-    private List<P> matches() {
-        List<P> matches = Collections.emptyList();
+    private State<P> stateFor(final Set<Node<P>> nodes) {
+        final Map<Integer, Node<P>> sorted = new TreeMap<>();
         for (final Node<P> node : nodes) {
-            final Set<P> values = node.getValues();
-            if (!values.isEmpty()) {
-                if (matches == Collections.emptyList()) {
-                    matches = new ArrayList<P>();
-                }
-                matches.addAll(values);
-            }
+            sorted.put(node.id, node);
         }
-        nodes.clear();
-        nextNodes.clear();
-        return matches;
+        final int[] ids = new int[sorted.size()];
+        int i = 0;
+        for (final Integer id : sorted.keySet()) {
+            ids[i] = id;
+            ++i;
+        }
+        return states.computeIfAbsent(new StateKey(ids), k -> new State<>(sorted.values()));
     }
 
     /**
@@ -144,17 +170,18 @@ private List<P> matches() {
      *
      * @param <T> type of the value associated with this node.
      */
-    private final class Node<T> {
+    private static final class Node<T> {
 
+        private final int id;
         private Set<T> values =  Collections.emptySet();
         private final CharMap<Node<T>> links = new CharMap<Node<T>>();
 
-        protected Node() {
-            // nothing to do
+        Node(final int id) {
+            this.id = id;
         }
 
-        public Node<T> addNext(final char key) {
-            final Node<T> next = new Node<T>();
+        public Node<T> addNext(final char key, final int nextId) {
+            final Node<T> next = new Node<T>(nextId);
             links.put(key, next);
             if (key == STAR_WILDCARD) {
                 next.links.put(STAR_WILDCARD, next);
@@ -178,4 +205,61 @@ public Node<T> getNext(final char key) {
         }
     }
 
+    /**
+     * State of the automaton: the set of trie nodes reached by a key prefix
+     * together with the values of these nodes.
+     *
+     * @param <T> type of the value associated with the nodes.
+     */
+    private static final class State<T> {
+
+        private final Node<T>[] nodes;
+        private final List<T> values;
+        private final CharMap<State<T>> transitions = new CharMap<State<T>>();
+
+        @SuppressWarnings("unchecked")
+        State(final Collection<Node<T>> nodes) {
+            this.nodes = nodes.toArray(new Node[nodes.size()]);
+            List<T> matches = Collections.emptyList();
+            for (final Node<T> node : nodes) {
+                final Set<T> nodeValues = node.getValues();
+                if (!nodeValues.isEmpty()) {
+                    if (matches.isEmpty()) {
+                        matches = new ArrayList<T>();
+                    }
+                    matches.addAll(nodeValues);
+                }
+            }
+            values = matches.isEmpty() ? matches : Collections.unmodifiableList(matches);
+        }
+
+        boolean isDead() {
+            return nodes.length == 0;
+        }
+    }
+
+    /**
+     * Identifies a state by the ids of its nodes in ascending order.
+     */
+    private static final class StateKey {
+
+        private final int[] ids;
+        private final int hash;
+
+        StateKey(final int[] ids) {
+            this.ids = ids;
+            hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof StateKey && Arrays.equals(ids, ((StateKey) obj).ids);
+        }
+    }
+
 }
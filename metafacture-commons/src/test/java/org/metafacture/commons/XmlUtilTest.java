@@ -65,4 +65,22 @@ public void escape_shouldEscapeSurrogatePairsAsSingleEntity() {
         assertEquals("Smile: &#128521;", result);
     }
 
+    @Test
+    public void escape_shouldKeepSurrogatePairsIfUnicodeIsNotEscaped() {
+        final String unescaped = "Smile & \ud83d\ude09";
+
+        final String result = XmlUtil.escape(unescaped, false);
+
+        assertEquals("Smile &amp; \ud83d\ude09", result);
+    }
+
+    @Test
+    public void escape_shouldAppendToStringBuilder() {
+        final StringBuilder builder = new StringBuilder("<a>");
+
+        XmlUtil.escape(builder, "K\u00f8benhavn & \ud83d\ude09", false);
+
+        assertEquals("<a>K\u00f8benhavn &amp; \ud83d\ude09", builder.toString());
+    }
+
 }
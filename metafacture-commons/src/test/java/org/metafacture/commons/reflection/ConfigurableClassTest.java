@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.commons.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for class {@link ConfigurableClass}.
+ */
+public final class ConfigurableClassTest {
+
+    @Test
+    public void shouldConvertSetterValues() {
+        final Map<String, String> values = new HashMap<>();
+        values.put("flag", "true");
+        values.put("number", "42");
+        values.put("text", "Aloha");
+        values.put("mode", "fast");
+
+        final Configurable instance = new ConfigurableClass<>(Configurable.class).newInstance(values);
+
+        assertTrue(instance.flag);
+        assertEquals(42, instance.number);
+        assertEquals("Aloha", instance.text);
+        assertEquals(Mode.FAST, instance.mode);
+    }
+
+    @Test
+    public void shouldMatchSetterNamesIgnoringCase() {
+        final Map<String, String> values = new HashMap<>();
+        values.put("NUMBER", "23");
+
+        final Configurable instance = new ConfigurableClass<>(Configurable.class).newInstance(values);
+
+        assertEquals(23, instance.number);
+    }
+
+    @Test
+    public void shouldChooseConstructorMatchingArgumentTypes() {
+        final ConfigurableClass<Configurable> configurableClass = new ConfigurableClass<>(Configurable.class);
+        final Map<String, String> values = new HashMap<>();
+
+        assertEquals("Hawaii", configurableClass.newInstance(values, "Hawaii").text);
+        assertEquals(7, configurableClass.newInstance(values, Integer.valueOf(7)).number);
+        assertEquals("Hula", configurableClass.newInstance(values, "Hula").text);
+    }
+
+    @Test(expected = ReflectionException.class)
+    public void shouldThrowReflectionExceptionIfNoConstructorMatches() {
+        new ConfigurableClass<>(Configurable.class).newInstance(new HashMap<>(), Boolean.TRUE);
+    }
+
+    @Test(expected = ReflectionException.class)
+    public void shouldThrowReflectionExceptionIfSetterDoesNotExist() {
+        final Map<String, String> values = new HashMap<>();
+        values.put("missing", "value");
+
+        new ConfigurableClass<>(Configurable.class).newInstance(values);
+    }
+
+    @Test
+    public void shouldWrapExceptionsThrownBySetters() {
+        final Map<String, String> values = new HashMap<>();
+        values.put("failing", "value");
+
+        try {
+            new ConfigurableClass<>(Configurable.class).newInstance(values);
+        }
+        catch (final ReflectionException e) {
+            assertTrue(e.getCause() instanceof InvocationTargetException);
+            assertTrue(e.getCause().getCause() instanceof UnsupportedOperationException);
+            return;
+        }
+        throw new AssertionError("ReflectionException expected");
+    }
+
+    @Test
+    public void shouldShareSettersBetweenInstancesWrappingTheSameClass() {
+        assertSame(new ConfigurableClass<>(Configurable.class).getSetters(),
+                new ConfigurableClass<>(Configurable.class).getSetters());
+    }
+
+    @Test
+    public void shouldOnlyListEligibleSetters() {
+        final Map<String, Class<?>> setterTypes = new ConfigurableClass<>(Configurable.class).getSetterTypes();
+
+        assertEquals(boolean.class, setterTypes.get("flag"));
+        assertEquals(int.class, setterTypes.get("number"));
+        assertEquals(Mode.class, setterTypes.get("mode"));
+        assertEquals(5, setterTypes.size());
+    }
+
+    /**
+     * Values for an enum setter.
+     */
+    public enum Mode {
+        FAST, SLOW
+    }
+
+    /**
+     * A class with setters of all supported types.
+     */
+    public static final class Configurable {
+
+        private boolean flag;
+        private int number;
+        private String text;
+        private Mode mode;
+
+        public Configurable() {
+        }
+
+        public Configurable(final String text) {
+            this.text = text;
+        }
+
+        public Configurable(final Integer number) {
+            this.number = number.intValue();
+        }
+
+        public void setFlag(final boolean flag) {
+            this.flag = flag;
+        }
+
+        public void setNumber(final int number) {
+            this.number = number;
+        }
+
+        public void setText(final String text) {
+            this.text = text;
+        }
+
+        public void setMode(final Mode mode) {
+            this.mode = mode;
+        }
+
+        public void setFailing(final String value) {
+            throw new UnsupportedOperationException(value);
+        }
+
+        public void setIgnored(final Object value) {
+        }
+
+    }
+
+}
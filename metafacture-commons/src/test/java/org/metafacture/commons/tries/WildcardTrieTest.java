@@ -170,4 +170,26 @@ public void testWithOrAndWildcard() {
         assertTrue(AB + FOUND_BY + key, trie.get(AB).isEmpty());
     }
 
+    @Test
+    public void testPutAfterGet() {
+        trie.put(A_STAR_B, A_STAR_B);
+        assertEquals(1, trie.get(AACBB).size());
+
+        trie.put(AA_STAR_BB, AA_STAR_BB);
+        assertEquals(2, trie.get(AACBB).size());
+        assertTrue(trie.get(AACBB).contains(AA_STAR_BB));
+    }
+
+    @Test
+    public void testRepeatedGet() {
+        trie.put(A_STAR_B, A_STAR_B);
+        trie.put(AAQBB, AAQBB);
+
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(2, trie.get(AACBB).size());
+            assertTrue(trie.get(CCB).isEmpty());
+            assertEquals(1, trie.get(AB).size());
+        }
+    }
+
 }
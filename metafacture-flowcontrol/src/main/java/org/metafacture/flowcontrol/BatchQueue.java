@@ -0,0 +1,296 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands objects from one producer thread to one consumer thread in batches.
+ * <p>
+ * Batches are stored in an array-based ring buffer whose batch arrays are
+ * allocated once and reused. The producer fills the array of the next free
+ * slot and publishes it once it is full. The consumer reads the batch at the
+ * head of the ring and frees the slot after it has passed the objects on.
+ * Both threads therefore exchange objects without allocating and only touch
+ * the shared indices once per batch.
+ * <p>
+ * The number of objects in the batch which is being filled is kept in an
+ * atomic counter which the producer advances with a compare-and-set for
+ * each object. If the consumer finds the ring buffer empty for longer than
+ * the flush timeout, it takes over the incomplete batch by closing the
+ * counter with a compare-and-set of its own and publishes the batch itself.
+ * Objects are therefore passed on within the flush timeout even if the
+ * producer adds no further objects.
+ */
+final class BatchQueue {
+
+    // Value of the fill counter once the batch has been published:
+    private static final int CLOSED = -1;
+
+    private final Object[][] ring;
+    private final int[] lengths;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicInteger openFill = new AtomicInteger(CLOSED);
+    private final WaitStrategy waitStrategy;
+    private final long flushTimeoutNanos;
+
+    private final int batchSize;
+    private Object[] batch;
+    private long batchIndex;
+    private int batchFill;
+
+    private Object[] takenBatch;
+
+    private volatile Thread waitingProducer;
+    private volatile Thread waitingConsumer;
+
+    private volatile long addedCount;
+    private volatile long claimedCount;
+    private volatile long takenCount;
+    private volatile long batchCount;
+    private volatile long maxDepth;
+
+    BatchQueue(final int capacity, final int batchSize, final WaitStrategy waitStrategy,
+            final long flushTimeout, final TimeUnit unit) {
+        final int batches = Math.max(2, (capacity + batchSize - 1) / batchSize);
+        ring = new Object[Integer.highestOneBit(batches)][batchSize];
+        lengths = new int[ring.length];
+        mask = ring.length - 1;
+        this.batchSize = batchSize;
+        this.waitStrategy = waitStrategy;
+        flushTimeoutNanos = unit.toNanos(flushTimeout);
+    }
+
+    /**
+     * Adds an object to the current batch. Publishes the batch if it is
+     * full. Must only be called by the producer thread.
+     *
+     * @param obj the object to add
+     * @throws InterruptedException if the producer is interrupted while
+     *                              waiting for space in the ring buffer
+     */
+    void add(final Object obj) throws InterruptedException {
+        if (batch == null) {
+            openBatch();
+        }
+        batch[batchFill] = obj;
+        if (!openFill.compareAndSet(batchFill, batchFill + 1)) {
+            // The consumer took over the batch without this object:
+            batch[batchFill] = null;
+            batchTakenOver();
+            add(obj);
+            return;
+        }
+        ++batchFill;
+        if (batchFill == batchSize) {
+            publish();
+        }
+    }
+
+    /**
+     * Publishes the current batch even if it is not full. Must only be called
+     * by the producer thread.
+     */
+    void flush() {
+        if (batchFill > 0) {
+            publish();
+        }
+    }
+
+    /**
+     * Waits for the next batch. The objects in the batch are read with
+     * {@link #get(int)}. The batch must be released with {@link #release()}
+     * before the next batch is taken. If no batch is published within the
+     * flush timeout, the incomplete batch of the producer is taken. Must only
+     * be called by the consumer thread.
+     *
+     * @return the number of objects in the batch
+     * @throws InterruptedException if the consumer is interrupted while
+     *                              waiting
+     */
+    int take() throws InterruptedException {
+        final long index = head.get();
+        if (index == tail.get()) {
+            awaitBatch(index);
+        }
+        takenBatch = ring[(int) index & mask];
+        ++batchCount;
+        return lengths[(int) index & mask];
+    }
+
+    /**
+     * Gets an object of the batch taken last.
+     *
+     * @param i the position of the object in the batch
+     * @return the object
+     */
+    Object get(final int i) {
+        return takenBatch[i];
+    }
+
+    /**
+     * Releases the batch taken last so that its slot can be reused by the
+     * producer. Must only be called by the consumer thread.
+     */
+    void release() {
+        final long index = head.get();
+        final int slot = (int) index & mask;
+        final int length = lengths[slot];
+        Arrays.fill(takenBatch, 0, length, null);
+        takenBatch = null;
+        takenCount += length;
+        head.set(index + 1);
+        wakeUp(waitingProducer);
+    }
+
+    /**
+     * Gets the number of objects which were taken by the consumer.
+     *
+     * @return the number of objects taken
+     */
+    long getTakenCount() {
+        return takenCount;
+    }
+
+    /**
+     * Gets the number of batches which were handed to the consumer.
+     *
+     * @return the number of batches
+     */
+    long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Gets the number of objects which were published but not yet released
+     * by the consumer.
+     *
+     * @return the current queue depth
+     */
+    long getDepth() {
+        return addedCount + claimedCount - takenCount;
+    }
+
+    /**
+     * Gets the highest queue depth seen when a batch was published.
+     *
+     * @return the maximum queue depth
+     */
+    long getMaxDepth() {
+        return maxDepth;
+    }
+
+    private void openBatch() throws InterruptedException {
+        final long index = tail.get();
+        if (index - head.get() > mask) {
+            awaitSpace(index);
+        }
+        batch = ring[(int) index & mask];
+        batchIndex = index;
+        openFill.set(0);
+    }
+
+    private void publish() {
+        if (!openFill.compareAndSet(batchFill, CLOSED)) {
+            batchTakenOver();
+            return;
+        }
+        lengths[(int) batchIndex & mask] = batchFill;
+        tail.set(batchIndex + 1);
+        wakeUp(waitingConsumer);
+
+        addedCount += batchFill;
+        maxDepth = Math.max(maxDepth, getDepth());
+        batch = null;
+        batchFill = 0;
+    }
+
+    private void batchTakenOver() {
+        // The consumer publishes the batch right after closing it:
+        while (tail.get() == batchIndex) {
+            Thread.yield();
+        }
+        batch = null;
+        batchFill = 0;
+    }
+
+    private void awaitSpace(final long index) throws InterruptedException {
+        waitingProducer = Thread.currentThread();
+        try {
+            while (index - head.get() > mask) {
+                waitStrategy.idle(this);
+                checkInterrupted();
+            }
+        }
+        finally {
+            waitingProducer = null;
+        }
+    }
+
+    private void awaitBatch(final long index) throws InterruptedException {
+        final long deadline = System.nanoTime() + flushTimeoutNanos;
+        waitingConsumer = Thread.currentThread();
+        try {
+            while (index == tail.get()) {
+                if (System.nanoTime() - deadline >= 0 && takeOverBatch()) {
+                    break;
+                }
+                waitStrategy.idle(this);
+                checkInterrupted();
+            }
+        }
+        finally {
+            waitingConsumer = null;
+        }
+    }
+
+    /**
+     * Closes the incomplete batch of the producer and publishes it. The
+     * batch is at the tail of the ring buffer: the producer does not advance
+     * the tail while its batch is open.
+     */
+    private boolean takeOverBatch() {
+        final int fill = openFill.get();
+        if (fill <= 0 || !openFill.compareAndSet(fill, CLOSED)) {
+            return false;
+        }
+        final long index = tail.get();
+        lengths[(int) index & mask] = fill;
+        claimedCount += fill;
+        tail.set(index + 1);
+        return true;
+    }
+
+    private void wakeUp(final Thread thread) {
+        if (thread != null && waitStrategy == WaitStrategy.BLOCK) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.ObjectPipe;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+
+/**
+ * Joins the branches of an {@link ObjectParallelizer} and passes their
+ * results on to a single receiver. The receiver is only called by one thread
+ * at a time. If the parallelizer restores the input order, results are
+ * passed on in the order of the input objects which produced them.
+ * <p>
+ * Objects which do not originate from a parallelizer's worker thread are
+ * passed on immediately.
+ *
+ * @param <T> object type
+ */
+@In(Object.class)
+@Out(Object.class)
+@Description("Joins the branches of parallel-object and passes their results on to a single receiver.")
+@FluxCommand("merge-object")
+public final class ObjectMerger<T> implements ObjectPipe<T, ObjectReceiver<T>> {
+
+    private ObjectReceiver<T> receiver;
+
+    /**
+     * Creates an instance of {@link ObjectMerger}.
+     */
+    public ObjectMerger() {
+    }
+
+    @Override
+    public <R extends ObjectReceiver<T>> R setReceiver(final R newReceiver) {
+        receiver = newReceiver;
+        return newReceiver;
+    }
+
+    @Override
+    public void process(final T obj) {
+        if (!ObjectSequencer.emit(() -> passOn(obj))) {
+            passOn(obj);
+        }
+    }
+
+    private synchronized void passOn(final T obj) {
+        receiver.process(obj);
+    }
+
+    @Override
+    public synchronized void resetStream() {
+        if (ObjectSequencer.isForwardingLifeCycleEvents()) {
+            receiver.resetStream();
+        }
+    }
+
+    @Override
+    public synchronized void closeStream() {
+        if (ObjectSequencer.isForwardingLifeCycleEvents()) {
+            receiver.closeStream();
+        }
+    }
+
+}
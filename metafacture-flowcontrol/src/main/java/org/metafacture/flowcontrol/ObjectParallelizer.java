@@ -0,0 +1,351 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.ObjectPipe;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.Tee;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Distributes incoming objects to a pool of worker threads. Each added
+ * receiver forms a branch which is run by its own worker thread. Unlike
+ * {@link ObjectThreader} the objects are not assigned round-robin: all
+ * workers take their next object from a shared queue as soon as they are
+ * idle, so a slow object only blocks the worker processing it.
+ * <p>
+ * The branches should end in a common {@link ObjectMerger}, which passes the
+ * results of all branches on to a single receiver:
+ * <pre>
+ * parallel-object
+ * | { decode-marc21 | encode-json }{ decode-marc21 | encode-json }
+ * | merge-object
+ * | write("out.json");
+ * </pre>
+ * If {@link #setOrdered(boolean)} is true (the default), the merger passes
+ * the results on in the order of the corresponding input objects. Results
+ * emitted by a branch are buffered until the results of all preceding
+ * objects have been passed on. The number of objects in flight is limited by
+ * {@link #setCapacity(int)}, the number of buffered results by
+ * {@link #setBufferSize(int)}. A branch emitting a result while the buffer is
+ * full waits until the preceding objects have been passed on.
+ * <p>
+ * Life cycle events are sent to all branches but forwarded only once by the
+ * merger.
+ *
+ * @param <T> object type
+ */
+@In(Object.class)
+@Out(Object.class)
+@Description("Incoming objects are processed by the added receivers, each running in its own thread. Idle threads take the next object. Use merge-object to join the branches.")
+@FluxCommand("parallel-object")
+public final class ObjectParallelizer<T> implements Tee<ObjectReceiver<T>>, ObjectPipe<T, ObjectReceiver<T>> {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final boolean DEFAULT_ORDERED = true;
+    public static final int DEFAULT_BUFFER_SIZE = 10000;
+
+    private static final String THREAD_NAME_PREFIX = "parallel-object-";
+
+    private final List<ObjectReceiver<T>> receivers = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final BlockingQueue<Item<T>> queue = new LinkedBlockingQueue<>();
+
+    private int capacity = DEFAULT_CAPACITY;
+    private boolean ordered = DEFAULT_ORDERED;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private ObjectSequencer sequencer;
+
+    /**
+     * Creates an instance of {@link ObjectParallelizer}.
+     */
+    public ObjectParallelizer() {
+    }
+
+    /**
+     * Sets the maximum number of objects which are processed or wait to be
+     * passed on at the same time.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_CAPACITY}</strong>
+     * <p>
+     * The parameter must not be changed after the first object was received.
+     *
+     * @param capacity the maximum number of objects in flight
+     */
+    public void setCapacity(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("'capacity' must be at least 1");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the maximum number of objects in flight.
+     *
+     * @return the maximum number of objects in flight
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Controls whether the merger passes results on in the order of the input
+     * objects.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_ORDERED}</strong>
+     * <p>
+     * The parameter must not be changed after the first object was received.
+     *
+     * @param ordered true if the input order should be restored
+     */
+    public void setOrdered(final boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    /**
+     * Checks whether the input order is restored.
+     *
+     * @return true if the input order is restored
+     */
+    public boolean getOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Sets the maximum number of results which are buffered to restore the
+     * input order. Only used if {@link #setOrdered(boolean)} is true.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_BUFFER_SIZE}</strong>
+     * <p>
+     * The parameter must not be changed after the first object was received.
+     *
+     * @param bufferSize the maximum number of buffered results
+     */
+    public void setBufferSize(final int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("'bufferSize' must be at least 1");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Gets the maximum number of buffered results.
+     *
+     * @return the maximum number of buffered results
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public void process(final T obj) {
+        if (workers.isEmpty()) {
+            start();
+        }
+        rethrowFailure();
+        try {
+            queue.put(new Item<>(sequencer.acquire(), obj));
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void start() {
+        if (receivers.isEmpty()) {
+            throw new IllegalStateException("No receivers were added.");
+        }
+        sequencer = new ObjectSequencer(ordered, capacity, bufferSize);
+        for (final ObjectReceiver<T> receiver : receivers) {
+            final Thread worker = new Thread(new Worker<>(receiver, queue, sequencer));
+            worker.setName(THREAD_NAME_PREFIX + workers.size());
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @Override
+    public Tee<ObjectReceiver<T>> addReceiver(final ObjectReceiver<T> receiver) {
+        requireNotRunning();
+        receivers.add(receiver);
+        return this;
+    }
+
+    @Override
+    public <R extends ObjectReceiver<T>> R setReceiver(final R receiver) {
+        clearReceivers();
+        addReceiver(receiver);
+        return receiver;
+    }
+
+    @Override
+    public <R extends ObjectReceiver<T>> R setReceivers(final R receiver, final ObjectReceiver<T> lateralReceiver) {
+        clearReceivers();
+        addReceiver(receiver);
+        addReceiver(lateralReceiver);
+        return receiver;
+    }
+
+    @Override
+    public Tee<ObjectReceiver<T>> removeReceiver(final ObjectReceiver<T> receiver) {
+        requireNotRunning();
+        receivers.remove(receiver);
+        return this;
+    }
+
+    @Override
+    public Tee<ObjectReceiver<T>> clearReceivers() {
+        requireNotRunning();
+        receivers.clear();
+        return this;
+    }
+
+    private void requireNotRunning() {
+        if (!workers.isEmpty()) {
+            throw new IllegalStateException("Receivers cannot be changed while processing threads are running.");
+        }
+    }
+
+    @Override
+    public void resetStream() {
+        if (sequencer != null) {
+            sequencer.awaitIdle();
+        }
+        forwardLifeCycleEvent(ObjectReceiver::resetStream);
+        rethrowFailure();
+    }
+
+    @Override
+    public void closeStream() {
+        for (int i = 0; i < workers.size(); ++i) {
+            queue.add(Item.endOfStream());
+        }
+        try {
+            for (final Thread worker : workers) {
+                worker.join();
+            }
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.clear();
+        forwardLifeCycleEvent(ObjectReceiver::closeStream);
+        rethrowFailure();
+    }
+
+    private void forwardLifeCycleEvent(final Consumer<ObjectReceiver<T>> event) {
+        final int last = receivers.size() - 1;
+        for (int i = 0; i <= last; ++i) {
+            final ObjectReceiver<T> receiver = receivers.get(i);
+            ObjectSequencer.runLifeCycleEvent(i == last, () -> event.accept(receiver));
+        }
+    }
+
+    private void rethrowFailure() {
+        final RuntimeException e = sequencer == null ? null : sequencer.takeFailure();
+        if (e != null) {
+            throw new MetafactureException("Error in parallel-object worker thread: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * An object together with its sequence number.
+     *
+     * @param <T> object type
+     */
+    private static final class Item<T> {
+
+        private static final Item<?> END_OF_STREAM = new Item<>(-1, null);
+
+        private final long number;
+        private final T obj;
+
+        Item(final long number, final T obj) {
+            this.number = number;
+            this.obj = obj;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> Item<T> endOfStream() {
+            return (Item<T>) END_OF_STREAM;
+        }
+
+        boolean isEndOfStream() {
+            return this == END_OF_STREAM;
+        }
+
+    }
+
+    /**
+     * Takes objects from the shared queue and pushes them into the worker's
+     * branch.
+     *
+     * @param <T> object type
+     */
+    private static final class Worker<T> implements Runnable {
+
+        private final ObjectReceiver<T> receiver;
+        private final BlockingQueue<Item<T>> queue;
+        private final ObjectSequencer sequencer;
+
+        Worker(final ObjectReceiver<T> receiver, final BlockingQueue<Item<T>> queue,
+                final ObjectSequencer sequencer) {
+            this.receiver = receiver;
+            this.queue = queue;
+            this.sequencer = sequencer;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Item<T> item = queue.take();
+                while (!item.isEndOfStream()) {
+                    process(item);
+                    item = queue.take();
+                }
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void process(final Item<T> item) {
+            sequencer.begin(item.number);
+            try {
+                receiver.process(item.obj);
+            }
+            catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
+                sequencer.fail(e);
+            }
+            finally {
+                sequencer.complete(item.number);
+            }
+        }
+
+    }
+
+}
@@ -28,9 +28,18 @@
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Creates a new thread in which subsequent flow elements run.
+ * <p>
+ * By default objects are handed to the new thread one by one. If
+ * {@link #setBatchSize(int)} is greater than one, objects are collected in
+ * batches which are handed over at once through a ring buffer. This reduces
+ * the synchronisation costs per object considerably when many small objects
+ * are passed on. Once the receiving thread has been idle for the flush
+ * timeout, it takes over the incomplete batch, so objects are passed on
+ * within the flush timeout even if the input pauses.
  *
  * @param <T> Object type
  *
@@ -44,19 +53,32 @@
 public final class ObjectPipeDecoupler<T> implements ObjectPipe<T, ObjectReceiver<T>> {
 
     public static final int DEFAULT_CAPACITY = 10000;
+    public static final int DEFAULT_BATCH_SIZE = 1;
+    public static final WaitStrategy DEFAULT_WAIT_STRATEGY = WaitStrategy.BLOCK;
+    public static final int DEFAULT_FLUSH_TIMEOUT = 10;
+
     private static final Logger LOG = LoggerFactory.getLogger(ObjectPipeDecoupler.class);
+    private static final double NANOS_PER_SECOND = 1e9;
 
     private final BlockingQueue<Object> queue;
+    private final int capacity;
     private Thread thread;
     private ObjectReceiver<T> receiver;
     private boolean debug;
 
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private WaitStrategy waitStrategy = DEFAULT_WAIT_STRATEGY;
+    private int flushTimeout = DEFAULT_FLUSH_TIMEOUT;
+    private BatchQueue batchQueue;
+    private BatchFeeder<T> batchFeeder;
+    private long startTime;
+
     /**
      * Creates an instance of {@link ObjectPipeDecoupler} by setting a default
      * capacity of {@value #DEFAULT_CAPACITY}.
      */
     public ObjectPipeDecoupler() {
-        queue = new LinkedBlockingQueue<>(DEFAULT_CAPACITY);
+        this(DEFAULT_CAPACITY);
     }
 
     /**
@@ -65,6 +87,7 @@ public ObjectPipeDecoupler() {
      * @param capacity the capacity
      */
     public ObjectPipeDecoupler(final int capacity) {
+        this.capacity = capacity;
         queue = new LinkedBlockingQueue<>(capacity);
     }
 
@@ -74,7 +97,7 @@ public ObjectPipeDecoupler(final int capacity) {
      * @param capacity the capacity as String. Will be parsed as integer.
      */
     public ObjectPipeDecoupler(final String capacity) {
-        queue = new LinkedBlockingQueue<>(Integer.parseInt(capacity));
+        this(Integer.parseInt(capacity));
     }
 
     /**
@@ -86,6 +109,110 @@ public void setDebug(final boolean debug) {
         this.debug = debug;
     }
 
+    /**
+     * Sets the number of objects which are handed to the processing thread
+     * at once. A batch size of one disables batching.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_BATCH_SIZE}</strong>
+     * <p>
+     * The parameter must not be changed after the first object was received.
+     *
+     * @param batchSize the number of objects per batch
+     */
+    public void setBatchSize(final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("'batchSize' must be at least 1");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the number of objects which are handed to the processing thread
+     * at once.
+     *
+     * @return the number of objects per batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets how the threads wait for each other if batching is enabled.
+     * <p>
+     * <strong>Default value: {@link WaitStrategy#BLOCK}</strong>
+     * <p>
+     * The parameter must not be changed after the first object was received.
+     *
+     * @param waitStrategy the wait strategy
+     */
+    public void setWaitStrategy(final WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Gets how the threads wait for each other if batching is enabled.
+     *
+     * @return the wait strategy
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Sets the time in milliseconds after which an idle processing thread
+     * takes over the incomplete batch.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_FLUSH_TIMEOUT}</strong>
+     * <p>
+     * The parameter must not be changed after the first object was received.
+     *
+     * @param flushTimeout the flush timeout in milliseconds
+     */
+    public void setFlushTimeout(final int flushTimeout) {
+        this.flushTimeout = flushTimeout;
+    }
+
+    /**
+     * Gets the time in milliseconds after which an idle processing thread
+     * takes over the incomplete batch.
+     *
+     * @return the flush timeout in milliseconds
+     */
+    public int getFlushTimeout() {
+        return flushTimeout;
+    }
+
+    /**
+     * Gets the number of objects which were passed on by the processing
+     * thread. Only counted if batching is enabled.
+     *
+     * @return the number of objects passed on
+     */
+    public long getProcessedCount() {
+        return batchFeeder == null ? 0 : batchFeeder.processedCount;
+    }
+
+    /**
+     * Gets the number of objects which wait to be passed on by the processing
+     * thread. If batching is enabled, objects in the batch which is being
+     * filled are not included.
+     *
+     * @return the current queue depth
+     */
+    public long getQueueDepth() {
+        return batchQueue == null ? queue.size() : batchQueue.getDepth();
+    }
+
+    /**
+     * Gets the highest number of objects which waited to be passed on at the
+     * same time. Only recorded if batching is enabled.
+     *
+     * @return the maximum queue depth
+     */
+    public long getMaxQueueDepth() {
+        return batchQueue == null ? 0 : batchQueue.getMaxDepth();
+    }
+
     @Override
     public void process(final T obj) {
 
@@ -93,6 +220,10 @@ public void process(final T obj) {
             start();
         }
         try {
+            if (batchQueue != null) {
+                batchQueue.add(obj);
+                return;
+            }
             queue.put(obj);
             if (debug) {
                 LOG.info("Current buffer size: {}", queue.size());
@@ -104,7 +235,17 @@ public void process(final T obj) {
     }
 
     private void start() {
-        thread = new Thread(new Feeder<T>(receiver, queue));
+        if (batchSize > 1) {
+            batchQueue = new BatchQueue(capacity, batchSize, waitStrategy, flushTimeout, TimeUnit.MILLISECONDS);
+            batchFeeder = new BatchFeeder<>(receiver, batchQueue);
+            thread = new Thread(batchFeeder);
+        }
+        else {
+            batchQueue = null;
+            batchFeeder = null;
+            thread = new Thread(new Feeder<T>(receiver, queue));
+        }
+        startTime = System.nanoTime();
         thread.start();
     }
 
@@ -121,6 +262,10 @@ public <R extends ObjectReceiver<T>> R setReceiver(final R newReceiver) {
     @Override
     public void resetStream() {
         try {
+            if (batchSize > 1) {
+                putSignal(Feeder.BLUE_PILL);
+                return;
+            }
             queue.put(Feeder.BLUE_PILL);
         }
         catch (final InterruptedException e) {
@@ -131,13 +276,37 @@ public void resetStream() {
     @Override
     public void closeStream() {
         try {
-            queue.put(Feeder.RED_PILL);
+            if (batchSize > 1) {
+                putSignal(Feeder.RED_PILL);
+            }
+            else {
+                queue.put(Feeder.RED_PILL);
+            }
             thread.join();
         }
         catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
         }
         thread = null;
+        if (debug && batchFeeder != null) {
+            logStatistics();
+        }
+    }
+
+    private void putSignal(final Object signal) throws InterruptedException {
+        if (null == thread) {
+            start();
+        }
+        batchQueue.add(signal);
+        batchQueue.flush();
+    }
+
+    private void logStatistics() {
+        final long processed = batchFeeder.processedCount;
+        final double seconds = (System.nanoTime() - startTime) / NANOS_PER_SECOND;
+        LOG.info("Passed on {} objects in {} batches ({} objects/s), maximum queue depth: {}",
+                processed, batchQueue.getBatchCount(), Math.round(processed / seconds),
+                batchQueue.getMaxDepth());
     }
 
     /**
@@ -181,4 +350,65 @@ public void run() {
             }
         }
     }
+
+    /**
+     * Pushes the batches in the {@link BatchQueue} to the receiver.
+     *
+     * @param <T> the type of objects the {@link ObjectPipeDecoupler} works on
+     */
+    static final class BatchFeeder<T> implements Runnable {
+
+        private final ObjectReceiver<T> receiver;
+        private final BatchQueue queue;
+        private volatile long processedCount;
+
+        BatchFeeder(final ObjectReceiver<T> receiver, final BatchQueue queue) {
+            this.receiver = receiver;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            try {
+                boolean running = true;
+                while (running) {
+                    final int length = queue.take();
+                    try {
+                        running = feed(length);
+                    }
+                    finally {
+                        queue.release();
+                    }
+                }
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        // OK because queue is only filled with T by Decoupler<T>
+        private boolean feed(final int length) {
+            long count = processedCount;
+            for (int i = 0; i < length; ++i) {
+                final Object object = queue.get(i);
+                if (Feeder.RED_PILL == object) {
+                    processedCount = count;
+                    receiver.closeStream();
+                    return false;
+                }
+                if (Feeder.BLUE_PILL == object) {
+                    receiver.resetStream();
+                }
+                else {
+                    receiver.process((T) object);
+                    ++count;
+                }
+            }
+            processedCount = count;
+            return true;
+        }
+
+    }
+
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Assigns sequence numbers to the objects distributed by an
+ * {@link ObjectParallelizer} and serialises the results which arrive at an
+ * {@link ObjectMerger}.
+ * <p>
+ * The worker threads of the parallelizer announce which object they are
+ * processing via a thread-local position. Results emitted while processing
+ * an object are passed on immediately if all preceding objects have been
+ * completed. Otherwise they are buffered until the preceding objects are
+ * completed. In unordered mode results are passed on immediately. In both
+ * modes only one result is passed on at a time.
+ * <p>
+ * The number of objects which have been handed out but not yet passed on is
+ * limited by the capacity of the sequencer. The number of buffered results is
+ * limited by the buffer size: a worker thread emitting a result for an object
+ * which cannot be passed on yet blocks while the buffer is full until its
+ * object becomes the head of the sequence or buffered results are passed on.
+ * The worker processing the head object never blocks, so the sequence always
+ * makes progress.
+ */
+final class ObjectSequencer {
+
+    private static final ThreadLocal<Position> POSITION = new ThreadLocal<>();
+
+    private final boolean ordered;
+    private final int capacity;
+    private final int bufferSize;
+    private final Semaphore inFlight;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private final Map<Long, Slot> slots = new HashMap<>();
+    private long head;
+    private long next;
+    private int buffered;
+
+    ObjectSequencer(final boolean ordered, final int capacity, final int bufferSize) {
+        this.ordered = ordered;
+        this.capacity = capacity;
+        this.bufferSize = bufferSize;
+        inFlight = new Semaphore(capacity);
+    }
+
+    /**
+     * Hands an emission to the sequencer of the object which is processed by
+     * the calling thread.
+     *
+     * @param emission the emission to pass on
+     * @return false if the calling thread is not processing an object
+     *         distributed by a sequencer
+     */
+    static boolean emit(final Runnable emission) {
+        final Position position = POSITION.get();
+        if (position == null || position.sequencer == null) {
+            return false;
+        }
+        position.sequencer.emit(position.number, emission);
+        return true;
+    }
+
+    /**
+     * Checks whether a life cycle event arriving at a merge point in the
+     * calling thread should be forwarded. A parallelizer closes or resets all
+     * of its branches but only the event from the last branch is forwarded.
+     *
+     * @return true if the life cycle event should be forwarded
+     */
+    static boolean isForwardingLifeCycleEvents() {
+        final Position position = POSITION.get();
+        return position == null || position.forwardLifeCycleEvents;
+    }
+
+    /**
+     * Runs a life cycle event in the calling thread.
+     *
+     * @param forward whether merge points should forward the event
+     * @param event   the life cycle event
+     */
+    static void runLifeCycleEvent(final boolean forward, final Runnable event) {
+        POSITION.set(new Position(null, -1, forward));
+        try {
+            event.run();
+        }
+        finally {
+            POSITION.remove();
+        }
+    }
+
+    long acquire() throws InterruptedException {
+        inFlight.acquire();
+        final long number = next;
+        ++next;
+        return number;
+    }
+
+    void begin(final long number) {
+        POSITION.set(new Position(this, number, true));
+    }
+
+    void complete(final long number) {
+        POSITION.remove();
+        synchronized (slots) {
+            if (ordered) {
+                slotFor(number).completed = true;
+                passOnCompleted();
+            }
+            else {
+                inFlight.release();
+            }
+        }
+    }
+
+    void awaitIdle() {
+        inFlight.acquireUninterruptibly(capacity);
+        inFlight.release(capacity);
+    }
+
+    void fail(final RuntimeException e) {
+        failure.compareAndSet(null, e);
+    }
+
+    RuntimeException takeFailure() {
+        return failure.getAndSet(null);
+    }
+
+    private void emit(final long number, final Runnable emission) {
+        synchronized (slots) {
+            if (ordered) {
+                awaitBufferSpace(number);
+            }
+            if (!ordered || number == head) {
+                emission.run();
+            }
+            else {
+                slotFor(number).emissions.add(emission);
+                ++buffered;
+            }
+        }
+    }
+
+    private void awaitBufferSpace(final long number) {
+        while (number != head && buffered >= bufferSize) {
+            try {
+                slots.wait();
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Slot slotFor(final long number) {
+        return slots.computeIfAbsent(Long.valueOf(number), k -> new Slot());
+    }
+
+    private void passOnCompleted() {
+        Slot slot = slots.get(Long.valueOf(head));
+        while (slot != null && slot.completed) {
+            slots.remove(Long.valueOf(head));
+            ++head;
+            inFlight.release();
+            slot = slots.get(Long.valueOf(head));
+            if (slot != null) {
+                flush(slot);
+            }
+            slots.notifyAll();
+        }
+    }
+
+    private void flush(final Slot slot) {
+        for (final Runnable emission : slot.emissions) {
+            try {
+                emission.run();
+            }
+            catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
+                fail(e);
+            }
+        }
+        buffered -= slot.emissions.size();
+        slot.emissions.clear();
+    }
+
+    /**
+     * Results of an object which cannot be passed on yet.
+     */
+    private static final class Slot {
+
+        private final List<Runnable> emissions = new ArrayList<>();
+        private boolean completed;
+
+        Slot() {
+        }
+
+    }
+
+    /**
+     * The object which is processed by the current thread.
+     */
+    private static final class Position {
+
+        private final ObjectSequencer sequencer;
+        private final long number;
+        private final boolean forwardLifeCycleEvents;
+
+        Position(final ObjectSequencer sequencer, final long number,
+                final boolean forwardLifeCycleEvents) {
+            this.sequencer = sequencer;
+            this.number = number;
+            this.forwardLifeCycleEvents = forwardLifeCycleEvents;
+        }
+
+    }
+
+}
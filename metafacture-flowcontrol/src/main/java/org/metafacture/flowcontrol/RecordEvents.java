@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import org.metafacture.framework.StreamReceiver;
+
+import java.util.Arrays;
+
+/**
+ * Stores the events of a single record in two arrays so that they can be
+ * replayed on another thread. Unlike {@link StreamBuffer} no list nodes or
+ * boxed values are created and the arrays are reused after
+ * {@link #clear()}.
+ */
+final class RecordEvents {
+
+    private static final byte START_RECORD = 0;
+    private static final byte END_RECORD = 1;
+    private static final byte START_ENTITY = 2;
+    private static final byte END_ENTITY = 3;
+    private static final byte LITERAL = 4;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private String[] values = new String[INITIAL_CAPACITY];
+    private int typeCount;
+    private int valueCount;
+
+    RecordEvents() {
+    }
+
+    void startRecord(final String identifier) {
+        add(START_RECORD);
+        add(identifier);
+    }
+
+    void endRecord() {
+        add(END_RECORD);
+    }
+
+    void startEntity(final String name) {
+        add(START_ENTITY);
+        add(name);
+    }
+
+    void endEntity() {
+        add(END_ENTITY);
+    }
+
+    void literal(final String name, final String value) {
+        add(LITERAL);
+        add(name);
+        add(value);
+    }
+
+    /**
+     * Sends the stored events to the receiver.
+     *
+     * @param receiver the receiver of the events
+     */
+    void replay(final StreamReceiver receiver) {
+        int index = 0;
+        for (int i = 0; i < typeCount; ++i) {
+            switch (types[i]) {
+                case START_RECORD:
+                    receiver.startRecord(values[index]);
+                    ++index;
+                    break;
+                case END_RECORD:
+                    receiver.endRecord();
+                    break;
+                case START_ENTITY:
+                    receiver.startEntity(values[index]);
+                    ++index;
+                    break;
+                case END_ENTITY:
+                    receiver.endEntity();
+                    break;
+                default:
+                    receiver.literal(values[index], values[index + 1]);
+                    index += 2;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Removes all events but keeps the arrays for reuse.
+     */
+    void clear() {
+        Arrays.fill(values, 0, valueCount, null);
+        typeCount = 0;
+        valueCount = 0;
+    }
+
+    private void add(final byte type) {
+        if (typeCount == types.length) {
+            types = Arrays.copyOf(types, typeCount * 2);
+        }
+        types[typeCount] = type;
+        ++typeCount;
+    }
+
+    private void add(final String value) {
+        if (valueCount == values.length) {
+            values = Arrays.copyOf(values, valueCount * 2);
+        }
+        values[valueCount] = value;
+        ++valueCount;
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.StreamPipe;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Creates a new thread in which subsequent stream modules run. This allows
+ * to run, for instance, decoding and transformation of records on separate
+ * processor cores.
+ * <p>
+ * The events of each record are collected in a compact buffer which is
+ * handed to the new thread as a whole once the record is complete. At most
+ * {@code capacity} records wait to be replayed. If the queue is full the
+ * sending thread blocks until the receiving thread has caught up. Record
+ * buffers are reused after they have been replayed.
+ * <p>
+ * Exceptions thrown by the receiver are rethrown in the sending thread at
+ * the next record or when the stream is closed.
+ */
+@In(StreamReceiver.class)
+@Out(StreamReceiver.class)
+@Description("Creates a new thread in which subsequent stream modules run. Complete records are handed over to the new thread.")
+@FluxCommand("decouple-stream")
+public final class StreamDecoupler implements StreamPipe<StreamReceiver> {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private static final Object RED_PILL = new Object();
+    private static final Object BLUE_PILL = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final BlockingQueue<RecordEvents> freeBuffers;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private StreamReceiver receiver;
+    private Thread thread;
+    private RecordEvents currentRecord;
+
+    /**
+     * Creates an instance of {@link StreamDecoupler} with a capacity of
+     * {@value #DEFAULT_CAPACITY} records.
+     */
+    public StreamDecoupler() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an instance of {@link StreamDecoupler} with the given capacity.
+     *
+     * @param capacity the maximum number of records waiting to be replayed
+     */
+    public StreamDecoupler(final int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+        freeBuffers = new ArrayBlockingQueue<>(capacity + 1);
+    }
+
+    /**
+     * Creates an instance of {@link StreamDecoupler} with the given capacity.
+     *
+     * @param capacity the capacity as String. Will be parsed as integer.
+     */
+    public StreamDecoupler(final String capacity) {
+        this(Integer.parseInt(capacity));
+    }
+
+    @Override
+    public <R extends StreamReceiver> R setReceiver(final R newReceiver) {
+        if (null != thread) {
+            throw new IllegalStateException("Receiver cannot be changed while processing thread is running.");
+        }
+
+        receiver = newReceiver;
+        return newReceiver;
+    }
+
+    @Override
+    public void startRecord(final String identifier) {
+        rethrowFailure();
+        final RecordEvents buffer = freeBuffers.poll();
+        currentRecord = buffer == null ? new RecordEvents() : buffer;
+        currentRecord.startRecord(identifier);
+    }
+
+    @Override
+    public void endRecord() {
+        currentRecord.endRecord();
+        put(currentRecord);
+        currentRecord = null;
+    }
+
+    @Override
+    public void startEntity(final String name) {
+        currentRecord.startEntity(name);
+    }
+
+    @Override
+    public void endEntity() {
+        currentRecord.endEntity();
+    }
+
+    @Override
+    public void literal(final String name, final String value) {
+        currentRecord.literal(name, value);
+    }
+
+    @Override
+    public void resetStream() {
+        currentRecord = null;
+        put(BLUE_PILL);
+    }
+
+    @Override
+    public void closeStream() {
+        put(RED_PILL);
+        try {
+            thread.join();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        rethrowFailure();
+    }
+
+    private void put(final Object item) {
+        if (null == thread) {
+            thread = new Thread(new Feeder(receiver, queue, freeBuffers, failure));
+            thread.start();
+        }
+        try {
+            queue.put(item);
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void rethrowFailure() {
+        final RuntimeException e = failure.getAndSet(null);
+        if (e != null) {
+            throw new MetafactureException("Error in decoupled stream: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replays the records in the queue to the receiver.
+     */
+    private static final class Feeder implements Runnable {
+
+        private final StreamReceiver receiver;
+        private final BlockingQueue<Object> queue;
+        private final BlockingQueue<RecordEvents> freeBuffers;
+        private final AtomicReference<RuntimeException> failure;
+
+        Feeder(final StreamReceiver receiver, final BlockingQueue<Object> queue,
+                final BlockingQueue<RecordEvents> freeBuffers,
+                final AtomicReference<RuntimeException> failure) {
+            this.receiver = receiver;
+            this.queue = queue;
+            this.freeBuffers = freeBuffers;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Object item = queue.take();
+                while (RED_PILL != item) {
+                    feed(item);
+                    item = queue.take();
+                }
+                receiver.closeStream();
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        private void feed(final Object item) {
+            if (failure.get() == null) {
+                try {
+                    if (BLUE_PILL == item) {
+                        receiver.resetStream();
+                    }
+                    else {
+                        ((RecordEvents) item).replay(receiver);
+                    }
+                }
+                catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
+                    // Keep draining the queue so that the sender does not block
+                    failure.compareAndSet(null, e);
+                }
+            }
+            if (item instanceof RecordEvents) {
+                final RecordEvents record = (RecordEvents) item;
+                record.clear();
+                freeBuffers.offer(record);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Determines how a thread waits for the other side of a hand-off queue
+ * (see {@link ObjectPipeDecoupler#setWaitStrategy(WaitStrategy)}).
+ */
+public enum WaitStrategy {
+
+    /**
+     * Parks the waiting thread until it is woken up by the other side. Uses
+     * no CPU while waiting but adds latency for waking up the thread.
+     */
+    BLOCK {
+        @Override
+        void idle(final Object blocker) {
+            LockSupport.parkNanos(blocker, PARK_NANOS);
+        }
+    },
+
+    /**
+     * Yields the processor while waiting. Reacts faster than {@link #BLOCK}
+     * but keeps the waiting thread runnable.
+     */
+    YIELD {
+        @Override
+        void idle(final Object blocker) {
+            Thread.yield();
+        }
+    },
+
+    /**
+     * Busy-spins while waiting. Gives the lowest latency but occupies a
+     * processor core for each waiting thread.
+     */
+    SPIN {
+        @Override
+        void idle(final Object blocker) {
+            // Just check again
+        }
+    };
+
+    private static final long PARK_NANOS = 1_000_000L;
+
+    /**
+     * Waits for a short time before the caller checks its condition again.
+     *
+     * @param blocker the object the thread is waiting on
+     */
+    abstract void idle(Object blocker);
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.helpers.DefaultObjectPipe;
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for classes {@link ObjectParallelizer} and {@link ObjectMerger}.
+ */
+public final class ObjectParallelizerTest {
+
+    private static final int OBJECT_COUNT = 200;
+    private static final int BRANCH_COUNT = 3;
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private ObjectReceiver<String> receiver;
+
+    private ObjectParallelizer<String> parallelizer;
+
+    @Before
+    public void setup() {
+        parallelizer = new ObjectParallelizer<>();
+        parallelizer.setCapacity(16);
+        final ObjectMerger<String> merger = new ObjectMerger<>();
+        merger.setReceiver(receiver);
+        for (int i = 0; i < BRANCH_COUNT; ++i) {
+            final Delayer branch = new Delayer();
+            branch.setReceiver(merger);
+            parallelizer.addReceiver(branch);
+        }
+    }
+
+    @Test
+    public void shouldPassOnObjectsInInputOrder() {
+        sendObjects();
+        parallelizer.closeStream();
+
+        final InOrder ordered = inOrder(receiver);
+        for (int i = 0; i < OBJECT_COUNT; ++i) {
+            ordered.verify(receiver).process(String.valueOf(i));
+        }
+        ordered.verify(receiver).closeStream();
+        ordered.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void shouldPassOnAllObjectsIfNotOrdered() {
+        parallelizer.setOrdered(false);
+
+        sendObjects();
+        parallelizer.closeStream();
+
+        for (int i = 0; i < OBJECT_COUNT; ++i) {
+            verify(receiver).process(String.valueOf(i));
+        }
+        verify(receiver).closeStream();
+    }
+
+    @Test
+    public void shouldForwardResetStreamOnlyOnce() {
+        sendObjects();
+        parallelizer.resetStream();
+        parallelizer.closeStream();
+
+        verify(receiver, times(OBJECT_COUNT)).process(any());
+        verify(receiver).resetStream();
+        verify(receiver).closeStream();
+    }
+
+    @Test
+    public void shouldLimitBufferedResultsInOrderedMode() {
+        final int resultsPerObject = 50;
+        final int bufferSize = 10;
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicInteger maxOutstanding = new AtomicInteger();
+        final StringBuilder results = new StringBuilder();
+
+        final ObjectMerger<String> merger = new ObjectMerger<>();
+        merger.setReceiver(new DefaultObjectReceiver<String>() {
+
+            @Override
+            public void process(final String obj) {
+                outstanding.decrementAndGet();
+                results.append(obj).append(' ');
+            }
+
+        });
+        final ObjectParallelizer<String> bounded = new ObjectParallelizer<>();
+        bounded.setCapacity(16);
+        bounded.setBufferSize(bufferSize);
+        for (int i = 0; i < BRANCH_COUNT; ++i) {
+            final DefaultObjectPipe<String, ObjectReceiver<String>> branch =
+                    new DefaultObjectPipe<String, ObjectReceiver<String>>() {
+
+                @Override
+                public void process(final String obj) {
+                    for (int j = 0; j < resultsPerObject; ++j) {
+                        maxOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+                        getReceiver().process(obj);
+                    }
+                }
+
+            };
+            branch.setReceiver(merger);
+            bounded.addReceiver(branch);
+        }
+
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < OBJECT_COUNT; ++i) {
+            bounded.process(String.valueOf(i));
+            for (int j = 0; j < resultsPerObject; ++j) {
+                expected.append(i).append(' ');
+            }
+        }
+        bounded.closeStream();
+
+        assertEquals(expected.toString(), results.toString());
+        assertTrue(maxOutstanding.get() <= bufferSize + BRANCH_COUNT);
+    }
+
+    @Test(expected = MetafactureException.class)
+    public void shouldRethrowExceptionsFromWorkerThreads() {
+        doThrow(new IllegalStateException("failure")).when(receiver).process(any());
+
+        sendObjects();
+        parallelizer.closeStream();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAllowAddingReceiversWhileWorkersAreRunning() {
+        parallelizer.process("0");
+
+        try {
+            parallelizer.addReceiver(new Delayer());
+        }
+        finally {
+            parallelizer.closeStream();
+        }
+    }
+
+    private void sendObjects() {
+        for (int i = 0; i < OBJECT_COUNT; ++i) {
+            parallelizer.process(String.valueOf(i));
+        }
+    }
+
+    /**
+     * Passes objects on after a delay which depends on the object so that
+     * later objects are often completed before earlier ones.
+     */
+    private static final class Delayer extends DefaultObjectPipe<String, ObjectReceiver<String>> {
+
+        @Override
+        public void process(final String obj) {
+            if (Integer.parseInt(obj) % 7 == 0) {
+                try {
+                    Thread.sleep(2);
+                }
+                catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            getReceiver().process(obj);
+        }
+
+    }
+
+}
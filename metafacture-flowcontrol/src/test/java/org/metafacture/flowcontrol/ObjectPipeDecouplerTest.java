@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the batch mode of class {@link ObjectPipeDecoupler}.
+ */
+public final class ObjectPipeDecouplerTest {
+
+    private static final int OBJECT_COUNT = 1000;
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private ObjectReceiver<String> receiver;
+
+    private ObjectPipeDecoupler<String> decoupler;
+
+    @Before
+    public void setup() {
+        decoupler = new ObjectPipeDecoupler<>(100);
+        decoupler.setBatchSize(16);
+        decoupler.setReceiver(receiver);
+    }
+
+    @Test
+    public void shouldPassOnObjectsAndEventsInOrder() {
+        sendObjects();
+        decoupler.resetStream();
+        sendObjects();
+        decoupler.closeStream();
+
+        final InOrder ordered = inOrder(receiver);
+        verifyObjects(ordered);
+        ordered.verify(receiver).resetStream();
+        verifyObjects(ordered);
+        ordered.verify(receiver).closeStream();
+        ordered.verifyNoMoreInteractions();
+        assertThat(decoupler.getProcessedCount()).isEqualTo(2 * OBJECT_COUNT);
+        assertThat(decoupler.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldPassOnIncompleteBatchIfProducerStalls() {
+        decoupler.setFlushTimeout(1);
+
+        decoupler.process("a");
+        decoupler.process("b");
+
+        verify(receiver, timeout(1000)).process("a");
+        verify(receiver, timeout(1000)).process("b");
+
+        decoupler.process("c");
+        decoupler.closeStream();
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process("a");
+        ordered.verify(receiver).process("b");
+        ordered.verify(receiver).process("c");
+        ordered.verify(receiver).closeStream();
+        ordered.verifyNoMoreInteractions();
+        assertThat(decoupler.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotLoseObjectsIfIncompleteBatchesAreTakenOver() {
+        final List<String> received = new ArrayList<>();
+        final ObjectPipeDecoupler<String> takingOverDecoupler = new ObjectPipeDecoupler<>(100);
+        takingOverDecoupler.setBatchSize(16);
+        takingOverDecoupler.setFlushTimeout(0);
+        takingOverDecoupler.setWaitStrategy(WaitStrategy.SPIN);
+        takingOverDecoupler.setReceiver(new DefaultObjectReceiver<String>() {
+            @Override
+            public void process(final String obj) {
+                received.add(obj);
+            }
+        });
+
+        final int count = 100 * OBJECT_COUNT;
+        for (int i = 0; i < count; ++i) {
+            takingOverDecoupler.process(String.valueOf(i));
+        }
+        takingOverDecoupler.closeStream();
+
+        assertThat(received).hasSize(count);
+        for (int i = 0; i < count; ++i) {
+            assertThat(received.get(i)).isEqualTo(String.valueOf(i));
+        }
+        assertThat(takingOverDecoupler.getProcessedCount()).isEqualTo(count);
+    }
+
+    @Test
+    public void shouldSupportAllWaitStrategies() {
+        for (final WaitStrategy waitStrategy : WaitStrategy.values()) {
+            decoupler.setWaitStrategy(waitStrategy);
+            sendObjects();
+            decoupler.closeStream();
+        }
+
+        assertThat(decoupler.getMaxQueueDepth()).isLessThanOrEqualTo(100);
+    }
+
+    private void sendObjects() {
+        for (int i = 0; i < OBJECT_COUNT; ++i) {
+            decoupler.process(String.valueOf(i));
+        }
+    }
+
+    private void verifyObjects(final InOrder ordered) {
+        for (int i = 0; i < OBJECT_COUNT; ++i) {
+            ordered.verify(receiver).process(String.valueOf(i));
+        }
+    }
+
+}
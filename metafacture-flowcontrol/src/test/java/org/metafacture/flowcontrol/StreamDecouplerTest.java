@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flowcontrol;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.StreamReceiver;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+/**
+ * Tests for class {@link StreamDecoupler}.
+ */
+public final class StreamDecouplerTest {
+
+    private static final int RECORD_COUNT = 100;
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private StreamReceiver receiver;
+
+    private StreamDecoupler decoupler;
+
+    @Before
+    public void setup() {
+        decoupler = new StreamDecoupler(4);
+        decoupler.setReceiver(receiver);
+    }
+
+    @Test
+    public void shouldReplayAllEventsInOrder() {
+        sendRecords();
+        decoupler.resetStream();
+        sendRecords();
+        decoupler.closeStream();
+
+        final InOrder ordered = inOrder(receiver);
+        verifyRecords(ordered);
+        ordered.verify(receiver).resetStream();
+        verifyRecords(ordered);
+        ordered.verify(receiver).closeStream();
+        ordered.verifyNoMoreInteractions();
+    }
+
+    @Test(expected = MetafactureException.class)
+    public void shouldRethrowExceptionsFromReceiver() {
+        doThrow(new IllegalStateException("failure")).when(receiver).literal(any(), any());
+
+        sendRecords();
+        decoupler.closeStream();
+    }
+
+    private void sendRecords() {
+        for (int i = 0; i < RECORD_COUNT; ++i) {
+            decoupler.startRecord(String.valueOf(i));
+            decoupler.startEntity("entity");
+            decoupler.literal("literal", "value" + i);
+            decoupler.endEntity();
+            decoupler.endRecord();
+        }
+    }
+
+    private void verifyRecords(final InOrder ordered) {
+        for (int i = 0; i < RECORD_COUNT; ++i) {
+            ordered.verify(receiver).startRecord(String.valueOf(i));
+            ordered.verify(receiver).startEntity("entity");
+            ordered.verify(receiver).literal("literal", "value" + i);
+            ordered.verify(receiver).endEntity();
+            ordered.verify(receiver).endRecord();
+        }
+    }
+
+}
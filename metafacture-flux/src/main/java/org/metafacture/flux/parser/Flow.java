@@ -45,10 +45,24 @@ final class Flow {
     Flow() {
     }
 
-    @SuppressWarnings("unchecked")
     public void addElement(final Receiver nextElement) {
+        addElement(nextElement, nextElement);
+    }
+
+    /**
+     * Adds an element whose events are received by another receiver, e.g. a
+     * wrapper measuring the events. The receiver is connected to the
+     * previous element while the element itself is used to connect the next
+     * element.
+     *
+     * @param nextElement the element to add
+     * @param input       the receiver passing the events on to the element
+     */
+    @SuppressWarnings("unchecked")
+    public void addElement(final Receiver nextElement, final Receiver input) {
         if (element == null) {
-            setStart((ObjectReceiver<? extends Object>) nextElement);
+            start = (ObjectReceiver<? extends Object>) input;
+            element = nextElement;
             return;
         }
         if (element instanceof Sender) {
@@ -57,20 +71,20 @@ public void addElement(final Receiver nextElement) {
                 teeStack.pop();
                 for (final LifeCycle looseEnd : looseEndsStack.pop()) {
                     if (looseEnd instanceof Tee) {
-                        ((Tee) looseEnd).addReceiver(nextElement);
+                        ((Tee) looseEnd).addReceiver(input);
                     }
                     else {
-                        ((Sender) looseEnd).setReceiver(nextElement);
+                        ((Sender) looseEnd).setReceiver(input);
                     }
                 }
                 joinLooseEnds = false;
             }
             else {
                 if (sender instanceof Tee) {
-                    ((Tee) sender).addReceiver(nextElement);
+                    ((Tee) sender).addReceiver(input);
                 }
                 else {
-                    sender.setReceiver(nextElement);
+                    sender.setReceiver(input);
                 }
             }
         }
@@ -22,7 +22,10 @@
 import org.metafacture.commons.reflection.ReflectionUtil;
 import org.metafacture.flux.FluxParseException;
 import org.metafacture.flux.HelpPrinter;
+import org.metafacture.framework.MetafactureException;
 import org.metafacture.framework.Receiver;
+import org.metafacture.monitoring.MetricsRegistry;
+import org.metafacture.monitoring.MetricsReporter;
 
 import java.io.IOException;
 import java.io.PrintStream;
@@ -35,6 +38,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Markus Michael Geipel
@@ -42,6 +50,41 @@
  */
 public final class FluxProgramm {
 
+    /**
+     * System property which enables the collection of metrics for every
+     * pipeline element (see {@link #getMetrics()}).
+     */
+    public static final String METRICS_PROPERTY = "flux.metrics";
+
+    /**
+     * System property naming the file to which metrics snapshots are written
+     * in the Prometheus text format.
+     */
+    public static final String METRICS_FILE_PROPERTY = "flux.metrics.file";
+
+    /**
+     * System property setting the port on which metrics are served via HTTP
+     * on the loopback interface.
+     */
+    public static final String METRICS_PORT_PROPERTY = "flux.metrics.port";
+
+    /**
+     * System property which enables registering the metrics as MXBeans.
+     */
+    public static final String METRICS_JMX_PROPERTY = "flux.metrics.jmx";
+
+    /**
+     * System property setting the interval between metrics snapshots in
+     * seconds.
+     */
+    public static final String METRICS_INTERVAL_PROPERTY = "flux.metrics.interval";
+
+    /**
+     * System property setting the number of threads on which the initial
+     * flows are run (see {@link #setThreads(int)}).
+     */
+    public static final String THREADS_PROPERTY = "flux.threads";
+
     private static final ObjectFactory<Receiver> COMMAND_FACTORY = new ObjectFactory<Receiver>();
     private static final String PROPERTIES_LOCATION = "flux-commands.properties";
 
@@ -64,10 +107,72 @@ public final class FluxProgramm {
     private final Map<String, Wormhole> wormholeNameMapping = new HashMap<String, Wormhole>();
     private final Map<Flow, Wormhole> wormholeInFlowMapping = new Hashtable<Flow, Wormhole>();
 
+    private final List<WormholeJoin<?>> joins = new ArrayList<WormholeJoin<?>>();
+    private boolean wormholesConnected;
+
+    private final MetricsRegistry metrics;
+    private int stageCount;
+    private int threads;
+
     /**
-     * Creates an instance of {@link FluxProgramm}.
+     * Creates an instance of {@link FluxProgramm}. Metrics are collected if
+     * the system property {@value #METRICS_PROPERTY} is true. The initial
+     * flows are run on the number of threads given by the system property
+     * {@value #THREADS_PROPERTY}.
      */
     public FluxProgramm() {
+        this(Boolean.getBoolean(METRICS_PROPERTY) ? new MetricsRegistry() : null);
+    }
+
+    /**
+     * Creates an instance of {@link FluxProgramm} which collects metrics for
+     * every pipeline element in the given registry.
+     *
+     * @param metrics the registry for the metrics or null if no metrics
+     *                should be collected
+     */
+    public FluxProgramm(final MetricsRegistry metrics) {
+        this.metrics = metrics;
+        setThreads(Integer.getInteger(THREADS_PROPERTY, 1));
+    }
+
+    /**
+     * Sets the number of threads on which the initial flows are run. With a
+     * single thread (the default), the flows are run one after another on the
+     * thread calling {@link #start()}. With more threads, independent flows
+     * run concurrently. Flows ending in the same wormhole then take turns in
+     * passing whole records to it, and the stream of the wormhole is closed
+     * once all of them have finished.
+     * <p>
+     * The value must be set before {@link #start()} is called.
+     *
+     * @param threads the number of threads, at least 1
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Gets the number of threads on which the initial flows are run.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets the registry containing the metrics of the pipeline elements.
+     * The stages are named after their Flux command and their position in
+     * the Flux script, e.g. {@code decode-xml#2}.
+     *
+     * @return the metrics registry or null if no metrics are collected
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
     }
 
     private static Receiver createElement(final String name, final Map<String, String> namedArgs,
@@ -87,7 +192,14 @@ private static Receiver createElement(final String name, final Map<String, Strin
     }
 
     protected void addElement(final String name, final Map<String, String> namedArgs, final List<Object> cArgs) {
-        currentFlow.addElement(createElement(name, namedArgs, cArgs));
+        final Receiver element = createElement(name, namedArgs, cArgs);
+        if (metrics != null) {
+            stageCount += 1;
+            currentFlow.addElement(element, metrics.instrument(name + "#" + stageCount, element));
+        }
+        else {
+            currentFlow.addElement(element);
+        }
     }
 
     protected void startTee() {
@@ -152,18 +264,88 @@ protected void compile() {
             if (wormhole.getOut() == null) {
                 throw new FluxParseException("Wormhole " + wormhole.getName() + " is going nowhere");
             }
+        }
+    }
+
+    private void connectWormholes() {
+        if (wormholesConnected) {
+            return;
+        }
+        wormholesConnected = true;
+
+        for (final Wormhole wormhole : wormholeNameMapping.values()) {
+            final Receiver target;
+            if (isParallel()) {
+                final WormholeJoin<?> join = WormholeJoin.create(wormhole.getOut().getFirst(),
+                        wormhole.getIns().size());
+                joins.add(join);
+                target = join;
+            }
+            else {
+                target = wormhole.getOut().getFirst();
+            }
 
             for (final Flow flow : wormhole.getIns()) {
 
-                flow.addElement(wormhole.getOut().getFirst());
+                flow.addElement(target);
             }
         }
     }
 
+    private boolean isParallel() {
+        return threads > 1 && initialFlows.size() > 1;
+    }
+
     /**
-     * Starts all flows.
+     * Starts all flows. If metrics are collected, they are exported as
+     * configured by the {@value #METRICS_FILE_PROPERTY},
+     * {@value #METRICS_PORT_PROPERTY}, {@value #METRICS_JMX_PROPERTY} and
+     * {@value #METRICS_INTERVAL_PROPERTY} system properties while the flows
+     * are running.
      */
     public void start() {
+        connectWormholes();
+        final MetricsReporter reporter = startMetricsReporter();
+        try {
+            if (isParallel()) {
+                startFlowsConcurrently();
+            }
+            else {
+                startFlows();
+            }
+        }
+        finally {
+            if (reporter != null) {
+                try {
+                    reporter.close();
+                }
+                catch (final IOException e) {
+                    throw new MetafactureException("Could not write metrics", e);
+                }
+            }
+        }
+    }
+
+    private MetricsReporter startMetricsReporter() {
+        if (metrics == null) {
+            return null;
+        }
+
+        final MetricsReporter reporter = new MetricsReporter(metrics);
+        reporter.setFile(System.getProperty(METRICS_FILE_PROPERTY));
+        reporter.setPort(Integer.getInteger(METRICS_PORT_PROPERTY, MetricsReporter.DISABLED));
+        reporter.setJmx(Boolean.getBoolean(METRICS_JMX_PROPERTY));
+        reporter.setInterval(Long.getLong(METRICS_INTERVAL_PROPERTY, MetricsReporter.DEFAULT_INTERVAL));
+        try {
+            reporter.start();
+        }
+        catch (final IOException e) {
+            throw new MetafactureException("Could not start metrics reporter", e);
+        }
+        return reporter;
+    }
+
+    private void startFlows() {
         for (final Flow flow : initialFlows) {
             flow.start();
             if (!wormholeInFlowMapping.containsKey(flow)) {
@@ -175,6 +357,61 @@ public void start() {
         }
     }
 
+    private void startFlowsConcurrently() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, initialFlows.size()), r -> {
+            final Thread thread = new Thread(r, "flux-flow-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final Flow flow : initialFlows) {
+                futures.add(executor.submit(() -> runFlow(flow)));
+            }
+            for (final Future<?> future : futures) {
+                awaitFlow(future);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runFlow(final Flow flow) {
+        try {
+            flow.start();
+            flow.close();
+        }
+        finally {
+            // A failing flow must not keep the other flows out of a wormhole:
+            for (final WormholeJoin<?> join : joins) {
+                join.releaseLocks();
+            }
+        }
+    }
+
+    private static void awaitFlow(final Future<?> future) {
+        try {
+            future.get();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MetafactureException("Interrupted while waiting for flows", e);
+        }
+        catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MetafactureException(cause);
+        }
+    }
+
     /**
      * Prints the help to the given PrintStream.
      *
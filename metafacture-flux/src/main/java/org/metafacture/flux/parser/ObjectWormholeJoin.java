@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flux.parser;
+
+import org.metafacture.framework.ObjectReceiver;
+
+/**
+ * Joins flows of {@link ObjectReceiver}s at a wormhole. Each object is a
+ * record of its own.
+ *
+ * @param <T> object type
+ */
+final class ObjectWormholeJoin<T> extends WormholeJoin<ObjectReceiver<T>> implements ObjectReceiver<T> {
+
+    ObjectWormholeJoin(final ObjectReceiver<T> target, final int inputs) {
+        super(target, inputs);
+    }
+
+    @Override
+    public void process(final T obj) {
+        final boolean locked = startEvent();
+        try {
+            getTarget().process(obj);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flux.parser;
+
+import org.metafacture.framework.StreamReceiver;
+
+/**
+ * Joins flows of {@link StreamReceiver}s at a wormhole.
+ */
+final class StreamWormholeJoin extends WormholeJoin<StreamReceiver> implements StreamReceiver {
+
+    StreamWormholeJoin(final StreamReceiver target, final int inputs) {
+        super(target, inputs);
+    }
+
+    @Override
+    public void startRecord(final String identifier) {
+        startRecord();
+        boolean started = false;
+        try {
+            getTarget().startRecord(identifier);
+            started = true;
+        }
+        finally {
+            if (!started) {
+                endRecord(false);
+            }
+        }
+    }
+
+    @Override
+    public void endRecord() {
+        final boolean locked = startEvent();
+        try {
+            getTarget().endRecord();
+        }
+        finally {
+            endRecord(locked);
+        }
+    }
+
+    @Override
+    public void startEntity(final String name) {
+        final boolean locked = startEvent();
+        try {
+            getTarget().startEntity(name);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void endEntity() {
+        final boolean locked = startEvent();
+        try {
+            getTarget().endEntity();
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void literal(final String name, final String value) {
+        final boolean locked = startEvent();
+        try {
+            getTarget().literal(name, value);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+}
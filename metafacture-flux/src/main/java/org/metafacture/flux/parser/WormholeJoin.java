@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flux.parser;
+
+import org.metafacture.flux.FluxParseException;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.Receiver;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.XmlReceiver;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Joins flows running on different threads at a wormhole. The join passes
+ * the events of all input flows to the first element of the output flow,
+ * one input flow at a time: once an input flow has started a record (or an
+ * XML document), the other input flows wait until it has ended it. Events
+ * within a record are forwarded by the input flow holding the record
+ * without further locking; all other events are forwarded one at a time.
+ * <p>
+ * {@code closeStream} is only passed on when all input flows have closed
+ * their streams. Likewise, {@code resetStream} is only passed on when all
+ * open input flows have reset their streams, so that no input flow is reset
+ * in the middle of its stream by another one.
+ *
+ * @param <R> type of the first element of the output flow
+ */
+abstract class WormholeJoin<R extends Receiver> implements Receiver {
+
+    private final R target;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int openInputs;
+    private int resetInputs;
+
+    WormholeJoin(final R target, final int inputs) {
+        this.target = target;
+        openInputs = inputs;
+    }
+
+    /**
+     * Creates a join for the type of receiver implemented by the first
+     * element of the output flow.
+     *
+     * @param target the first element of the output flow
+     * @param inputs the number of input flows
+     * @return a receiver implementing the same receiver interface as the
+     *         first element of the output flow
+     */
+    @SuppressWarnings("unchecked")
+    static WormholeJoin<?> create(final Receiver target, final int inputs) {
+        final boolean isStreamReceiver = target instanceof StreamReceiver;
+        final boolean isObjectReceiver = target instanceof ObjectReceiver;
+        final boolean isXmlReceiver = target instanceof XmlReceiver;
+
+        if (isStreamReceiver && !isObjectReceiver && !isXmlReceiver) {
+            return new StreamWormholeJoin((StreamReceiver) target, inputs);
+        }
+        if (isObjectReceiver && !isStreamReceiver && !isXmlReceiver) {
+            return new ObjectWormholeJoin<>((ObjectReceiver<Object>) target, inputs);
+        }
+        if (isXmlReceiver && !isStreamReceiver && !isObjectReceiver) {
+            return new XmlWormholeJoin((XmlReceiver) target, inputs);
+        }
+        throw new FluxParseException("Flows cannot be joined at " + target.getClass().getCanonicalName());
+    }
+
+    protected final R getTarget() {
+        return target;
+    }
+
+    /**
+     * Releases the lock if the current thread still holds it because its
+     * flow failed in the middle of a record.
+     */
+    void releaseLocks() {
+        while (lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until no other input flow is in a record. Must be followed by
+     * {@link #endEvent(boolean)}.
+     *
+     * @return true if the lock was acquired for this event only, false if
+     *         the current input flow already holds it for a record
+     */
+    protected final boolean startEvent() {
+        if (lock.isHeldByCurrentThread()) {
+            return false;
+        }
+        lock.lock();
+        return true;
+    }
+
+    /**
+     * Ends an event started with {@link #startEvent()}.
+     *
+     * @param locked the value returned by {@link #startEvent()}
+     */
+    protected final void endEvent(final boolean locked) {
+        if (locked) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until no other input flow is in a record and keeps the other
+     * input flows out until {@link #endRecord(boolean)} is called.
+     */
+    protected final void startRecord() {
+        lock.lock();
+    }
+
+    /**
+     * Lets the other input flows in again.
+     *
+     * @param locked the value returned by {@link #startEvent()} for the
+     *               event ending the record
+     */
+    protected final void endRecord(final boolean locked) {
+        endEvent(locked);
+        if (lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void resetStream() {
+        lock.lock();
+        try {
+            ++resetInputs;
+            if (resetInputs >= openInputs) {
+                resetInputs = 0;
+                target.resetStream();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void closeStream() {
+        lock.lock();
+        try {
+            --openInputs;
+            if (openInputs == 0) {
+                target.closeStream();
+            }
+            else if (resetInputs > 0 && resetInputs >= openInputs) {
+                resetInputs = 0;
+                target.resetStream();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flux.parser;
+
+import org.metafacture.framework.XmlReceiver;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import java.io.IOException;
+
+/**
+ * Joins flows of {@link XmlReceiver}s at a wormhole. Each document is a
+ * record.
+ */
+final class XmlWormholeJoin extends WormholeJoin<XmlReceiver> implements XmlReceiver {
+
+    XmlWormholeJoin(final XmlReceiver target, final int inputs) {
+        super(target, inputs);
+    }
+
+    @Override
+    public void setDocumentLocator(final Locator locator) {
+        final boolean locked = startEvent();
+        try {
+            getTarget().setDocumentLocator(locator);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        startRecord();
+        boolean started = false;
+        try {
+            getTarget().startDocument();
+            started = true;
+        }
+        finally {
+            if (!started) {
+                endRecord(false);
+            }
+        }
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().endDocument();
+        }
+        finally {
+            endRecord(locked);
+        }
+    }
+
+    @Override
+    public void startPrefixMapping(final String prefix, final String uri) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().startPrefixMapping(prefix, uri);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void endPrefixMapping(final String prefix) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().endPrefixMapping(prefix);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void startElement(final String uri, final String localName, final String qName,
+            final Attributes atts) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().startElement(uri, localName, qName, atts);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void endElement(final String uri, final String localName, final String qName)
+            throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().endElement(uri, localName, qName);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void characters(final char[] ch, final int start, final int length) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().characters(ch, start, length);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void ignorableWhitespace(final char[] ch, final int start, final int length)
+            throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().ignorableWhitespace(ch, start, length);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void processingInstruction(final String target, final String data) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().processingInstruction(target, data);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void skippedEntity(final String name) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().skippedEntity(name);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void notationDecl(final String name, final String publicId, final String systemId)
+            throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().notationDecl(name, publicId, systemId);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void unparsedEntityDecl(final String name, final String publicId,
+            final String systemId, final String notationName) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().unparsedEntityDecl(name, publicId, systemId, notationName);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public InputSource resolveEntity(final String publicId, final String systemId)
+            throws SAXException, IOException {
+        final boolean locked = startEvent();
+        try {
+            return getTarget().resolveEntity(publicId, systemId);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void warning(final SAXParseException exception) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().warning(exception);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void error(final SAXParseException exception) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().error(exception);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void fatalError(final SAXParseException exception) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().fatalError(exception);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void startDTD(final String name, final String publicId, final String systemId)
+            throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().startDTD(name, publicId, systemId);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void endDTD() throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().endDTD();
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void startEntity(final String name) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().startEntity(name);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void endEntity(final String name) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().endEntity(name);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void startCDATA() throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().startCDATA();
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void endCDATA() throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().endCDATA();
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+    @Override
+    public void comment(final char[] chars, final int start, final int length) throws SAXException {
+        final boolean locked = startEvent();
+        try {
+            getTarget().comment(chars, start, length);
+        }
+        finally {
+            endEvent(locked);
+        }
+    }
+
+}
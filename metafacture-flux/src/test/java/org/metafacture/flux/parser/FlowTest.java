@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.flux.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.metafacture.flux.FluxParseException;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.helpers.DefaultObjectPipe;
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+import org.metafacture.monitoring.MetricsRegistry;
+
+/**
+ * Tests for class {@link Flow}.
+ */
+public final class FlowTest {
+
+    @Test
+    public void shouldPassEventsThroughInstrumentedElements() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        final Forwarder forwarder = new Forwarder();
+        final Collector collector = new Collector();
+
+        final Flow flow = new Flow();
+        flow.setStringStart("test");
+        flow.addElement(forwarder, registry.instrument("forward", forwarder));
+        flow.addElement(collector, registry.instrument("collect", collector));
+        flow.start();
+        flow.close();
+
+        assertEquals(1, collector.objects.size());
+        assertEquals("test", collector.objects.get(0));
+        assertEquals(1, collector.closed);
+        assertEquals(1, registry.getStage("forward").getRecords());
+        assertEquals(1, registry.getStage("collect").getRecords());
+    }
+
+    @Test
+    public void shouldNameInstrumentedElementWhichIsNotASender() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        final Collector collector = new Collector();
+
+        final Flow flow = new Flow();
+        flow.setStringStart("test");
+        flow.addElement(collector, registry.instrument("collect", collector));
+        try {
+            flow.addElement(new Collector());
+            fail("Expected FluxParseException");
+        }
+        catch (final FluxParseException e) {
+            assertEquals(Collector.class.getCanonicalName() + " is not a sender", e.getMessage());
+        }
+    }
+
+    /**
+     * Passes objects on to its receiver.
+     */
+    public static final class Forwarder extends DefaultObjectPipe<String, ObjectReceiver<String>> {
+
+        @Override
+        public void process(final String obj) {
+            getReceiver().process(obj);
+        }
+
+    }
+
+    /**
+     * Collects the received objects.
+     */
+    public static final class Collector extends DefaultObjectReceiver<String> {
+
+        private final List<String> objects = new ArrayList<>();
+        private int closed;
+
+        @Override
+        public void process(final String obj) {
+            objects.add(obj);
+        }
+
+        @Override
+        public void closeStream() {
+            ++closed;
+        }
+
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.flux.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+import org.metafacture.framework.helpers.DefaultStreamReceiver;
+
+/**
+ * Tests for class {@link WormholeJoin}.
+ */
+public final class WormholeJoinTest {
+
+    private static final int INPUTS = 4;
+    private static final int RECORDS = 500;
+
+    @Test
+    public void shouldCloseStreamOnlyAfterAllInputsClosed() {
+        final RecordingReceiver target = new RecordingReceiver();
+        final StreamReceiver join = (StreamReceiver) WormholeJoin.create(target, 2);
+
+        join.closeStream();
+        assertEquals(0, target.closed);
+        join.closeStream();
+        assertEquals(1, target.closed);
+    }
+
+    @Test
+    public void shouldNotInterleaveRecordsOfConcurrentInputs() throws InterruptedException {
+        final RecordingReceiver target = new RecordingReceiver();
+        final StreamReceiver join = (StreamReceiver) WormholeJoin.create(target, INPUTS);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < INPUTS; ++i) {
+            final String input = String.valueOf(i);
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < RECORDS; ++j) {
+                    join.startRecord(input);
+                    join.literal("a", input);
+                    join.literal("b", input);
+                    join.endRecord();
+                }
+                join.closeStream();
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(INPUTS * RECORDS, target.records);
+        assertTrue(target.consistent);
+        assertEquals(1, target.closed);
+    }
+
+    @Test
+    public void shouldResetStreamOnlyAfterAllOpenInputsReset() {
+        final RecordingReceiver target = new RecordingReceiver();
+        final StreamReceiver join = (StreamReceiver) WormholeJoin.create(target, 3);
+
+        join.resetStream();
+        assertEquals(0, target.reset);
+        join.resetStream();
+        assertEquals(0, target.reset);
+        join.resetStream();
+        assertEquals(1, target.reset);
+
+        join.resetStream();
+        join.closeStream();
+        assertEquals(1, target.reset);
+        join.closeStream();
+        assertEquals(2, target.reset);
+        assertEquals(0, target.closed);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldJoinObjectReceivers() {
+        final List<String> objects = new ArrayList<>();
+        final ObjectReceiver<String> join = (ObjectReceiver<String>) WormholeJoin.create(
+                new DefaultObjectReceiver<String>() {
+                    @Override
+                    public void process(final String obj) {
+                        objects.add(obj);
+                    }
+                }, 2);
+
+        join.process("a");
+        join.process("b");
+        assertEquals(Arrays.asList("a", "b"), objects);
+    }
+
+    private static final class RecordingReceiver extends DefaultStreamReceiver {
+
+        private String current;
+        private int records;
+        private int closed;
+        private int reset;
+        private boolean consistent = true;
+
+        RecordingReceiver() {
+        }
+
+        @Override
+        public void startRecord(final String identifier) {
+            consistent &= current == null;
+            current = identifier;
+        }
+
+        @Override
+        public void literal(final String name, final String value) {
+            consistent &= value.equals(current);
+        }
+
+        @Override
+        public void endRecord() {
+            consistent &= current != null;
+            current = null;
+            records += 1;
+        }
+
+        @Override
+        public void resetStream() {
+            reset += 1;
+        }
+
+        @Override
+        public void closeStream() {
+            closed += 1;
+        }
+
+    }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses data in the BGZF format (see {@link BgzfOutputStream}). The
+ * members are located using the block size stored in their headers and are
+ * inflated in parallel in the threads of {@link ParallelCompression}.
+ * <p>
+ * All members must carry the BGZF block size. Use
+ * {@link #isBgzf(InputStream)} to check whether a stream starts with a BGZF
+ * member. Since BGZF data consists of many members by design, all members
+ * are always decompressed.
+ */
+final class BgzfInputStream extends InputStream {
+
+    private static final int FIXED_HEADER_SIZE = 12;
+    private static final int EXTRA_LENGTH_OFFSET = 10;
+    private static final int SUBFIELD_HEADER_SIZE = 4;
+    private static final int BLOCK_SIZE_SUBFIELD_LENGTH = 2;
+    private static final int FLAGS_OFFSET = 3;
+    private static final int FLAG_EXTRA = 0x04;
+    private static final int ID1 = 0x1f;
+    private static final int ID2 = 0x8b;
+    private static final int DEFLATE = 0x08;
+    private static final int BYTE_MASK = 0xff;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int INT_SIZE = 4;
+    private static final long INT_MASK = 0xffffffffL;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final InputStream in;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private boolean endOfInput;
+    private byte[] current = EMPTY;
+    private int position;
+
+    /**
+     * Creates a decompressor for BGZF data.
+     *
+     * @param in the compressed data
+     */
+    BgzfInputStream(final InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Checks whether a stream starts with a BGZF member. The stream must
+     * support {@link InputStream#mark(int)}. Its position is not changed.
+     *
+     * @param in the stream to check
+     * @return true if the stream starts with a BGZF member
+     * @throws IOException if an I/O error occurs
+     */
+    static boolean isBgzf(final InputStream in) throws IOException {
+        final byte[] header = new byte[BgzfOutputStream.HEADER_SIZE];
+        in.mark(header.length);
+        final int length;
+        try {
+            length = readFully(in, header);
+        }
+        finally {
+            in.reset();
+        }
+        return length == header.length && isGzipHeader(header) &&
+                (header[FLAGS_OFFSET] & FLAG_EXTRA) != 0 &&
+                blockSize(header, FIXED_HEADER_SIZE, header.length - FIXED_HEADER_SIZE) > 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureData()) {
+            return -1;
+        }
+        final int b = current[position] & BYTE_MASK;
+        ++position;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureData()) {
+            return -1;
+        }
+        final int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final Future<byte[]> block : pending) {
+            block.cancel(false);
+        }
+        pending.clear();
+        endOfInput = true;
+        current = EMPTY;
+        position = 0;
+        in.close();
+    }
+
+    private boolean ensureData() throws IOException {
+        while (position == current.length) {
+            while (!endOfInput && pending.size() < ParallelCompression.MAX_PENDING_BLOCKS) {
+                submitNextMember();
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+            current = ParallelCompression.await(pending.poll());
+            position = 0;
+        }
+        return true;
+    }
+
+    private void submitNextMember() throws IOException {
+        final byte[] header = new byte[FIXED_HEADER_SIZE];
+        final int headerLength = readFully(in, header);
+        if (headerLength == 0) {
+            endOfInput = true;
+            return;
+        }
+        if (headerLength < header.length || !isGzipHeader(header)) {
+            throw new IOException("Invalid gzip member header in BGZF data");
+        }
+        if (header[FLAGS_OFFSET] != FLAG_EXTRA) {
+            throw new IOException("Gzip member is not a BGZF block");
+        }
+        final byte[] extra = new byte[readShort(header, EXTRA_LENGTH_OFFSET)];
+        requireFully(extra);
+        final int blockSize = blockSize(extra, 0, extra.length);
+        final int remaining = blockSize - FIXED_HEADER_SIZE - extra.length;
+        if (blockSize < 0 || remaining < BgzfOutputStream.FOOTER_SIZE) {
+            throw new IOException("Gzip member is not a BGZF block");
+        }
+        final byte[] member = new byte[remaining];
+        requireFully(member);
+        pending.add(ParallelCompression.submit(() -> inflate(member)));
+    }
+
+    private void requireFully(final byte[] buffer) throws IOException {
+        if (readFully(in, buffer) < buffer.length) {
+            throw new EOFException("Unexpected end of BGZF data");
+        }
+    }
+
+    private static byte[] inflate(final byte[] member) throws IOException {
+        final int dataLength = member.length - BgzfOutputStream.FOOTER_SIZE;
+        final long expectedCrc = readInt(member, dataLength);
+        final long size = readInt(member, dataLength + INT_SIZE);
+        if (size > BgzfOutputStream.MAX_BLOCK_SIZE) {
+            throw new IOException("Invalid size of BGZF block");
+        }
+        final byte[] data = new byte[(int) size];
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(member, 0, dataLength);
+            int length = 0;
+            while (!inflater.finished() && length < data.length) {
+                final int n = inflater.inflate(data, length, data.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != data.length || !inflater.finished() && inflater.inflate(new byte[1]) > 0) {
+                throw new IOException("Size of inflated BGZF block does not match");
+            }
+        }
+        catch (final DataFormatException e) {
+            throw new IOException("Corrupt BGZF block", e);
+        }
+        finally {
+            inflater.end();
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("CRC error in BGZF block");
+        }
+        return data;
+    }
+
+    private static boolean isGzipHeader(final byte[] header) {
+        return (header[0] & BYTE_MASK) == ID1 && (header[1] & BYTE_MASK) == ID2 && header[2] == DEFLATE;
+    }
+
+    /**
+     * Finds the BGZF block size in the extra field of a gzip header.
+     *
+     * @return the total size of the member or -1 if the extra field does not
+     *         contain the block size
+     */
+    private static int blockSize(final byte[] extra, final int offset, final int length) {
+        int subfield = offset;
+        final int end = offset + length;
+        while (subfield + SUBFIELD_HEADER_SIZE <= end) {
+            final int subfieldLength = readShort(extra, subfield + 2);
+            final int data = subfield + SUBFIELD_HEADER_SIZE;
+            if (extra[subfield] == 'B' && extra[subfield + 1] == 'C' &&
+                    subfieldLength == BLOCK_SIZE_SUBFIELD_LENGTH && data + subfieldLength <= end) {
+                return readShort(extra, data) + 1;
+            }
+            subfield = data + subfieldLength;
+        }
+        return -1;
+    }
+
+    private static int readShort(final byte[] buffer, final int offset) {
+        return buffer[offset] & BYTE_MASK | (buffer[offset + 1] & BYTE_MASK) << BITS_PER_BYTE;
+    }
+
+    private static long readInt(final byte[] buffer, final int offset) {
+        return (readShort(buffer, offset) | (long) readShort(buffer, offset + 2) << (2 * BITS_PER_BYTE)) & INT_MASK;
+    }
+
+    private static int readFully(final InputStream in, final byte[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            final int n = in.read(buffer, length, buffer.length - length);
+            if (n < 0) {
+                break;
+            }
+            length += n;
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses data in the BGZF format. BGZF files are gzip files consisting
+ * of a series of members with at most 64 KiB of compressed data each. The
+ * compressed size of each member is stored in an extra header field so that
+ * readers can locate the members without inflating them. The members are
+ * compressed in parallel.
+ * <p>
+ * Since the output consists of several gzip members, it must be read with
+ * the {@code decompressConcatenated} option of {@link FileCompression}.
+ */
+final class BgzfOutputStream extends ParallelCompressorOutputStream {
+
+    static final int MAX_BLOCK_SIZE = 0x10000;
+    static final int HEADER_SIZE = 18;
+    static final int FOOTER_SIZE = 8;
+
+    private static final int INPUT_BLOCK_SIZE = 0xff00;
+    private static final int BLOCK_SIZE_OFFSET = 16;
+    private static final int BYTE_MASK = 0xff;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int INT_SIZE = 4;
+
+    private static final byte[] HEADER = {
+        0x1f, (byte) 0x8b, 0x08, 0x04, 0, 0, 0, 0, 0, (byte) 0xff, 0x06, 0, 'B', 'C', 0x02, 0, 0, 0
+    };
+
+    private static final byte[] END_OF_FILE_BLOCK = {
+        0x1f, (byte) 0x8b, 0x08, 0x04, 0, 0, 0, 0, 0, (byte) 0xff, 0x06, 0, 'B', 'C', 0x02, 0, 0x1b, 0,
+        0x03, 0, 0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    BgzfOutputStream(final OutputStream out) {
+        super(out, INPUT_BLOCK_SIZE);
+    }
+
+    @Override
+    protected byte[] compress(final byte[] data, final int length) throws IOException {
+        final byte[] block = new byte[MAX_BLOCK_SIZE];
+        System.arraycopy(HEADER, 0, block, 0, HEADER_SIZE);
+        final int limit = MAX_BLOCK_SIZE - FOOTER_SIZE;
+        int size = HEADER_SIZE;
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (size == limit) {
+                    throw new IOException("Compressed BGZF block exceeds maximum block size");
+                }
+                size += deflater.deflate(block, size, limit - size);
+            }
+        }
+        finally {
+            deflater.end();
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        writeInt(block, size, (int) crc.getValue());
+        writeInt(block, size + INT_SIZE, length);
+        size += FOOTER_SIZE;
+        block[BLOCK_SIZE_OFFSET] = (byte) (size - 1);
+        block[BLOCK_SIZE_OFFSET + 1] = (byte) ((size - 1) >>> BITS_PER_BYTE);
+        return Arrays.copyOf(block, size);
+    }
+
+    @Override
+    protected void writeBlock(final byte[] block, final OutputStream output) throws IOException {
+        output.write(block);
+    }
+
+    @Override
+    protected void finish(final OutputStream output) throws IOException {
+        output.write(END_OF_FILE_BLOCK);
+    }
+
+    private static void writeInt(final byte[] buffer, final int offset, final int value) {
+        for (int i = 0; i < INT_SIZE; ++i) {
+            buffer[offset + i] = (byte) (value >>> (i * BITS_PER_BYTE) & BYTE_MASK);
+        }
+    }
+
+}
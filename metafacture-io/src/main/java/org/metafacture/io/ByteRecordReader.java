@@ -0,0 +1,371 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.FormatException;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+import org.metafacture.framework.helpers.DefaultObjectPipe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads data from an {@code InputStream} and splits it into individual
+ * records without decoding them. Each record is passed on as a byte array of
+ * its own, so receivers may keep it.
+ * <p>
+ * By default records are separated by the global separator byte (0x1d).
+ * Alternatively, the records can be split by the record length in the
+ * first five bytes of each record as defined for the leader of ISO 2709
+ * records. In this mode line breaks between records are skipped and a
+ * trailing separator byte is removed from each record. In both modes the
+ * emitted records do not contain the separator.
+ * <p>
+ * Empty records are skipped by default.
+ */
+@Description("Reads data from an InputStream and splits it into individual records without decoding them")
+@In(InputStream.class)
+@Out(byte[].class)
+@FluxCommand("as-byte-records")
+public final class ByteRecordReader extends DefaultObjectPipe<InputStream, ObjectReceiver<byte[]>> {
+
+    public static final byte DEFAULT_SEPARATOR = 0x1d;
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int RECORD_LENGTH_DIGITS = 5;
+    private static final int RADIX = 10;
+    private static final int NO_LENGTH = -1;
+    private static final int INITIAL_RECORD_SIZE = 64 * 1024;
+    private static final int MAX_BYTE_VALUE = 0xff;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private byte separator = DEFAULT_SEPARATOR;
+    private boolean skipEmptyRecords = true;
+    private boolean splitByRecordLength;
+
+    private byte[] pending = new byte[INITIAL_RECORD_SIZE];
+    private int pendingLength;
+    private int recordLength = NO_LENGTH;
+
+    /**
+     * Creates an instance of {@link ByteRecordReader}.
+     */
+    public ByteRecordReader() {
+    }
+
+    /**
+     * Sets the separator. Only the first character of the string is used. It
+     * must be in the range 0x00 to 0xff. The default is the global separator
+     * character (0x1d).
+     *
+     * @param separator the separator
+     */
+    public void setSeparator(final String separator) {
+        if (separator.length() >= 1) {
+            setSeparator(separator.charAt(0));
+        }
+        else {
+            this.separator = DEFAULT_SEPARATOR;
+        }
+    }
+
+    /**
+     * Sets the separator.
+     *
+     * @param separator the separator
+     */
+    public void setSeparator(final char separator) {
+        if (separator > MAX_BYTE_VALUE) {
+            throw new IllegalArgumentException("separator must be a single byte");
+        }
+        this.separator = (byte) separator;
+    }
+
+    /**
+     * Gets the separator.
+     *
+     * @return the separator
+     */
+    public char getSeparator() {
+        return (char) (separator & MAX_BYTE_VALUE);
+    }
+
+    /**
+     * Flags to skip empty records.
+     *
+     * @param skipEmptyRecords true if empty records should be skipped
+     */
+    public void setSkipEmptyRecords(final boolean skipEmptyRecords) {
+        this.skipEmptyRecords = skipEmptyRecords;
+    }
+
+    /**
+     * Checks whether to skip empty records.
+     *
+     * @return true if empty records should be skipped
+     */
+    public boolean getSkipEmptyRecords() {
+        return skipEmptyRecords;
+    }
+
+    /**
+     * Flags whether records are split by the record length in the first five
+     * bytes of each record instead of by the separator. Splitting by length
+     * does not need to scan the record data.
+     *
+     * @param splitByRecordLength true if records should be split by their
+     *                            length
+     */
+    public void setSplitByRecordLength(final boolean splitByRecordLength) {
+        this.splitByRecordLength = splitByRecordLength;
+    }
+
+    /**
+     * Checks whether records are split by their record length.
+     *
+     * @return true if records are split by their length
+     */
+    public boolean getSplitByRecordLength() {
+        return splitByRecordLength;
+    }
+
+    @Override
+    public void process(final InputStream stream) {
+        assert !isClosed();
+
+        try {
+            if (stream instanceof MappedFileInputStream) {
+                processSegments((MappedFileInputStream) stream);
+            }
+            else {
+                processStream(stream);
+            }
+        }
+        catch (final IOException e) {
+            throw new MetafactureException(e);
+        }
+    }
+
+    private void processStream(final InputStream stream) throws IOException {
+        boolean nothingRead = true;
+        int size = stream.read(buffer);
+        while (size != -1) {
+            nothingRead = false;
+            process(ByteBuffer.wrap(buffer, 0, size));
+            size = stream.read(buffer);
+        }
+        if (!nothingRead) {
+            endOfData();
+        }
+    }
+
+    /**
+     * Splits the records directly in the mapped segments of the file so that
+     * the data is copied only once into the emitted records.
+     */
+    private void processSegments(final MappedFileInputStream stream) throws IOException {
+        boolean nothingRead = true;
+        ByteBuffer segment = stream.nextSegment();
+        while (segment != null) {
+            nothingRead = false;
+            process(segment);
+            segment = stream.nextSegment();
+        }
+        if (!nothingRead) {
+            endOfData();
+        }
+    }
+
+    /**
+     * Splits the remaining bytes of a buffer into records. Records which are
+     * not complete at the end of the buffer are continued with the next
+     * buffer. The position of the buffer is not changed.
+     *
+     * @param chunk a buffer containing the next part of the data
+     */
+    void process(final ByteBuffer chunk) {
+        if (splitByRecordLength) {
+            splitByLength(chunk, chunk.position(), chunk.limit());
+        }
+        else {
+            splitBySeparator(chunk, chunk.position(), chunk.limit());
+        }
+    }
+
+    /**
+     * Emits the last record after all chunks have been processed.
+     */
+    void endOfData() {
+        if (splitByRecordLength) {
+            if (pendingLength > 0) {
+                pendingLength = 0;
+                recordLength = NO_LENGTH;
+                throw new FormatException("incomplete record at end of data");
+            }
+        }
+        else {
+            emitRecord(Arrays.copyOf(pending, pendingLength));
+            pendingLength = 0;
+        }
+    }
+
+    private void splitBySeparator(final ByteBuffer data, final int start, final int end) {
+        int recordStart = start;
+        for (int i = start; i < end; ++i) {
+            if (data.get(i) == separator) {
+                emitRecord(takeRecord(data, recordStart, i));
+                recordStart = i + 1;
+            }
+        }
+        appendPending(data, recordStart, end - recordStart);
+    }
+
+    private void splitByLength(final ByteBuffer data, final int start, final int end) {
+        int position = start;
+        while (position < end) {
+            if (recordLength == NO_LENGTH) {
+                position = readRecordLength(data, position, end);
+            }
+            else {
+                position = readRecord(data, position, end);
+            }
+        }
+    }
+
+    private int readRecordLength(final ByteBuffer data, final int position, final int end) {
+        int next = position;
+        if (pendingLength == 0 && isLineBreak(data.get(position))) {
+            ++next;
+        }
+        else if (pendingLength == 0 && end - position >= RECORD_LENGTH_DIGITS) {
+            recordLength = parseRecordLength(data, position);
+        }
+        else {
+            next += appendPending(data, position, Math.min(RECORD_LENGTH_DIGITS - pendingLength, end - position));
+            if (pendingLength == RECORD_LENGTH_DIGITS) {
+                recordLength = parseRecordLength(ByteBuffer.wrap(pending), 0);
+            }
+        }
+        return next;
+    }
+
+    private int readRecord(final ByteBuffer data, final int position, final int end) {
+        int next = position;
+        if (pendingLength == 0 && end - position >= recordLength) {
+            final int recordEnd = position + recordLength;
+            emitRecord(copy(data, position, recordEnd - trailingSeparator(data, recordEnd)));
+            next = recordEnd;
+            recordLength = NO_LENGTH;
+        }
+        else {
+            next += appendPending(data, position, Math.min(recordLength - pendingLength, end - position));
+            if (pendingLength == recordLength) {
+                emitRecord(Arrays.copyOf(pending, pendingLength - trailingSeparator(ByteBuffer.wrap(pending), pendingLength)));
+                pendingLength = 0;
+                recordLength = NO_LENGTH;
+            }
+        }
+        return next;
+    }
+
+    private int trailingSeparator(final ByteBuffer data, final int recordEnd) {
+        return data.get(recordEnd - 1) == separator ? 1 : 0;
+    }
+
+    private boolean isLineBreak(final byte value) {
+        return value == '\n' || value == '\r';
+    }
+
+    private int parseRecordLength(final ByteBuffer data, final int from) {
+        int length = 0;
+        for (int i = from; i < from + RECORD_LENGTH_DIGITS; ++i) {
+            final byte digit = data.get(i);
+            if (digit < '0' || digit > '9') {
+                pendingLength = 0;
+                throw new FormatException("invalid record length: " +
+                        new String(copy(data, from, from + RECORD_LENGTH_DIGITS), StandardCharsets.ISO_8859_1));
+            }
+            length = length * RADIX + digit - '0';
+        }
+        if (length < RECORD_LENGTH_DIGITS) {
+            pendingLength = 0;
+            throw new FormatException("invalid record length: " + length);
+        }
+        return length;
+    }
+
+    private byte[] takeRecord(final ByteBuffer data, final int from, final int to) {
+        final byte[] record;
+        if (pendingLength == 0) {
+            record = copy(data, from, to);
+        }
+        else {
+            appendPending(data, from, to - from);
+            record = Arrays.copyOf(pending, pendingLength);
+            pendingLength = 0;
+        }
+        return record;
+    }
+
+    private static byte[] copy(final ByteBuffer data, final int from, final int to) {
+        final byte[] bytes = new byte[to - from];
+        get(data, from, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    private static void get(final ByteBuffer data, final int from, final byte[] dest, final int offset, final int length) {
+        if (data.hasArray()) {
+            System.arraycopy(data.array(), data.arrayOffset() + from, dest, offset, length);
+        }
+        else {
+            final ByteBuffer view = data.duplicate();
+            view.position(from);
+            view.get(dest, offset, length);
+        }
+    }
+
+    private int appendPending(final ByteBuffer data, final int from, final int length) {
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+        }
+        get(data, from, pending, pendingLength, length);
+        pendingLength += length;
+        return length;
+    }
+
+    private void emitRecord(final byte[] record) {
+        if (!skipEmptyRecords || record.length > 0) {
+            getReceiver().process(record);
+        }
+    }
+
+    @Override
+    protected void onResetStream() {
+        pendingLength = 0;
+        recordLength = NO_LENGTH;
+    }
+
+}
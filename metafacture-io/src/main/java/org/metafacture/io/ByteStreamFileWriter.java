@@ -1,5 +1,8 @@
 package org.metafacture.io;
 
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
 import org.metafacture.framework.helpers.DefaultObjectReceiver;
 
 import java.io.File;
@@ -17,13 +20,21 @@
  * event. The {@link #setFileNameSupplier(Supplier)} enables users to specify
  * a new file name on each invocation. the {@link #setAppendIfFileExists(boolean)}
  * can be used to control whether existing files should be overwritten or
- * appended to.
+ * appended to. The output can be compressed with
+ * {@link #setCompression(FileCompression)}.
+ * <p>
+ * In Flux the module is available as <i>write-bytes</i>. It writes all
+ * byte arrays to the file passed to {@link #ByteStreamFileWriter(String)}.
  */
+@Description("Writes byte arrays to a file")
+@In(byte[].class)
+@FluxCommand("write-bytes")
 public class ByteStreamFileWriter extends DefaultObjectReceiver<byte[]> {
 
     private Supplier<File> fileNameSupplier;
     private boolean appendIfFileExists;
     private boolean flushAfterWrite;
+    private FileCompression compression = FileCompression.NONE;
 
     private OutputStream outputStream;
 
@@ -33,6 +44,16 @@ public class ByteStreamFileWriter extends DefaultObjectReceiver<byte[]> {
     public ByteStreamFileWriter() {
     }
 
+    /**
+     * Creates an instance of {@link ByteStreamFileWriter} which writes to
+     * the given file.
+     *
+     * @param path the path of the output file
+     */
+    public ByteStreamFileWriter(final String path) {
+        setFileNameSupplier(() -> new File(path));
+    }
+
     /**
      * Supplier for file names.
      * <p>
@@ -82,6 +103,32 @@ public void setFlushAfterWrite(final boolean flushAfterWrite) {
         this.flushAfterWrite = flushAfterWrite;
     }
 
+    /**
+     * Sets the compression of the output files.
+     * <p>
+     * The default value is {@link FileCompression#NONE}. With
+     * {@link FileCompression#AUTO} the compression is selected by the
+     * extension of the file name.
+     * <p>
+     * This property can be changed anytime during processing. It becomes
+     * effective the next time a new output file is opened.
+     *
+     * @param compression the {@link FileCompression}
+     */
+    public void setCompression(final FileCompression compression) {
+        this.compression = Objects.requireNonNull(compression);
+    }
+
+    /**
+     * Sets the compression of the output files.
+     *
+     * @param compression the name of the compression
+     * @see #setCompression(FileCompression)
+     */
+    public void setCompression(final String compression) {
+        setCompression(FileCompression.valueOf(compression.toUpperCase()));
+    }
+
     /**
      * Writes {@code bytes} to file.
      *
@@ -139,8 +186,9 @@ private void ensureOpenStream() {
             return;
         }
         try {
-            outputStream = new FileOutputStream(fileNameSupplier.get(), appendIfFileExists);
-
+            final File file = fileNameSupplier.get();
+            outputStream = compression.createCompressor(
+                    new FileOutputStream(file, appendIfFileExists), file.getPath());
         }
         catch (final FileNotFoundException e) {
             throw new OpenFailed("Cannot open output stream. File not found.", e);
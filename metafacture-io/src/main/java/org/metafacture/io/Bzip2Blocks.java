@@ -0,0 +1,261 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Bit level access to the blocks of bzip2 streams.
+ * <p>
+ * A bzip2 stream consists of a header, a sequence of blocks and a trailer.
+ * Blocks and trailer start with a 48 bit magic number followed by a 32 bit
+ * CRC. They are not aligned to byte boundaries. Each block can be decoded
+ * independently of the other blocks of the stream. The CRC in the trailer
+ * combines the CRCs of all blocks.
+ */
+final class Bzip2Blocks {
+
+    static final long BLOCK_MAGIC = 0x314159265359L;
+    static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+    static final int MAGIC_BITS = 48;
+    static final int CRC_BITS = 32;
+    static final int HEADER_BITS = 32;
+    static final int HEADER_SIZE = 4;
+    static final int TRAILER_BITS = MAGIC_BITS + CRC_BITS;
+
+    private static final long MAGIC_MASK = (1L << MAGIC_BITS) - 1;
+    private static final int WINDOW_SIZE = 7;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int BIT_INDEX_MASK = 7;
+    private static final int BYTE_INDEX_SHIFT = 3;
+    private static final int BYTE_MASK = 0xff;
+    private static final int LEVEL_OFFSET = 3;
+
+    private Bzip2Blocks() {
+        // No instances allowed
+    }
+
+    /**
+     * Checks whether a bzip2 stream header starts at the given offset.
+     *
+     * @param buffer the buffer to check
+     * @param offset the offset of the header
+     * @return the block size level of the stream or -1 if there is no
+     *         header at the offset
+     */
+    static int level(final byte[] buffer, final int offset) {
+        final byte level = buffer[offset + LEVEL_OFFSET];
+        final boolean isHeader = buffer[offset] == 'B' && buffer[offset + 1] == 'Z' &&
+                buffer[offset + 2] == 'h' && level >= '1' && level <= '9';
+        return isHeader ? level : -1;
+    }
+
+    /**
+     * Finds the next block or end of stream magic number.
+     *
+     * @param buffer  the buffer to search
+     * @param fromBit the first bit position to consider
+     * @param length  the number of valid bytes in the buffer
+     * @return the bit position of the magic number or -1 if no magic number
+     *         starts before the last 55 bits of the buffer
+     */
+    static long findMagic(final byte[] buffer, final long fromBit, final int length) {
+        int index = (int) (fromBit >>> BYTE_INDEX_SHIFT);
+        if (index + WINDOW_SIZE > length) {
+            return -1;
+        }
+        long window = 0;
+        for (int i = 0; i < WINDOW_SIZE - 1; ++i) {
+            window = window << BITS_PER_BYTE | buffer[index + i] & BYTE_MASK;
+        }
+        for (; index + WINDOW_SIZE <= length; ++index) {
+            window = window << BITS_PER_BYTE | buffer[index + WINDOW_SIZE - 1] & BYTE_MASK;
+            for (int shift = 0; shift < BITS_PER_BYTE; ++shift) {
+                final long candidate = window >>> (BITS_PER_BYTE - shift) & MAGIC_MASK;
+                final long bit = (long) index * BITS_PER_BYTE + shift;
+                if ((candidate == BLOCK_MAGIC || candidate == END_OF_STREAM_MAGIC) && bit >= fromBit) {
+                    return bit;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first bit position which {@link #findMagic(byte[], long, int)}
+     * has not checked yet.
+     *
+     * @param fromBit the first bit position which was searched
+     * @param length  the number of valid bytes in the searched buffer
+     * @return the position at which to continue the search once more data is
+     *         available
+     */
+    static long resumePosition(final long fromBit, final int length) {
+        return Math.max(fromBit, (long) (length - WINDOW_SIZE + 1) * BITS_PER_BYTE);
+    }
+
+    /**
+     * Reads up to 57 bits starting at an arbitrary bit position.
+     *
+     * @param buffer the buffer to read from
+     * @param bit    the position of the first bit
+     * @param count  the number of bits to read
+     * @return the bits
+     */
+    static long readBits(final byte[] buffer, final long bit, final int count) {
+        long value = 0;
+        for (long i = bit; i < bit + count; ++i) {
+            value = value << 1 | buffer[(int) (i >>> BYTE_INDEX_SHIFT)] >>> (BIT_INDEX_MASK - (i & BIT_INDEX_MASK)) & 1;
+        }
+        return value;
+    }
+
+    /**
+     * Combines the CRC of a block with the combined CRC of the preceding blocks.
+     *
+     * @param combinedCrc the combined CRC of the preceding blocks
+     * @param blockCrc    the CRC of the block
+     * @return the combined CRC including the block
+     */
+    static int combineCrc(final int combinedCrc, final int blockCrc) {
+        return Integer.rotateLeft(combinedCrc, 1) ^ blockCrc;
+    }
+
+    /**
+     * Decodes a single block by wrapping it into a bzip2 stream of its own.
+     *
+     * @param level     the block size level of the stream containing the
+     *                  block
+     * @param data      the buffer containing the block
+     * @param startBit  the position of the block magic number
+     * @param bitLength the length of the block in bits
+     * @return the decoded block
+     * @throws IOException if the block is corrupt
+     */
+    static byte[] decode(final int level, final byte[] data, final long startBit, final long bitLength)
+            throws IOException {
+        final int blockCrc = (int) readBits(data, startBit + MAGIC_BITS, CRC_BITS);
+        final BitWriter writer = new BitWriter((int) ((bitLength + TRAILER_BITS) / BITS_PER_BYTE) + HEADER_SIZE + 1);
+        writeHeader(writer, level);
+        writer.copy(data, startBit, bitLength);
+        writeTrailer(writer, blockCrc);
+        try (InputStream in = new BZip2CompressorInputStream(new ByteArrayInputStream(writer.toByteArray()))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    static void writeHeader(final BitWriter writer, final int level) {
+        writer.write('B', BITS_PER_BYTE);
+        writer.write('Z', BITS_PER_BYTE);
+        writer.write('h', BITS_PER_BYTE);
+        writer.write(level, BITS_PER_BYTE);
+    }
+
+    static void writeTrailer(final BitWriter writer, final int combinedCrc) {
+        writer.write(END_OF_STREAM_MAGIC, MAGIC_BITS);
+        writer.write(combinedCrc, CRC_BITS);
+        writer.alignToByte();
+    }
+
+    /**
+     * Collects bits into a byte array.
+     */
+    static final class BitWriter {
+
+        private byte[] bytes;
+        private int length;
+        private long bits;
+        private int bitCount;
+
+        BitWriter(final int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        /**
+         * Appends up to 56 bits.
+         *
+         * @param value the bits to write in the least significant bits
+         * @param count the number of bits to write
+         */
+        void write(final long value, final int count) {
+            bits = bits << count | value & (1L << count) - 1;
+            bitCount += count;
+            while (bitCount >= BITS_PER_BYTE) {
+                bitCount -= BITS_PER_BYTE;
+                if (length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, 2 * length + 1);
+                }
+                bytes[length] = (byte) (bits >>> bitCount);
+                ++length;
+            }
+        }
+
+        /**
+         * Appends bits from a buffer.
+         *
+         * @param source   the buffer containing the bits
+         * @param fromBit  the position of the first bit to copy
+         * @param count    the number of bits to copy
+         */
+        void copy(final byte[] source, final long fromBit, final long count) {
+            final int shift = (int) (fromBit & BIT_INDEX_MASK);
+            int index = (int) (fromBit >>> BYTE_INDEX_SHIFT);
+            long remaining = count;
+            while (remaining >= BITS_PER_BYTE) {
+                final int value = shift == 0 ? source[index] :
+                        source[index] << shift | (source[index + 1] & BYTE_MASK) >>> (BITS_PER_BYTE - shift);
+                write(value, BITS_PER_BYTE);
+                ++index;
+                remaining -= BITS_PER_BYTE;
+            }
+            if (remaining > 0) {
+                write(readBits(source, fromBit + count - remaining, (int) remaining), (int) remaining);
+            }
+        }
+
+        void alignToByte() {
+            if (bitCount > 0) {
+                write(0, BITS_PER_BYTE - bitCount);
+            }
+        }
+
+        /**
+         * Writes all complete bytes and removes them from the writer. Bits
+         * which do not form a complete byte yet are kept.
+         *
+         * @param out the stream to write to
+         * @throws IOException if an I/O error occurs
+         */
+        void drainTo(final OutputStream out) throws IOException {
+            out.write(bytes, 0, length);
+            length = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+    }
+
+}
@@ -26,6 +26,7 @@
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
@@ -191,6 +192,61 @@ public InputStream createDecompressor(final InputStream readFrom, final boolean
                 throw new MetafactureException(e);
             }
         }
+    },
+
+    /**
+     * Gzip compression using several threads. The compressor writes BGZF
+     * files, which consist of independently compressed gzip members of at
+     * most 64 KiB. Reading them with {@link #GZIP} requires
+     * {@code decompressConcatenated}.
+     * <p>
+     * The decompressor inflates all members of BGZF files in parallel,
+     * regardless of {@code decompressConcatenated}. Other gzip files are
+     * inflated by a separate thread while the reading thread processes the
+     * data inflated so far.
+     */
+    PARALLEL_GZIP {
+        @Override
+        public OutputStream createCompressor(final OutputStream writeTo, final String fileName) {
+            return new BgzfOutputStream(bufferStream(writeTo));
+        }
+
+        @Override
+        public InputStream createDecompressor(final InputStream readFrom, final boolean decompressConcatenated) {
+            final InputStream bufferedStream = bufferStream(readFrom);
+            try {
+                if (BgzfInputStream.isBgzf(bufferedStream)) {
+                    return new BgzfInputStream(bufferedStream);
+                }
+                return new ReadAheadInputStream(APACHE_COMPRESSOR_FACTORY.createCompressorInputStream(
+                        CompressorStreamFactory.GZIP, bufferedStream, decompressConcatenated));
+            }
+            catch (final IOException | CompressorException e) {
+                throw new MetafactureException(e);
+            }
+        }
+    },
+
+    /**
+     * Bzip2 compression using several threads. The compressor and the
+     * decompressor process the blocks of bzip2 streams in parallel. The
+     * compressor writes a single bzip2 stream.
+     */
+    PARALLEL_BZIP2 {
+        @Override
+        public OutputStream createCompressor(final OutputStream writeTo, final String fileName) {
+            return new ParallelBzip2OutputStream(bufferStream(writeTo));
+        }
+
+        @Override
+        public InputStream createDecompressor(final InputStream readFrom, final boolean decompressConcatenated) {
+            try {
+                return new ParallelBzip2InputStream(readFrom, decompressConcatenated);
+            }
+            catch (final IOException e) {
+                throw new MetafactureException(e);
+            }
+        }
     };
 
     public static final boolean DEFAULT_DECOMPRESS_CONCATENATED = false;
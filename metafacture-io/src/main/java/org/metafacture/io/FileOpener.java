@@ -47,6 +47,8 @@ public final class FileOpener extends DefaultObjectPipe<String, ObjectReceiver<R
     private String encoding = "UTF-8";
     private FileCompression compression = FileCompression.AUTO;
     private boolean decompressConcatenated = FileCompression.DEFAULT_DECOMPRESS_CONCATENATED;
+    private boolean mapped;
+    private int segmentSize = MappedFileInputStream.DEFAULT_SEGMENT_SIZE;
 
     /**
      * Creates an instance of {@link FileOpener}.
@@ -117,6 +119,48 @@ public void setDecompressConcatenated(final boolean decompressConcatenated) {
         this.decompressConcatenated = decompressConcatenated;
     }
 
+    /**
+     * Flags whether the file is memory-mapped. Reading a mapped file needs no
+     * system calls once its pages are in the page cache (see
+     * {@link MappedFileInputStream}).
+     *
+     * @param mapped true if the file should be read through memory-mapped
+     *               segments
+     */
+    public void setMapped(final boolean mapped) {
+        this.mapped = mapped;
+    }
+
+    /**
+     * Checks whether the file is memory-mapped.
+     *
+     * @return true if the file is read through memory-mapped segments
+     */
+    public boolean getMapped() {
+        return mapped;
+    }
+
+    /**
+     * Sets the maximum number of bytes which are mapped at once if the file
+     * is memory-mapped.
+     * <p>
+     * <strong>Default value: {@value MappedFileInputStream#DEFAULT_SEGMENT_SIZE}</strong>
+     *
+     * @param segmentSize the size of the mapped segments in bytes
+     */
+    public void setSegmentSize(final int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Gets the size of the mapped segments.
+     *
+     * @return the size of the mapped segments in bytes
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
     /**
      * Opens a file.
      *
@@ -125,7 +169,9 @@ public void setDecompressConcatenated(final boolean decompressConcatenated) {
      * @throws IOException if an I/O error occurs
      */
     public Reader open(final String file) throws IOException {
-        return open(new FileInputStream(file));
+        return mapped ?
+            new InputStreamReader(FileStreamOpener.openMapped(file, segmentSize, compression, decompressConcatenated), encoding) :
+            open(new FileInputStream(file));
     }
 
     /**
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+import org.metafacture.framework.helpers.DefaultObjectPipe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an uncompressed file into byte ranges and passes an input stream
+ * for each range to the receiver. The ranges are aligned on a separator
+ * byte, so that each range contains only complete records. Every range is
+ * read through a {@link MappedFileInputStream}.
+ * <p>
+ * Together with {@code parallel-object} and {@code merge-object} the ranges
+ * can be split and decoded on several threads:
+ * <pre>
+ * "dump.mrc"
+ * | open-file-ranges(ranges="4")
+ * | parallel-object(ordered="false")
+ * | { as-byte-records | decode-marc21-bytes | encode-json }
+ *   { as-byte-records | decode-marc21-bytes | encode-json }
+ *   { as-byte-records | decode-marc21-bytes | encode-json }
+ *   { as-byte-records | decode-marc21-bytes | encode-json }
+ * | merge-object
+ * | write("dump.json");
+ * </pre>
+ * Line-based files are split with {@code separator="\n"} and read with
+ * {@code as-reader | as-lines} in each branch.
+ * <p>
+ * Each range is a single object for {@code parallel-object}. If it restores
+ * the input order ({@code ordered="true"}, its default), the records of a
+ * range are passed on after all records of the preceding ranges. Until then
+ * they are held in the reorder buffer of {@code parallel-object}, whose size
+ * is limited by its {@code bufferSize} option. Once the buffer is full, the
+ * branches decoding later ranges wait for the first range, so the ranges are
+ * effectively decoded one after another. Use {@code ordered="false"} unless
+ * the output must keep the order of the input file.
+ */
+@Description("Splits an uncompressed file into byte ranges aligned on a separator and opens each range as a byte stream.")
+@In(String.class)
+@Out(InputStream.class)
+@FluxCommand("open-file-ranges")
+public final class FileRangeSplitter extends DefaultObjectPipe<String, ObjectReceiver<InputStream>> {
+
+    public static final byte DEFAULT_SEPARATOR = ByteRecordReader.DEFAULT_SEPARATOR;
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_BYTE_VALUE = 0xff;
+
+    private int ranges = Runtime.getRuntime().availableProcessors();
+    private byte separator = DEFAULT_SEPARATOR;
+    private int segmentSize = MappedFileInputStream.DEFAULT_SEGMENT_SIZE;
+
+    /**
+     * Creates an instance of {@link FileRangeSplitter}.
+     */
+    public FileRangeSplitter() {
+    }
+
+    /**
+     * Sets the number of ranges into which a file is split. Ranges may be
+     * merged if a record is larger than a range.
+     * <p>
+     * <strong>Default value: the number of available processors</strong>
+     *
+     * @param ranges the number of ranges
+     */
+    public void setRanges(final int ranges) {
+        if (ranges < 1) {
+            throw new IllegalArgumentException("'ranges' must be at least 1");
+        }
+        this.ranges = ranges;
+    }
+
+    /**
+     * Gets the number of ranges.
+     *
+     * @return the number of ranges
+     */
+    public int getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Sets the separator on which the ranges are aligned. Only the first
+     * character of the string is used. It must be in the range 0x00 to 0xff.
+     * The default is the global separator character (0x1d).
+     *
+     * @param separator the separator
+     */
+    public void setSeparator(final String separator) {
+        if (separator.isEmpty() || separator.charAt(0) > MAX_BYTE_VALUE) {
+            throw new IllegalArgumentException("separator must be a single byte");
+        }
+        this.separator = (byte) separator.charAt(0);
+    }
+
+    /**
+     * Gets the separator.
+     *
+     * @return the separator
+     */
+    public char getSeparator() {
+        return (char) (separator & MAX_BYTE_VALUE);
+    }
+
+    /**
+     * Sets the maximum number of bytes which are mapped at once.
+     * <p>
+     * <strong>Default value: {@value MappedFileInputStream#DEFAULT_SEGMENT_SIZE}</strong>
+     *
+     * @param segmentSize the size of the mapped segments in bytes
+     */
+    public void setSegmentSize(final int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Gets the size of the mapped segments.
+     *
+     * @return the size of the mapped segments in bytes
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    @Override
+    public void process(final String file) {
+        final Path path = Paths.get(file);
+        try {
+            final long[] boundaries = findBoundaries(path);
+            for (int i = 1; i < boundaries.length; ++i) {
+                final long start = boundaries[i - 1];
+                getReceiver().process(new MappedFileInputStream(path, start,
+                            boundaries[i] - start, segmentSize));
+            }
+        }
+        catch (final IOException e) {
+            throw new MetafactureException(e);
+        }
+    }
+
+    /**
+     * Finds the start positions of the ranges. The returned array starts
+     * with zero and ends with the file size. Each range starts directly after
+     * a separator.
+     */
+    private long[] findBoundaries(final Path path) throws IOException {
+        final List<Long> boundaries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            boundaries.add(Long.valueOf(0));
+            final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            for (int i = 1; i < ranges; ++i) {
+                final long previous = boundaries.get(boundaries.size() - 1).longValue();
+                final long nominalStart = size / ranges * i;
+                if (nominalStart > previous) {
+                    final long start = nextRecordStart(channel, nominalStart - 1, buffer);
+                    if (start < size) {
+                        boundaries.add(Long.valueOf(start));
+                    }
+                }
+            }
+            boundaries.add(Long.valueOf(size));
+        }
+        final long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = boundaries.get(i).longValue();
+        }
+        return result;
+    }
+
+    private long nextRecordStart(final FileChannel channel, final long from, final ByteBuffer buffer) throws IOException {
+        long position = from;
+        long recordStart = -1;
+        while (recordStart < 0) {
+            buffer.clear();
+            final int count = channel.read(buffer, position);
+            if (count == -1) {
+                recordStart = channel.size();
+            }
+            for (int i = 0; i < count && recordStart < 0; ++i) {
+                if (buffer.get(i) == separator) {
+                    recordStart = position + i + 1;
+                }
+            }
+            position += Math.max(count, 0);
+        }
+        return recordStart;
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+import org.metafacture.framework.helpers.DefaultObjectPipe;
+
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.io.input.BOMInputStream;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+
+/**
+ * Opens a file and passes an input stream for it to the receiver. Unlike
+ * {@link FileOpener} the content of the file is not decoded into characters.
+ * Compressed files are decompressed and a UTF-8 byte order mark at the
+ * start of the file is skipped.
+ * <p>
+ * If {@link #setMapped(boolean)} is true, the file is read through
+ * memory-mapped segments instead of a {@link FileInputStream} (see
+ * {@link MappedFileInputStream}). For uncompressed files the
+ * {@link MappedFileInputStream} is passed on directly, so that
+ * {@link ByteRecordReader} can split the records in the mapped memory.
+ */
+@Description("Opens a file as a byte stream.")
+@In(String.class)
+@Out(InputStream.class)
+@FluxCommand("open-file-stream")
+public final class FileStreamOpener extends DefaultObjectPipe<String, ObjectReceiver<InputStream>> {
+
+    private static final byte[] BYTE_ORDER_MARK = {(byte) 0xef, (byte) 0xbb, (byte) 0xbf};
+    private static final int BYTE_MASK = 0xff;
+
+    private FileCompression compression = FileCompression.AUTO;
+    private boolean decompressConcatenated = FileCompression.DEFAULT_DECOMPRESS_CONCATENATED;
+    private boolean mapped;
+    private int segmentSize = MappedFileInputStream.DEFAULT_SEGMENT_SIZE;
+
+    /**
+     * Creates an instance of {@link FileStreamOpener}.
+     */
+    public FileStreamOpener() {
+    }
+
+    /**
+     * Gets the file compression.
+     *
+     * @return the {@link FileCompression}
+     */
+    public FileCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Sets the compression of the file.
+     *
+     * @param compression the {@link FileCompression}
+     */
+    public void setCompression(final FileCompression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Sets the compression of the file.
+     *
+     * @param compression the name of the compression
+     */
+    public void setCompression(final String compression) {
+        setCompression(FileCompression.valueOf(compression.toUpperCase()));
+    }
+
+    /**
+     * Checks whether the file compression is set to decompress concatenated.
+     *
+     * @return true if file compression should be decompresses concatenated
+     */
+    public boolean getDecompressConcatenated() {
+        return decompressConcatenated;
+    }
+
+    /**
+     * Flags whether to use decompress concatenated file compression.
+     *
+     * @param decompressConcatenated true if file compression should decompress concatenated
+     */
+    public void setDecompressConcatenated(final boolean decompressConcatenated) {
+        this.decompressConcatenated = decompressConcatenated;
+    }
+
+    /**
+     * Flags whether the file is memory-mapped.
+     *
+     * @param mapped true if the file should be read through memory-mapped
+     *               segments
+     */
+    public void setMapped(final boolean mapped) {
+        this.mapped = mapped;
+    }
+
+    /**
+     * Checks whether the file is memory-mapped.
+     *
+     * @return true if the file is read through memory-mapped segments
+     */
+    public boolean getMapped() {
+        return mapped;
+    }
+
+    /**
+     * Sets the maximum number of bytes which are mapped at once if the file
+     * is memory-mapped.
+     * <p>
+     * <strong>Default value: {@value MappedFileInputStream#DEFAULT_SEGMENT_SIZE}</strong>
+     *
+     * @param segmentSize the size of the mapped segments in bytes
+     */
+    public void setSegmentSize(final int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Gets the size of the mapped segments.
+     *
+     * @return the size of the mapped segments in bytes
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Opens a file.
+     *
+     * @param file the file
+     * @return an InputStream
+     * @throws IOException if an I/O error occurs
+     */
+    public InputStream open(final String file) throws IOException {
+        return mapped ?
+            openMapped(file, segmentSize, compression, decompressConcatenated) :
+            decompress(new FileInputStream(file), compression, decompressConcatenated);
+    }
+
+    /**
+     * Opens a file through memory-mapped segments. If the file is not
+     * compressed, the returned stream is the {@link MappedFileInputStream}
+     * positioned after a byte order mark.
+     */
+    static InputStream openMapped(final String file, final int segmentSize,
+            final FileCompression compression, final boolean decompressConcatenated) throws IOException {
+        final MappedFileInputStream stream = new MappedFileInputStream(Paths.get(file), segmentSize);
+        final boolean uncompressed = compression == FileCompression.NONE ||
+            compression == FileCompression.AUTO && !isCompressed(stream);
+        if (uncompressed) {
+            skipByteOrderMark(stream);
+        }
+        return uncompressed ? stream : decompress(stream, compression, decompressConcatenated);
+    }
+
+    private static InputStream decompress(final InputStream stream, final FileCompression compression,
+            final boolean decompressConcatenated) throws IOException {
+        try {
+            return new BOMInputStream(compression.createDecompressor(stream, decompressConcatenated));
+        }
+        catch (final MetafactureException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    private static boolean isCompressed(final InputStream stream) {
+        boolean compressed = true;
+        try {
+            CompressorStreamFactory.detect(stream);
+        }
+        catch (final CompressorException e) {
+            compressed = false;
+        }
+        return compressed;
+    }
+
+    private static void skipByteOrderMark(final InputStream stream) throws IOException {
+        stream.mark(BYTE_ORDER_MARK.length);
+        for (final byte value : BYTE_ORDER_MARK) {
+            if (stream.read() != (value & BYTE_MASK)) {
+                stream.reset();
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void process(final String file) {
+        try {
+            getReceiver().process(open(file));
+        }
+        catch (final IOException e) {
+            throw new MetafactureException(e);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+import org.metafacture.framework.helpers.DefaultObjectPipe;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Decodes an input stream into characters and passes a reader for it to the
+ * receiver. This allows to use modules such as {@link LineReader} on
+ * streams from {@link FileStreamOpener} or {@link FileRangeSplitter}.
+ */
+@Description("Decodes an InputStream into a Reader.")
+@In(InputStream.class)
+@Out(Reader.class)
+@FluxCommand("as-reader")
+public final class InputStreamDecoder extends DefaultObjectPipe<InputStream, ObjectReceiver<Reader>> {
+
+    private String encoding = "UTF-8";
+
+    /**
+     * Creates an instance of {@link InputStreamDecoder}.
+     */
+    public InputStreamDecoder() {
+    }
+
+    /**
+     * Returns the encoding used to decode the stream.
+     *
+     * @return current default setting
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Sets the encoding used to decode the stream.
+     *
+     * @param encoding new encoding
+     */
+    public void setEncoding(final String encoding) {
+        this.encoding = encoding;
+    }
+
+    @Override
+    public void process(final InputStream stream) {
+        try {
+            getReceiver().process(new InputStreamReader(stream, encoding));
+        }
+        catch (final UnsupportedEncodingException e) {
+            throw new MetafactureException(e);
+        }
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An input stream which reads a file through memory-mapped segments. Reading
+ * from the stream copies the data directly from the mapped memory, so no
+ * system calls are needed once the pages are in the page cache. Consumers
+ * which can process byte buffers may access the segments directly through
+ * {@link #nextSegment()}.
+ * <p>
+ * The file is mapped in segments of {@link #DEFAULT_SEGMENT_SIZE} bytes by
+ * default, so files larger than 2 GB can be read. Segments are unmapped by
+ * the garbage collector once they are no longer referenced. The file is
+ * closed as soon as the last segment is mapped.
+ */
+public final class MappedFileInputStream extends InputStream {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private static final int BYTE_MASK = 0xff;
+
+    private final Path file;
+    private final long end;
+    private final int segmentSize;
+
+    private FileChannel channel;
+    private long nextSegmentStart;
+    private MappedByteBuffer segment;
+    private long markPosition = -1;
+
+    /**
+     * Creates an instance of {@link MappedFileInputStream} using the default
+     * segment size.
+     *
+     * @param file the file to read
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedFileInputStream(final Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates an instance of {@link MappedFileInputStream}.
+     *
+     * @param file        the file to read
+     * @param segmentSize the maximum number of bytes mapped at once
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedFileInputStream(final Path file, final int segmentSize) throws IOException {
+        this(file, 0, Long.MAX_VALUE, segmentSize);
+    }
+
+    /**
+     * Creates an instance of {@link MappedFileInputStream} which reads only
+     * a part of the file.
+     *
+     * @param file        the file to read
+     * @param start       the position of the first byte to read
+     * @param length      the maximum number of bytes to read
+     * @param segmentSize the maximum number of bytes mapped at once
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedFileInputStream(final Path file, final long start, final long length,
+            final int segmentSize) throws IOException {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("'segmentSize' must be at least 1");
+        }
+        if (start < 0 || length < 0) {
+            throw new IllegalArgumentException("'start' and 'length' must not be negative");
+        }
+        this.file = file;
+        this.segmentSize = segmentSize;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        final long size = channel.size();
+        nextSegmentStart = Math.min(start, size);
+        end = Math.min(size, nextSegmentStart + Math.min(length, size));
+        if (nextSegmentStart == end) {
+            closeChannel();
+        }
+    }
+
+    /**
+     * Returns the unread part of the current segment and advances the stream
+     * to the end of the segment. The returned buffer is read-only and its
+     * position and limit can be changed independently of the stream.
+     *
+     * @return the next unread bytes of the file or null if the end of the
+     *         file is reached
+     * @throws IOException if the next segment cannot be mapped
+     */
+    public ByteBuffer nextSegment() throws IOException {
+        ByteBuffer next = null;
+        if (hasRemaining()) {
+            next = segment.slice();
+            segment.position(segment.limit());
+        }
+        return next;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return hasRemaining() ? segment.get() & BYTE_MASK : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (offset < 0 || length < 0 || length > bytes.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        int count = -1;
+        if (length == 0) {
+            count = 0;
+        }
+        else if (hasRemaining()) {
+            count = Math.min(length, segment.remaining());
+            segment.get(bytes, offset, count);
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && hasRemaining()) {
+            final int step = (int) Math.min(n - skipped, segment.remaining());
+            segment.position(segment.position() + step);
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, end - position());
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(final int readLimit) {
+        markPosition = position();
+    }
+
+    @Override
+    public void reset() throws IOException {
+        if (markPosition < 0) {
+            throw new IOException("mark was not set");
+        }
+        final long segmentStart = segment == null ? nextSegmentStart : nextSegmentStart - segment.limit();
+        if (segment != null && markPosition >= segmentStart) {
+            segment.position((int) (markPosition - segmentStart));
+        }
+        else {
+            segment = null;
+            nextSegmentStart = markPosition;
+        }
+    }
+
+    private long position() {
+        return segment == null ? nextSegmentStart : nextSegmentStart - segment.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment = null;
+        nextSegmentStart = end;
+        closeChannel();
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private boolean hasRemaining() throws IOException {
+        if ((segment == null || !segment.hasRemaining()) && nextSegmentStart < end) {
+            final long length = Math.min(segmentSize, end - nextSegmentStart);
+            if (channel == null) {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            }
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, nextSegmentStart, length);
+            nextSegmentStart += length;
+            if (nextSegmentStart == end) {
+                // The mapping stays valid after the channel is closed
+                closeChannel();
+            }
+        }
+        return segment != null && segment.hasRemaining();
+    }
+
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Future;
+
+/**
+ * Decompresses bzip2 data by decoding its blocks in parallel in the threads
+ * of {@link ParallelCompression}.
+ * <p>
+ * The reading thread locates the blocks by searching for the block magic
+ * numbers on the bit level. Each block is then wrapped into a bzip2 stream
+ * of its own and decoded independently. Since a magic number may occur by
+ * chance inside of compressed data, an end of stream marker is only accepted
+ * if it is followed by the end of the data or the header of another stream.
+ * A block which cannot be decoded is retried together with the following
+ * block. The block and stream CRCs are verified.
+ */
+final class ParallelBzip2InputStream extends InputStream {
+
+    private static final int READ_SIZE = 1 << 20;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int BYTE_INDEX_SHIFT = 3;
+    private static final int BYTE_MASK = 0xff;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final InputStream in;
+    private final boolean decompressConcatenated;
+    private final Deque<Block> pending = new ArrayDeque<>();
+
+    private byte[] buffer = new byte[2 * READ_SIZE];
+    private int length;
+    private boolean endOfData;
+
+    private long position;
+    private int level;
+    private boolean endOfInput;
+
+    private int combinedCrc;
+    private byte[] current = EMPTY;
+    private int currentPosition;
+
+    /**
+     * Creates a decompressor for bzip2 data.
+     *
+     * @param in                     the compressed data
+     * @param decompressConcatenated if false only the first bzip2 stream is
+     *                               decompressed
+     * @throws IOException if the data does not start with a bzip2 header
+     */
+    ParallelBzip2InputStream(final InputStream in, final boolean decompressConcatenated) throws IOException {
+        this.in = in;
+        this.decompressConcatenated = decompressConcatenated;
+        if (!readStreamHeader()) {
+            throw new IOException("Stream is not in the BZip2 format");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureData()) {
+            return -1;
+        }
+        final int b = current[currentPosition] & BYTE_MASK;
+        ++currentPosition;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureData()) {
+            return -1;
+        }
+        final int n = Math.min(len, current.length - currentPosition);
+        System.arraycopy(current, currentPosition, b, off, n);
+        currentPosition += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current.length - currentPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final Block block : pending) {
+            block.cancel();
+        }
+        pending.clear();
+        endOfInput = true;
+        current = EMPTY;
+        currentPosition = 0;
+        in.close();
+    }
+
+    private boolean ensureData() throws IOException {
+        while (currentPosition == current.length) {
+            fillPending();
+            final Block block = pending.poll();
+            if (block == null) {
+                return false;
+            }
+            if (block.isEndOfStream()) {
+                if (block.crc != combinedCrc) {
+                    throw new IOException("BZip2 stream CRC error");
+                }
+                combinedCrc = 0;
+                current = EMPTY;
+            }
+            else {
+                current = decode(block);
+                combinedCrc = Bzip2Blocks.combineCrc(combinedCrc, block.crc);
+            }
+            currentPosition = 0;
+        }
+        return true;
+    }
+
+    private byte[] decode(final Block block) throws IOException {
+        try {
+            return ParallelCompression.await(block.result);
+        }
+        catch (final IOException e) {
+            // The block may have been cut by a magic number which occurred
+            // by chance in the compressed data:
+            fillPending();
+            final Block next = pending.peek();
+            if (next == null || next.isEndOfStream()) {
+                throw e;
+            }
+            pending.poll().cancel();
+            try {
+                return block.append(next).decodeBlock();
+            }
+            catch (final IOException retryFailure) {
+                throw e;
+            }
+        }
+    }
+
+    private void fillPending() throws IOException {
+        while (!endOfInput && pending.size() < ParallelCompression.MAX_PENDING_BLOCKS) {
+            scanNext();
+        }
+    }
+
+    private void scanNext() throws IOException {
+        compact();
+        if (!ensureBits(position + Bzip2Blocks.TRAILER_BITS)) {
+            throw new EOFException("Unexpected end of BZip2 stream");
+        }
+        final long magic = Bzip2Blocks.readBits(buffer, position, Bzip2Blocks.MAGIC_BITS);
+        final int crc = (int) Bzip2Blocks.readBits(buffer, position + Bzip2Blocks.MAGIC_BITS, Bzip2Blocks.CRC_BITS);
+        if (magic == Bzip2Blocks.BLOCK_MAGIC) {
+            final long end = findBlockEnd(position + Bzip2Blocks.MAGIC_BITS);
+            final int from = (int) (position >>> BYTE_INDEX_SHIFT);
+            final int to = (int) ((end + BITS_PER_BYTE - 1) >>> BYTE_INDEX_SHIFT);
+            final Block block = new Block(level, crc, Arrays.copyOfRange(buffer, from, to),
+                    position - (long) from * BITS_PER_BYTE, end - position);
+            block.submit();
+            pending.add(block);
+            position = end;
+        }
+        else if (magic == Bzip2Blocks.END_OF_STREAM_MAGIC) {
+            pending.add(new Block(level, crc, null, 0, 0));
+            position = alignToByte(position + Bzip2Blocks.TRAILER_BITS);
+            endOfInput = !decompressConcatenated || !readStreamHeader();
+        }
+        else {
+            throw new IOException("Invalid BZip2 block header");
+        }
+    }
+
+    private long findBlockEnd(final long from) throws IOException {
+        long scanPosition = from;
+        while (true) {
+            final long magic = Bzip2Blocks.findMagic(buffer, scanPosition, length);
+            if (magic >= 0) {
+                if (isPlausibleMagic(magic)) {
+                    return magic;
+                }
+                scanPosition = magic + 1;
+            }
+            else {
+                scanPosition = Bzip2Blocks.resumePosition(scanPosition, length);
+                if (!readMore()) {
+                    throw new EOFException("Unexpected end of BZip2 stream");
+                }
+            }
+        }
+    }
+
+    private boolean isPlausibleMagic(final long magic) throws IOException {
+        if (Bzip2Blocks.readBits(buffer, magic, Bzip2Blocks.MAGIC_BITS) == Bzip2Blocks.BLOCK_MAGIC) {
+            return true;
+        }
+        final long trailerEnd = magic + Bzip2Blocks.TRAILER_BITS;
+        final long streamEnd = alignToByte(trailerEnd);
+        if (!ensureBits(streamEnd) ||
+                Bzip2Blocks.readBits(buffer, trailerEnd, (int) (streamEnd - trailerEnd)) != 0) {
+            return false;
+        }
+        final int next = (int) (streamEnd >>> BYTE_INDEX_SHIFT);
+        ensureBits(streamEnd + Bzip2Blocks.HEADER_BITS);
+        return length == next || length >= next + Bzip2Blocks.HEADER_SIZE && Bzip2Blocks.level(buffer, next) > 0;
+    }
+
+    private boolean readStreamHeader() throws IOException {
+        compact();
+        final boolean hasHeader = ensureBits(position + Bzip2Blocks.HEADER_BITS) &&
+                Bzip2Blocks.level(buffer, (int) (position >>> BYTE_INDEX_SHIFT)) > 0;
+        if (hasHeader) {
+            level = Bzip2Blocks.level(buffer, (int) (position >>> BYTE_INDEX_SHIFT));
+            position += Bzip2Blocks.HEADER_BITS;
+        }
+        return hasHeader;
+    }
+
+    private static long alignToByte(final long bit) {
+        return (bit + BITS_PER_BYTE - 1) / BITS_PER_BYTE * BITS_PER_BYTE;
+    }
+
+    /**
+     * Removes the bytes before the current position from the buffer.
+     */
+    private void compact() {
+        final int start = (int) (position >>> BYTE_INDEX_SHIFT);
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, length - start);
+            length -= start;
+            position -= (long) start * BITS_PER_BYTE;
+        }
+    }
+
+    private boolean ensureBits(final long bits) throws IOException {
+        while ((long) length * BITS_PER_BYTE < bits) {
+            if (!readMore()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readMore() throws IOException {
+        if (endOfData) {
+            return false;
+        }
+        if (buffer.length - length < READ_SIZE) {
+            buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+        }
+        final int n = in.read(buffer, length, READ_SIZE);
+        if (n < 0) {
+            endOfData = true;
+        }
+        else {
+            length += n;
+        }
+        return true;
+    }
+
+    /**
+     * A block of a bzip2 stream or the end of a stream.
+     */
+    private static final class Block {
+
+        private final int level;
+        private final int crc;
+        private final byte[] data;
+        private final long startBit;
+        private final long bitLength;
+        private Future<byte[]> result;
+
+        Block(final int level, final int crc, final byte[] data, final long startBit, final long bitLength) {
+            this.level = level;
+            this.crc = crc;
+            this.data = data;
+            this.startBit = startBit;
+            this.bitLength = bitLength;
+        }
+
+        boolean isEndOfStream() {
+            return data == null;
+        }
+
+        void submit() {
+            result = ParallelCompression.submit(this::decodeBlock);
+        }
+
+        void cancel() {
+            if (result != null) {
+                result.cancel(false);
+            }
+        }
+
+        byte[] decodeBlock() throws IOException {
+            return Bzip2Blocks.decode(level, data, startBit, bitLength);
+        }
+
+        Block append(final Block next) {
+            final Bzip2Blocks.BitWriter writer = new Bzip2Blocks.BitWriter(data.length + next.data.length);
+            writer.copy(data, startBit, bitLength);
+            writer.copy(next.data, next.startBit, next.bitLength);
+            writer.alignToByte();
+            return new Block(level, crc, writer.toByteArray(), 0, bitLength + next.bitLength);
+        }
+
+    }
+
+}
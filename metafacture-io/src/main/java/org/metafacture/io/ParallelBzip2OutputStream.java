@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses data in the bzip2 format using the threads of
+ * {@link ParallelCompression}.
+ * <p>
+ * The input is split into chunks which are small enough to fit into a single
+ * bzip2 block. Each chunk is compressed into a bzip2 stream of its own. The
+ * blocks are then taken from these streams and joined into a single bzip2
+ * stream so that the output can be read by any bzip2 decompressor without
+ * enabling the {@code decompressConcatenated} option.
+ */
+final class ParallelBzip2OutputStream extends ParallelCompressorOutputStream {
+
+    /**
+     * The run-length encoding applied before the block sorting may expand
+     * the data by a factor of 5/4. Chunks of this size therefore always fit
+     * into a single block of 900,000 bytes.
+     */
+    private static final int CHUNK_SIZE = 700000;
+    private static final int LEVEL = 9;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int MAX_PADDING = 7;
+
+    private final Bzip2Blocks.BitWriter writer = new Bzip2Blocks.BitWriter(CHUNK_SIZE);
+    private int combinedCrc;
+
+    ParallelBzip2OutputStream(final OutputStream out) {
+        super(out, CHUNK_SIZE);
+        Bzip2Blocks.writeHeader(writer, '0' + LEVEL);
+    }
+
+    @Override
+    protected byte[] compress(final byte[] data, final int length) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2);
+        try (OutputStream out = new BZip2CompressorOutputStream(compressed, LEVEL)) {
+            out.write(data, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Override
+    protected void writeBlock(final byte[] block, final OutputStream output) throws IOException {
+        final long trailer = findTrailer(block);
+        final long blockStart = Bzip2Blocks.HEADER_BITS;
+        final int blockCrc = (int) Bzip2Blocks.readBits(block, blockStart + Bzip2Blocks.MAGIC_BITS, Bzip2Blocks.CRC_BITS);
+        combinedCrc = Bzip2Blocks.combineCrc(combinedCrc, blockCrc);
+        writer.copy(block, blockStart, trailer - blockStart);
+        writer.drainTo(output);
+    }
+
+    @Override
+    protected void finish(final OutputStream output) throws IOException {
+        Bzip2Blocks.writeTrailer(writer, combinedCrc);
+        writer.drainTo(output);
+    }
+
+    private static long findTrailer(final byte[] stream) throws IOException {
+        final long streamBits = (long) stream.length * BITS_PER_BYTE;
+        for (int padding = 0; padding <= MAX_PADDING; ++padding) {
+            final long trailer = streamBits - padding - Bzip2Blocks.TRAILER_BITS;
+            if (Bzip2Blocks.readBits(stream, trailer, Bzip2Blocks.MAGIC_BITS) == Bzip2Blocks.END_OF_STREAM_MAGIC) {
+                return trailer;
+            }
+        }
+        throw new IOException("Missing end of stream marker in compressed bzip2 block");
+    }
+
+}
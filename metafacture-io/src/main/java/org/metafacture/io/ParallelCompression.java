@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pool shared by the parallel compressors and decompressors of
+ * {@link FileCompression}. The pool has one daemon thread per available
+ * processor. Its tasks only compress or decompress data in memory and never
+ * wait for each other, so streams sharing the pool cannot block each other.
+ */
+final class ParallelCompression {
+
+    /**
+     * Maximum number of blocks a stream submits to the pool before it waits
+     * for the oldest result.
+     */
+    static final int MAX_PENDING_BLOCKS = 2 * Runtime.getRuntime().availableProcessors();
+
+    private static final String THREAD_NAME_PREFIX = "file-compression-";
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), task -> {
+                final Thread thread = new Thread(task, THREAD_NAME_PREFIX + THREAD_COUNT.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private ParallelCompression() {
+        // No instances allowed
+    }
+
+    static <T> Future<T> submit(final Callable<T> task) {
+        return EXECUTOR.submit(task);
+    }
+
+    /**
+     * Waits for the result of a task. Exceptions thrown by the task are
+     * rethrown unwrapped if possible.
+     *
+     * @param <T>    result type
+     * @param result the result of the task
+     * @return the result
+     * @throws IOException if the task failed or the calling thread was
+     *                     interrupted
+     */
+    static <T> T await(final Future<T> result) throws IOException {
+        try {
+            return result.get();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compression thread");
+        }
+        catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+}
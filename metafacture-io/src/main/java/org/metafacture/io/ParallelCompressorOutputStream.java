@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Future;
+
+/**
+ * Base class for compressors which split their input into blocks of fixed
+ * size and compress the blocks independently of each other in the threads
+ * of {@link ParallelCompression}. The compressed blocks are written in input
+ * order by the thread which writes to this stream.
+ * <p>
+ * {@link #flush()} compresses the data buffered so far as a block of its
+ * own. Frequent flushing therefore reduces the compression ratio.
+ */
+abstract class ParallelCompressorOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final int blockSize;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private byte[] buffer;
+    private int count;
+    private boolean closed;
+
+    ParallelCompressorOutputStream(final OutputStream out, final int blockSize) {
+        this.out = out;
+        this.blockSize = blockSize;
+        buffer = new byte[blockSize];
+    }
+
+    /**
+     * Compresses a block. This method is called by the threads of
+     * {@link ParallelCompression}.
+     *
+     * @param data   the buffer containing the block
+     * @param length the number of bytes in the block
+     * @return the compressed block
+     * @throws IOException if the block cannot be compressed
+     */
+    protected abstract byte[] compress(byte[] data, int length) throws IOException;
+
+    /**
+     * Writes a compressed block. The blocks are written in input order.
+     *
+     * @param block  a block returned by {@link #compress(byte[], int)}
+     * @param output the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    protected abstract void writeBlock(byte[] block, OutputStream output) throws IOException;
+
+    /**
+     * Writes the trailer of the compressed data after the last block.
+     *
+     * @param output the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    protected abstract void finish(OutputStream output) throws IOException;
+
+    @Override
+    public void write(final int b) throws IOException {
+        buffer[count] = (byte) b;
+        ++count;
+        if (count == blockSize) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int n = Math.min(remaining, blockSize - count);
+            System.arraycopy(b, offset, buffer, count, n);
+            count += n;
+            offset += n;
+            remaining -= n;
+            if (count == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        submitBlock();
+        while (!pending.isEmpty()) {
+            writeNextBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock();
+            while (!pending.isEmpty()) {
+                writeNextBlock();
+            }
+            finish(out);
+        }
+        finally {
+            for (final Future<byte[]> block : pending) {
+                block.cancel(false);
+            }
+            pending.clear();
+            out.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        while (pending.size() >= ParallelCompression.MAX_PENDING_BLOCKS) {
+            writeNextBlock();
+        }
+        final byte[] data = buffer;
+        final int length = count;
+        pending.add(ParallelCompression.submit(() -> compress(data, length)));
+        buffer = new byte[blockSize];
+        count = 0;
+    }
+
+    private void writeNextBlock() throws IOException {
+        writeBlock(ParallelCompression.await(pending.poll()), out);
+    }
+
+}
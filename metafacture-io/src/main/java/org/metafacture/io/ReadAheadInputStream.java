@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a stream in a separate thread. This allows a decompressor to inflate
+ * the next chunks of data while the reading thread processes the previous
+ * ones. The number of chunks read in advance is limited.
+ */
+final class ReadAheadInputStream extends InputStream {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int MAX_CHUNKS = 32;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final int BYTE_MASK = 0xff;
+    private static final String THREAD_NAME = "read-ahead";
+
+    private static final Chunk END_OF_STREAM = new Chunk(new byte[0], 0, null);
+
+    private final InputStream in;
+    private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(MAX_CHUNKS);
+    private final Thread reader;
+
+    private volatile boolean closed;
+    private Chunk current = new Chunk(new byte[0], 0, null);
+    private int position;
+
+    ReadAheadInputStream(final InputStream in) {
+        this.in = in;
+        reader = new Thread(this::readAhead, THREAD_NAME);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureData()) {
+            return -1;
+        }
+        final int b = current.data[position] & BYTE_MASK;
+        ++position;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureData()) {
+            return -1;
+        }
+        final int n = Math.min(len, current.length - position);
+        System.arraycopy(current.data, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        reader.interrupt();
+        chunks.clear();
+        try {
+            reader.join();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        in.close();
+    }
+
+    private boolean ensureData() throws IOException {
+        while (position == current.length) {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (current.failure != null) {
+                throw new IOException(current.failure.getMessage(), current.failure);
+            }
+            if (current == END_OF_STREAM) {
+                return false;
+            }
+            try {
+                current = chunks.take();
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for read-ahead thread");
+            }
+            position = 0;
+        }
+        return true;
+    }
+
+    private void readAhead() {
+        try {
+            int n = 0;
+            while (n >= 0 && !closed) {
+                final byte[] data = new byte[CHUNK_SIZE];
+                n = in.read(data);
+                if (n > 0) {
+                    put(new Chunk(data, n, null));
+                }
+            }
+            put(END_OF_STREAM);
+        }
+        catch (final IOException | RuntimeException e) { // checkstyle-disable-line IllegalCatch
+            put(new Chunk(new byte[0], 0, e));
+        }
+    }
+
+    private void put(final Chunk chunk) {
+        try {
+            while (!closed && !chunks.offer(chunk, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // Wait until the reading thread takes a chunk or closes the stream
+            }
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A chunk of data read in advance or a failure of the read-ahead thread.
+     */
+    private static final class Chunk {
+
+        private final byte[] data;
+        private final int length;
+        private final Exception failure;
+
+        Chunk(final byte[] data, final int length, final Exception failure) {
+            this.data = data;
+            this.length = length;
+            this.failure = failure;
+        }
+
+    }
+
+}
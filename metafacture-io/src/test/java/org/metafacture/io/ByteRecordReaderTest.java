@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.metafacture.framework.FormatException;
+import org.metafacture.framework.ObjectReceiver;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for {@link ByteRecordReader}.
+ */
+public final class ByteRecordReaderTest {
+
+    private static final String RECORD1 = "record1";
+    private static final String RECORD2 = "record2";
+    private static final String SEPARATOR = "\u001d";
+    private static final String LENGTH_RECORD1 = "00011abc" + SEPARATOR + "de";
+    private static final String LENGTH_RECORD2 = "00008fgh";
+
+    private ByteRecordReader byteRecordReader;
+
+    @Mock
+    private ObjectReceiver<byte[]> receiver;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        byteRecordReader = new ByteRecordReader();
+        byteRecordReader.setReceiver(receiver);
+    }
+
+    @After
+    public void cleanup() {
+        byteRecordReader.closeStream();
+    }
+
+    @Test
+    public void shouldSplitRecordsBySeparator() {
+        byteRecordReader.process(stream(RECORD1 + SEPARATOR + RECORD2 + SEPARATOR));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(record(RECORD1));
+        ordered.verify(receiver).process(record(RECORD2));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    @Test
+    public void shouldProcessLastRecordWithoutSeparator() {
+        byteRecordReader.process(stream(RECORD1 + SEPARATOR + RECORD2));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(record(RECORD1));
+        ordered.verify(receiver).process(record(RECORD2));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    @Test
+    public void shouldUseCustomSeparator() {
+        byteRecordReader.setSeparator(":");
+
+        byteRecordReader.process(stream(RECORD1 + ":" + RECORD2));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(record(RECORD1));
+        ordered.verify(receiver).process(record(RECORD2));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    @Test
+    public void shouldSkipEmptyRecordsByDefault() {
+        byteRecordReader.process(stream(SEPARATOR + RECORD1 + SEPARATOR + SEPARATOR));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(record(RECORD1));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    @Test
+    public void shouldOutputEmptyRecordsIfConfigured() {
+        byteRecordReader.setSkipEmptyRecords(false);
+
+        byteRecordReader.process(stream(RECORD1 + SEPARATOR + SEPARATOR + RECORD2));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(record(RECORD1));
+        ordered.verify(receiver).process(record(""));
+        ordered.verify(receiver).process(record(RECORD2));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    @Test
+    public void shouldNotEmitRecordsForEmptyStream() {
+        byteRecordReader.process(stream(""));
+
+        verifyZeroInteractions(receiver);
+    }
+
+    @Test
+    public void shouldJoinRecordsSpanningSeveralChunks() {
+        final byte[] data = asBytes(RECORD1 + SEPARATOR + RECORD2);
+        for (int i = 0; i < data.length; i += 3) {
+            byteRecordReader.process(ByteBuffer.wrap(data, i, Math.min(3, data.length - i)));
+        }
+        byteRecordReader.endOfData();
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(record(RECORD1));
+        ordered.verify(receiver).process(record(RECORD2));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    @Test
+    public void shouldSplitRecordsByRecordLength() {
+        byteRecordReader.setSplitByRecordLength(true);
+
+        byteRecordReader.process(stream(LENGTH_RECORD1 + LENGTH_RECORD2));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(record(LENGTH_RECORD1));
+        ordered.verify(receiver).process(record(LENGTH_RECORD2));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    @Test
+    public void shouldRemoveTrailingSeparatorAndLineBreaksIfSplittingByRecordLength() {
+        byteRecordReader.setSplitByRecordLength(true);
+
+        byteRecordReader.process(stream("00009fgh" + SEPARATOR + "\r\n" +
+                LENGTH_RECORD2 + "\n"));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(record("00009fgh"));
+        ordered.verify(receiver).process(record(LENGTH_RECORD2));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    @Test
+    public void shouldSplitRecordsSpanningSeveralChunksByRecordLength() {
+        byteRecordReader.setSplitByRecordLength(true);
+
+        final byte[] data = asBytes(LENGTH_RECORD1 + LENGTH_RECORD2);
+        for (int i = 0; i < data.length; i += 2) {
+            byteRecordReader.process(ByteBuffer.wrap(data, i, Math.min(2, data.length - i)));
+        }
+        byteRecordReader.endOfData();
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(record(LENGTH_RECORD1));
+        ordered.verify(receiver).process(record(LENGTH_RECORD2));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    @Test(expected = FormatException.class)
+    public void shouldThrowFormatExceptionIfRecordLengthIsInvalid() {
+        byteRecordReader.setSplitByRecordLength(true);
+
+        byteRecordReader.process(stream("0001xabcdef"));
+    }
+
+    @Test(expected = FormatException.class)
+    public void shouldThrowFormatExceptionIfLastRecordIsIncomplete() {
+        byteRecordReader.setSplitByRecordLength(true);
+
+        byteRecordReader.process(stream("00020abc"));
+    }
+
+    private static ByteArrayInputStream stream(final String data) {
+        return new ByteArrayInputStream(asBytes(data));
+    }
+
+    private static byte[] asBytes(final String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] record(final String data) {
+        return aryEq(asBytes(data));
+    }
+
+}
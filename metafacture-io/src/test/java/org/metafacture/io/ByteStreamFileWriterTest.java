@@ -5,7 +5,9 @@
 import static org.assertj.core.api.Assertions.contentOf;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
@@ -13,6 +15,7 @@
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.metafacture.commons.ResourceUtil;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
@@ -90,6 +93,21 @@ public void shouldAppendIfParameterAppendIfFileExistsIsSet() throws IOException
         assertThat(contentOf(outputFile)).isEqualTo(SOME_DATA + SOME_MORE_DATA);
     }
 
+    @Test
+    public void shouldCompressOutputIfCompressionIsSet() throws IOException {
+
+        File outputFile = tempFolder.newFile();
+        byteStreamFileWriter.setFileNameSupplier(() -> outputFile);
+        byteStreamFileWriter.setCompression(FileCompression.PARALLEL_BZIP2);
+
+        byteStreamFileWriter.process(SOME_DATA.getBytes(StandardCharsets.UTF_8));
+        byteStreamFileWriter.closeStream();
+
+        try (InputStream in = FileCompression.BZIP2.createDecompressor(new FileInputStream(outputFile))) {
+            assertThat(ResourceUtil.readAll(in, StandardCharsets.UTF_8)).isEqualTo(SOME_DATA);
+        }
+    }
+
     private static final String SOME_DATA = "Nil desperandum";
     private static final String SOME_MORE_DATA = "De omnibus dubitandum";
 
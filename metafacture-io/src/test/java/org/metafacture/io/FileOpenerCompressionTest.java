@@ -90,6 +90,11 @@ public static Iterable<Object[]> data() {
                 { "compressed.txt.gz", FileCompression.GZIP },
                 { "compressed.txt.gzip", FileCompression.GZIP },
                 { "compressed.txt.xz", FileCompression.XZ },
+                { "compressed.txt.bz2", FileCompression.PARALLEL_BZIP2 },
+                { "compressed.txt.bzip2", FileCompression.PARALLEL_BZIP2 },
+                { "compressed.txt.bgzf", FileCompression.PARALLEL_GZIP },
+                { "compressed.txt.gz", FileCompression.PARALLEL_GZIP },
+                { "compressed.txt.gzip", FileCompression.PARALLEL_GZIP },
             });
     }
 
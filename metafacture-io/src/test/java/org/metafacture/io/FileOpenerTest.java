@@ -120,6 +120,35 @@ private void testDecompressConcatenated(final boolean decompressConcatenated) th
                 ResourceUtil.readAll(processedObject.getValue()));
     }
 
+    @Test
+    public void testMappedFile() throws IOException {
+        final File testFile = createTestFile();
+
+        final FileOpener opener = new FileOpener();
+        opener.setMapped(true);
+        opener.setSegmentSize(4);
+        opener.setReceiver(receiver);
+        opener.process(testFile.getAbsolutePath());
+        opener.closeStream();
+
+        verify(receiver).process(processedObject.capture());
+        assertEquals(DATA, ResourceUtil.readAll(processedObject.getValue()));
+    }
+
+    @Test
+    public void testMappedCompressedFile() throws IOException {
+        final File testFile = copyResourceToTempFile("compressed-large.txt.bgzf");
+
+        final FileOpener unmappedOpener = new FileOpener();
+        unmappedOpener.setDecompressConcatenated(true);
+        final FileOpener mappedOpener = new FileOpener();
+        mappedOpener.setDecompressConcatenated(true);
+        mappedOpener.setMapped(true);
+
+        assertEquals(ResourceUtil.readAll(unmappedOpener.open(testFile.getAbsolutePath())),
+                ResourceUtil.readAll(mappedOpener.open(testFile.getAbsolutePath())));
+    }
+
     private File createTestFile() throws IOException {
         final File file = tempFolder.newFile();
         try (OutputStream stream = new FileOutputStream(file)) {
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.metafacture.flowcontrol.ObjectMerger;
+import org.metafacture.flowcontrol.ObjectParallelizer;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.helpers.DefaultObjectPipe;
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for class {@link FileRangeSplitter}.
+ */
+public final class FileRangeSplitterTest {
+
+    private static final String SEPARATOR = "\u001d";
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final List<String> ranges = new ArrayList<>();
+
+    private FileRangeSplitter fileRangeSplitter;
+
+    @Before
+    public void setup() {
+        fileRangeSplitter = new FileRangeSplitter();
+        fileRangeSplitter.setReceiver(new DefaultObjectReceiver<InputStream>() {
+
+            @Override
+            public void process(final InputStream stream) {
+                ranges.add(readAll(stream));
+            }
+
+        });
+    }
+
+    @Test
+    public void shouldSplitFileIntoRangesAlignedOnSeparator() throws IOException {
+        fileRangeSplitter.setRanges(3);
+
+        fileRangeSplitter.process(createTestFile(
+                "aaaa" + SEPARATOR + "bbbb" + SEPARATOR + "cccc" + SEPARATOR +
+                "dddd" + SEPARATOR + "eeee" + SEPARATOR + "ffff"));
+
+        Assert.assertEquals(Arrays.asList(
+                    "aaaa" + SEPARATOR + "bbbb" + SEPARATOR,
+                    "cccc" + SEPARATOR + "dddd" + SEPARATOR,
+                    "eeee" + SEPARATOR + "ffff"),
+                ranges);
+    }
+
+    @Test
+    public void shouldStartRangeAtNominalBoundaryIfPrecededBySeparator() throws IOException {
+        fileRangeSplitter.setRanges(2);
+
+        fileRangeSplitter.process(createTestFile("aaa" + SEPARATOR + "bbb" + SEPARATOR));
+
+        Assert.assertEquals(Arrays.asList("aaa" + SEPARATOR, "bbb" + SEPARATOR), ranges);
+    }
+
+    @Test
+    public void shouldMergeRangesWithinLargeRecords() throws IOException {
+        fileRangeSplitter.setRanges(4);
+
+        fileRangeSplitter.process(createTestFile("aaaaaaaaaaaaaa" + SEPARATOR + "b"));
+
+        Assert.assertEquals(Arrays.asList("aaaaaaaaaaaaaa" + SEPARATOR, "b"), ranges);
+    }
+
+    @Test
+    public void shouldUseCustomSeparator() throws IOException {
+        fileRangeSplitter.setRanges(2);
+        fileRangeSplitter.setSeparator("\n");
+
+        fileRangeSplitter.process(createTestFile("line1\nline2\nline3\n"));
+
+        Assert.assertEquals(Arrays.asList("line1\nline2\n", "line3\n"), ranges);
+    }
+
+    @Test
+    public void shouldReadRangesAcrossSegments() throws IOException {
+        fileRangeSplitter.setRanges(2);
+        fileRangeSplitter.setSegmentSize(3);
+
+        fileRangeSplitter.process(createTestFile("aaaa" + SEPARATOR + "bbbb"));
+
+        Assert.assertEquals(Arrays.asList("aaaa" + SEPARATOR, "bbbb"), ranges);
+    }
+
+    @Test
+    public void shouldEmitSingleRangeForEmptyFile() throws IOException {
+        fileRangeSplitter.setRanges(2);
+
+        fileRangeSplitter.process(createTestFile(""));
+
+        Assert.assertEquals(Arrays.asList(""), ranges);
+    }
+
+    @Test
+    public void shouldKeepRecordOrderOfRangesProducingMoreOutputThanCapacity() throws IOException {
+        final int rangeCount = 4;
+        final int recordCount = 400;
+        final List<String> records = new ArrayList<>();
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < recordCount; ++i) {
+            data.append("record").append(i).append('\n');
+        }
+
+        final ObjectMerger<String> merger = new ObjectMerger<>();
+        merger.setReceiver(new DefaultObjectReceiver<String>() {
+
+            @Override
+            public void process(final String record) {
+                records.add(record);
+            }
+
+        });
+        final ObjectParallelizer<InputStream> parallelizer = new ObjectParallelizer<>();
+        parallelizer.setCapacity(2);
+        parallelizer.setBufferSize(10);
+        for (int i = 0; i < rangeCount; ++i) {
+            final LineSplitter branch = new LineSplitter();
+            branch.setReceiver(merger);
+            parallelizer.addReceiver(branch);
+        }
+        fileRangeSplitter.setRanges(rangeCount);
+        fileRangeSplitter.setSeparator("\n");
+        fileRangeSplitter.setReceiver(parallelizer);
+
+        fileRangeSplitter.process(createTestFile(data.toString()));
+        fileRangeSplitter.closeStream();
+
+        Assert.assertEquals(recordCount, records.size());
+        for (int i = 0; i < recordCount; ++i) {
+            Assert.assertEquals("record" + i, records.get(i));
+        }
+    }
+
+    private String createTestFile(final String data) throws IOException {
+        final File file = tempFolder.newFile();
+        Files.write(file.toPath(), data.getBytes(StandardCharsets.UTF_8));
+        return file.getAbsolutePath();
+    }
+
+    private static String readAll(final InputStream stream) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[2];
+        try {
+            int count = stream.read(buffer);
+            while (count != -1) {
+                out.write(buffer, 0, count);
+                count = stream.read(buffer);
+            }
+        }
+        catch (final IOException e) {
+            throw new AssertionError(e);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Emits the lines of a range.
+     */
+    private static final class LineSplitter extends DefaultObjectPipe<InputStream, ObjectReceiver<String>> {
+
+        LineSplitter() {
+        }
+
+        @Override
+        public void process(final InputStream stream) {
+            for (final String line : readAll(stream).split("\n")) {
+                getReceiver().process(line);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.metafacture.commons.ResourceUtil;
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for class {@link InputStreamDecoder}.
+ */
+public final class InputStreamDecoderTest {
+
+    private static final String DATA = "Überfacture";
+
+    private final List<String> contents = new ArrayList<>();
+
+    @Test
+    public void shouldDecodeUtf8ByDefault() {
+        process(new InputStreamDecoder(), DATA.getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals(DATA, contents.get(0));
+    }
+
+    @Test
+    public void shouldUseConfiguredEncoding() {
+        final InputStreamDecoder decoder = new InputStreamDecoder();
+        decoder.setEncoding("ISO-8859-1");
+
+        process(decoder, DATA.getBytes(StandardCharsets.ISO_8859_1));
+
+        Assert.assertEquals(DATA, contents.get(0));
+    }
+
+    private void process(final InputStreamDecoder decoder, final byte[] data) {
+        decoder.setReceiver(new DefaultObjectReceiver<Reader>() {
+
+            @Override
+            public void process(final Reader reader) {
+                try {
+                    contents.add(ResourceUtil.readAll(reader));
+                }
+                catch (final IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+        });
+        decoder.process(new ByteArrayInputStream(data));
+        decoder.closeStream();
+    }
+
+}
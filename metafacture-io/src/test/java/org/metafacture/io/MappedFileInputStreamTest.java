@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.metafacture.framework.ObjectReceiver;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests for class {@link MappedFileInputStream}.
+ */
+public final class MappedFileInputStreamTest {
+
+    private static final String DATA = "record1\u001drecord2\u001drecord3";
+    private static final int SEGMENT_SIZE = 5;
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Mock
+    private ObjectReceiver<byte[]> receiver;
+
+    @Test
+    public void shouldReadFileAcrossSegments() throws IOException {
+        try (InputStream stream = new MappedFileInputStream(createTestFile(DATA), SEGMENT_SIZE)) {
+            Assert.assertEquals(DATA, readAll(stream));
+        }
+    }
+
+    @Test
+    public void shouldReadSingleBytes() throws IOException {
+        try (InputStream stream = new MappedFileInputStream(createTestFile("abcdefg"), SEGMENT_SIZE)) {
+            Assert.assertEquals(7, stream.available());
+            Assert.assertEquals('a', stream.read());
+            Assert.assertEquals(4, stream.skip(4));
+            Assert.assertEquals('f', stream.read());
+            Assert.assertEquals('g', stream.read());
+            Assert.assertEquals(-1, stream.read());
+            Assert.assertEquals(0, stream.available());
+        }
+    }
+
+    @Test
+    public void shouldReadEmptyFile() throws IOException {
+        try (InputStream stream = new MappedFileInputStream(createTestFile(""))) {
+            Assert.assertEquals(-1, stream.read());
+        }
+    }
+
+    @Test
+    public void shouldResetToMarkInPreviousSegment() throws IOException {
+        try (InputStream stream = new MappedFileInputStream(createTestFile("abcdefg"), SEGMENT_SIZE)) {
+            stream.read();
+            stream.mark(Integer.MAX_VALUE);
+            Assert.assertEquals("bcdefg", readAll(stream));
+            stream.reset();
+            Assert.assertEquals("bcdefg", readAll(stream));
+        }
+    }
+
+    @Test
+    public void shouldReturnUnreadPartOfSegments() throws IOException {
+        try (MappedFileInputStream stream = new MappedFileInputStream(createTestFile("abcdefg"), SEGMENT_SIZE)) {
+            stream.read();
+            Assert.assertEquals(ByteBuffer.wrap(bytes("bcde")), stream.nextSegment());
+            Assert.assertEquals(ByteBuffer.wrap(bytes("fg")), stream.nextSegment());
+            Assert.assertNull(stream.nextSegment());
+        }
+    }
+
+    @Test
+    public void shouldSplitRecordsStraddlingSegments() throws IOException {
+        final ByteRecordReader byteRecordReader = new ByteRecordReader();
+        byteRecordReader.setReceiver(receiver);
+
+        byteRecordReader.process(new MappedFileInputStream(createTestFile(DATA), SEGMENT_SIZE));
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).process(aryEq(bytes("record1")));
+        ordered.verify(receiver).process(aryEq(bytes("record2")));
+        ordered.verify(receiver).process(aryEq(bytes("record3")));
+        verifyNoMoreInteractions(receiver);
+    }
+
+    private Path createTestFile(final String data) throws IOException {
+        final File file = tempFolder.newFile();
+        Files.write(file.toPath(), bytes(data));
+        return file.toPath();
+    }
+
+    private static String readAll(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[3];
+        int count = stream.read(buffer);
+        while (count != -1) {
+            out.write(buffer, 0, count);
+            count = stream.read(buffer);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(final String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
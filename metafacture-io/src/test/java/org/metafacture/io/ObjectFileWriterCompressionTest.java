@@ -85,6 +85,8 @@ public static Iterable<Object[]> data() {
                 { FILENAME_GZ, FileCompression.GZIP, MAGIC_BYTES_GZIP },
                 { FILENAME_GZ_NOAUTO, FileCompression.GZIP, MAGIC_BYTES_GZIP },
                 { FILENAME_XZ, FileCompression.XZ, MAGIC_BYTES_XZ },
+                { FILENAME_BZ2, FileCompression.PARALLEL_BZIP2, MAGIC_BYTES_BZIP2 },
+                { FILENAME_GZ, FileCompression.PARALLEL_GZIP, MAGIC_BYTES_GZIP },
             });
     }
 
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Tests for {@link FileCompression#PARALLEL_GZIP} and
+ * {@link FileCompression#PARALLEL_BZIP2}.
+ */
+public final class ParallelCompressionTest {
+
+    private static final int BGZF_BLOCK_SIZE_OFFSET = 16;
+    private static final int BGZF_FOOTER_SIZE = 8;
+    private static final int BZIP2_BLOCK_CRC_OFFSET = 10;
+    private static final int BZIP2_MIN_BLOCK_SIZE = 1;
+
+    // Bytes whose bzip2 symbol map spells the block magic number 0x314159265359
+    // in three consecutive 16 bit fields:
+    private static final String MAGIC_SYMBOLS = "\"#')/" + "1347:=>" + "ACFGIKLO";
+
+    @Test
+    public void shouldDecompressAllBgzfMembersByDefault() throws IOException {
+        final byte[] data = randomText(6 << 20);
+
+        final byte[] compressed = compress(FileCompression.PARALLEL_GZIP, data);
+
+        assertArrayEquals(data, decompress(FileCompression.PARALLEL_GZIP, compressed, false));
+        assertArrayEquals(data, decompress(FileCompression.GZIP, compressed, true));
+    }
+
+    @Test
+    public void shouldDecompressConcatenatedGzipStreamsIfRequested() throws IOException {
+        final byte[] compressed = concat(
+                compress(FileCompression.GZIP, bytes("first ")),
+                compress(FileCompression.GZIP, bytes("second")));
+
+        assertEquals("first ", string(decompress(FileCompression.PARALLEL_GZIP, compressed, false)));
+        assertEquals("first second", string(decompress(FileCompression.PARALLEL_GZIP, compressed, true)));
+    }
+
+    @Test
+    public void shouldFailOnCrcErrorInBgzfMember() throws IOException {
+        final byte[] compressed = compress(FileCompression.PARALLEL_GZIP, randomText(1 << 18));
+        final int blockSize = (compressed[BGZF_BLOCK_SIZE_OFFSET] & 0xff |
+                (compressed[BGZF_BLOCK_SIZE_OFFSET + 1] & 0xff) << 8) + 1;
+        compressed[blockSize - BGZF_FOOTER_SIZE] ^= 1;
+
+        assertDecompressionFails(FileCompression.PARALLEL_GZIP, compressed, "CRC error in BGZF block");
+    }
+
+    @Test
+    public void shouldDecodeMultiBlockBzip2Streams() throws IOException {
+        final byte[] data = randomText(1 << 20);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream compressor = new BZip2CompressorOutputStream(out, BZIP2_MIN_BLOCK_SIZE)) {
+            compressor.write(data);
+        }
+
+        assertArrayEquals(data, decompress(FileCompression.PARALLEL_BZIP2, out.toByteArray(), false));
+    }
+
+    @Test
+    public void shouldWriteMultiBlockBzip2Streams() throws IOException {
+        final byte[] data = randomText(4 << 20);
+
+        final byte[] compressed = compress(FileCompression.PARALLEL_BZIP2, data);
+
+        assertArrayEquals(data, decompress(FileCompression.BZIP2, compressed, false));
+        assertArrayEquals(data, decompress(FileCompression.PARALLEL_BZIP2, compressed, false));
+    }
+
+    @Test
+    public void shouldDecompressConcatenatedBzip2StreamsIfRequested() throws IOException {
+        final byte[] compressed = concat(
+                compress(FileCompression.BZIP2, bytes("first ")),
+                compress(FileCompression.BZIP2, bytes("second")));
+
+        assertEquals("first ", string(decompress(FileCompression.PARALLEL_BZIP2, compressed, false)));
+        assertEquals("first second", string(decompress(FileCompression.PARALLEL_BZIP2, compressed, true)));
+    }
+
+    @Test
+    public void shouldRetryBzip2BlockCutByMagicNumberInCompressedData() throws IOException {
+        final Random random = new Random(1);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; ++i) {
+            builder.append(MAGIC_SYMBOLS.charAt(random.nextInt(MAGIC_SYMBOLS.length())));
+        }
+        final byte[] data = bytes(builder.toString());
+
+        final byte[] compressed = compress(FileCompression.BZIP2, data);
+        final long firstBlock = Bzip2Blocks.HEADER_BITS;
+        assertEquals(firstBlock, Bzip2Blocks.findMagic(compressed, 0, compressed.length));
+        assertTrue(Bzip2Blocks.findMagic(compressed, firstBlock + 1, compressed.length) < compressed.length * 8L -
+                Bzip2Blocks.TRAILER_BITS - Byte.SIZE);
+
+        assertArrayEquals(data, decompress(FileCompression.PARALLEL_BZIP2, compressed, false));
+    }
+
+    @Test
+    public void shouldFailOnCrcErrorInBzip2Block() throws IOException {
+        final byte[] compressed = compress(FileCompression.BZIP2, randomText(1 << 16));
+        compressed[BZIP2_BLOCK_CRC_OFFSET] ^= 1;
+
+        assertDecompressionFails(FileCompression.PARALLEL_BZIP2, compressed, null);
+    }
+
+    private static void assertDecompressionFails(final FileCompression compression, final byte[] compressed,
+            final String message) {
+        try {
+            decompress(compression, compressed, false);
+            fail("decompression should fail");
+        }
+        catch (final IOException e) {
+            if (message != null) {
+                assertEquals(message, e.getMessage());
+            }
+        }
+    }
+
+    private static byte[] compress(final FileCompression compression, final byte[] data) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream compressor = compression.createCompressor(out, null)) {
+            compressor.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(final FileCompression compression, final byte[] compressed,
+            final boolean decompressConcatenated) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = compression.createDecompressor(new ByteArrayInputStream(compressed),
+                decompressConcatenated)) {
+            final byte[] buffer = new byte[8192];
+            int n = in.read(buffer);
+            while (n >= 0) {
+                out.write(buffer, 0, n);
+                n = in.read(buffer);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] randomText(final int size) {
+        final Random random = new Random(size);
+        final StringBuilder builder = new StringBuilder(size + 16);
+        while (builder.length() < size) {
+            builder.append(Integer.toString(random.nextInt(100000), 36)).append(' ');
+        }
+        builder.setLength(size);
+        return bytes(builder.toString());
+    }
+
+    private static byte[] concat(final byte[] first, final byte[] second) {
+        final byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static byte[] bytes(final String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(final byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 hbz
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.json;
+
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.MetafactureException;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serialises an object as UTF-8 encoded JSON. The encoder works like
+ * {@link JsonEncoder} but writes the records into a reusable byte buffer
+ * and passes them on as byte arrays. No strings are created for the
+ * records.
+ * <p>
+ * Each record is followed by the record separator, which is a line break by
+ * default. Together with a writer for byte arrays this produces JSON Lines
+ * output, for instance:
+ * <pre>{@code
+ * ... | encode-json-bytes | write-bytes("records.jsonl");
+ * }</pre>
+ */
+@Description("Serialises an object as UTF-8 encoded JSON. Each record is followed by the 'recordSeparator' " +
+        "(default: line break).")
+@In(StreamReceiver.class)
+@Out(byte[].class)
+@FluxCommand("encode-json-bytes")
+public final class JsonByteEncoder extends AbstractJsonEncoder<byte[]> {
+
+    public static final String RECORD_SEPARATOR = "\n";
+
+    private final ByteArrayBuilder buffer;
+
+    private byte[] recordSeparator = RECORD_SEPARATOR.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Creates an instance of {@link JsonByteEncoder}.
+     */
+    public JsonByteEncoder() {
+        this(new ByteArrayBuilder());
+    }
+
+    private JsonByteEncoder(final ByteArrayBuilder buffer) {
+        super(createGenerator(buffer));
+        this.buffer = buffer;
+    }
+
+    private static JsonGenerator createGenerator(final ByteArrayBuilder buffer) {
+        try {
+            return new JsonFactory().createGenerator(buffer, JsonEncoding.UTF8);
+        }
+        catch (final IOException e) {
+            throw new MetafactureException(e);
+        }
+    }
+
+    /**
+     * Sets the separator written after each record.
+     * <p>
+     * <strong>Default value: {@value #RECORD_SEPARATOR}</strong>
+     *
+     * @param recordSeparator the record separator
+     */
+    public void setRecordSeparator(final String recordSeparator) {
+        this.recordSeparator = recordSeparator.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the separator written after each record.
+     *
+     * @return the record separator
+     */
+    public String getRecordSeparator() {
+        return new String(recordSeparator, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void clearOutput() {
+        buffer.reset();
+    }
+
+    @Override
+    protected byte[] getOutput() {
+        buffer.write(recordSeparator, 0, recordSeparator.length);
+        return buffer.toByteArray();
+    }
+
+}
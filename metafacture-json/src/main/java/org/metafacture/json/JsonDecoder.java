@@ -32,12 +32,18 @@
 import com.jayway.jsonpath.JsonPath;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
 /**
  * Decodes a record in JSON format.
+ * <p>
+ * If the record path only consists of child names, array indexes and
+ * wildcards (for instance {@code $.data[*].items}), the decoder navigates
+ * the token stream of the document to the matching values and decodes them
+ * directly. Other paths are evaluated with JsonPath on the whole document.
  *
  * @author Jens Wille
  *
@@ -68,6 +74,8 @@ public final class JsonDecoder extends DefaultObjectPipe<String, StreamReceiver>
     private String numberMarker = DEFAULT_NUMBER_MARKER;
     private String recordId = DEFAULT_RECORD_ID;
     private String recordPath = DEFAULT_ROOT_PATH;
+    private List<PathSegment> streamingPath;
+    private boolean definitePath = true;
 
     private int recordCount;
 
@@ -210,6 +218,8 @@ public int getRecordCount() {
      */
     public void setRecordPath(final String recordPath) {
         this.recordPath = recordPath;
+        streamingPath = PathSegment.parse(recordPath);
+        definitePath = streamingPath == null || streamingPath.stream().noneMatch(s -> s.wildcard);
     }
 
     /**
@@ -234,6 +244,9 @@ public void process(final String json) {
         if (recordPath.isEmpty()) {
             processRecord(json);
         }
+        else if (streamingPath != null) {
+            processPath(json);
+        }
         else {
             matches(JsonPath.read(json, recordPath)).forEach(record -> {
                 processRecord(record);
@@ -254,6 +267,82 @@ private void processRecord(final String record) {
         }
     }
 
+    private void processPath(final String json) {
+        createParser(json);
+        try {
+            jsonParser.nextToken();
+            if (!matchPath(0) && definitePath) {
+                throw new MetafactureException("No results for path: " + recordPath);
+            }
+        }
+        catch (final IOException e) {
+            throw new MetafactureException(e);
+        }
+        finally {
+            closeParser();
+        }
+    }
+
+    /**
+     * Walks the value at the current token and decodes the values matching
+     * the remaining path segments. Values which cannot match are skipped.
+     *
+     * @return true if at least one value matched the path
+     */
+    private boolean matchPath(final int level) throws IOException {
+        if (level == streamingPath.size()) {
+            decodeMatch();
+            return true;
+        }
+        final PathSegment segment = streamingPath.get(level);
+        boolean matched = false;
+        if (jsonParser.currentToken() == JsonToken.START_OBJECT) {
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final boolean matches = segment.matches(jsonParser.getCurrentName());
+                jsonParser.nextToken();
+                if (matches) {
+                    matched |= matchPath(level + 1);
+                }
+                else {
+                    jsonParser.skipChildren();
+                }
+            }
+        }
+        else if (jsonParser.currentToken() == JsonToken.START_ARRAY) {
+            for (int i = 0; jsonParser.nextToken() != JsonToken.END_ARRAY; ++i) {
+                if (segment.matches(i)) {
+                    matched |= matchPath(level + 1);
+                }
+                else {
+                    jsonParser.skipChildren();
+                }
+            }
+        }
+        return matched;
+    }
+
+    private void decodeMatch() throws IOException {
+        // Like JsonPath, a definite path matching an array yields the
+        // elements of the array as records:
+        if (definitePath && jsonParser.currentToken() == JsonToken.START_ARRAY) {
+            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                decodeMatchedRecord();
+            }
+        }
+        else {
+            decodeMatchedRecord();
+        }
+    }
+
+    private void decodeMatchedRecord() throws IOException {
+        if (jsonParser.currentToken() != JsonToken.START_OBJECT) {
+            throw unexpectedToken();
+        }
+        getReceiver().startRecord(String.format(recordId, ++recordCount));
+        decodeObject();
+        getReceiver().endRecord();
+    }
+
     private Stream<String> matches(final Object obj) {
         final List<?> records = (obj instanceof List<?>) ? ((List<?>) obj) : Arrays.asList(obj);
         return records.stream().map(doc -> {
@@ -298,15 +387,19 @@ private void decode() throws IOException {
         }
 
         if (jsonParser.currentToken() != null) {
-            throw new MetafactureException(new StringBuilder()
-                    .append("Unexpected token '")
-                    .append(jsonParser.currentToken())
-                    .append("' at ")
-                    .append(jsonParser.getCurrentLocation())
-                    .toString());
+            throw unexpectedToken();
         }
     }
 
+    private MetafactureException unexpectedToken() {
+        return new MetafactureException(new StringBuilder()
+                .append("Unexpected token '")
+                .append(jsonParser.currentToken())
+                .append("' at ")
+                .append(jsonParser.getCurrentLocation())
+                .toString());
+    }
+
     private void decodeObject() throws IOException {
         while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
             decodeValue(jsonParser.getCurrentName(), jsonParser.nextToken());
@@ -360,4 +453,120 @@ private String getMarkedName(final String name, final String marker) {
         return marker != null ? name + marker : name;
     }
 
+    /**
+     * A step of a record path which can be evaluated on the token stream:
+     * a child name, an array index or a wildcard.
+     */
+    private static final class PathSegment {
+
+        private static final char ROOT = '$';
+        private static final char DOT = '.';
+        private static final char BRACKET_OPEN = '[';
+        private static final char BRACKET_CLOSE = ']';
+        private static final String WILDCARD = "*";
+
+        private final String name;
+        private final int index;
+        private final boolean wildcard;
+
+        private PathSegment(final String name, final int index, final boolean wildcard) {
+            this.name = name;
+            this.index = index;
+            this.wildcard = wildcard;
+        }
+
+        boolean matches(final String fieldName) {
+            return wildcard || fieldName.equals(name);
+        }
+
+        boolean matches(final int arrayIndex) {
+            return wildcard || name == null && arrayIndex == index;
+        }
+
+        /**
+         * Parses a record path.
+         *
+         * @param path the record path
+         * @return the segments of the path or null if the path contains
+         *         other elements than child names, array indexes and
+         *         wildcards
+         */
+        static List<PathSegment> parse(final String path) {
+            if (path.isEmpty() || path.charAt(0) != ROOT) {
+                return null;
+            }
+            final List<PathSegment> segments = new ArrayList<>();
+            int i = 1;
+            while (i < path.length()) {
+                final int end;
+                final PathSegment segment;
+                if (path.charAt(i) == DOT) {
+                    end = nextDelimiter(path, i + 1);
+                    segment = fromName(path.substring(i + 1, end));
+                }
+                else if (path.charAt(i) == BRACKET_OPEN) {
+                    final int close = path.indexOf(BRACKET_CLOSE, i);
+                    if (close < 0) {
+                        return null;
+                    }
+                    end = close + 1;
+                    segment = fromBracket(path.substring(i + 1, close));
+                }
+                else {
+                    return null;
+                }
+                if (segment == null) {
+                    return null;
+                }
+                segments.add(segment);
+                i = end;
+            }
+            return segments;
+        }
+
+        private static int nextDelimiter(final String path, final int from) {
+            int i = from;
+            while (i < path.length() && path.charAt(i) != DOT && path.charAt(i) != BRACKET_OPEN) {
+                ++i;
+            }
+            return i;
+        }
+
+        private static PathSegment fromName(final String name) {
+            if (WILDCARD.equals(name)) {
+                return new PathSegment(null, -1, true);
+            }
+            if (name.isEmpty() || !isPlainName(name)) {
+                return null;
+            }
+            return new PathSegment(name, -1, false);
+        }
+
+        private static PathSegment fromBracket(final String content) {
+            if (WILDCARD.equals(content)) {
+                return new PathSegment(null, -1, true);
+            }
+            if (content.length() >= 2 && (content.charAt(0) == '\'' || content.charAt(0) == '"') &&
+                    content.charAt(content.length() - 1) == content.charAt(0)) {
+                final String name = content.substring(1, content.length() - 1);
+                return isPlainName(name) ? new PathSegment(name, -1, false) : null;
+            }
+            if (!content.isEmpty() && content.chars().allMatch(Character::isDigit)) {
+                try {
+                    return new PathSegment(null, Integer.parseInt(content), false);
+                }
+                catch (final NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private static boolean isPlainName(final String name) {
+            return name.chars().noneMatch(ch -> ch == '\'' || ch == '"' || ch == ',' || ch == '*' ||
+                    ch == '(' || ch == ')' || ch == '?' || ch == '@' || ch == '\\');
+        }
+
+    }
+
 }
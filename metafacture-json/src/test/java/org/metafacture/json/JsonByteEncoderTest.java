@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 hbz
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+
+/**
+ * Tests for class {@link JsonByteEncoder}.
+ *
+ */
+public final class JsonByteEncoderTest {
+
+    private JsonByteEncoder encoder;
+
+    private List<String> results;
+
+    @Before
+    public void setup() {
+        results = new ArrayList<>();
+        encoder = new JsonByteEncoder();
+        encoder.setReceiver(new DefaultObjectReceiver<byte[]>() {
+            @Override
+            public void process(final byte[] obj) {
+                results.add(new String(obj, StandardCharsets.UTF_8));
+            }
+        });
+    }
+
+    @After
+    public void cleanup() {
+        encoder.closeStream();
+    }
+
+    @Test
+    public void testShouldEncodeRecordsAsJsonLines() {
+        encoder.startRecord("");
+        encoder.literal("L1", "V1");
+        encoder.startEntity("Li1[]");
+        encoder.literal("1", "ü");
+        encoder.endEntity();
+        encoder.endRecord();
+        encoder.startRecord("");
+        encoder.literal("L2", "V2");
+        encoder.endRecord();
+
+        assertEquals(2, results.size());
+        assertEquals(fixQuotes("{'L1':'V1','Li1':['ü']}\n"), results.get(0));
+        assertEquals(fixQuotes("{'L2':'V2'}\n"), results.get(1));
+    }
+
+    @Test
+    public void testShouldWriteConfiguredRecordSeparator() {
+        encoder.setRecordSeparator("");
+        encoder.startRecord("");
+        encoder.literal("L1", "V1");
+        encoder.endRecord();
+
+        assertEquals(fixQuotes("{'L1':'V1'}"), results.get(0));
+    }
+
+    private String fixQuotes(final String str) {
+        return str.replace('\'', '"');
+    }
+
+}
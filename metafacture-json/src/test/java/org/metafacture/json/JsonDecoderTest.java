@@ -298,6 +298,58 @@ public void testShouldProcessRecordsInArrayRoot() {
         ordered.verify(receiver).endRecord();
     }
 
+    @Test
+    public void testShouldProcessRecordsMatchingWildcardPath() {
+        jsonDecoder.setRecordPath("$.data[*].item");
+        jsonDecoder.process(
+                "{\"data\":[" + "{\"item\": {\"lit\": \"record 1\"}, \"skip\": [1, {}]}," +
+                        "{\"other\": {\"lit\": \"other\"}}," +
+                        "{\"item\": {\"lit\": \"record 2\"}}" + "]}");
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).startRecord("1");
+        ordered.verify(receiver).literal("lit", "record 1");
+        ordered.verify(receiver).endRecord();
+        ordered.verify(receiver).startRecord("2");
+        ordered.verify(receiver).literal("lit", "record 2");
+        ordered.verify(receiver).endRecord();
+        ordered.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void testShouldProcessRecordAtArrayIndex() {
+        jsonDecoder.setRecordPath("$['data'][1]");
+        jsonDecoder.process(
+                "{\"data\":[" + "{\"lit\": \"record 1\"}," +
+                        "{\"lit\": \"record 2\"}" + "]}");
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).startRecord("1");
+        ordered.verify(receiver).literal("lit", "record 2");
+        ordered.verify(receiver).endRecord();
+        ordered.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void testShouldProcessRecordsMatchingFilterPath() {
+        jsonDecoder.setRecordPath("$.data[?(@.lit == 'record 2')]");
+        jsonDecoder.process(
+                "{\"data\":[" + "{\"lit\": \"record 1\"}," +
+                        "{\"lit\": \"record 2\"}" + "]}");
+
+        final InOrder ordered = inOrder(receiver);
+        ordered.verify(receiver).startRecord("1");
+        ordered.verify(receiver).literal("lit", "record 2");
+        ordered.verify(receiver).endRecord();
+        ordered.verifyNoMoreInteractions();
+    }
+
+    @Test(expected=MetafactureException.class)
+    public void testShouldFailIfDefinitePathDoesNotMatch() {
+        jsonDecoder.setRecordPath("$.missing");
+        jsonDecoder.process("{\"data\":[]}");
+    }
+
     @Test(expected=MetafactureException.class)
     public void testRootArrayNoRecordPath() {
         jsonDecoder.process(
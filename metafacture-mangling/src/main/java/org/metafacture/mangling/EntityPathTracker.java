@@ -18,8 +18,8 @@
 
 import org.metafacture.framework.helpers.DefaultStreamReceiver;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Tracks the <i>path</i> of the current entity. The entity path consists of the
@@ -35,18 +35,29 @@
  *
  * <p>The current path is returned from {@link #getCurrentPath()}.
  *
+ * <p>Since the same paths occur in every record, the tracker caches the path
+ * strings of entities and literals in a tree which mirrors the entity
+ * structure. Repeated paths are therefore returned as the same string
+ * instance with a precomputed hash code instead of being concatenated anew
+ * for each event. The number of cached paths is limited to
+ * {@value #MAX_CACHED_PATHS}; further paths are created on demand.
+ *
  * @author Christoph Böhme
  * @see StreamFlattener
  */
 public class EntityPathTracker extends DefaultStreamReceiver {
 
     public static final String DEFAULT_ENTITY_SEPARATOR = ".";
+    public static final int MAX_CACHED_PATHS = 10000;
 
-    private final Deque<String> entityStack = new ArrayDeque<String>();
-    private final StringBuilder currentPath = new StringBuilder();
+    private static final String ENTITIES_NOT_BALANCED = "Entity starts and ends are not balanced";
 
     private String entitySeparator = DEFAULT_ENTITY_SEPARATOR;
 
+    private PathNode root = new PathNode(null, null, "");
+    private PathNode currentNode = root;
+    private int cachedPaths;
+
     /**
      * Creates an instance of {@link EntityPathTracker}.
      */
@@ -59,7 +70,7 @@ public EntityPathTracker() {
      * @return the current entity path or an empty string if not within a record.
      */
     public String getCurrentPath() {
-        return currentPath.toString();
+        return currentNode.path;
     }
 
     /**
@@ -72,10 +83,10 @@ public String getCurrentPath() {
      * received yet in which case only the literal name is returned.
      */
     public String getCurrentPathWith(final String literalName) {
-        if (entityStack.size() == 0) {
+        if (currentNode == root) {
             return literalName;
         }
-        return getCurrentPath() + entitySeparator + literalName;
+        return currentNode.getLiteralPath(literalName);
     }
 
     /**
@@ -84,7 +95,7 @@ public String getCurrentPathWith(final String literalName) {
      * @return the name of the current entity or null if not in an entity.
      */
     public String getCurrentEntityName() {
-        return entityStack.peek();
+        return currentNode.name;
     }
 
     /**
@@ -108,6 +119,9 @@ public String getEntitySeparator() {
      */
     public void setEntitySeparator(final String entitySeparator) {
         this.entitySeparator = entitySeparator;
+        root = new PathNode(null, null, "");
+        currentNode = root;
+        cachedPaths = 0;
     }
 
     @Override
@@ -122,14 +136,15 @@ public void endRecord() {
 
     @Override
     public void startEntity(final String name) {
-        entityStack.push(name);
-        appendEntityToPath();
+        currentNode = currentNode.getChild(name);
     }
 
     @Override
     public void endEntity() {
-        removeEntityFromPath();
-        entityStack.pop();
+        if (currentNode == root) {
+            throw new IllegalStateException(ENTITIES_NOT_BALANCED);
+        }
+        currentNode = currentNode.parent;
     }
 
     @Override
@@ -143,25 +158,68 @@ public void resetStream() {
     }
 
     private void clearStackAndPath() {
-        entityStack.clear();
-        currentPath.setLength(0);
+        currentNode = root;
     }
 
-    private void appendEntityToPath() {
-        if (entityStack.size() > 1) {
-            currentPath.append(entitySeparator);
+    private boolean reserveCacheEntry() {
+        if (cachedPaths < MAX_CACHED_PATHS) {
+            ++cachedPaths;
+            return true;
         }
-        currentPath.append(entityStack.peek());
+        return false;
     }
 
-    private void removeEntityFromPath() {
-        final String entityName = entityStack.peek();
-        final int oldPathLength = currentPath.length();
-        int lastEntityLength = entityName.length();
-        if (entityStack.size() > 1) {
-            lastEntityLength += entitySeparator.length();
+    /**
+     * An entity path together with the cached paths of its child entities
+     * and literals.
+     */
+    private final class PathNode {
+
+        private final PathNode parent;
+        private final String name;
+        private final String path;
+
+        private Map<String, PathNode> children;
+        private Map<String, String> literalPaths;
+
+        PathNode(final PathNode parent, final String name, final String path) {
+            this.parent = parent;
+            this.name = name;
+            this.path = path;
+            // Compute the hash code once so that all users of the cached
+            // path benefit from it:
+            path.hashCode();
+        }
+
+        PathNode getChild(final String childName) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            PathNode child = children.get(childName);
+            if (child == null) {
+                child = new PathNode(this, childName, this == root ? childName : path + entitySeparator + childName);
+                if (reserveCacheEntry()) {
+                    children.put(childName, child);
+                }
+            }
+            return child;
         }
-        currentPath.setLength(oldPathLength - lastEntityLength);
+
+        String getLiteralPath(final String literalName) {
+            if (literalPaths == null) {
+                literalPaths = new HashMap<>();
+            }
+            String literalPath = literalPaths.get(literalName);
+            if (literalPath == null) {
+                literalPath = path + entitySeparator + literalName;
+                literalPath.hashCode();
+                if (reserveCacheEntry()) {
+                    literalPaths.put(literalName, literalPath);
+                }
+            }
+            return literalPath;
+        }
+
     }
 
 }
@@ -18,6 +18,7 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
@@ -117,6 +118,35 @@ public void getCurrentPathWith_shouldReturnOnlyLiteralNameIfNotInEntity() {
         assertEquals("literal", pathTracker.getCurrentPathWith("literal"));
     }
 
+    @Test
+    public void getCurrentPathWith_shouldReturnSameInstanceForRepeatedPaths() {
+        pathTracker.startRecord("1");
+        pathTracker.startEntity("entity");
+        final String path = pathTracker.getCurrentPathWith("literal");
+        pathTracker.endEntity();
+        pathTracker.endRecord();
+
+        pathTracker.startRecord("2");
+        pathTracker.startEntity("entity");
+
+        assertSame(path, pathTracker.getCurrentPathWith("literal"));
+    }
+
+    @Test
+    public void setEntitySeparator_shouldDiscardCachedPaths() {
+        pathTracker.startRecord("1");
+        pathTracker.startEntity("entity");
+        assertEquals("entity.literal", pathTracker.getCurrentPathWith("literal"));
+        pathTracker.endEntity();
+        pathTracker.endRecord();
+
+        pathTracker.setEntitySeparator("/");
+        pathTracker.startRecord("2");
+        pathTracker.startEntity("entity");
+
+        assertEquals("entity/literal", pathTracker.getCurrentPathWith("literal"));
+    }
+
     @Test
     public void getCurrentEntityName_shouldReturnNullIfProcessingNotStarted() {
         assertNull(pathTracker.getCurrentEntityName());
@@ -145,4 +175,12 @@ public void getCurrentEntityName_shouldReturnNameOfCurrentEntity() {
         pathTracker.endRecord();
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void endEntity_shouldThrowIfEntitiesAreNotBalanced() {
+        pathTracker.startRecord("1");
+        pathTracker.startEntity("entity");
+        pathTracker.endEntity();
+        pathTracker.endEntity();
+    }
+
 }
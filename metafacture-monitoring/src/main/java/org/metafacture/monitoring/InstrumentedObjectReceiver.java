@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.monitoring;
+
+import org.metafacture.framework.ObjectReceiver;
+
+/**
+ * Measures the objects received by an {@link ObjectReceiver}.
+ *
+ * @param <T> object type
+ */
+final class InstrumentedObjectReceiver<T> extends InstrumentedReceiver<ObjectReceiver<T>> implements ObjectReceiver<T> {
+
+    InstrumentedObjectReceiver(final ObjectReceiver<T> receiver, final StageMetrics metrics) {
+        super(receiver, metrics);
+    }
+
+    @Override
+    public void process(final T obj) {
+        enterRecord();
+        try {
+            getReceiver().process(obj);
+        }
+        finally {
+            exitRecord();
+        }
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.monitoring;
+
+import org.metafacture.framework.Receiver;
+
+import java.util.Arrays;
+
+/**
+ * Base class for the wrappers created by
+ * {@link MetricsRegistry#instrument(String, Receiver)}. Subclasses measure
+ * records rather than single events: a record is timed from the call which
+ * starts it until the call which ends it has returned (for objects, both
+ * are the same call), see {@link #enterRecord()} and {@link #exitRecord()}.
+ * All other events are only counted with {@link #countEvent()}. The counts
+ * are kept in plain fields of the wrapper and added to the metrics of the
+ * stage when a record ends or the stream is closed. Life cycle calls are
+ * forwarded without being measured.
+ * <p>
+ * Like the wrapped receiver, a wrapper must only be called by one thread at
+ * a time.
+ *
+ * @param <R> type of the wrapped receiver
+ */
+abstract class InstrumentedReceiver<R extends Receiver> implements Receiver {
+
+    private static final ThreadLocal<Clock> CLOCK = ThreadLocal.withInitial(Clock::new);
+
+    private static final int NO_RECORD = -1;
+
+    private final R receiver;
+    private final StageMetrics metrics;
+
+    private Clock clock;
+    private int recordLevel = NO_RECORD;
+    private long events;
+
+    InstrumentedReceiver(final R receiver, final StageMetrics metrics) {
+        this.receiver = receiver;
+        this.metrics = metrics;
+    }
+
+    protected final R getReceiver() {
+        return receiver;
+    }
+
+    /**
+     * Starts measuring a record and counts the event starting it. If the previous record has not been ended
+     * because its processing failed, its events are counted but its time is
+     * dropped.
+     */
+    protected final void enterRecord() {
+        if (recordLevel != NO_RECORD) {
+            clock.drop(recordLevel, this);
+            metrics.countEvents(events);
+            events = 0;
+        }
+        clock = CLOCK.get();
+        recordLevel = clock.enter(this);
+        ++events;
+    }
+
+    /**
+     * Stops measuring the current record and adds it to the metrics of the
+     * stage. The event ending the record must have been counted with
+     * {@link #countEvent()} unless it started the record as well. Does
+     * nothing if no record has been started.
+     */
+    protected final void exitRecord() {
+        if (recordLevel == NO_RECORD) {
+            return;
+        }
+        clock.exit(recordLevel, metrics, events);
+        recordLevel = NO_RECORD;
+        events = 0;
+    }
+
+    /**
+     * Counts an event which neither starts nor ends a record.
+     */
+    protected final void countEvent() {
+        ++events;
+    }
+
+    @Override
+    public void resetStream() {
+        receiver.resetStream();
+    }
+
+    @Override
+    public void closeStream() {
+        metrics.countEvents(events);
+        events = 0;
+        receiver.closeStream();
+    }
+
+    /**
+     * Measures the records of the current thread. Records passed on to other
+     * measured stages are nested in the record of the passing stage; their
+     * time is subtracted from the self time of the passing stage.
+     */
+    static final class Clock {
+
+        private static final int INITIAL_DEPTH = 16;
+
+        private long[] starts = new long[INITIAL_DEPTH];
+        private long[] outerNested = new long[INITIAL_DEPTH];
+        private Object[] owners = new Object[INITIAL_DEPTH];
+        private int depth;
+        private long nested;
+
+        Clock() {
+        }
+
+        int enter(final Object owner) {
+            if (depth == starts.length) {
+                starts = Arrays.copyOf(starts, depth * 2);
+                outerNested = Arrays.copyOf(outerNested, depth * 2);
+                owners = Arrays.copyOf(owners, depth * 2);
+            }
+            owners[depth] = owner;
+            outerNested[depth] = nested;
+            nested = 0;
+            starts[depth] = System.nanoTime();
+            return depth++;
+        }
+
+        void exit(final int level, final StageMetrics metrics, final long events) {
+            // Nested records which have not been ended are dropped:
+            depth = level;
+            final long elapsed = System.nanoTime() - starts[depth];
+            metrics.record(events, elapsed, elapsed - nested);
+            nested = outerNested[depth] + elapsed;
+            owners[depth] = null;
+        }
+
+        void drop(final int level, final Object owner) {
+            if (level < depth && owners[level] == owner) {
+                depth = level;
+                nested = outerNested[level];
+                owners[level] = null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.metafacture.monitoring;
+
+import org.metafacture.framework.StreamReceiver;
+
+/**
+ * Measures the events received by a {@link StreamReceiver}.
+ */
+final class InstrumentedStreamReceiver extends InstrumentedReceiver<StreamReceiver> implements StreamReceiver {
+
+    InstrumentedStreamReceiver(final StreamReceiver receiver, final StageMetrics metrics) {
+        super(receiver, metrics);
+    }
+
+    @Override
+    public void startRecord(final String identifier) {
+        enterRecord();
+        getReceiver().startRecord(identifier);
+    }
+
+    @Override
+    public void endRecord() {
+        countEvent();
+        try {
+            getReceiver().endRecord();
+        }
+        finally {
+            exitRecord();
+        }
+    }
+
+    @Override
+    public void startEntity(final String name) {
+        countEvent();
+        getReceiver().startEntity(name);
+    }
+
+    @Override
+    public void endEntity() {
+        countEvent();
+        getReceiver().endEntity();
+    }
+
+    @Override
+    public void literal(final String name, final String value) {
+        countEvent();
+        getReceiver().literal(name, value);
+    }
+
+}
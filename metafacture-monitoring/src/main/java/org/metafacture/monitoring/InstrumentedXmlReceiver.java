@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.monitoring;
+
+import org.metafacture.framework.XmlReceiver;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import java.io.IOException;
+
+/**
+ * Measures the events received by an {@link XmlReceiver}. Each call of a SAX
+ * handler method is an event; {@code startDocument} starts a record and
+ * {@code endDocument} ends it.
+ */
+final class InstrumentedXmlReceiver extends InstrumentedReceiver<XmlReceiver> implements XmlReceiver {
+
+    InstrumentedXmlReceiver(final XmlReceiver receiver, final StageMetrics metrics) {
+        super(receiver, metrics);
+    }
+
+    @Override
+    public void setDocumentLocator(final Locator locator) {
+        getReceiver().setDocumentLocator(locator);
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        enterRecord();
+        getReceiver().startDocument();
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        countEvent();
+        try {
+            getReceiver().endDocument();
+        }
+        finally {
+            exitRecord();
+        }
+    }
+
+    @Override
+    public void startPrefixMapping(final String prefix, final String uri) throws SAXException {
+        countEvent();
+        getReceiver().startPrefixMapping(prefix, uri);
+    }
+
+    @Override
+    public void endPrefixMapping(final String prefix) throws SAXException {
+        countEvent();
+        getReceiver().endPrefixMapping(prefix);
+    }
+
+    @Override
+    public void startElement(final String uri, final String localName, final String qName,
+            final Attributes atts) throws SAXException {
+        countEvent();
+        getReceiver().startElement(uri, localName, qName, atts);
+    }
+
+    @Override
+    public void endElement(final String uri, final String localName, final String qName)
+            throws SAXException {
+        countEvent();
+        getReceiver().endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(final char[] ch, final int start, final int length) throws SAXException {
+        countEvent();
+        getReceiver().characters(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(final char[] ch, final int start, final int length)
+            throws SAXException {
+        countEvent();
+        getReceiver().ignorableWhitespace(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(final String target, final String data) throws SAXException {
+        countEvent();
+        getReceiver().processingInstruction(target, data);
+    }
+
+    @Override
+    public void skippedEntity(final String name) throws SAXException {
+        countEvent();
+        getReceiver().skippedEntity(name);
+    }
+
+    @Override
+    public void notationDecl(final String name, final String publicId, final String systemId)
+            throws SAXException {
+        countEvent();
+        getReceiver().notationDecl(name, publicId, systemId);
+    }
+
+    @Override
+    public void unparsedEntityDecl(final String name, final String publicId,
+            final String systemId, final String notationName) throws SAXException {
+        countEvent();
+        getReceiver().unparsedEntityDecl(name, publicId, systemId, notationName);
+    }
+
+    @Override
+    public InputSource resolveEntity(final String publicId, final String systemId)
+            throws SAXException, IOException {
+        countEvent();
+        return getReceiver().resolveEntity(publicId, systemId);
+    }
+
+    @Override
+    public void warning(final SAXParseException exception) throws SAXException {
+        countEvent();
+        getReceiver().warning(exception);
+    }
+
+    @Override
+    public void error(final SAXParseException exception) throws SAXException {
+        countEvent();
+        getReceiver().error(exception);
+    }
+
+    @Override
+    public void fatalError(final SAXParseException exception) throws SAXException {
+        countEvent();
+        getReceiver().fatalError(exception);
+    }
+
+    @Override
+    public void startDTD(final String name, final String publicId, final String systemId)
+            throws SAXException {
+        countEvent();
+        getReceiver().startDTD(name, publicId, systemId);
+    }
+
+    @Override
+    public void endDTD() throws SAXException {
+        countEvent();
+        getReceiver().endDTD();
+    }
+
+    @Override
+    public void startEntity(final String name) throws SAXException {
+        countEvent();
+        getReceiver().startEntity(name);
+    }
+
+    @Override
+    public void endEntity(final String name) throws SAXException {
+        countEvent();
+        getReceiver().endEntity(name);
+    }
+
+    @Override
+    public void startCDATA() throws SAXException {
+        countEvent();
+        getReceiver().startCDATA();
+    }
+
+    @Override
+    public void endCDATA() throws SAXException {
+        countEvent();
+        getReceiver().endCDATA();
+    }
+
+    @Override
+    public void comment(final char[] chars, final int start, final int length) throws SAXException {
+        countEvent();
+        getReceiver().comment(chars, start, length);
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.monitoring;
+
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.Receiver;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.XmlReceiver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A registry of {@link StageMetrics} for the stages of a pipeline. Stages
+ * are measured by wrapping them with {@link #instrument(String, Receiver)}.
+ * <p>
+ * The metrics can be written in the Prometheus text exposition format with
+ * {@link #writePrometheus(Appendable)} and are periodically exported by a
+ * {@link MetricsReporter}.
+ */
+public final class MetricsRegistry {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double PERCENT = 100;
+
+    private final Map<String, StageMetrics> stagesByName = new ConcurrentHashMap<>();
+    private final List<StageMetrics> stages = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates an instance of {@link MetricsRegistry}.
+     */
+    public MetricsRegistry() {
+    }
+
+    /**
+     * Gets the metrics of a stage. The metrics are created if the stage is
+     * not registered yet.
+     *
+     * @param name the name of the stage
+     * @return the metrics of the stage
+     */
+    public StageMetrics getStage(final String name) {
+        return stagesByName.computeIfAbsent(name, k -> {
+            final StageMetrics stage = new StageMetrics(k);
+            stages.add(stage);
+            return stage;
+        });
+    }
+
+    /**
+     * Gets the metrics of all stages in the order in which they were
+     * registered.
+     *
+     * @return the list of stage metrics
+     */
+    public List<StageMetrics> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Wraps a pipeline element so that the events it receives are counted
+     * and timed in the metrics of the given stage. The returned receiver
+     * implements the receiver interface of the element and forwards every
+     * call to it. Life cycle methods are forwarded without being measured.
+     * The wrapper is meant to be connected to the preceding element in place
+     * of the element; the element itself is still used to connect the
+     * following element.
+     * <p>
+     * Elements which do not implement exactly one of {@link StreamReceiver},
+     * {@link ObjectReceiver} and {@link XmlReceiver} are returned unchanged.
+     *
+     * @param stageName the name of the stage
+     * @param receiver  the element to measure
+     * @return the wrapped element
+     */
+    @SuppressWarnings("unchecked")  // the object type is not known at runtime
+    public Receiver instrument(final String stageName, final Receiver receiver) {
+        final boolean isStreamReceiver = receiver instanceof StreamReceiver;
+        final boolean isObjectReceiver = receiver instanceof ObjectReceiver;
+        final boolean isXmlReceiver = receiver instanceof XmlReceiver;
+
+        if (isStreamReceiver && !isObjectReceiver && !isXmlReceiver) {
+            return new InstrumentedStreamReceiver((StreamReceiver) receiver, getStage(stageName));
+        }
+        if (isObjectReceiver && !isStreamReceiver && !isXmlReceiver) {
+            return new InstrumentedObjectReceiver<>((ObjectReceiver<Object>) receiver, getStage(stageName));
+        }
+        if (isXmlReceiver && !isStreamReceiver && !isObjectReceiver) {
+            return new InstrumentedXmlReceiver((XmlReceiver) receiver, getStage(stageName));
+        }
+        return receiver;
+    }
+
+    /**
+     * Writes the metrics of all stages in the Prometheus text exposition
+     * format.
+     *
+     * @param out the destination of the metrics
+     * @throws IOException if an I/O error occurs
+     */
+    public void writePrometheus(final Appendable out) throws IOException {
+        final List<StageMetrics> snapshot = new ArrayList<>(stages);
+
+        writeHeader(out, "metafacture_stage_invocations_total", "counter",
+                "Number of events received by a pipeline stage.");
+        for (final StageMetrics stage : snapshot) {
+            writeSample(out, "metafacture_stage_invocations_total", stage, null, Long.toString(stage.getInvocations()));
+        }
+
+        writeHeader(out, "metafacture_stage_records_total", "counter",
+                "Number of records or objects received by a pipeline stage.");
+        for (final StageMetrics stage : snapshot) {
+            writeSample(out, "metafacture_stage_records_total", stage, null, Long.toString(stage.getRecords()));
+        }
+
+        writeHeader(out, "metafacture_stage_self_seconds_total", "counter",
+                "Time spent in a pipeline stage excluding measured downstream stages.");
+        for (final StageMetrics stage : snapshot) {
+            writeSample(out, "metafacture_stage_self_seconds_total", stage, null, seconds(stage.getSelfNanos()));
+        }
+
+        writeHeader(out, "metafacture_stage_latency_seconds", "summary",
+                "Time from the start of a record until a pipeline stage returned from its end.");
+        for (final StageMetrics stage : snapshot) {
+            final LatencyHistogram latency = stage.getLatency();
+            for (final double quantile : QUANTILES) {
+                writeSample(out, "metafacture_stage_latency_seconds", stage, quantile,
+                        seconds(latency.getValueAtPercentile(quantile * PERCENT)));
+            }
+            writeSample(out, "metafacture_stage_latency_seconds_sum", stage, null, seconds(latency.getSum()));
+            writeSample(out, "metafacture_stage_latency_seconds_count", stage, null, Long.toString(latency.getCount()));
+        }
+    }
+
+    private static void writeHeader(final Appendable out, final String metric, final String type, final String help) throws IOException {
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+    }
+
+    private static void writeSample(final Appendable out, final String metric, final StageMetrics stage,
+            final Double quantile, final String value) throws IOException {
+        out.append(metric).append("{stage=\"");
+        for (int i = 0; i < stage.getName().length(); ++i) {
+            final char ch = stage.getName().charAt(i);
+            if (ch == '\\' || ch == '"') {
+                out.append('\\').append(ch);
+            }
+            else if (ch == '\n') {
+                out.append("\\n");
+            }
+            else {
+                out.append(ch);
+            }
+        }
+        out.append('"');
+        if (quantile != null) {
+            out.append(",quantile=\"").append(quantile.toString()).append('"');
+        }
+        out.append("} ").append(value).append('\n');
+    }
+
+    private static String seconds(final long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / NANOS_PER_SECOND);
+    }
+
+}
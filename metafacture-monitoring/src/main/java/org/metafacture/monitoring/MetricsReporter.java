@@ -0,0 +1,273 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.monitoring;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exports the metrics of a {@link MetricsRegistry}. Depending on the
+ * configuration the metrics are
+ * <ul>
+ *   <li>periodically written to a file in the Prometheus text format,
+ *   <li>served in the Prometheus text format by an HTTP server listening on
+ *       the loopback interface, and
+ *   <li>registered as MXBeans with the platform MBean server.
+ * </ul>
+ * A final snapshot is written when the reporter is closed.
+ */
+public final class MetricsReporter implements Closeable {
+
+    public static final int DISABLED = -1;
+    public static final long DEFAULT_INTERVAL = 10;
+    public static final String METRICS_PATH = "/metrics";
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsReporter.class);
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String OBJECT_NAME_PREFIX = "org.metafacture:type=PipelineStage,name=";
+    private static final int HTTP_OK = 200;
+
+    private final MetricsRegistry registry;
+    private final Set<ObjectName> registeredBeans = new HashSet<>();
+
+    private String file;
+    private int port = DISABLED;
+    private boolean jmx;
+    private long interval = DEFAULT_INTERVAL;
+
+    private ScheduledExecutorService scheduler;
+    private HttpServer server;
+
+    /**
+     * Creates an instance of {@link MetricsReporter} for a registry.
+     *
+     * @param registry the registry whose metrics are exported
+     */
+    public MetricsReporter(final MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Sets the file to which snapshots are written. The file is replaced
+     * with each snapshot.
+     *
+     * @param file the path of the snapshot file or null to disable snapshots
+     */
+    public void setFile(final String file) {
+        this.file = file;
+    }
+
+    /**
+     * Sets the port on which the metrics are served at
+     * {@value #METRICS_PATH}. The server only listens on the loopback
+     * interface. Port 0 selects an ephemeral port.
+     * <p>
+     * <strong>Default value: {@value #DISABLED}</strong> (no server)
+     *
+     * @param port the port of the metrics server
+     */
+    public void setPort(final int port) {
+        this.port = port;
+    }
+
+    /**
+     * Gets the port of the running metrics server.
+     *
+     * @return the port of the metrics server or {@value #DISABLED} if no
+     *         server is running
+     */
+    public int getPort() {
+        return server == null ? DISABLED : server.getAddress().getPort();
+    }
+
+    /**
+     * Flags whether the stage metrics should be registered as MXBeans.
+     *
+     * @param jmx true if the metrics should be available via JMX
+     */
+    public void setJmx(final boolean jmx) {
+        this.jmx = jmx;
+    }
+
+    /**
+     * Sets the interval between two snapshots in seconds.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_INTERVAL}</strong>
+     *
+     * @param interval the snapshot interval in seconds
+     */
+    public void setInterval(final long interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("'interval' must be at least 1");
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * Starts exporting the metrics.
+     *
+     * @throws IOException if the metrics server cannot be started
+     */
+    public void start() throws IOException {
+        if (port != DISABLED) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext(METRICS_PATH, this::handleRequest);
+            server.start();
+        }
+
+        if (file != null || jmx) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::report, interval, interval, TimeUnit.SECONDS);
+        }
+        report();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        try {
+            if (file != null) {
+                writeSnapshot();
+            }
+        }
+        finally {
+            if (server != null) {
+                server.stop(0);
+                server = null;
+            }
+            unregisterBeans();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the metrics to the snapshot file. The file is
+     * replaced atomically where the file system supports it.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeSnapshot() throws IOException {
+        final Path target = Paths.get(file).toAbsolutePath();
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, formatMetrics().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void report() {
+        if (jmx) {
+            registerBeans();
+        }
+        if (file != null) {
+            try {
+                writeSnapshot();
+            }
+            catch (final IOException e) {
+                LOG.warn("Could not write metrics to " + file, e);
+            }
+        }
+    }
+
+    private String formatMetrics() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        registry.writePrometheus(builder);
+        return builder.toString();
+    }
+
+    private void handleRequest(final HttpExchange exchange) throws IOException {
+        try {
+            final byte[] body = formatMetrics().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(HTTP_OK, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private synchronized void registerBeans() {
+        final MBeanServer beanServer = ManagementFactory.getPlatformMBeanServer();
+        for (final StageMetrics stage : registry.getStages()) {
+            try {
+                final ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(stage.getName()));
+                if (!registeredBeans.contains(name) && !beanServer.isRegistered(name)) {
+                    beanServer.registerMBean(stage, name);
+                    registeredBeans.add(name);
+                }
+            }
+            catch (final JMException e) {
+                LOG.warn("Could not register metrics of stage " + stage.getName(), e);
+            }
+        }
+    }
+
+    private synchronized void unregisterBeans() {
+        final MBeanServer beanServer = ManagementFactory.getPlatformMBeanServer();
+        for (final ObjectName name : registeredBeans) {
+            try {
+                beanServer.unregisterMBean(name);
+            }
+            catch (final JMException e) {
+                LOG.warn("Could not unregister " + name, e);
+            }
+        }
+        registeredBeans.clear();
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a latency histogram of a single stage of a pipeline. The
+ * latency of a record is the time from the event starting the record until
+ * the stage returns from the event ending it, i.e. it includes the time
+ * spent in the stages the events are passed on to as well as the time the
+ * upstream stages need to produce the events of the record. For objects,
+ * the latency is the time until the stage returns. The self time excludes
+ * the time spent in downstream stages which are measured as well.
+ * <p>
+ * All counters are lock-free and may be updated from several threads.
+ */
+public final class StageMetrics implements StageMetricsMXBean {
+
+    private static final double MEDIAN = 50;
+    private static final double P99 = 99;
+
+    private final String name;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder records = new LongAdder();
+    private final LongAdder selfNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    StageMetrics(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a record or object received by the stage.
+     *
+     * @param events     the number of events of the record
+     * @param totalNanos the latency of the record in nanoseconds
+     * @param selfNanos  the time spent in the stage itself in nanoseconds
+     */
+    public void record(final long events, final long totalNanos, final long selfNanos) {
+        invocations.add(events);
+        records.increment();
+        this.selfNanos.add(selfNanos);
+        latency.record(totalNanos);
+    }
+
+    /**
+     * Counts events received by the stage outside of a record.
+     *
+     * @param events the number of events
+     */
+    public void countEvents(final long events) {
+        if (events > 0) {
+            invocations.add(events);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    @Override
+    public long getRecords() {
+        return records.sum();
+    }
+
+    @Override
+    public long getSelfNanos() {
+        return selfNanos.sum();
+    }
+
+    @Override
+    public long getTotalNanos() {
+        return latency.getSum();
+    }
+
+    @Override
+    public double getMeanLatencyNanos() {
+        return latency.getMean();
+    }
+
+    @Override
+    public long getMedianLatencyNanos() {
+        return latency.getValueAtPercentile(MEDIAN);
+    }
+
+    @Override
+    public long getP99LatencyNanos() {
+        return latency.getValueAtPercentile(P99);
+    }
+
+    @Override
+    public long getMaxLatencyNanos() {
+        return latency.getMax();
+    }
+
+    /**
+     * Gets the latency histogram of the stage.
+     *
+     * @return the latency histogram
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
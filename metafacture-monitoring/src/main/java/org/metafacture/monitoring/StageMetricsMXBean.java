@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.monitoring;
+
+/**
+ * Management interface of {@link StageMetrics} for JMX.
+ */
+public interface StageMetricsMXBean {
+
+    /**
+     * Gets the name of the stage.
+     *
+     * @return the name of the stage
+     */
+    String getName();
+
+    /**
+     * Gets the number of events received by the stage.
+     *
+     * @return the number of received events
+     */
+    long getInvocations();
+
+    /**
+     * Gets the number of records or objects received by the stage.
+     *
+     * @return the number of received records
+     */
+    long getRecords();
+
+    /**
+     * Gets the time spent in the stage itself in nanoseconds.
+     *
+     * @return the self time in nanoseconds
+     */
+    long getSelfNanos();
+
+    /**
+     * Gets the latency of all records received by the stage in nanoseconds.
+     *
+     * @return the total time in nanoseconds
+     */
+    long getTotalNanos();
+
+    /**
+     * Gets the mean latency of a record in nanoseconds.
+     *
+     * @return the mean latency in nanoseconds
+     */
+    double getMeanLatencyNanos();
+
+    /**
+     * Gets the median latency of a record in nanoseconds.
+     *
+     * @return the median latency in nanoseconds
+     */
+    long getMedianLatencyNanos();
+
+    /**
+     * Gets the 99th percentile of the latency of a record in nanoseconds.
+     *
+     * @return the 99th percentile of the latency in nanoseconds
+     */
+    long getP99LatencyNanos();
+
+    /**
+     * Gets the maximum latency of a record in nanoseconds.
+     *
+     * @return the maximum latency in nanoseconds
+     */
+    long getMaxLatencyNanos();
+
+}
@@ -101,7 +101,9 @@ protected final void stopMeasurement(final String prefix) {
         count += 1;
         cumulativeDuration += duration;
 
-        LOG.info(logPrefix + String.format(prefix + " %2$s", Long.valueOf(count), TimeUtil.formatDuration(duration)));
+        if (LOG.isInfoEnabled()) {
+            LOG.info(logPrefix + String.format(prefix + " %2$s", Long.valueOf(count), TimeUtil.formatDuration(duration)));
+        }
     }
 
 }
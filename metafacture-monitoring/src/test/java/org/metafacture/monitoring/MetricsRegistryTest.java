@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.metafacture.framework.ObjectReceiver;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.helpers.DefaultObjectPipe;
+import org.metafacture.framework.helpers.DefaultObjectReceiver;
+import org.metafacture.framework.helpers.DefaultStreamReceiver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Tests for classes {@link MetricsRegistry} and {@link MetricsReporter}.
+ */
+public final class MetricsRegistryTest {
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private MetricsRegistry registry;
+    private Collector collector;
+    private ObjectReceiver<String> pipeline;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        registry = new MetricsRegistry();
+        collector = new Collector();
+
+        final ObjectReceiver<String> sink = (ObjectReceiver<String>) registry.instrument("sink", collector);
+        final Forwarder forwarder = new Forwarder();
+        pipeline = (ObjectReceiver<String>) registry.instrument("forward", forwarder);
+        forwarder.setReceiver(sink);
+    }
+
+    @Test
+    public void shouldForwardEventsToInstrumentedElements() {
+        pipeline.process("a");
+        pipeline.process("b");
+        pipeline.closeStream();
+
+        assertEquals(2, collector.objects.size());
+        assertEquals("a", collector.objects.get(0));
+        assertEquals("b", collector.objects.get(1));
+        assertTrue(collector.closed);
+    }
+
+    @Test
+    public void shouldCountEventsButNotLifeCycleCalls() {
+        pipeline.process("a");
+        pipeline.process("b");
+        pipeline.closeStream();
+
+        final StageMetrics forward = registry.getStage("forward");
+        assertEquals(2, forward.getInvocations());
+        assertEquals(2, forward.getRecords());
+        assertEquals(2, forward.getLatency().getCount());
+        assertEquals(2, registry.getStage("sink").getInvocations());
+    }
+
+    @Test
+    public void shouldMeasureStreamEventsPerRecord() {
+        final StreamReceiver stream = (StreamReceiver) registry.instrument("stream", new DefaultStreamReceiver());
+        stream.startRecord("1");
+        stream.startEntity("e");
+        stream.literal("a", "b");
+        stream.endEntity();
+        stream.endRecord();
+        stream.literal("c", "d");
+
+        final StageMetrics metrics = registry.getStage("stream");
+        assertEquals(5, metrics.getInvocations());
+        assertEquals(1, metrics.getRecords());
+        assertEquals(1, metrics.getLatency().getCount());
+
+        stream.closeStream();
+        assertEquals(6, metrics.getInvocations());
+        assertEquals(1, metrics.getRecords());
+    }
+
+    @Test
+    public void shouldExcludeDownstreamStagesFromSelfTime() {
+        pipeline.process("a");
+
+        final StageMetrics forward = registry.getStage("forward");
+        final StageMetrics sink = registry.getStage("sink");
+        assertTrue(forward.getTotalNanos() >= sink.getTotalNanos());
+        assertTrue(forward.getSelfNanos() <= forward.getTotalNanos() - sink.getTotalNanos());
+    }
+
+    @Test
+    public void shouldWriteMetricsInPrometheusFormat() throws IOException {
+        pipeline.process("a");
+        registry.getStage("say \"hello\"");
+
+        final StringBuilder builder = new StringBuilder();
+        registry.writePrometheus(builder);
+        final String metrics = builder.toString();
+
+        assertTrue(metrics.contains("# TYPE metafacture_stage_records_total counter\n"));
+        assertTrue(metrics.contains("metafacture_stage_records_total{stage=\"forward\"} 1\n"));
+        assertTrue(metrics.contains("metafacture_stage_invocations_total{stage=\"say \\\"hello\\\"\"} 0\n"));
+        assertTrue(metrics.contains("metafacture_stage_latency_seconds{stage=\"sink\",quantile=\"0.99\"} "));
+        assertTrue(metrics.contains("metafacture_stage_latency_seconds_count{stage=\"sink\"} 1\n"));
+    }
+
+    @Test
+    public void shouldWriteSnapshotFileWhenClosed() throws IOException {
+        final File file = new File(tempFolder.getRoot(), "metrics.prom");
+        final MetricsReporter reporter = new MetricsReporter(registry);
+        reporter.setFile(file.getPath());
+        reporter.start();
+
+        pipeline.process("a");
+        pipeline.process("b");
+        reporter.close();
+
+        final String metrics = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(metrics.contains("metafacture_stage_records_total{stage=\"sink\"} 2\n"));
+    }
+
+    @Test
+    public void shouldServeMetricsOnLoopbackInterface() throws IOException {
+        final MetricsReporter reporter = new MetricsReporter(registry);
+        reporter.setPort(0);
+        reporter.start();
+        try {
+            pipeline.process("a");
+
+            final URL url = new URL("http://127.0.0.1:" + reporter.getPort() + MetricsReporter.METRICS_PATH);
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertEquals(200, connection.getResponseCode());
+            try (InputStream in = connection.getInputStream(); Scanner scanner = new Scanner(in, "UTF-8")) {
+                assertTrue(scanner.useDelimiter("\\A").next()
+                        .contains("metafacture_stage_invocations_total{stage=\"forward\"} 1\n"));
+            }
+        }
+        finally {
+            reporter.close();
+        }
+        assertEquals(MetricsReporter.DISABLED, reporter.getPort());
+    }
+
+    /**
+     * Passes objects on to its receiver.
+     */
+    public static final class Forwarder extends DefaultObjectPipe<String, ObjectReceiver<String>> {
+
+        @Override
+        public void process(final String obj) {
+            getReceiver().process(obj);
+        }
+
+    }
+
+    /**
+     * Collects the received objects.
+     */
+    public static final class Collector extends DefaultObjectReceiver<String> {
+
+        private final List<String> objects = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void process(final String obj) {
+            objects.add(obj);
+        }
+
+        @Override
+        public void closeStream() {
+            closed = true;
+        }
+
+    }
+
+}
@@ -22,13 +22,12 @@
 import org.metafacture.framework.objects.Triple;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.PriorityQueue;
 import java.util.function.Function;
 
@@ -72,11 +71,23 @@ public int order(final int indicator) {
         public abstract int order(int indicator);
     }
 
+    public static final int DEFAULT_MERGE_FAN_IN = 64;
+
+    // Rough heap footprint of a buffered triple and of each of its strings
+    private static final long TRIPLE_OVERHEAD = 48;
+    private static final long STRING_OVERHEAD = 40;
+
+    private static final long KILO = 1024;
+
     private final List<Triple> buffer = new ArrayList<>();
     private final List<File> tempFiles = new ArrayList<>();
     private Compare compare = Compare.SUBJECT;
     private Order order = Order.INCREASING;
     private boolean numeric;
+    private long memoryBudget;
+    private long bufferedBytes;
+    private boolean compressTempFiles;
+    private int mergeFanIn = DEFAULT_MERGE_FAN_IN;
     private volatile boolean memoryLow;
 
     /**
@@ -107,9 +118,74 @@ protected final void setSortNumeric(final boolean newNumeric) {
         numeric = newNumeric;
     }
 
+    /**
+     * Sets the approximate number of bytes the buffered triples may occupy
+     * before they are sorted and written to a temp file. The value may carry
+     * a {@code k}, {@code m} or {@code g} suffix. A budget of {@code 0}
+     * disables the limit, so that temp files are only written when the
+     * {@link MemoryWarningSystem} reports low memory.
+     *
+     * @param newMemoryBudget the memory budget, e.g. {@code 512m}
+     */
+    protected final void setSortMemoryBudget(final String newMemoryBudget) {
+        memoryBudget = parseByteCount(newMemoryBudget);
+    }
+
+    /**
+     * Flags whether temp files should be deflate-compressed.
+     *
+     * @param newCompressTempFiles true if temp files should be compressed
+     */
+    protected final void setSortCompression(final boolean newCompressTempFiles) {
+        compressTempFiles = newCompressTempFiles;
+    }
+
+    /**
+     * Sets the maximum number of temp files merged at once. If more temp
+     * files exist, they are first merged into larger temp files.
+     *
+     * @param newMergeFanIn the maximum number of temp files merged at once
+     */
+    protected final void setSortMergeFanIn(final int newMergeFanIn) {
+        if (newMergeFanIn < 2) {
+            throw new IllegalArgumentException("merge fan-in must be at least 2");
+        }
+        mergeFanIn = newMergeFanIn;
+    }
+
+    private static long parseByteCount(final String value) {
+        final String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("memory budget must not be empty");
+        }
+
+        final long unit;
+        switch (trimmed.charAt(trimmed.length() - 1)) {
+            case 'k':
+                unit = KILO;
+                break;
+            case 'm':
+                unit = KILO * KILO;
+                break;
+            case 'g':
+                unit = KILO * KILO * KILO;
+                break;
+            default:
+                unit = 1;
+                break;
+        }
+
+        final String digits = unit == 1 ? trimmed : trimmed.substring(0, trimmed.length() - 1).trim();
+        final long count = Long.parseLong(digits);
+        if (count < 0) {
+            throw new IllegalArgumentException("memory budget must not be negative: " + value);
+        }
+        return count * unit;
+    }
+
     @Override
     public final void process(final Triple namedValue) {
-        if (memoryLow) {
+        if (memoryLow || memoryBudget > 0 && bufferedBytes >= memoryBudget) {
             try {
                 if (!buffer.isEmpty()) {
                     nextBatch();
@@ -123,70 +199,122 @@ public final void process(final Triple namedValue) {
             }
         }
         buffer.add(namedValue);
+        if (memoryBudget > 0) {
+            bufferedBytes += estimateSize(namedValue);
+        }
+    }
+
+    private static long estimateSize(final Triple triple) {
+        return TRIPLE_OVERHEAD + estimateSize(triple.getSubject()) +
+            estimateSize(triple.getPredicate()) + estimateSize(triple.getObject());
+    }
+
+    private static long estimateSize(final String str) {
+        return STRING_OVERHEAD + 2L * str.length();
+    }
+
+    private Triple[] sortBuffer() {
+        final Triple[] sorted = buffer.toArray(new Triple[buffer.size()]);
+        buffer.clear();
+        bufferedBytes = 0;
+
+        Arrays.parallelSort(sorted, createComparator());
+        return sorted;
     }
 
     private void nextBatch() throws IOException {
-        Collections.sort(buffer, createComparator());
-        final File tempFile = File.createTempFile("sort", "namedValues", null);
-        tempFile.deleteOnExit();
+        final Triple[] sorted = sortBuffer();
+        final File tempFile = createTempFile();
 
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(tempFile))) {
-            for (final Triple triple : buffer) {
-                triple.write(out);
+        try (TripleRunWriter out = new TripleRunWriter(tempFile, compressTempFiles)) {
+            for (final Triple triple : sorted) {
+                out.write(triple);
             }
         }
+    }
 
-        buffer.clear();
+    private File createTempFile() throws IOException {
+        final File tempFile = File.createTempFile("sort", "namedValues", null);
+        tempFile.deleteOnExit();
         tempFiles.add(tempFile);
+        return tempFile;
     }
 
     @Override
     public final void onCloseStream() {
         if (tempFiles.isEmpty()) {
-            Collections.sort(buffer, createComparator());
-
-            for (final Triple triple : buffer) {
+            for (final Triple triple : sortBuffer()) {
                 sortedTriple(triple);
             }
 
             onFinished();
         }
         else {
-            final Comparator<Triple> comparator = createComparator();
-            final PriorityQueue<SortedTripleFileFacade> queue = new PriorityQueue<>(11, (o1, o2) -> comparator.compare(o1.peek(), o2.peek()));
-
             try {
-                nextBatch();
-
-                for (final File file : tempFiles) {
-                    queue.add(new SortedTripleFileFacade(file));
+                if (!buffer.isEmpty()) {
+                    nextBatch();
                 }
 
-                while (queue.size() > 0) {
-                    final SortedTripleFileFacade sortedFileFacade = queue.poll();
-                    final Triple triple = sortedFileFacade.pop();
-                    sortedTriple(triple);
-                    if (sortedFileFacade.isEmpty()) {
-                        sortedFileFacade.close();
-                    }
-                    else {
-                        queue.add(sortedFileFacade);
+                while (tempFiles.size() > mergeFanIn) {
+                    final List<File> runs = new ArrayList<>(tempFiles.subList(0, mergeFanIn));
+                    tempFiles.subList(0, mergeFanIn).clear();
+
+                    try (TripleRunWriter out = new TripleRunWriter(createTempFile(), compressTempFiles)) {
+                        merge(runs, out::write);
                     }
                 }
 
+                final List<File> runs = new ArrayList<>(tempFiles);
+                tempFiles.clear();
+                merge(runs, this::sortedTriple);
+
                 onFinished();
             }
             catch (final IOException e) {
                 throw new MetafactureException("Error merging temp files", e);
             }
-            finally {
-                for (final SortedTripleFileFacade sortedFileFacade : queue) {
+        }
+
+        MemoryWarningSystem.removeListener(this);
+    }
+
+    private void merge(final List<File> runs, final TripleConsumer consumer) throws IOException {
+        final Comparator<Triple> comparator = createComparator();
+        final PriorityQueue<SortedTripleFileFacade> queue = new PriorityQueue<>(Math.max(1, runs.size()), (o1, o2) -> comparator.compare(o1.peek(), o2.peek()));
+
+        try {
+            for (final File file : runs) {
+                final SortedTripleFileFacade sortedFileFacade = new SortedTripleFileFacade(file);
+                if (sortedFileFacade.isEmpty()) {
                     sortedFileFacade.close();
                 }
+                else {
+                    queue.add(sortedFileFacade);
+                }
             }
-        }
 
-        MemoryWarningSystem.removeListener(this);
+            while (queue.size() > 0) {
+                final SortedTripleFileFacade sortedFileFacade = queue.poll();
+                final Triple triple = sortedFileFacade.pop();
+                consumer.accept(triple);
+                if (sortedFileFacade.isEmpty()) {
+                    sortedFileFacade.close();
+                }
+                else {
+                    queue.add(sortedFileFacade);
+                }
+            }
+        }
+        finally {
+            for (final SortedTripleFileFacade sortedFileFacade : queue) {
+                sortedFileFacade.close();
+            }
+            for (final File file : runs) {
+                if (file.exists()) {
+                    file.delete();
+                }
+            }
+        }
     }
 
     protected void onFinished() {
@@ -195,6 +323,15 @@ protected void onFinished() {
 
     protected abstract void sortedTriple(Triple namedValue);
 
+    /**
+     * Receives merged triples; unlike {@code Consumer} it may throw an
+     * {@link IOException} when writing an intermediate temp file.
+     */
+    @FunctionalInterface
+    private interface TripleConsumer {
+        void accept(Triple triple) throws IOException;
+    }
+
     /**
      * Creates the Comparator.
      *
@@ -250,6 +387,7 @@ private static Comparator<Triple> createComparator(final Compare compare, final
     @Override
     public final void onResetStream() {
         buffer.clear();
+        bufferedBytes = 0;
 
         for (final File file : tempFiles) {
             if (file.exists()) {
@@ -18,24 +18,39 @@
 
 import org.metafacture.framework.MetafactureException;
 import org.metafacture.framework.objects.Triple;
+import org.metafacture.framework.objects.Triple.ObjectType;
 
 import java.io.BufferedInputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
  * A SortedTripleFileFacade created with a file. Reads a Triple from the file.
+ * The file must have been written by {@link AbstractTripleSort}.
  *
  * @author markus geipel
  *
  */
 public final class SortedTripleFileFacade {
-    public static final int BUFFERSIZE = 2048;
-    private final ObjectInputStream in;
+    public static final int BUFFERSIZE = TripleRunWriter.BUFFER_SIZE;
+
+    private static final ObjectType[] OBJECT_TYPES = ObjectType.values();
+    private static final int OBJECT_TYPE_MASK = (1 << TripleRunWriter.OBJECT_TYPE_BITS) - 1;
+    private static final int MAX_VARINT_SHIFT = 28;
+
+    private final InputStream in;
+    private final Inflater inflater;
     private final File file;
+    private final List<String> predicates = new ArrayList<>();
+    private byte[] stringBuffer = new byte[BUFFERSIZE];
     private Triple triple;
     private boolean empty;
 
@@ -48,7 +63,16 @@ public final class SortedTripleFileFacade {
      */
     public SortedTripleFileFacade(final File file) throws IOException {
         this.file = file;
-        in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file), BUFFERSIZE));
+        final InputStream fileIn = new FileInputStream(file);
+        final int format = fileIn.read();
+        if (format == TripleRunWriter.DEFLATED) {
+            inflater = new Inflater();
+            in = new BufferedInputStream(new InflaterInputStream(fileIn, inflater, BUFFERSIZE), BUFFERSIZE);
+        }
+        else {
+            inflater = null;
+            in = new BufferedInputStream(fileIn, BUFFERSIZE);
+        }
         next();
     }
 
@@ -62,18 +86,61 @@ public boolean isEmpty() {
     }
 
     private void next() throws IOException {
-        try {
-            triple = Triple.read(in);
-            empty = false;
-        }
-        catch (final EOFException e) {
+        final int header = readVarInt(true);
+        if (header < 0) {
             empty = true;
             triple = null;
+            return;
+        }
+        final int predicateCode = header >>> TripleRunWriter.OBJECT_TYPE_BITS;
+        if (predicateCode == predicates.size()) {
+            predicates.add(readString());
+        }
+        else if (predicateCode > predicates.size()) {
+            throw new IOException("Invalid predicate code in temp file");
         }
+        final String subject = readString();
+        final String object = readString();
+        triple = new Triple(subject, predicates.get(predicateCode), object, OBJECT_TYPES[header & OBJECT_TYPE_MASK]);
+        empty = false;
+    }
+
+    private String readString() throws IOException {
+        final int length = readVarInt(false);
+        if (length > stringBuffer.length) {
+            stringBuffer = new byte[Math.max(length, 2 * stringBuffer.length)];
+        }
+        int offset = 0;
+        while (offset < length) {
+            final int n = in.read(stringBuffer, offset, length - offset);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of temp file");
+            }
+            offset += n;
+        }
+        return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int readVarInt(final boolean endAllowed) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift <= MAX_VARINT_SHIFT; shift += TripleRunWriter.VARINT_SHIFT) {
+            final int b = in.read();
+            if (b < 0) {
+                if (endAllowed && shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Unexpected end of temp file");
+            }
+            value |= (b & TripleRunWriter.VARINT_PAYLOAD_MASK) << shift;
+            if ((b & TripleRunWriter.VARINT_CONTINUATION) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid length in temp file");
     }
 
     /**
-     * Closes the {@link ObjectInputStream} and deletes the {@link #file} if it
+     * Closes the input stream and deletes the {@link #file} if it
      * exists.
      */
     public void close() {
@@ -83,6 +150,11 @@ public void close() {
         catch (final IOException e) {
             throw new MetafactureException("Error closing input stream", e);
         }
+        finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
         if (file.exists()) {
             file.delete();
         }
@@ -112,4 +112,35 @@ private void writeResult() {
     public void setCountBy(final Compare countBy) {
         setCompare(countBy);
     }
+
+    /**
+     * Sets the approximate number of bytes the buffered triples may occupy
+     * before they are sorted and written to a temp file. Accepts a {@code k},
+     * {@code m} or {@code g} suffix. Defaults to {@code 0}, which only writes
+     * temp files when memory runs low.
+     *
+     * @param memoryBudget the memory budget, e.g. {@code 512m}
+     */
+    public void setMemoryBudget(final String memoryBudget) {
+        setSortMemoryBudget(memoryBudget);
+    }
+
+    /**
+     * Flags whether temp files should be compressed. Defaults to false.
+     *
+     * @param compressTempFiles true if temp files should be compressed
+     */
+    public void setCompressTempFiles(final boolean compressTempFiles) {
+        setSortCompression(compressTempFiles);
+    }
+
+    /**
+     * Sets the maximum number of temp files merged at once. Defaults to
+     * {@value AbstractTripleSort#DEFAULT_MERGE_FAN_IN}.
+     *
+     * @param mergeFanIn the maximum number of temp files merged at once
+     */
+    public void setMergeFanIn(final int mergeFanIn) {
+        setSortMergeFanIn(mergeFanIn);
+    }
 }
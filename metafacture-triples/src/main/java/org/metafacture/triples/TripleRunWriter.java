@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.triples;
+
+import org.metafacture.framework.objects.Triple;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a sorted run of triples to a temporary file. The runs are read by
+ * {@link SortedTripleFileFacade}.
+ * <p>
+ * The file starts with a single byte telling whether the rest of the file
+ * is deflate-compressed. Each triple is stored as a variable-length integer
+ * combining the predicate code and the object type, followed by subject and
+ * object as length-prefixed UTF-8 strings. Predicates are stored once per
+ * file: the first occurrence of a predicate is written with the next unused
+ * code and followed by the predicate string. Later occurrences only write
+ * the code.
+ */
+final class TripleRunWriter implements Closeable {
+
+    static final int UNCOMPRESSED = 0;
+    static final int DEFLATED = 1;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    static final int OBJECT_TYPE_BITS = 1;
+    static final int VARINT_PAYLOAD_MASK = 0x7f;
+    static final int VARINT_CONTINUATION = 0x80;
+    static final int VARINT_SHIFT = 7;
+
+    private final OutputStream out;
+    private final Deflater deflater;
+    private final Map<String, Integer> predicateCodes = new HashMap<>();
+
+    TripleRunWriter(final File file, final boolean compress) throws IOException {
+        final OutputStream fileOut = new FileOutputStream(file);
+        fileOut.write(compress ? DEFLATED : UNCOMPRESSED);
+        if (compress) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+            out = new BufferedOutputStream(new DeflaterOutputStream(fileOut, deflater, BUFFER_SIZE), BUFFER_SIZE);
+        }
+        else {
+            deflater = null;
+            out = new BufferedOutputStream(fileOut, BUFFER_SIZE);
+        }
+    }
+
+    void write(final Triple triple) throws IOException {
+        final Integer code = predicateCodes.get(triple.getPredicate());
+        final int predicateCode = code != null ? code : predicateCodes.size();
+        writeVarInt(predicateCode << OBJECT_TYPE_BITS | triple.getObjectType().ordinal());
+        if (code == null) {
+            predicateCodes.put(triple.getPredicate(), predicateCode);
+            writeString(triple.getPredicate());
+        }
+        writeString(triple.getSubject());
+        writeString(triple.getObject());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        }
+        finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private void writeString(final String str) throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarInt(final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~VARINT_PAYLOAD_MASK) != 0) {
+            out.write(remaining & VARINT_PAYLOAD_MASK | VARINT_CONTINUATION);
+            remaining >>>= VARINT_SHIFT;
+        }
+        out.write(remaining);
+    }
+
+}
@@ -303,6 +303,65 @@ public void shouldNotSortNumericallyByTriple() {
         );
     }
 
+    @Test
+    public void shouldSortUsingTempFilesWhenMemoryBudgetIsExceeded() {
+        assertSort(
+                t -> {
+                    t.setBy(AbstractTripleSort.Compare.ALL);
+                    t.setMemoryBudget("1");
+                    t.setMergeFanIn(2);
+                },
+                "s0 p1 o2",
+                "s2 p1 o0",
+                "s0 p1 o1",
+                "s1 p0 o2",
+                "s0 p2 o1",
+                //
+                "s0 p1 o1",
+                "s0 p1 o2",
+                "s0 p2 o1",
+                "s1 p0 o2",
+                "s2 p1 o0"
+        );
+    }
+
+    @Test
+    public void shouldSortUsingCompressedTempFiles() {
+        assertSort(
+                t -> {
+                    t.setBy(AbstractTripleSort.Compare.ALL);
+                    t.setOrder(AbstractTripleSort.Order.DECREASING);
+                    t.setMemoryBudget("1k");
+                    t.setCompressTempFiles(true);
+                },
+                "s0 p1 o2",
+                "s2 p1 o0",
+                "s0 p1 o1",
+                "s1 p0 o2",
+                "s0 p2 o1",
+                "s3 p0 \u00fc\u00e4",
+                "s0 p3 o0",
+                "s4 p1 o4",
+                "s1 p1 o1",
+                "s2 p2 o2",
+                "s3 p3 o3",
+                "s5 p0 o0",
+                //
+                "s5 p0 o0",
+                "s4 p1 o4",
+                "s3 p3 o3",
+                "s3 p0 \u00fc\u00e4",
+                "s2 p2 o2",
+                "s2 p1 o0",
+                "s1 p1 o1",
+                "s1 p0 o2",
+                "s0 p3 o0",
+                "s0 p2 o1",
+                "s0 p1 o2",
+                "s0 p1 o1"
+        );
+    }
+
     public void assertSort(final Consumer<TripleSort> consumer, final String... triples) {
         final BiConsumer<Integer, Consumer<Triple>> processor = (i, c) -> {
             final int j = triples.length / 2;
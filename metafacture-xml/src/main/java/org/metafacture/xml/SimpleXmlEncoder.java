@@ -30,10 +30,8 @@
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
@@ -41,6 +39,11 @@
 /**
  *
  * Encodes a stream as XML.
+ * <p>
+ * Elements are written as soon as the events arrive. No tree of the record
+ * is built. Attributes and values which arrive after the content of an
+ * element has already been written are inserted at the position where they
+ * belong in the XML of the current record.
  *
  * @author Markus Michael Geipel
  * @author Christoph Böhme
@@ -69,6 +72,8 @@ public final class SimpleXmlEncoder extends DefaultStreamPipe<ObjectReceiver<Str
     private static final String XML_HEADER = "<?xml version=\"%s\" encoding=\"%s\"?>\n";
     private static final String XMLNS_MARKER = " xmlns";
 
+    private static final int INITIAL_DEPTH = 8;
+
     private final StringBuilder builder = new StringBuilder();
 
     private String attributeMarker = ATTRIBUTE_MARKER;
@@ -83,7 +88,9 @@ public final class SimpleXmlEncoder extends DefaultStreamPipe<ObjectReceiver<Str
 
     private boolean separateRoots;
 
-    private Element element;
+    private Element[] elements = new Element[INITIAL_DEPTH];
+    private int depth;
+    private int recordStart;
     private boolean atStreamStart = true;
 
     /**
@@ -247,7 +254,9 @@ else if (atStreamStart) {
         }
         atStreamStart = false;
 
-        element = new Element(recordTag);
+        depth = 0;
+        recordStart = builder.length();
+        openElement(recordTag);
         if (!writeRootTag) {
             addNamespacesToElement();
         }
@@ -257,13 +266,15 @@ private void addNamespacesToElement() {
         for (final Entry<String, String> namespace : namespaces.entrySet()) {
             final String key = namespace.getKey();
             final String name = XMLNS_MARKER + (key.isEmpty() ? "" : ":") + key;
-            element.addAttribute(name, namespace.getValue());
+            currentElement().addAttribute(builder, name, namespace.getValue());
         }
     }
 
     @Override
     public void endRecord() {
-        element.writeElement(builder, 1);
+        while (depth > 0) {
+            closeElement();
+        }
         if (separateRoots) {
             writeFooter();
         }
@@ -272,29 +283,59 @@ public void endRecord() {
 
     @Override
     public void startEntity(final String name) {
-        element = element.createChild(name);
+        openElement(name);
     }
 
     @Override
     public void endEntity() {
-        element = element.getParent();
+        closeElement();
     }
 
     @Override
     public void literal(final String name, final String value) {
         if (name.equals(valueTag)) {
-            element.setText(value);
+            currentElement().setText(builder, value);
         }
         else if (name.startsWith(attributeMarker)) {
-            element.addAttribute(name.substring(attributeMarker.length()), value);
+            currentElement().addAttribute(builder, name.substring(attributeMarker.length()), value);
         }
         else {
-            element.createChild(name).setText(value);
+            openElement(name);
+            currentElement().setText(builder, value);
+            closeElement();
         }
     }
 
+    private Element currentElement() {
+        return elements[depth - 1];
+    }
+
+    private void openElement(final String name) {
+        if (depth > 0) {
+            currentElement().startChild(builder);
+        }
+        if (depth == elements.length) {
+            elements = Arrays.copyOf(elements, 2 * depth);
+        }
+        if (elements[depth] == null) {
+            elements[depth] = new Element();
+        }
+        elements[depth].open(builder, name, depth + 1);
+        ++depth;
+    }
+
+    private void closeElement() {
+        --depth;
+        elements[depth].close(builder);
+    }
+
     @Override
     protected void onResetStream() {
+        if (depth > 0) {
+            // Discard the incomplete record:
+            builder.setLength(recordStart);
+            depth = 0;
+        }
         if (!atStreamStart) {
             writeFooter();
         }
@@ -348,84 +389,101 @@ private void writeFooter() {
     }
 
     protected static void writeEscaped(final StringBuilder builder, final String str) {
-        builder.append(XmlUtil.escape(str, false));
+        XmlUtil.escape(builder, str, false);
     }
 
     /**
-     * An XML element.
+     * An XML element which is currently open. Its opening tag and content
+     * are already written to the output buffer. The element only keeps the
+     * positions in the buffer at which attributes and text are inserted.
+     * Instances are reused for all records.
      *
      */
     private static final class Element {
 
-        private static final List<Element> NO_CHILDREN = Collections.emptyList();
-
-        private final StringBuilder attributes = new StringBuilder();
-        private final Element parent;
-        private final String name;
-
-        private String text = "";
-        private List<Element> children = NO_CHILDREN;
-
-        Element(final String name) {
-            this.name = name;
-            this.parent = null;
-        }
-
-        private Element(final String name, final Element parent) {
-            this.name = name;
-            this.parent = parent;
-        }
+        private String name;
+        private int indent;
 
-        public void addAttribute(final String attributeName, final String value) {
-            attributes.append(" ");
-            attributes.append(attributeName);
-            attributes.append(BEGIN_ATTRIBUTE);
-            writeEscaped(attributes, value);
-            attributes.append(END_ATTRIBUTE);
-        }
+        private int tagEnd;
+        private int contentStart;
+        private int textLength;
+        private boolean hasText;
+        private boolean hasChildren;
 
-        public void setText(final String text) {
-            this.text = text;
+        Element() {
         }
 
-        public Element createChild(final String attributeName) {
-            final Element child = new Element(attributeName, this);
-            if (children == NO_CHILDREN) {
-                children = new ArrayList<SimpleXmlEncoder.Element>();
+        public void open(final StringBuilder builder, final String elementName, final int elementIndent) {
+            name = elementName;
+            indent = elementIndent;
+            textLength = 0;
+            hasText = false;
+            hasChildren = false;
+            if (name.isEmpty()) {
+                tagEnd = -1;
+                contentStart = builder.length();
             }
-            children.add(child);
-            return child;
-        }
-
-        public Element getParent() {
-            return parent;
-        }
-
-        public void writeElement(final StringBuilder builder, final int indent) {
-            if (!name.isEmpty()) {
+            else {
                 builder.append(NEW_LINE);
                 writeIndent(builder, indent);
                 builder.append(BEGIN_OPEN_ELEMENT);
                 builder.append(name);
-                builder.append(attributes);
-                if (text.isEmpty() && children.isEmpty()) {
-                    builder.append(END_EMPTY_ELEMENT);
-                    return;
-                }
-                builder.append(END_OPEN_ELEMENT);
+                tagEnd = builder.length();
+                contentStart = -1;
             }
+        }
 
-            writeEscaped(builder, text);
+        public void addAttribute(final StringBuilder builder, final String attributeName, final String value) {
+            if (name.isEmpty()) {
+                return;
+            }
+            final int oldLength = builder.length();
+            builder.append(' ');
+            builder.append(attributeName);
+            builder.append(BEGIN_ATTRIBUTE);
+            writeEscaped(builder, value);
+            builder.append(END_ATTRIBUTE);
+            final int attributeLength = builder.length() - oldLength;
+            if (tagEnd != oldLength) {
+                // The content of the element has already been written:
+                final String attribute = builder.substring(oldLength);
+                builder.setLength(oldLength);
+                builder.insert(tagEnd, attribute);
+                contentStart += attributeLength;
+            }
+            tagEnd += attributeLength;
+        }
 
-            for (final Element element : children) {
-                element.writeElement(builder, indent + 1);
+        public void setText(final StringBuilder builder, final String text) {
+            startContent(builder);
+            final int oldLength = builder.length();
+            writeEscaped(builder, text);
+            final int newTextLength = builder.length() - oldLength;
+            if (hasChildren || textLength > 0) {
+                // The text must replace a previous text and precede the children:
+                final String escapedText = builder.substring(oldLength);
+                builder.setLength(oldLength);
+                builder.replace(contentStart, contentStart + textLength, escapedText);
             }
+            textLength = newTextLength;
+            hasText = !text.isEmpty();
+        }
 
-            if (text.isEmpty() && !children.isEmpty()) {
+        public void startChild(final StringBuilder builder) {
+            startContent(builder);
+            hasChildren = true;
+        }
+
+        public void close(final StringBuilder builder) {
+            if (!name.isEmpty() && !hasText && !hasChildren) {
+                builder.setLength(tagEnd);
+                builder.append(END_EMPTY_ELEMENT);
+                return;
+            }
+            if (!hasText && hasChildren) {
                 builder.append(NEW_LINE);
                 writeIndent(builder, indent);
             }
-
             if (!name.isEmpty()) {
                 builder.append(BEGIN_CLOSE_ELEMENT);
                 builder.append(name);
@@ -433,6 +491,13 @@ public void writeElement(final StringBuilder builder, final int indent) {
             }
         }
 
+        private void startContent(final StringBuilder builder) {
+            if (contentStart < 0) {
+                builder.append(END_OPEN_ELEMENT);
+                contentStart = builder.length();
+            }
+        }
+
         private static void writeIndent(final StringBuilder builder, final int indent) {
             for (int i = 0; i < indent; ++i) {
                 builder.append(INDENT);
@@ -348,6 +348,40 @@ public void testShouldEncodeMarkedLiteralsWithConfiguredMarkerAsAttributes() {
                 getResultXml());
     }
 
+    @Test
+    public void shouldWriteValueBeforeChildElementsIfItArrivesLater() {
+        simpleXmlEncoder.setValueTag("value");
+        simpleXmlEncoder.startRecord("");
+        simpleXmlEncoder.startEntity("entity");
+        simpleXmlEncoder.literal(TAG, VALUE);
+        simpleXmlEncoder.literal("value", "first");
+        simpleXmlEncoder.literal("value", "second");
+        simpleXmlEncoder.literal("~attr", VALUE);
+        simpleXmlEncoder.endEntity();
+        simpleXmlEncoder.endRecord();
+        simpleXmlEncoder.closeStream();
+
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<records>" +
+                "<record>" +
+                "<entity attr=\"value\">second<tag>value</tag></entity>" +
+                "</record>" +
+                "</records>",
+                getResultXml());
+    }
+
+    @Test
+    public void shouldDiscardIncompleteRecordOnResetStream() {
+        simpleXmlEncoder.startRecord("");
+        simpleXmlEncoder.literal(TAG, VALUE);
+        simpleXmlEncoder.resetStream();
+
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<records>" +
+                "</records>",
+                getResultXml());
+    }
+
     private void emitTwoRecords() {
         simpleXmlEncoder.startRecord("X");
         simpleXmlEncoder.literal(TAG, VALUE);
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph.api;
+
+import java.util.Collection;
+
+/**
+ * Implemented by maps which can resolve many keys at once. If such a map is
+ * used by Metamorph and prefetching is enabled, Metamorph buffers each
+ * record and passes the values which the record provides to
+ * {@code <lookup>} statements using the map to {@link #prefetch(Collection)}
+ * before the record is processed. Only lookups which directly follow the
+ * source of a {@code <data>} statement are taken into account, as other
+ * lookups receive transformed values. Lookups of the prefetched values can
+ * then be answered without querying the backend of the map again.
+ */
+public interface Prefetchable {
+
+    /**
+     * Checks whether keys should be prefetched.
+     *
+     * @return true if Metamorph should call {@link #prefetch(Collection)} for
+     *         each record
+     */
+    boolean isPrefetching();
+
+    /**
+     * Resolves the given keys in advance. Keys which are not in the map are
+     * remembered as missing. Implementations may resolve the keys
+     * asynchronously as long as later lookups wait for the result.
+     *
+     * @param keys the keys which will probably be looked up
+     */
+    void prefetch(Collection<String> keys);
+
+}
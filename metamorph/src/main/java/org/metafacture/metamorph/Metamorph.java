@@ -34,6 +34,7 @@
 import org.metafacture.metamorph.api.NamedValuePipe;
 import org.metafacture.metamorph.api.NamedValueReceiver;
 import org.metafacture.metamorph.api.NamedValueSource;
+import org.metafacture.metamorph.api.Prefetchable;
 import org.metafacture.metamorph.api.SourceLocation;
 
 import org.slf4j.Logger;
@@ -45,14 +46,19 @@
 import java.io.InputStream;
 import java.io.Reader;
 import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -85,10 +91,12 @@ public final class Metamorph implements StreamPipe<StreamReceiver>, NamedValuePi
     private static final InterceptorFactory NULL_INTERCEPTOR_FACTORY = new NullInterceptorFactory();
     private static final Map<String, String> NO_VARS = Collections.emptyMap();
 
-    private final Registry<NamedValueReceiver> dataRegistry = new WildcardRegistry<>();
+    private Registry<NamedValueReceiver> dataRegistry = new WildcardRegistry<>();
     private final List<NamedValueReceiver> elseSources = new ArrayList<>();
 
     private final Map<String, Map<String, String>> maps = new HashMap<>();
+    private final Map<String, Map<String, String>> externalMaps = new HashMap<>();
+    private final Map<String, List<String>> lookupSources = new HashMap<>();
     private final List<Closeable> resources = new ArrayList<>();
 
     private final StreamFlattener flattener = new StreamFlattener();
@@ -106,6 +114,14 @@ public final class Metamorph implements StreamPipe<StreamReceiver>, NamedValuePi
     private boolean elseNested;
     private String currentLiteralName;
 
+    private RecordPrefetcher prefetcher;
+
+    private String morphDef;
+    private Map<String, String> morphVars;
+    private ProfilingInterceptorFactory profiler;
+    private String profileReport;
+    private boolean building;
+
     protected Metamorph() {
         // package private
         init();
@@ -155,6 +171,8 @@ public Metamorph(final String morphDef, final InterceptorFactory interceptorFact
     public Metamorph(final String morphDef, final Map<String, String> vars,
             final InterceptorFactory interceptorFactory) {
         this(getInputSource(morphDef), vars, interceptorFactory);
+        this.morphDef = morphDef;
+        this.morphVars = vars;
     }
 
     /**
@@ -293,9 +311,14 @@ public Metamorph(final InputSource inputSource, final Map<String, String> vars,
             final InterceptorFactory interceptorFactory) {
         buildPipeline(inputSource, vars, interceptorFactory);
         init();
+
+        if (interceptorFactory instanceof ProfilingInterceptorFactory) {
+            profiler = (ProfilingInterceptorFactory) interceptorFactory;
+        }
     }
 
     private void buildPipeline(final InputSource inputSource, final Map<String, String> vars, final InterceptorFactory interceptorFactory) {
+        building = true;
         try {
             final MorphBuilder builder = new MorphBuilder(this, interceptorFactory);
             builder.walk(inputSource, vars);
@@ -303,6 +326,32 @@ private void buildPipeline(final InputSource inputSource, final Map<String, Stri
         catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
             throw new MetamorphException("Error while building the Metamorph transformation pipeline: " + e.getMessage(), e);
         }
+        finally {
+            building = false;
+        }
+    }
+
+    private void rebuildPipeline(final InterceptorFactory interceptorFactory) {
+        if (morphDef == null) {
+            throw new IllegalStateException("Profiling can only be changed for Metamorph definitions given by path");
+        }
+
+        // Maps which were not created by the Metamorph definition are kept
+        // open and registered again with the new pipeline:
+        final Set<Object> externalResources = Collections.newSetFromMap(new IdentityHashMap<>());
+        externalResources.addAll(externalMaps.values());
+        resources.removeIf(externalResources::contains);
+        closeResources();
+        resources.clear();
+        dataRegistry = new WildcardRegistry<>();
+        elseSources.clear();
+        maps.clear();
+        lookupSources.clear();
+        recordEndListener.clear();
+        prefetcher = null;
+
+        buildPipeline(getInputSource(morphDef), morphVars, interceptorFactory);
+        externalMaps.forEach(this::putMap);
     }
 
     private static InputSource getInputSource(final String morphDef) {
@@ -329,6 +378,58 @@ protected List<NamedValueReceiver> getElseSources() {
 
     protected void setEntityMarker(final String entityMarker) {
         flattener.setEntityMarker(entityMarker);
+        if (prefetcher != null) {
+            prefetcher.setEntityMarker(entityMarker);
+        }
+    }
+
+    /**
+     * Flags whether the transformation should be profiled. If enabled, the
+     * number of invocations, the number of emitted values and the time spent
+     * in each element of the Metamorph definition are recorded, and a report
+     * sorted by time is logged when the stream is closed (see
+     * {@link ProfilingInterceptorFactory}).
+     * <p>
+     * Changing this parameter rebuilds the transformation pipeline. It is
+     * therefore only supported if the Metamorph definition was given by path,
+     * and must not be changed after the first record was received. Maps added
+     * with {@link #putMap(String, Map)} or
+     * {@link #putValue(String, String, String)} are kept.
+     * <p>
+     * <strong>Default value: false</strong>
+     *
+     * @param profile true if the transformation should be profiled
+     */
+    public void setProfile(final boolean profile) {
+        if (profile == (profiler != null)) {
+            return;
+        }
+
+        final ProfilingInterceptorFactory newProfiler = profile ? new ProfilingInterceptorFactory() : null;
+        rebuildPipeline(newProfiler != null ? newProfiler : NULL_INTERCEPTOR_FACTORY);
+        profiler = newProfiler;
+    }
+
+    /**
+     * Enables profiling (see {@link #setProfile(boolean)}) and sets the file
+     * to which a JSON version of the profiling report is written when the
+     * stream is closed.
+     *
+     * @param profileReport the path of the JSON report file
+     */
+    public void setProfileReport(final String profileReport) {
+        setProfile(true);
+        this.profileReport = profileReport;
+    }
+
+    /**
+     * Gets the {@link ProfilingInterceptorFactory} recording the profile of
+     * this transformation.
+     *
+     * @return the profiler or null if profiling is disabled
+     */
+    public ProfilingInterceptorFactory getProfiler() {
+        return profiler;
     }
 
     /**
@@ -360,6 +461,10 @@ protected void registerNamedValueReceiver(final String source, final NamedValueR
 
     @Override
     public void startRecord(final String identifier) {
+        if (isPrefetchingRecord()) {
+            prefetcher.startRecord(identifier);
+            return;
+        }
         flattener.startRecord(identifier);
         elseNestedEntities.clear();
         entityCountStack.clear();
@@ -379,6 +484,10 @@ public void startRecord(final String identifier) {
 
     @Override
     public void endRecord() {
+        if (isPrefetchingRecord()) {
+            prefetcher.endRecord();
+            return;
+        }
         for (final FlushListener listener : recordEndListener) {
             listener.flush(recordCount, currentEntityCount);
         }
@@ -398,6 +507,10 @@ public void startEntity(final String name) {
         if (name == null) {
             throw new IllegalArgumentException("Entity name must not be null.");
         }
+        if (isPrefetchingRecord()) {
+            prefetcher.startEntity(name);
+            return;
+        }
 
         ++entityCount;
         currentEntityCount = entityCount;
@@ -409,6 +522,10 @@ public void startEntity(final String name) {
 
     @Override
     public void endEntity() {
+        if (isPrefetchingRecord()) {
+            prefetcher.endEntity();
+            return;
+        }
         dispatch(flattener.getCurrentPath(), "", getElseSources(), true);
         flattener.endEntity();
 
@@ -418,18 +535,37 @@ public void endEntity() {
 
     @Override
     public void literal(final String name, final String value) {
+        if (isPrefetchingRecord()) {
+            prefetcher.literal(name, value);
+            return;
+        }
         currentLiteralName = name;
         flattener.literal(name, value);
     }
 
+    private boolean isPrefetchingRecord() {
+        return prefetcher != null && prefetcher.isBuffering();
+    }
+
     @Override
     public void resetStream() {
         // TODO: Implement proper reset handling
+        if (prefetcher != null) {
+            prefetcher.resetStream();
+        }
         outputStreamReceiver.resetStream();
     }
 
     @Override
     public void closeStream() {
+        closeResources();
+        if (profiler != null) {
+            reportProfile();
+        }
+        outputStreamReceiver.closeStream();
+    }
+
+    void closeResources() {
         for (final Closeable closeable : resources) {
             try {
                 closeable.close();
@@ -438,7 +574,25 @@ public void closeStream() {
                 errorHandler.error(e);
             }
         }
-        outputStreamReceiver.closeStream();
+    }
+
+    private void reportProfile() {
+        reportProfile(morphDef, profiler, profileReport, errorHandler);
+    }
+
+    static void reportProfile(final String morphDef, final ProfilingInterceptorFactory profiler,
+            final String profileReport, final MorphErrorHandler errorHandler) {
+        LOG.info("Metamorph profile{}:{}{}", morphDef == null ? "" : " of " + morphDef,
+                System.lineSeparator(), profiler.getReport());
+
+        if (profileReport != null) {
+            try {
+                Files.write(Paths.get(profileReport), profiler.getJsonReport().getBytes(StandardCharsets.UTF_8));
+            }
+            catch (final IOException e) {
+                errorHandler.error(e);
+            }
+        }
     }
 
     private void dispatch(final String path, final String value, final List<NamedValueReceiver> fallbackReceiver, final boolean endEntity) {
@@ -566,12 +720,52 @@ public Map<String, String> putMap(final String mapName, final Map<String, String
             final Closeable closable = (Closeable) map;
             resources.add(closable);
         }
+        if (!building) {
+            externalMaps.put(mapName, map);
+        }
+        if (isPrefetching(map)) {
+            for (final String source : lookupSources.getOrDefault(mapName, Collections.emptyList())) {
+                addPrefetchSource(source, (Prefetchable) map);
+            }
+        }
         return maps.put(mapName, map);
     }
 
+    /**
+     * Registers the source of a {@code <data>} statement whose values are
+     * looked up in a map. If the map is {@link Prefetchable}, the values of
+     * the source are prefetched for each record.
+     *
+     * @param mapName the name of the map
+     * @param source  the source of the values
+     */
+    protected void registerLookupSource(final String mapName, final String source) {
+        lookupSources.computeIfAbsent(mapName, k -> new ArrayList<>()).add(source);
+        final Map<String, String> map = maps.get(mapName);
+        if (isPrefetching(map)) {
+            addPrefetchSource(source, (Prefetchable) map);
+        }
+    }
+
+    private static boolean isPrefetching(final Map<String, String> map) {
+        return map instanceof Prefetchable && ((Prefetchable) map).isPrefetching();
+    }
+
+    private void addPrefetchSource(final String source, final Prefetchable map) {
+        if (prefetcher == null) {
+            prefetcher = new RecordPrefetcher(this, flattener.getEntityMarker());
+        }
+        prefetcher.addSource(source, map);
+    }
+
     @Override
     public String putValue(final String mapName, final String key, final String value) {
-        return maps.computeIfAbsent(mapName, k -> new HashMap<>()).put(key, value);
+        Map<String, String> map = maps.get(mapName);
+        if (map == null) {
+            map = new HashMap<>();
+            putMap(mapName, map);
+        }
+        return map.put(key, value);
     }
 
     @Override
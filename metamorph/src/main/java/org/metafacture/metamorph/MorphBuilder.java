@@ -26,6 +26,7 @@
 import org.metafacture.metamorph.api.Maps;
 import org.metafacture.metamorph.api.MorphBuildException;
 import org.metafacture.metamorph.api.NamedValuePipe;
+import org.metafacture.metamorph.functions.Lookup;
 import org.metafacture.metamorph.xml.Location;
 
 import org.w3c.dom.Node;
@@ -163,7 +164,9 @@ protected void enterData(final Node dataNode) {
         final String source = resolvedAttribute(dataNode, AttributeName.SOURCE);
         metamorph.registerNamedValueReceiver(source, delegate);
 
-        stack.push(new StackFrame(data));
+        final StackFrame frame = new StackFrame(data);
+        frame.setSource(source);
+        stack.push(frame);
     }
 
     @Override
@@ -345,6 +348,10 @@ else if (getFunctionFactory().containsKey(functionNode.getLocalName())) {
 
         final StackFrame head = stack.peek();
 
+        if (function instanceof Lookup) {
+            registerLookupSource((Lookup) function, head);
+        }
+
         final NamedValuePipe interceptor = interceptorFactory.createNamedValueInterceptor();
         final NamedValuePipe delegate;
         if (interceptor == null) {
@@ -359,6 +366,14 @@ else if (getFunctionFactory().containsKey(functionNode.getLocalName())) {
         head.setPipe(function);
     }
 
+    private void registerLookupSource(final Lookup lookup, final StackFrame head) {
+        // Only lookups which directly follow the source of a data statement
+        // receive the literal values unchanged, so only these can be prefetched:
+        if (lookup.getMapName() != null && head.getSource() != null && head.getPipe() == head.getHeadPipe()) {
+            metamorph.registerLookupSource(lookup.getMapName(), head.getSource());
+        }
+    }
+
     private XmlSourceLocation getSourceLocation(final Node node) {
         return new XmlSourceLocation((Location) node.getUserData(
                 Location.USER_DATA_ID));
@@ -369,6 +384,7 @@ private static final class StackFrame {
         private final NamedValuePipe headPipe;
 
         private NamedValuePipe pipe;
+        private String source;
         private boolean inEntityName;
         private boolean inCondition;
 
@@ -389,6 +405,14 @@ public NamedValuePipe getPipe() {
             return pipe;
         }
 
+        public void setSource(final String source) {
+            this.source = source;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
         public void setInEntityName(final boolean inEntityName) {
             this.inEntityName = inEntityName;
         }
@@ -0,0 +1,546 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph;
+
+import org.metafacture.flowcontrol.StreamBuffer;
+import org.metafacture.framework.FluxCommand;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.annotations.Description;
+import org.metafacture.framework.annotations.In;
+import org.metafacture.framework.annotations.Out;
+import org.metafacture.framework.helpers.DefaultStreamPipe;
+import org.metafacture.framework.helpers.DefaultStreamReceiver;
+import org.metafacture.metamorph.api.InterceptorFactory;
+import org.metafacture.metamorph.api.Maps;
+import org.metafacture.metamorph.api.MorphErrorHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Applies a Metamorph transformation using several worker threads. Each
+ * worker runs its own {@link Metamorph} instance built from the same
+ * definition. Incoming records are buffered and handed as a whole to the
+ * next idle worker. The transformed records are passed to the receiver one
+ * at a time. By default they are passed on in the order in which they were
+ * received; with {@link #setOrdered(boolean)} set to false they are passed on
+ * as soon as they are transformed.
+ * <p>
+ * Maps defined in the Metamorph definition are created separately for each
+ * worker. Maps added to this module with {@link #putMap(String, Map)} or
+ * {@link #putValue(String, String, String)} are shared by all workers. Such
+ * maps must be registered before the first record is processed and must
+ * support concurrent reads. Maps created by {@code putValue} are thread-safe,
+ * so values may be added to them at any time. New maps cannot be added while
+ * worker threads are running, i.e. between the first record and the next
+ * {@code closeStream}.
+ * <p>
+ * The number of records which are being transformed or wait to be passed to
+ * the receiver is limited by {@link #setCapacity(int)}. If the limit is
+ * reached, the sending thread blocks until a record has been passed on.
+ * <p>
+ * {@code resetStream} waits until all records received so far have been
+ * passed on and then resets the {@link Metamorph} instances of all workers.
+ * A record which has not been completed is discarded.
+ */
+@Description("Applies a metamorph transformation to the event stream using several worker threads. Metamorph definition is given in brackets.") // checkstyle-disable-line ClassDataAbstractionCoupling|ClassFanOutComplexity
+@In(StreamReceiver.class)
+@Out(StreamReceiver.class)
+@FluxCommand("morph-parallel")
+public final class ParallelMetamorph extends DefaultStreamPipe<StreamReceiver> implements Maps {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final boolean DEFAULT_ORDERED = true;
+
+    private static final String THREAD_NAME_PREFIX = "morph-parallel-";
+    private static final Task END_OF_STREAM = new Task(-1, null);
+    private static final Map<String, String> NO_VARS = Collections.emptyMap();
+    private static final InterceptorFactory NULL_INTERCEPTOR_FACTORY = new NullInterceptorFactory();
+
+    private final String morphDef;
+    private final Map<String, String> vars;
+    private final Map<String, Map<String, String>> sharedMaps = new HashMap<>();
+    private final List<Worker> workers = new ArrayList<>();
+    private final BlockingQueue<Task> tasks = new LinkedBlockingQueue<>();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private final Object emitLock = new Object();
+    private final Map<Long, Task> pendingTasks = new HashMap<>();
+    private long nextTaskToEmit;
+
+    private InterceptorFactory interceptorFactory;
+    private ProfilingInterceptorFactory profiler;
+    private String profileReport;
+    private Metamorph prototype;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int capacity = DEFAULT_CAPACITY;
+    private boolean ordered = DEFAULT_ORDERED;
+    private MorphErrorHandler errorHandler;
+
+    private Semaphore inFlight;
+    private StreamBuffer currentRecord;
+    private long nextTaskNumber;
+
+    /**
+     * Creates an instance of {@link ParallelMetamorph} given by the path to a
+     * Metamorph definition.
+     *
+     * @param morphDef the path to the Metamorph definition
+     */
+    public ParallelMetamorph(final String morphDef) {
+        this(morphDef, NO_VARS);
+    }
+
+    /**
+     * Creates an instance of {@link ParallelMetamorph} given by the path to a
+     * Metamorph definition and morph variables as a Map.
+     *
+     * @param morphDef the path to the Metamorph definition
+     * @param vars     the morph variables as a Map
+     */
+    public ParallelMetamorph(final String morphDef, final Map<String, String> vars) {
+        this(morphDef, vars, NULL_INTERCEPTOR_FACTORY);
+    }
+
+    /**
+     * Creates an instance of {@link ParallelMetamorph} given by the path to a
+     * Metamorph definition and an {@link InterceptorFactory}.
+     *
+     * @param morphDef           the path to the Metamorph definition
+     * @param interceptorFactory the {@link InterceptorFactory}
+     */
+    public ParallelMetamorph(final String morphDef, final InterceptorFactory interceptorFactory) {
+        this(morphDef, NO_VARS, interceptorFactory);
+    }
+
+    /**
+     * Creates an instance of {@link ParallelMetamorph} given by the path to a
+     * Metamorph definition, morph variables as a Map and an
+     * {@link InterceptorFactory}. The first Metamorph instance is built
+     * immediately so that errors in the definition are reported early.
+     *
+     * @param morphDef           the path to the Metamorph definition
+     * @param vars               the morph variables as a Map
+     * @param interceptorFactory the {@link InterceptorFactory}
+     */
+    public ParallelMetamorph(final String morphDef, final Map<String, String> vars,
+            final InterceptorFactory interceptorFactory) {
+        this.morphDef = morphDef;
+        this.vars = vars;
+        this.interceptorFactory = interceptorFactory;
+        if (interceptorFactory instanceof ProfilingInterceptorFactory) {
+            profiler = (ProfilingInterceptorFactory) interceptorFactory;
+        }
+        prototype = createMetamorph();
+    }
+
+    /**
+     * Sets the number of worker threads. Defaults to the number of available
+     * processors.
+     * <p>
+     * The parameter must not be changed after the first record was received.
+     *
+     * @param threads the number of worker threads
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("'threads' must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Gets the number of worker threads.
+     *
+     * @return the number of worker threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the maximum number of records which are transformed or wait to be
+     * passed on at the same time.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_CAPACITY}</strong>
+     * <p>
+     * The parameter must not be changed after the first record was received.
+     *
+     * @param capacity the maximum number of records in flight
+     */
+    public void setCapacity(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("'capacity' must be at least 1");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the maximum number of records in flight.
+     *
+     * @return the maximum number of records in flight
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Controls whether the transformed records are passed on in the order in
+     * which they were received.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_ORDERED}</strong>
+     * <p>
+     * The parameter must not be changed after the first record was received.
+     *
+     * @param ordered true if the input order should be restored
+     */
+    public void setOrdered(final boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    /**
+     * Checks whether the input order is restored.
+     *
+     * @return true if the input order is restored
+     */
+    public boolean getOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Flags whether the transformation should be profiled (see
+     * {@link Metamorph#setProfile(boolean)}). All workers share one
+     * {@link ProfilingInterceptorFactory}, so the report aggregates the
+     * measurements of all workers. It is logged once when the stream is
+     * closed.
+     * <p>
+     * <strong>Default value: false</strong>
+     * <p>
+     * The parameter must not be changed after the first record was received.
+     *
+     * @param profile true if the transformation should be profiled
+     */
+    public void setProfile(final boolean profile) {
+        if (profile == (profiler != null)) {
+            return;
+        }
+        if (!workers.isEmpty()) {
+            throw new IllegalStateException("Profiling cannot be changed while worker threads are running.");
+        }
+
+        profiler = profile ? new ProfilingInterceptorFactory() : null;
+        interceptorFactory = profile ? profiler : NULL_INTERCEPTOR_FACTORY;
+        if (prototype != null) {
+            prototype.closeResources();
+        }
+        prototype = createMetamorph();
+    }
+
+    /**
+     * Enables profiling (see {@link #setProfile(boolean)}) and sets the file
+     * to which a JSON version of the profiling report is written when the
+     * stream is closed.
+     *
+     * @param profileReport the path of the JSON report file
+     */
+    public void setProfileReport(final String profileReport) {
+        setProfile(true);
+        this.profileReport = profileReport;
+    }
+
+    /**
+     * Gets the {@link ProfilingInterceptorFactory} shared by all workers.
+     *
+     * @return the profiler or null if profiling is disabled
+     */
+    public ProfilingInterceptorFactory getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Sets the {@link MorphErrorHandler} of all workers. The error handler
+     * is called from the worker threads and must therefore be thread-safe.
+     *
+     * @param errorHandler the {@link MorphErrorHandler}
+     */
+    public void setErrorHandler(final MorphErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public void startRecord(final String identifier) {
+        if (workers.isEmpty()) {
+            startWorkers();
+        }
+        currentRecord = new StreamBuffer();
+        currentRecord.startRecord(identifier);
+    }
+
+    @Override
+    public void endRecord() {
+        currentRecord.endRecord();
+        rethrowFailure();
+        try {
+            inFlight.acquire();
+            tasks.put(new Task(nextTaskNumber, currentRecord));
+            ++nextTaskNumber;
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        currentRecord = null;
+    }
+
+    @Override
+    public void startEntity(final String name) {
+        currentRecord.startEntity(name);
+    }
+
+    @Override
+    public void endEntity() {
+        currentRecord.endEntity();
+    }
+
+    @Override
+    public void literal(final String name, final String value) {
+        currentRecord.literal(name, value);
+    }
+
+    @Override
+    protected void onResetStream() {
+        if (!workers.isEmpty()) {
+            // Holding all permits guarantees that the workers are idle:
+            inFlight.acquireUninterruptibly(capacity);
+            try {
+                for (final Worker worker : workers) {
+                    resetMetamorph(worker.metamorph);
+                }
+            }
+            finally {
+                inFlight.release(capacity);
+            }
+        }
+        currentRecord = null;
+        rethrowFailure();
+    }
+
+    @Override
+    protected void onCloseStream() {
+        for (int i = 0; i < workers.size(); ++i) {
+            tasks.add(END_OF_STREAM);
+        }
+        try {
+            for (final Worker worker : workers) {
+                worker.join();
+            }
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (final Worker worker : workers) {
+            worker.metamorph.closeResources();
+        }
+        if (prototype != null) {
+            prototype.closeResources();
+        }
+        if (profiler != null) {
+            Metamorph.reportProfile(morphDef, profiler, profileReport,
+                    errorHandler != null ? errorHandler : new DefaultErrorHandler());
+        }
+        workers.clear();
+        prototype = null;
+        currentRecord = null;
+        rethrowFailure();
+    }
+
+    @Override
+    public Collection<String> getMapNames() {
+        return Collections.unmodifiableSet(sharedMaps.keySet());
+    }
+
+    @Override
+    public Map<String, String> getMap(final String mapName) {
+        return sharedMaps.getOrDefault(mapName, Collections.emptyMap());
+    }
+
+    @Override
+    public String getValue(final String mapName, final String key) {
+        final Map<String, String> map = getMap(mapName);
+        if (map.containsKey(key)) {
+            return map.get(key);
+        }
+        return map.get(Maps.DEFAULT_MAP_KEY);
+    }
+
+    @Override
+    public Map<String, String> putMap(final String mapName, final Map<String, String> map) {
+        if (!workers.isEmpty()) {
+            throw new IllegalStateException("Maps cannot be added while worker threads are running.");
+        }
+        return sharedMaps.put(mapName, map);
+    }
+
+    @Override
+    public String putValue(final String mapName, final String key, final String value) {
+        Map<String, String> map = sharedMaps.get(mapName);
+        if (map == null) {
+            map = new ConcurrentHashMap<>();
+            putMap(mapName, map);
+        }
+        return map.put(key, value);
+    }
+
+    private void startWorkers() {
+        inFlight = new Semaphore(capacity);
+        nextTaskNumber = 0;
+        nextTaskToEmit = 0;
+        for (int i = 0; i < threads; ++i) {
+            final Metamorph metamorph;
+            if (prototype != null) {
+                metamorph = prototype;
+                prototype = null;
+            }
+            else {
+                metamorph = createMetamorph();
+            }
+            sharedMaps.forEach(metamorph::putMap);
+            if (errorHandler != null) {
+                metamorph.setErrorHandler(errorHandler);
+            }
+            final Worker worker = new Worker(metamorph);
+            worker.setName(THREAD_NAME_PREFIX + i);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    private void resetMetamorph(final Metamorph metamorph) {
+        // The reset is forwarded to the receiver of this module by
+        // DefaultSender:
+        metamorph.setReceiver(new DefaultStreamReceiver());
+        metamorph.resetStream();
+    }
+
+    private Metamorph createMetamorph() {
+        return new Metamorph(morphDef, vars, interceptorFactory);
+    }
+
+    private void rethrowFailure() {
+        final RuntimeException e = failure.getAndSet(null);
+        if (e != null) {
+            throw new MetamorphException("Error in morph-parallel worker thread: " + e.getMessage(), e);
+        }
+    }
+
+    private void emit(final Task task) {
+        synchronized (emitLock) {
+            if (ordered) {
+                pendingTasks.put(Long.valueOf(task.number), task);
+                Task next = pendingTasks.remove(Long.valueOf(nextTaskToEmit));
+                while (next != null) {
+                    passOn(next);
+                    ++nextTaskToEmit;
+                    next = pendingTasks.remove(Long.valueOf(nextTaskToEmit));
+                }
+            }
+            else {
+                passOn(task);
+            }
+        }
+    }
+
+    private void passOn(final Task task) {
+        try {
+            task.output.setReceiver(getReceiver());
+            task.output.replay();
+        }
+        catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
+            failure.compareAndSet(null, e);
+        }
+        finally {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * A buffered input record together with the buffer for its
+     * transformation result.
+     */
+    private static final class Task {
+
+        private final long number;
+        private final StreamBuffer input;
+        private final StreamBuffer output = new StreamBuffer();
+
+        Task(final long number, final StreamBuffer input) {
+            this.number = number;
+            this.input = input;
+        }
+
+        void transform(final Metamorph metamorph) {
+            metamorph.setReceiver(output);
+            input.setReceiver(metamorph);
+            input.replay();
+        }
+
+    }
+
+    /**
+     * Takes records from the task queue and transforms them with the
+     * worker's own {@link Metamorph} instance.
+     */
+    private final class Worker extends Thread {
+
+        private final Metamorph metamorph;
+
+        Worker(final Metamorph metamorph) {
+            this.metamorph = metamorph;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Task task = tasks.take();
+                while (task != END_OF_STREAM) {
+                    try {
+                        task.transform(metamorph);
+                    }
+                    catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
+                        failure.compareAndSet(null, e);
+                        task.output.clear();
+                    }
+                    emit(task);
+                    task = tasks.take();
+                }
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+}
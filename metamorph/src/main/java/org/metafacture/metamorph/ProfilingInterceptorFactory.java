@@ -0,0 +1,398 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph;
+
+import org.metafacture.metamorph.api.FlushListener;
+import org.metafacture.metamorph.api.InterceptorFactory;
+import org.metafacture.metamorph.api.KnowsSourceLocation;
+import org.metafacture.metamorph.api.NamedValuePipe;
+import org.metafacture.metamorph.api.NamedValueReceiver;
+import org.metafacture.metamorph.api.NamedValueSource;
+import org.metafacture.metamorph.api.SourceLocation;
+import org.metafacture.metamorph.api.helpers.AbstractNamedValuePipe;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An implementation of {@link InterceptorFactory} which records how often
+ * each element of a Metamorph definition is invoked, how many values it
+ * emits and how much time is spent in it. Elements are identified by their
+ * location in the morph definition.
+ * <p>
+ * The time of an element includes the time of all elements it passes values
+ * to ("total"). The time spent in the element itself ("self") excludes the
+ * time of the intercepted elements downstream. Elements whose results are not
+ * intercepted (such as nested entities) are included in the self time of
+ * their parent.
+ * <p>
+ * The factory can be shared by several {@link Metamorph} instances running
+ * on different threads, for example in a {@link ParallelMetamorph}. The
+ * measurements of elements with the same location are aggregated.
+ */
+public final class ProfilingInterceptorFactory implements InterceptorFactory {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private static final ThreadLocal<Clock> CLOCK = ThreadLocal.withInitial(Clock::new);
+
+    private final Map<String, NodeProfile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an instance of {@link ProfilingInterceptorFactory}.
+     */
+    public ProfilingInterceptorFactory() {
+    }
+
+    @Override
+    public NamedValuePipe createNamedValueInterceptor() {
+        return new ProfilingInterceptor();
+    }
+
+    @Override
+    public FlushListener createFlushInterceptor(final FlushListener listener) {
+        return new ProfilingFlushInterceptor(listener);
+    }
+
+    /**
+     * Gets the profiles of all elements which have been invoked, sorted by
+     * decreasing self time.
+     *
+     * @return the list of element profiles
+     */
+    public List<NodeProfile> getProfiles() {
+        final List<NodeProfile> result = new ArrayList<>(profiles.values());
+        result.sort(Comparator.comparingLong(NodeProfile::getSelfNanos).reversed()
+                .thenComparing(NodeProfile::getNode));
+        return result;
+    }
+
+    /**
+     * Discards all measurements.
+     */
+    public void reset() {
+        profiles.clear();
+    }
+
+    /**
+     * Gets a plain text report listing the elements sorted by decreasing self
+     * time.
+     *
+     * @return the report
+     */
+    public String getReport() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%12s %12s %12s %12s %10s  %s%n",
+                "self ms", "total ms", "calls", "emitted", "flushes", "element"));
+        for (final NodeProfile profile : getProfiles()) {
+            builder.append(String.format(Locale.ROOT, "%12.3f %12.3f %12d %12d %10d  %s%n",
+                    profile.getSelfNanos() / NANOS_PER_MILLI, profile.getTotalNanos() / NANOS_PER_MILLI,
+                    profile.getInvocations(), profile.getEmitted(), profile.getFlushes(), profile.getNode()));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Gets a JSON report containing an array with one object per element,
+     * sorted by decreasing self time.
+     *
+     * @return the report
+     */
+    public String getJsonReport() {
+        final StringBuilder builder = new StringBuilder("[");
+        boolean first = true;
+        for (final NodeProfile profile : getProfiles()) {
+            builder.append(first ? "\n" : ",\n");
+            first = false;
+
+            builder.append("  {\"element\":");
+            appendJsonString(builder, profile.getElement());
+            builder.append(",\"location\":");
+            appendJsonString(builder, profile.getLocation());
+            builder.append(",\"invocations\":").append(profile.getInvocations());
+            builder.append(",\"emitted\":").append(profile.getEmitted());
+            builder.append(",\"flushes\":").append(profile.getFlushes());
+            builder.append(",\"selfNanos\":").append(profile.getSelfNanos());
+            builder.append(",\"totalNanos\":").append(profile.getTotalNanos());
+            builder.append('}');
+        }
+        return builder.append(first ? "]" : "\n]").append('\n').toString();
+    }
+
+    private static void appendJsonString(final StringBuilder builder, final String str) {
+        builder.append('"');
+        for (int i = 0; i < str.length(); ++i) {
+            final char ch = str.charAt(i);
+            switch (ch) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (ch < ' ') {
+                        builder.append(String.format(Locale.ROOT, "\\u%04x", (int) ch));
+                    }
+                    else {
+                        builder.append(ch);
+                    }
+                    break;
+            }
+        }
+        builder.append('"');
+    }
+
+    private NodeProfile getProfile(final KnowsSourceLocation node) {
+        final SourceLocation location = node == null ? null : node.getSourceLocation();
+        if (location == null) {
+            return null;
+        }
+
+        final String element = node.getClass().getSimpleName();
+        final String position = location.getFileName() + ":" +
+            location.getStartPosition().getLineNumber() + ":" +
+            location.getStartPosition().getColumnNumber();
+        return profiles.computeIfAbsent(element + " " + position, k -> new NodeProfile(element, position));
+    }
+
+    /**
+     * The measurements of a single element of a Metamorph definition.
+     */
+    public static final class NodeProfile {
+
+        private final String element;
+        private final String location;
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder emitted = new LongAdder();
+        private final LongAdder flushes = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        NodeProfile(final String element, final String location) {
+            this.element = element;
+            this.location = location;
+        }
+
+        /**
+         * Gets the class name of the element.
+         *
+         * @return the class name of the element
+         */
+        public String getElement() {
+            return element;
+        }
+
+        /**
+         * Gets the location of the element in the morph definition
+         * ({@code file:line:column}).
+         *
+         * @return the location of the element
+         */
+        public String getLocation() {
+            return location;
+        }
+
+        /**
+         * Gets a description of the element consisting of its class name and
+         * its location.
+         *
+         * @return the description of the element
+         */
+        public String getNode() {
+            return element + " @ " + location;
+        }
+
+        /**
+         * Gets the number of values the element received.
+         *
+         * @return the number of received values
+         */
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        /**
+         * Gets the number of values the element emitted.
+         *
+         * @return the number of emitted values
+         */
+        public long getEmitted() {
+            return emitted.sum();
+        }
+
+        /**
+         * Gets the number of times the element was flushed.
+         *
+         * @return the number of flushes
+         */
+        public long getFlushes() {
+            return flushes.sum();
+        }
+
+        /**
+         * Gets the time spent in the element itself in nanoseconds.
+         *
+         * @return the self time in nanoseconds
+         */
+        public long getSelfNanos() {
+            return selfNanos.sum();
+        }
+
+        /**
+         * Gets the time spent in the element and the elements it passed
+         * values to in nanoseconds.
+         *
+         * @return the total time in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        @Override
+        public String toString() {
+            return getNode();
+        }
+
+    }
+
+    /**
+     * Collects the time of nested intercepted calls on the current thread.
+     */
+    private static final class Clock {
+
+        private long nested;
+
+        Clock() {
+        }
+
+        long enter() {
+            final long outer = nested;
+            nested = 0;
+            return outer;
+        }
+
+        void exit(final NodeProfile profile, final long outer, final long elapsed) {
+            if (profile != null) {
+                profile.totalNanos.add(elapsed);
+                profile.selfNanos.add(elapsed - nested);
+            }
+            nested = outer + elapsed;
+        }
+
+    }
+
+    /**
+     * Times the element receiving the intercepted values and counts the values
+     * emitted by the sending element.
+     */
+    private final class ProfilingInterceptor extends AbstractNamedValuePipe {
+
+        private NamedValueReceiver receiver;
+        private NodeProfile receiverProfile;
+
+        private NamedValueSource lastSource;
+        private NodeProfile sourceProfile;
+
+        ProfilingInterceptor() {
+        }
+
+        @Override
+        public void receive(final String name, final String value, final NamedValueSource source,
+                final int recordCount, final int entityCount) {
+            if (source != lastSource) {
+                lastSource = source;
+                sourceProfile = getProfile(source);
+            }
+            if (sourceProfile != null) {
+                sourceProfile.emitted.increment();
+            }
+
+            if (receiver != getNamedValueReceiver()) {
+                receiver = getNamedValueReceiver();
+                receiverProfile = getProfile(receiver);
+            }
+            if (receiverProfile != null) {
+                receiverProfile.invocations.increment();
+            }
+
+            final Clock clock = CLOCK.get();
+            final long outer = clock.enter();
+            final long start = System.nanoTime();
+            try {
+                receiver.receive(name, value, this, recordCount, entityCount);
+            }
+            finally {
+                clock.exit(receiverProfile, outer, System.nanoTime() - start);
+            }
+        }
+
+    }
+
+    /**
+     * Times and counts the flushes of an element.
+     */
+    private final class ProfilingFlushInterceptor implements FlushListener {
+
+        private final FlushListener listener;
+        private NodeProfile profile;
+        private boolean resolved;
+
+        ProfilingFlushInterceptor(final FlushListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void flush(final int recordCount, final int entityCount) {
+            if (!resolved) {
+                resolved = true;
+                profile = listener instanceof KnowsSourceLocation ?
+                    getProfile((KnowsSourceLocation) listener) : null;
+            }
+            if (profile != null) {
+                profile.flushes.increment();
+            }
+
+            final Clock clock = CLOCK.get();
+            final long outer = clock.enter();
+            final long start = System.nanoTime();
+            try {
+                listener.flush(recordCount, entityCount);
+            }
+            finally {
+                clock.exit(profile, outer, System.nanoTime() - start);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph;
+
+import org.metafacture.flowcontrol.StreamBuffer;
+import org.metafacture.framework.StandardEventNames;
+import org.metafacture.framework.StreamReceiver;
+import org.metafacture.framework.helpers.DefaultStreamReceiver;
+import org.metafacture.mangling.EntityPathTracker;
+import org.metafacture.metamorph.api.Prefetchable;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Buffers the events of a record and collects candidate keys for
+ * {@link Prefetchable} maps. Only the values of the sources which are
+ * registered for a map (the sources of the {@code <data>} statements that
+ * look up their values in the map) are collected. At the end of the record
+ * the keys are passed to the maps before the record is replayed to
+ * Metamorph.
+ */
+final class RecordPrefetcher extends DefaultStreamReceiver {
+
+    private final StreamBuffer buffer = new StreamBuffer();
+    private final EntityPathTracker pathTracker = new EntityPathTracker();
+    private final Registry<Prefetchable> sources = new WildcardRegistry<>();
+    private final Map<Prefetchable, Set<String>> keys = new IdentityHashMap<>();
+    private boolean replaying;
+
+    RecordPrefetcher(final StreamReceiver metamorph, final String entityMarker) {
+        buffer.setReceiver(metamorph);
+        pathTracker.setEntitySeparator(entityMarker);
+    }
+
+    /**
+     * Registers a source whose values are looked up in a map.
+     *
+     * @param source the source pattern as used in {@code <data>} statements
+     * @param map    the map in which the values are looked up
+     */
+    void addSource(final String source, final Prefetchable map) {
+        sources.register(source, map);
+        keys.computeIfAbsent(map, k -> new HashSet<>());
+    }
+
+    void setEntityMarker(final String entityMarker) {
+        pathTracker.setEntitySeparator(entityMarker);
+    }
+
+    /**
+     * Checks whether events should be buffered. Events are not buffered while
+     * the buffered record is replayed.
+     *
+     * @return true if events should be passed to this prefetcher
+     */
+    boolean isBuffering() {
+        return !replaying;
+    }
+
+    @Override
+    public void startRecord(final String identifier) {
+        buffer.startRecord(identifier);
+        pathTracker.startRecord(identifier);
+        collect(StandardEventNames.ID, identifier);
+    }
+
+    @Override
+    public void endRecord() {
+        buffer.endRecord();
+        pathTracker.endRecord();
+        try {
+            for (final Map.Entry<Prefetchable, Set<String>> entry : keys.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    entry.getKey().prefetch(entry.getValue());
+                }
+            }
+            replaying = true;
+            buffer.replay();
+        }
+        finally {
+            replaying = false;
+            clear();
+        }
+    }
+
+    @Override
+    public void startEntity(final String name) {
+        buffer.startEntity(name);
+        pathTracker.startEntity(name);
+    }
+
+    @Override
+    public void endEntity() {
+        buffer.endEntity();
+        pathTracker.endEntity();
+    }
+
+    @Override
+    public void literal(final String name, final String value) {
+        buffer.literal(name, value);
+        collect(pathTracker.getCurrentPathWith(name), value);
+    }
+
+    @Override
+    public void resetStream() {
+        pathTracker.resetStream();
+        clear();
+    }
+
+    private void collect(final String path, final String value) {
+        if (value == null) {
+            return;
+        }
+        final List<Prefetchable> maps = sources.get(path);
+        if (maps != null) {
+            for (final Prefetchable map : maps) {
+                keys.get(map).add(value);
+            }
+        }
+    }
+
+    private void clear() {
+        buffer.clear();
+        keys.values().forEach(Set::clear);
+    }
+
+}
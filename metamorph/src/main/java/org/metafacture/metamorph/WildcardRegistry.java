@@ -19,17 +19,36 @@
 import org.metafacture.commons.tries.SimpleRegexTrie;
 import org.metafacture.commons.tries.WildcardTrie;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implements {@link Registry} with a {@link WildcardTrie}.
+ * <p>
+ * Literal paths usually repeat in every record. Therefore, the results of
+ * the most recently used paths are cached.
  *
  * @param <T> type of the values this registry stores
  * @author Markus Michael Geipel
  */
 final class WildcardRegistry<T> implements Registry<T> {
 
+    private static final int CACHE_SIZE = 4096;
+    private static final float LOAD_FACTOR = 0.75f;
+
     private final SimpleRegexTrie<T> trie = new SimpleRegexTrie<T>();
+    private final Map<String, List<T>> cache = new LinkedHashMap<String, List<T>>(
+            (int) (CACHE_SIZE / LOAD_FACTOR) + 1, LOAD_FACTOR, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, List<T>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+
+    };
 
     WildcardRegistry() {
     }
@@ -37,12 +56,17 @@
     @Override
     public void register(final String path, final T value) {
         trie.put(path, value);
-
+        cache.clear();
     }
 
     @Override
     public List<T> get(final String path) {
-        return trie.get(path);
+        List<T> values = cache.get(path);
+        if (values == null) {
+            values = trie.get(path);
+            cache.put(path, values);
+        }
+        return values;
     }
 
 }
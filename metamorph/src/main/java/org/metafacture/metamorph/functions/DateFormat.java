@@ -19,12 +19,15 @@
 import org.metafacture.metamorph.api.MorphBuildException;
 import org.metafacture.metamorph.api.helpers.AbstractSimpleStatelessFunction;
 
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -51,6 +54,10 @@
  *   <li>Read ISO-dates and generate German style dates:
  *   {@code <dateformat inputformat="yyyy-MM-dd" outputformat="dd.MM.yyyy" />}
  * </ul>
+ * <p>
+ * The formatters are created once per configuration and thread, and the
+ * results for the most recently used input values are cached, so the
+ * function may be used by several threads at once.
  *
  * @author Michael Büchner
  */
@@ -63,11 +70,27 @@ public class DateFormat extends AbstractSimpleStatelessFunction {
 
     private static final Set<String> SUPPORTED_LANGUAGES;
 
+    private static final int CACHE_SIZE = 1024;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, String> cache = new LinkedHashMap<String, String>(
+            (int) (CACHE_SIZE / LOAD_FACTOR) + 1, LOAD_FACTOR, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+
+    };
+
     private String inputFormat = DEFAULT_INPUT_FORMAT;
     private DateFormats outputFormat = DEFAULT_OUTPUT_FORMAT;
     private Era era = DEFAULT_ERA;
     private boolean removeLeadingZeros = DEFAULT_REMOVE_LEADING_ZEROS;
     private Locale outputLocale = Locale.getDefault();
+    private volatile ThreadLocal<Formatter> formatter;
 
     /**
      * Supported date formats. Maps to the date formats in
@@ -130,29 +153,28 @@ public DateFormat() {
 
     @Override
     public final String process(final String value) {
-        String result;
-        try {
-            final Calendar c = Calendar.getInstance();
-            final SimpleDateFormat sdf = new SimpleDateFormat(inputFormat);
-            c.setTime(sdf.parse(value));
-            if (era == Era.BC) {
-                c.set(Calendar.ERA, GregorianCalendar.BC);
-            }
-            else if (era == Era.AD) {
-                c.set(Calendar.ERA, GregorianCalendar.AD);
+        synchronized (cache) {
+            final String cached = cache.get(value);
+            if (cached != null) {
+                return cached;
             }
+        }
 
-            final SimpleDateFormat sdfp = (SimpleDateFormat) java.text.DateFormat.getDateInstance(outputFormat.getFormatId(), outputLocale);
-            String p = sdfp.toPattern();
-            if (c.get(Calendar.ERA) == GregorianCalendar.BC) {
-                p = p.replace("yyyy", "yyyy G");
-            }
+        final String result = format(value);
+
+        synchronized (cache) {
+            cache.put(value, result);
+        }
+        return result;
+    }
 
-            final SimpleDateFormat sdfo = new SimpleDateFormat(p, outputLocale);
-            result = sdfo.format(c.getTime());
+    private String format(final String value) {
+        String result;
+        try {
+            result = getFormatter().format(value);
 
             if (removeLeadingZeros) {
-                result = result.replaceAll("([0]{1,})([0-9]{1,})", "$2");
+                result = removeLeadingZeros(result);
             }
 
         }
@@ -165,6 +187,63 @@ else if (era == Era.AD) {
         return result;
     }
 
+    private Formatter getFormatter() {
+        ThreadLocal<Formatter> local = formatter;
+        if (local == null) {
+            local = ThreadLocal.withInitial(() -> new Formatter(inputFormat, outputFormat, era, outputLocale));
+            formatter = local;
+        }
+        return local.get();
+    }
+
+    private void configurationChanged() {
+        formatter = null;
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Removes leading zeros from all numbers. Equivalent to replacing
+     * {@code ([0]{1,})([0-9]{1,})} with {@code $2}, which keeps a single
+     * zero of a run of zeros at the end of a number.
+     */
+    private static String removeLeadingZeros(final String str) {
+        final int length = str.length();
+        final StringBuilder builder = new StringBuilder(length);
+        int i = 0;
+        while (i < length) {
+            if (str.charAt(i) != '0') {
+                builder.append(str.charAt(i));
+                ++i;
+                continue;
+            }
+
+            int digitsStart = i;
+            while (digitsStart < length && str.charAt(digitsStart) == '0') {
+                ++digitsStart;
+            }
+
+            if (digitsStart < length && isDigit(str.charAt(digitsStart))) {
+                int digitsEnd = digitsStart;
+                while (digitsEnd < length && isDigit(str.charAt(digitsEnd))) {
+                    ++digitsEnd;
+                }
+                builder.append(str, digitsStart, digitsEnd);
+                i = digitsEnd;
+            }
+            else {
+                builder.append('0');
+                i = digitsStart;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isDigit(final char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
     /**
      * Sets the input format. <strong>Default value:
      * {@code #DEFAULT_INPUT_FORMAT}</strong>
@@ -173,6 +252,7 @@ else if (era == Era.AD) {
      */
     public final void setInputFormat(final String inputFormat) {
         this.inputFormat = inputFormat;
+        configurationChanged();
     }
 
     /**
@@ -183,6 +263,7 @@ public final void setInputFormat(final String inputFormat) {
      */
     public final void setOutputFormat(final DateFormats outputFormat) {
         this.outputFormat = outputFormat;
+        configurationChanged();
     }
 
     /**
@@ -192,6 +273,7 @@ public final void setOutputFormat(final DateFormats outputFormat) {
      */
     public final void setEra(final Era era) {
         this.era = era;
+        configurationChanged();
     }
 
     /**
@@ -201,6 +283,7 @@ public final void setEra(final Era era) {
      */
     public final void setRemoveLeadingZeros(final boolean removeLeadingZeros) {
         this.removeLeadingZeros = removeLeadingZeros;
+        configurationChanged();
     }
 
     /**
@@ -213,5 +296,41 @@ public final void setLanguage(final String language) {
             throw new MorphBuildException("Language '" + language + "' not supported.");
         }
         this.outputLocale = new Locale(language);
+        configurationChanged();
     }
+
+    /**
+     * The formatters of one thread. {@link SimpleDateFormat} and
+     * {@link Calendar} are not thread-safe.
+     */
+    private static final class Formatter {
+
+        private final SimpleDateFormat input;
+        private final SimpleDateFormat output;
+        private final SimpleDateFormat outputBC;
+        private final Calendar calendar = Calendar.getInstance();
+        private final Era era;
+
+        Formatter(final String inputFormat, final DateFormats outputFormat, final Era era, final Locale outputLocale) {
+            this.era = era;
+            input = new SimpleDateFormat(inputFormat);
+
+            final String pattern = ((SimpleDateFormat) java.text.DateFormat.getDateInstance(
+                    outputFormat.getFormatId(), outputLocale)).toPattern();
+            output = new SimpleDateFormat(pattern, outputLocale);
+            outputBC = new SimpleDateFormat(pattern.replace("yyyy", "yyyy G"), outputLocale);
+        }
+
+        String format(final String value) throws ParseException {
+            calendar.setTime(input.parse(value));
+            if (era != Era.AUTO) {
+                calendar.set(Calendar.ERA, era.getEraId());
+            }
+
+            final SimpleDateFormat dateFormat = calendar.get(Calendar.ERA) == GregorianCalendar.BC ? outputBC : output;
+            return dateFormat.format(calendar.getTime());
+        }
+
+    }
+
 }
@@ -21,6 +21,7 @@
 import org.metafacture.metamorph.api.helpers.AbstractReadOnlyMap;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -29,12 +30,14 @@
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -58,6 +61,15 @@
  * <p><strong>Important:</strong> Otherwise, all lines that are not split into
  * the expected number of parts by the separator are ignored!
  *
+ * <p>Large maps can be stored in an {@link #setIndex index} file. The index
+ * is written from the files on first use (and whenever one of the files is
+ * newer than the index) and memory-mapped for lookups afterwards. Instead of
+ * loading all entries onto the heap, keys are then looked up in the mapped
+ * file, which is shared by all {@code FileMap}s using the same index. While
+ * the index is written, the entries are sorted in bounded runs on disk, so
+ * the map does not have to fit onto the heap at any time. The index must be
+ * deleted if the column or separator settings are changed.
+ *
  * @author Markus Michael Geipel
  */
 public final class FileMap extends AbstractReadOnlyMap<String, String> {
@@ -70,6 +82,8 @@ public final class FileMap extends AbstractReadOnlyMap<String, String> {
     private Pattern split = Pattern.compile("\t", Pattern.LITERAL);
     private boolean allowEmptyValues;
     private boolean isUninitialized = true;
+    private String indexFile;
+    private FileMapIndex index;
     private int expectedColumns;
     private int keyColumn;
     private int valueColumn = 1;
@@ -81,10 +95,37 @@ public FileMap() {
     }
 
     private void init() {
-        loadFiles();
+        if (indexFile == null) {
+            loadFiles(map::put);
+        }
+        else {
+            index = FileMapIndex.open(Paths.get(indexFile), getIndexParameters(), getFilesLastModified(),
+                    builder -> loadFiles(builder::add));
+        }
         isUninitialized = false;
     }
 
+    // The settings which determine the entries read from the files. An index
+    // written with other settings is rebuilt:
+    private String getIndexParameters() {
+        return "separator=" + split.pattern() +
+            "\nkeyColumn=" + keyColumn +
+            "\nvalueColumn=" + valueColumn +
+            "\nexpectedColumns=" + expectedColumns +
+            "\nallowEmptyValues=" + allowEmptyValues +
+            "\nignorePattern=" + (ignoreMatcher != null ? ignoreMatcher.pattern().pattern() : "") +
+            "\nencoding=" + fileOpener.getEncoding() +
+            "\ndecompressConcatenated=" + fileOpener.getDecompressConcatenated();
+    }
+
+    private long getFilesLastModified() {
+        long lastModified = 0;
+        for (final String filename : filenames) {
+            lastModified = Math.max(lastModified, new File(filename).lastModified());
+        }
+        return lastModified;
+    }
+
     /**
      * Sets whether to allow empty values in the {@link Map} or ignore these
      * entries.
@@ -137,6 +178,18 @@ public void setFile(final String file) {
         Collections.addAll(filenames, file);
     }
 
+    /**
+     * Sets the index file in which the map is stored for memory-mapped
+     * lookups. The index is written from the {@link #setFiles files} if it
+     * does not exist, is older than the files or was written with other
+     * settings for reading the files.
+     *
+     * @param indexFile the name of the index file
+     */
+    public void setIndex(final String indexFile) {
+        this.indexFile = indexFile;
+    }
+
     /**
      * Sets the encoding used to open the resource.
      *
@@ -164,11 +217,11 @@ public void setDecompressConcatenated(final boolean decompressConcatenated) {
         fileOpener.setDecompressConcatenated(decompressConcatenated);
     }
 
-    private void loadFiles() {
-        filenames.forEach(this::loadFile);
+    private void loadFiles(final BiConsumer<String, String> entries) {
+        filenames.forEach(file -> loadFile(file, entries));
     }
 
-    private void loadFile(final String file) {
+    private void loadFile(final String file, final BiConsumer<String, String> entries) {
         try (
                 InputStream stream = openStream(file);
                 Reader reader = fileOpener.open(stream);
@@ -188,7 +241,7 @@ private void loadFile(final String file) {
                     continue;
                 }
 
-                map.put(parts[keyColumn], parts[valueColumn]);
+                entries.accept(parts[keyColumn], parts[valueColumn]);
             }
         }
         catch (final IOException | UncheckedIOException e) {
@@ -279,6 +332,9 @@ public String get(final Object key) {
         if (isUninitialized) {
             init();
         }
+        if (index != null) {
+            return key instanceof String ? index.get((String) key) : null;
+        }
         return map.get(key);
     }
 
@@ -287,7 +343,7 @@ public Set<String> keySet() {
         if (isUninitialized) {
             init();
         }
-        return Collections.unmodifiableSet(map.keySet());
+        return index != null ? index.keySet() : Collections.unmodifiableSet(map.keySet());
     }
 
 }
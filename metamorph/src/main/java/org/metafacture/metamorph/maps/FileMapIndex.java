@@ -0,0 +1,750 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph.maps;
+
+import org.metafacture.metamorph.api.MorphExecutionException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A read-only key-value index stored in a file which is memory-mapped for
+ * lookups. Used by {@link FileMap} to look up keys in large maps without
+ * loading them onto the heap.
+ * <p>
+ * The index file consists of a header, the entries and a table with the file
+ * offsets of all entries. The header records the parameters with which the
+ * entries were read from their source so that an index written with other
+ * settings is not reused. Entries are sorted by the UTF-8 bytes of their keys
+ * so that keys can be looked up by binary search. Each entry stores the
+ * length of the key, the key, the length of the value and the value:
+ * <pre>
+ * header:  int magic, int version, long entryCount, long offsetsPosition,
+ *          int parametersLength, byte[] parameters
+ * entries: (int keyLength, byte[] key, int valueLength, byte[] value)*
+ * offsets: long[entryCount]
+ * </pre>
+ * Index files are written by a {@link Builder} which sorts the entries with
+ * an external merge sort, so writing an index does not require the entries
+ * to fit onto the heap.
+ * <p>
+ * Opened indexes are shared by all users in a JVM. Lookups only use absolute
+ * reads on the mapped buffers and are therefore thread-safe.
+ */
+public final class FileMapIndex {
+
+    public static final int MAX_ENTRY_SIZE = 1 << 20;
+
+    private static final int MAGIC = 0x4D464D49;
+    private static final int VERSION = 3;
+    private static final int ENTRY_COUNT_POSITION = 8;
+    private static final int OFFSETS_POSITION = 16;
+    private static final int PARAMETERS_POSITION = 24;
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int OFFSET_SIZE = Long.BYTES;
+    private static final int UNSIGNED_BYTE_MASK = 0xFF;
+
+    // Each segment overlaps the next one by MAX_ENTRY_SIZE bytes so that an
+    // entry is always contained in the segment in which it starts:
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    // Indexes are cached by the real path of their file. An index whose file
+    // has been rebuilt is replaced so that its mapping can be released:
+    private static final Map<Path, FileMapIndex> OPEN_INDEXES = new ConcurrentHashMap<>();
+
+    private final ByteBuffer[] segments;
+    private final long lastModified;
+    private final long fileSize;
+    private final long entryCount;
+    private final long offsetsPosition;
+    private final String parameters;
+
+    private FileMapIndex(final ByteBuffer[] segments, final long lastModified, final long fileSize) {
+        this.segments = segments;
+        this.lastModified = lastModified;
+        this.fileSize = fileSize;
+        if (segments.length == 0 || segments[0].getInt(0) != MAGIC || segments[0].getInt(LENGTH_SIZE) != VERSION) {
+            throw new MorphExecutionException("filemap: not a valid index file");
+        }
+        entryCount = segments[0].getLong(ENTRY_COUNT_POSITION);
+        offsetsPosition = segments[0].getLong(OFFSETS_POSITION);
+        parameters = readString(PARAMETERS_POSITION);
+    }
+
+    /**
+     * Opens an index file which was written without parameters.
+     *
+     * @param file               the index file
+     * @param sourceLastModified the modification time of the source data in
+     *                           milliseconds or 0 if it is unknown
+     * @param entries            adds the entries if the index needs to be
+     *                           written
+     * @return the opened index
+     * @see #open(Path, String, long, Consumer)
+     */
+    public static FileMapIndex open(final Path file, final long sourceLastModified, final Consumer<Builder> entries) {
+        return open(file, "", sourceLastModified, entries);
+    }
+
+    /**
+     * Opens an index file. If the file does not exist, is older than the
+     * source data, was written with other parameters or by an incompatible
+     * version, the index is first written by passing a {@link Builder} to the
+     * given consumer, which adds the entries. Opened indexes are shared within
+     * the JVM.
+     *
+     * @param file               the index file
+     * @param parameters         describes how the entries are read from the
+     *                           source data
+     * @param sourceLastModified the modification time of the source data in
+     *                           milliseconds or 0 if it is unknown
+     * @param entries            adds the entries if the index needs to be
+     *                           written
+     * @return the opened index
+     */
+    public static synchronized FileMapIndex open(final Path file, final String parameters,
+            final long sourceLastModified, final Consumer<Builder> entries) {
+        try {
+            if (!isUpToDate(file, parameters, sourceLastModified)) {
+                try (Builder builder = new Builder(file, parameters)) {
+                    entries.accept(builder);
+                    builder.write();
+                }
+            }
+            final Path realPath = file.toRealPath();
+            final long lastModified = Files.getLastModifiedTime(realPath).toMillis();
+            final long fileSize = Files.size(realPath);
+            FileMapIndex index = OPEN_INDEXES.get(realPath);
+            if (index == null || index.lastModified != lastModified || index.fileSize != fileSize ||
+                    !index.parameters.equals(parameters)) {
+                index = new FileMapIndex(map(realPath), lastModified, fileSize);
+                OPEN_INDEXES.put(realPath, index);
+            }
+            return index;
+        }
+        catch (final IOException e) {
+            throw new MorphExecutionException("filemap: cannot open index file " + file, e);
+        }
+    }
+
+    /**
+     * Writes the entries into an index file. The file is first written to a
+     * temporary file which then replaces the index file.
+     *
+     * @param entries the entries of the index
+     * @param file    the index file
+     */
+    public static void write(final Map<String, String> entries, final Path file) {
+        try (Builder builder = new Builder(file)) {
+            entries.forEach(builder::add);
+            builder.write();
+        }
+    }
+
+    private static boolean isUpToDate(final Path file, final String parameters, final long sourceLastModified)
+            throws IOException {
+        if (!Files.exists(file) || Files.getLastModifiedTime(file).toMillis() < sourceLastModified) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            in.skipBytes(PARAMETERS_POSITION - ENTRY_COUNT_POSITION);
+            final byte[] expected = parameters.getBytes(StandardCharsets.UTF_8);
+            if (in.readInt() != expected.length) {
+                return false;
+            }
+            final byte[] actual = new byte[expected.length];
+            in.readFully(actual);
+            return Arrays.equals(actual, expected);
+        }
+        catch (final EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the parameters with which the index was written.
+     *
+     * @return the parameters
+     */
+    public String getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Looks up the value of a key.
+     *
+     * @param key the key
+     * @return the value or null if the index does not contain the key
+     */
+    public String get(final String key) {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long low = 0;
+        long high = entryCount - 1;
+        while (low <= high) {
+            final long middle = (low + high) >>> 1;
+            final long offset = entryOffset(middle);
+            final int cmp = compareKey(offset, keyBytes);
+            if (cmp < 0) {
+                low = middle + 1;
+            }
+            else if (cmp > 0) {
+                high = middle - 1;
+            }
+            else {
+                return readString(offset + LENGTH_SIZE + keyBytes.length);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of entries in the index.
+     *
+     * @return the number of entries
+     */
+    public long size() {
+        return entryCount;
+    }
+
+    /**
+     * Returns a view of the keys in the index. The keys are read from the
+     * index file while iterating.
+     *
+     * @return the keys in the index
+     */
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+
+            @Override
+            public Iterator<String> iterator() {
+                return new KeyIterator();
+            }
+
+            @Override
+            public int size() {
+                return (int) Math.min(entryCount, Integer.MAX_VALUE);
+            }
+
+            @Override
+            public boolean contains(final Object obj) {
+                return obj instanceof String && get((String) obj) != null;
+            }
+
+        };
+    }
+
+    private static ByteBuffer[] map(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; ++i) {
+                final long start = i * SEGMENT_SIZE;
+                final long length = Math.min(size - start, SEGMENT_SIZE + MAX_ENTRY_SIZE);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            return segments;
+        }
+    }
+
+    private static int entrySize(final byte[] key, final byte[] value) {
+        final long size = 2L * LENGTH_SIZE + key.length + value.length;
+        if (size > MAX_ENTRY_SIZE) {
+            throw new MorphExecutionException("filemap: entry too large for index: " +
+                    new String(key, StandardCharsets.UTF_8));
+        }
+        return (int) size;
+    }
+
+    private static void writeEntry(final DataOutputStream out, final byte[] key, final byte[] value) throws IOException {
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static int compare(final byte[] a, final byte[] b) {
+        final int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; ++i) {
+            final int cmp = (a[i] & UNSIGNED_BYTE_MASK) - (b[i] & UNSIGNED_BYTE_MASK);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private long entryOffset(final long entry) {
+        final long position = offsetsPosition + entry * OFFSET_SIZE;
+        return segment(position).getLong(local(position));
+    }
+
+    private int compareKey(final long offset, final byte[] key) {
+        final ByteBuffer segment = segment(offset);
+        final int start = local(offset);
+        final int keyLength = segment.getInt(start);
+        final int length = Math.min(keyLength, key.length);
+        for (int i = 0; i < length; ++i) {
+            final int cmp = (segment.get(start + LENGTH_SIZE + i) & UNSIGNED_BYTE_MASK) - (key[i] & UNSIGNED_BYTE_MASK);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return keyLength - key.length;
+    }
+
+    private String readString(final long offset) {
+        final ByteBuffer segment = segment(offset).duplicate();
+        final int start = local(offset);
+        final byte[] bytes = new byte[segment.getInt(start)];
+        segment.position(start + LENGTH_SIZE);
+        segment.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer segment(final long position) {
+        return segments[(int) (position / SEGMENT_SIZE)];
+    }
+
+    private static int local(final long position) {
+        return (int) (position % SEGMENT_SIZE);
+    }
+
+    /**
+     * Writes an index file from entries added in any order. Entries are
+     * buffered on the heap until the buffer is full; the buffer is then
+     * sorted and spilled into a temporary run file next to the index file.
+     * When the index is written, the runs are merged into the index file. If
+     * a key is added more than once, the value added last is stored.
+     * <p>
+     * Builders must be closed to remove their temporary files.
+     */
+    public static final class Builder implements Closeable {
+
+        // Bytes on top of the key and value bytes that a buffered entry
+        // occupies on the heap (the entry object, the array headers and the
+        // list slot):
+        private static final int ENTRY_OVERHEAD = 80;
+        private static final long DEFAULT_SORT_BUFFER_SIZE = 64L << 20;
+        private static final int MAX_MERGE_FAN_IN = 128;
+        private static final int IO_BUFFER_SIZE = 1 << 16;
+
+        private static final Comparator<Entry> ENTRY_ORDER = (a, b) -> compare(a.key, b.key);
+
+        private final Path file;
+        private final Path directory;
+        private final byte[] parameters;
+        private final long sortBufferSize;
+        private final List<Entry> buffer = new ArrayList<>();
+        private final List<Path> runs = new ArrayList<>();
+
+        private long bufferedBytes;
+
+        /**
+         * Creates a builder for an index file without parameters.
+         *
+         * @param file the index file
+         */
+        public Builder(final Path file) {
+            this(file, "");
+        }
+
+        /**
+         * Creates a builder for an index file.
+         *
+         * @param file       the index file
+         * @param parameters describes how the entries are read from the
+         *                   source data
+         */
+        public Builder(final Path file, final String parameters) {
+            this(file, parameters, DEFAULT_SORT_BUFFER_SIZE);
+        }
+
+        Builder(final Path file, final String parameters, final long sortBufferSize) {
+            this.file = file;
+            this.parameters = parameters.getBytes(StandardCharsets.UTF_8);
+            this.sortBufferSize = sortBufferSize;
+            directory = file.toAbsolutePath().getParent();
+        }
+
+        /**
+         * Adds an entry to the index.
+         *
+         * @param key   the key
+         * @param value the value
+         */
+        public void add(final String key, final String value) {
+            final Entry entry = new Entry(key.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8));
+            entrySize(entry.key, entry.value);
+            buffer.add(entry);
+            bufferedBytes += entry.key.length + entry.value.length + ENTRY_OVERHEAD;
+            if (bufferedBytes >= sortBufferSize) {
+                try {
+                    spill();
+                }
+                catch (final IOException e) {
+                    throw new MorphExecutionException("filemap: cannot write index file " + file, e);
+                }
+            }
+        }
+
+        /**
+         * Writes the added entries into the index file. The file is first
+         * written to a temporary file which then replaces the index file.
+         */
+        public void write() {
+            try {
+                final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+                try {
+                    try (IndexWriter writer = new IndexWriter(temp, parameters)) {
+                        if (runs.isEmpty()) {
+                            sortBuffer();
+                            for (final Entry entry : buffer) {
+                                writer.write(entry.key, entry.value);
+                            }
+                            buffer.clear();
+                            bufferedBytes = 0;
+                        }
+                        else {
+                            if (!buffer.isEmpty()) {
+                                spill();
+                            }
+                            while (runs.size() > MAX_MERGE_FAN_IN) {
+                                mergeRuns();
+                            }
+                            merge(runs, writer);
+                        }
+                    }
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+                finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            catch (final IOException e) {
+                throw new MorphExecutionException("filemap: cannot write index file " + file, e);
+            }
+        }
+
+        /**
+         * Removes the temporary run files.
+         */
+        @Override
+        public void close() {
+            for (final Path run : runs) {
+                try {
+                    Files.deleteIfExists(run);
+                }
+                catch (final IOException e) {
+                    // Temporary files are left behind if they cannot be deleted
+                }
+            }
+            runs.clear();
+            buffer.clear();
+        }
+
+        private void spill() throws IOException {
+            sortBuffer();
+            final Path run = createRun();
+            try (RunWriter writer = new RunWriter(run)) {
+                for (final Entry entry : buffer) {
+                    writer.write(entry.key, entry.value);
+                }
+            }
+            buffer.clear();
+            bufferedBytes = 0;
+        }
+
+        private void sortBuffer() {
+            // The sort is stable, so the last of several entries with the
+            // same key is the one added last:
+            buffer.sort(ENTRY_ORDER);
+            int size = 0;
+            for (final Entry entry : buffer) {
+                if (size > 0 && compare(buffer.get(size - 1).key, entry.key) == 0) {
+                    buffer.set(size - 1, entry);
+                }
+                else {
+                    buffer.set(size, entry);
+                    ++size;
+                }
+            }
+            buffer.subList(size, buffer.size()).clear();
+        }
+
+        private Path createRun() throws IOException {
+            final Path run = Files.createTempFile(directory, file.getFileName().toString(), ".run");
+            runs.add(run);
+            return run;
+        }
+
+        // Merges consecutive groups of runs into single runs. The merged runs
+        // keep the order of the runs they replace so that later entries still
+        // take precedence:
+        private void mergeRuns() throws IOException {
+            final List<Path> groups = new ArrayList<>(runs);
+            runs.clear();
+            for (int i = 0; i < groups.size(); i += MAX_MERGE_FAN_IN) {
+                final List<Path> group = groups.subList(i, Math.min(i + MAX_MERGE_FAN_IN, groups.size()));
+                try (RunWriter writer = new RunWriter(createRun())) {
+                    merge(group, writer);
+                }
+                for (final Path run : group) {
+                    Files.delete(run);
+                }
+            }
+        }
+
+        private static void merge(final List<Path> sources, final EntryWriter writer) throws IOException {
+            final PriorityQueue<RunReader> queue = new PriorityQueue<>(sources.size(),
+                    Comparator.<RunReader, byte[]>comparing(r -> r.key, FileMapIndex::compare)
+                    .thenComparingInt(r -> r.run));
+            final List<RunReader> readers = new ArrayList<>(sources.size());
+            try {
+                for (final Path source : sources) {
+                    final RunReader reader = new RunReader(source, readers.size());
+                    readers.add(reader);
+                    if (reader.next()) {
+                        queue.add(reader);
+                    }
+                }
+                while (!queue.isEmpty()) {
+                    // Of several runs containing the same key, the last run
+                    // is polled last and provides the value:
+                    RunReader reader = queue.poll();
+                    final byte[] key = reader.key;
+                    byte[] value = reader.value;
+                    if (reader.next()) {
+                        queue.add(reader);
+                    }
+                    while (!queue.isEmpty() && compare(queue.peek().key, key) == 0) {
+                        reader = queue.poll();
+                        value = reader.value;
+                        if (reader.next()) {
+                            queue.add(reader);
+                        }
+                    }
+                    writer.write(key, value);
+                }
+            }
+            finally {
+                for (final RunReader reader : readers) {
+                    reader.close();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * An entry buffered by a {@link Builder}.
+     */
+    private static final class Entry {
+
+        private final byte[] key;
+        private final byte[] value;
+
+        Entry(final byte[] key, final byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * Receives sorted entries.
+     */
+    private interface EntryWriter {
+
+        void write(byte[] key, byte[] value) throws IOException;
+
+    }
+
+    /**
+     * Writes sorted entries into a temporary run file.
+     */
+    private static final class RunWriter implements EntryWriter, Closeable {
+
+        private final DataOutputStream out;
+
+        RunWriter(final Path run) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), Builder.IO_BUFFER_SIZE));
+        }
+
+        @Override
+        public void write(final byte[] key, final byte[] value) throws IOException {
+            writeEntry(out, key, value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+    }
+
+    /**
+     * Reads the entries of a temporary run file.
+     */
+    private static final class RunReader implements Closeable {
+
+        private final DataInputStream in;
+        private final int run;
+
+        private byte[] key;
+        private byte[] value;
+
+        RunReader(final Path file, final int run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), Builder.IO_BUFFER_SIZE));
+            this.run = run;
+        }
+
+        boolean next() throws IOException {
+            final int keyLength;
+            try {
+                keyLength = in.readInt();
+            }
+            catch (final EOFException e) {
+                return false;
+            }
+            key = new byte[keyLength];
+            in.readFully(key);
+            value = new byte[in.readInt()];
+            in.readFully(value);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+    }
+
+    /**
+     * Writes sorted entries into an index file. The offsets of the entries
+     * are collected in a temporary file and appended to the index file when
+     * the writer is closed.
+     */
+    private static final class IndexWriter implements EntryWriter, Closeable {
+
+        private final Path file;
+        private final Path offsetsFile;
+        private final DataOutputStream out;
+        private final DataOutputStream offsets;
+
+        private long position;
+        private long count;
+
+        IndexWriter(final Path file, final byte[] parameters) throws IOException {
+            this.file = file;
+            offsetsFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".offsets");
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), Builder.IO_BUFFER_SIZE));
+            offsets = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(offsetsFile), Builder.IO_BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(0);
+            out.writeLong(0);
+            out.writeInt(parameters.length);
+            out.write(parameters);
+            position = PARAMETERS_POSITION + LENGTH_SIZE + parameters.length;
+        }
+
+        @Override
+        public void write(final byte[] key, final byte[] value) throws IOException {
+            offsets.writeLong(position);
+            writeEntry(out, key, value);
+            position += entrySize(key, value);
+            ++count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                offsets.close();
+                Files.copy(offsetsFile, out);
+                out.close();
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    final ByteBuffer header = ByteBuffer.allocate(2 * OFFSET_SIZE);
+                    header.putLong(count).putLong(position).flip();
+                    while (header.hasRemaining()) {
+                        channel.write(header, ENTRY_COUNT_POSITION + header.position());
+                    }
+                }
+            }
+            finally {
+                out.close();
+                Files.deleteIfExists(offsetsFile);
+            }
+        }
+
+    }
+
+    /**
+     * Iterates over the keys in the index.
+     */
+    private final class KeyIterator implements Iterator<String> {
+
+        private long next;
+
+        KeyIterator() {
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < entryCount;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final String key = readString(entryOffset(next));
+            ++next;
+            return key;
+        }
+
+    }
+
+}
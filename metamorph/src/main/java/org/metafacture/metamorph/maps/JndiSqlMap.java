@@ -17,14 +17,19 @@
 package org.metafacture.metamorph.maps;
 
 import org.metafacture.metamorph.api.MorphExecutionException;
+import org.metafacture.metamorph.api.Prefetchable;
 import org.metafacture.metamorph.api.helpers.AbstractReadOnlyMap;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
@@ -32,14 +37,18 @@
 /**
  * A map which queries an sql database provided as jndi
  * resource.
+ * <p>
+ * Lookups can be cached and prefetched as described for {@link SqlMap}.
  *
  * @author Daniel Schäfer
  *
  */
-public final class JndiSqlMap extends AbstractReadOnlyMap<String, String> implements Closeable {
+public final class JndiSqlMap extends AbstractReadOnlyMap<String, String> implements Closeable, Prefetchable {
 
     private DataSource datasource;
     private String query;
+    private String prefetchQuery;
+    private LookupCache cache;
 
     /**
      * Creates an instance of {@link JndiSqlMap}.
@@ -72,26 +81,72 @@ public void setQuery(final String query) {
         this.query = query;
     }
 
+    /**
+     * Sets the query used to prefetch the values of many keys at once.
+     *
+     * @see SqlMap#setPrefetchQuery(String)
+     *
+     * @param prefetchQuery the prefetch query
+     */
+    public void setPrefetchQuery(final String prefetchQuery) {
+        this.prefetchQuery = prefetchQuery;
+    }
+
+    /**
+     * Sets the maximum number of lookup results which are cached.
+     *
+     * @see SqlMap#setCacheSize(int)
+     *
+     * @param cacheSize the maximum number of cached results
+     */
+    public void setCacheSize(final int cacheSize) {
+        cache = cacheSize > 0 ? new LookupCache(cacheSize) : null;
+    }
+
     @Override
     public String get(final Object key) {
-        String resultString = null;
+        final String keyString = key.toString();
+        final Optional<String> cached = cache != null ? cache.get(keyString) : null;
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        final String resultString;
         try (
                 Connection connection = datasource.getConnection();
                 PreparedStatement statement = connection.prepareStatement(query)
         ) {
-            statement.setString(1, key.toString());
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.first()) {
-                    resultString = resultSet.getString(1);
-                }
-            }
+            resultString = SqlQueries.queryValue(statement, keyString);
         }
         catch (final SQLException e) {
             throw new MorphExecutionException("jndisqlmap: execution of sql query failed", e);
         }
+        if (cache != null) {
+            cache.put(keyString, resultString);
+        }
         return resultString;
     }
 
+    @Override
+    public boolean isPrefetching() {
+        return prefetchQuery != null && cache != null;
+    }
+
+    @Override
+    public void prefetch(final Collection<String> keys) {
+        final List<String> missingKeys = keys.stream()
+                .filter(k -> !cache.contains(k))
+                .collect(Collectors.toList());
+        if (!missingKeys.isEmpty()) {
+            try (Connection connection = datasource.getConnection()) {
+                final Map<String, String> values = SqlQueries.queryValues(connection, prefetchQuery, missingKeys);
+                missingKeys.forEach(k -> cache.put(k, values.get(k)));
+            }
+            catch (final SQLException e) {
+                throw new MorphExecutionException("jndisqlmap: execution of prefetch query failed", e);
+            }
+        }
+    }
+
     @Override
     public void close() throws IOException {
         // Nothing to do
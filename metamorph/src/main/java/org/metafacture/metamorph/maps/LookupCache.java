@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph.maps;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A size-bounded cache for the results of map lookups. The least recently
+ * used entries are evicted first. Keys which were not found are cached as
+ * well so that repeated lookups of missing keys are answered from the cache.
+ * Optionally, entries expire after a fixed time to live.
+ * <p>
+ * The cache is thread-safe.
+ */
+final class LookupCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Map<String, CachedResult> entries;
+    private final long timeToLive;
+
+    LookupCache(final int maxSize) {
+        this(maxSize, 0);
+    }
+
+    /**
+     * Creates a cache whose entries expire.
+     *
+     * @param maxSize    the maximum number of cached entries
+     * @param timeToLive the time to live of an entry in milliseconds or 0 if
+     *                   entries should not expire
+     */
+    LookupCache(final int maxSize, final long timeToLive) {
+        this.timeToLive = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+        entries = new LinkedHashMap<String, CachedResult>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedResult> eldest) {
+                return size() > maxSize;
+            }
+
+        };
+    }
+
+    /**
+     * Gets the cached result for a key.
+     *
+     * @param key the key
+     * @return null if the key is not cached, an empty optional if the key was
+     *         not found and the value otherwise
+     */
+    synchronized Optional<String> get(final String key) {
+        final CachedResult entry = entries.get(key);
+        if (entry != null && entry.isExpired()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Checks whether the result for a key is cached.
+     *
+     * @param key the key
+     * @return true if the result is cached
+     */
+    synchronized boolean contains(final String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Caches the result for a key.
+     *
+     * @param key   the key
+     * @param value the value or null if the key was not found
+     */
+    synchronized void put(final String key, final String value) {
+        final long expiry = timeToLive > 0 ? System.nanoTime() + timeToLive : 0;
+        entries.put(key, new CachedResult(Optional.ofNullable(value), expiry));
+    }
+
+    /**
+     * A cached result together with its expiry time.
+     */
+    private static final class CachedResult {
+
+        private final Optional<String> value;
+        private final long expiry;
+
+        CachedResult(final Optional<String> value, final long expiry) {
+            this.value = value;
+            this.expiry = expiry;
+        }
+
+        boolean isExpired() {
+            return expiry != 0 && System.nanoTime() - expiry > 0;
+        }
+
+    }
+
+}
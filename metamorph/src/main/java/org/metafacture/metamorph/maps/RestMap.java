@@ -16,33 +16,76 @@
 
 package org.metafacture.metamorph.maps;
 
+import org.metafacture.metamorph.api.Prefetchable;
 import org.metafacture.metamorph.api.helpers.AbstractReadOnlyMap;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * A map which resolves its keys by doing a REST request and returning the
  * response as value.
+ * <p>
+ * Responses are read completely so that the connection can be kept alive
+ * and reused for the next request to the same server. Requests for which the
+ * server returns an error or which time out are treated as missing keys.
+ * <p>
+ * If {@link #setCacheSize(int)} is greater than zero, responses and missing
+ * keys are kept in a cache. Cached entries expire after
+ * {@link #setCacheTtl(int)} milliseconds. With a cache and
+ * {@link #setReadAheadThreads(int)} greater than zero, the map requests the
+ * keys of a record concurrently in the background before the record is
+ * processed by Metamorph (see {@link Prefetchable}). Lookups then wait only
+ * for the response of their own key. The read-ahead can be further
+ * restricted to keys matching {@link #setReadAheadPattern(String)}.
  *
  * @author Markus Michael Geipel
  * @author Philipp v. Böselager
  */
-public final class RestMap extends AbstractReadOnlyMap<String, String> {
+public final class RestMap extends AbstractReadOnlyMap<String, String> implements Prefetchable, Closeable {
 
     public static final String CHARSET_NAME = "UTF-8";
+    public static final int DEFAULT_TIMEOUT = 0;
+    public static final int DEFAULT_CACHE_SIZE = 0;
+    public static final int DEFAULT_CACHE_TTL = 0;
+    public static final int DEFAULT_READ_AHEAD_THREADS = 0;
 
     private static final Pattern VAR_PATTERN = Pattern.compile("${key}", Pattern.LITERAL);
+    private static final int BUFFER_SIZE = 8192;
+    private static final String THREAD_NAME_PREFIX = "restmap-";
+
+    private final Map<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+
     private String charsetName = CHARSET_NAME;
     private String url;
+    private int connectTimeout = DEFAULT_TIMEOUT;
+    private int readTimeout = DEFAULT_TIMEOUT;
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+    private int cacheTtl = DEFAULT_CACHE_TTL;
+    private int readAheadThreads = DEFAULT_READ_AHEAD_THREADS;
+    private Pattern readAheadPattern;
+
+    private LookupCache cache;
+    private ExecutorService executor;
 
     /**
      * Creates an instance of {@link RestMap}.
@@ -61,9 +104,81 @@ public RestMap(final String url) {
 
     @Override
     public String get(final Object key) {
+        final String name = key.toString();
+        final Optional<String> cached = cache == null ? null : cache.get(name);
+        return cached != null ? cached.orElse(null) : lookup(name);
+    }
+
+    private String lookup(final String key) {
+        final CompletableFuture<String> request = pending.get(key);
+        final String value = request != null ? await(key, request) : fetch(key);
+        if (cache != null) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    private String await(final String key, final CompletableFuture<String> request) {
+        try {
+            return request.join();
+        }
+        catch (final CancellationException e) {
+            // The map was closed before the read-ahead request was executed
+            return fetch(key);
+        }
+    }
+
+    @Override
+    public boolean isPrefetching() {
+        return readAheadThreads > 0 && cache != null;
+    }
+
+    @Override
+    public void prefetch(final Collection<String> keys) {
+        for (final String key : keys) {
+            if (isReadAheadKey(key) && !cache.contains(key) && !pending.containsKey(key)) {
+                final CompletableFuture<String> request = new CompletableFuture<>();
+                if (pending.putIfAbsent(key, request) == null) {
+                    getExecutor().execute(() -> complete(key, request));
+                }
+            }
+        }
+    }
+
+    private boolean isReadAheadKey(final String key) {
+        return readAheadPattern == null || readAheadPattern.matcher(key).matches();
+    }
+
+    private void complete(final String key, final CompletableFuture<String> request) {
+        try {
+            final String value = fetch(key);
+            cache.put(key, value);
+            request.complete(value);
+        }
+        catch (final RuntimeException e) { // checkstyle-disable-line IllegalCatch
+            request.completeExceptionally(e);
+        }
+        finally {
+            pending.remove(key, request);
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(readAheadThreads, runnable -> {
+                final Thread thread = new Thread(runnable);
+                thread.setName(THREAD_NAME_PREFIX + thread.getId());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private String fetch(final String key) {
         final Matcher matcher = VAR_PATTERN.matcher(url);
         try {
-            final String urlString = matcher.replaceAll(key.toString());
+            final String urlString = matcher.replaceAll(Matcher.quoteReplacement(key));
             return readFromUrl(urlString);
         }
         catch (final IOException | URISyntaxException e) {
@@ -73,19 +188,48 @@ public String get(final Object key) {
     }
 
     private String readFromUrl(final String targetUrl) throws IOException, URISyntaxException {
-        final InputStream inputStream = new URL(new URI(targetUrl.replace(" ", "%20")).toASCIIString()).openConnection()
-                .getInputStream();
-        try {
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, Charset.forName(charsetName)));
-            final StringBuilder stringBuffer = new StringBuilder();
-            int value;
-            while ((value = reader.read()) != -1) {
-                stringBuffer.append((char) value);
-            }
-            return stringBuffer.toString();
+        final URLConnection connection = new URL(new URI(targetUrl.replace(" ", "%20")).toASCIIString())
+                .openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        try (InputStream inputStream = connection.getInputStream()) {
+            return read(inputStream);
         }
-        finally {
-            inputStream.close();
+        catch (final IOException e) {
+            discardErrorStream(connection);
+            throw e;
+        }
+    }
+
+    private String read(final InputStream inputStream) throws IOException {
+        final Reader reader = new InputStreamReader(inputStream, Charset.forName(charsetName));
+        final StringBuilder builder = new StringBuilder();
+        final char[] buffer = new char[BUFFER_SIZE];
+        int count = reader.read(buffer);
+        while (count != -1) {
+            builder.append(buffer, 0, count);
+            count = reader.read(buffer);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reads the body of an error response so that the connection can be
+     * reused.
+     */
+    private void discardErrorStream(final URLConnection connection) {
+        if (connection instanceof HttpURLConnection) {
+            try (InputStream errorStream = ((HttpURLConnection) connection).getErrorStream()) {
+                if (errorStream != null) {
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    while (errorStream.read(buffer) != -1) {
+                        // Discard the error message
+                    }
+                }
+            }
+            catch (final IOException e) {
+                // The connection will not be reused
+            }
         }
     }
 
@@ -107,4 +251,96 @@ public void setCharsetName(final String name) {
         charsetName = name;
     }
 
+    /**
+     * Sets the timeout for connecting to the server in milliseconds. A
+     * timeout of zero means no timeout.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_TIMEOUT}</strong>
+     *
+     * @param connectTimeout the connect timeout in milliseconds
+     */
+    public void setConnectTimeout(final int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Sets the timeout for reading the response in milliseconds. A timeout of
+     * zero means no timeout.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_TIMEOUT}</strong>
+     *
+     * @param readTimeout the read timeout in milliseconds
+     */
+    public void setReadTimeout(final int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Sets the number of responses kept in the cache. A size of zero disables
+     * the cache.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_CACHE_SIZE}</strong>
+     *
+     * @param cacheSize the maximum number of cached responses
+     */
+    public void setCacheSize(final int cacheSize) {
+        this.cacheSize = cacheSize;
+        createCache();
+    }
+
+    /**
+     * Sets the time in milliseconds after which cached responses expire. A
+     * time of zero means that responses do not expire.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_CACHE_TTL}</strong>
+     *
+     * @param cacheTtl the time to live of cached responses in milliseconds
+     */
+    public void setCacheTtl(final int cacheTtl) {
+        this.cacheTtl = cacheTtl;
+        createCache();
+    }
+
+    private void createCache() {
+        cache = cacheSize > 0 ? new LookupCache(cacheSize, cacheTtl) : null;
+    }
+
+    /**
+     * Sets the number of threads which request keys ahead of their lookup.
+     * Read-ahead requires a cache. Zero disables the read-ahead.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_READ_AHEAD_THREADS}</strong>
+     * <p>
+     * The parameter must not be changed after the first lookup.
+     *
+     * @param readAheadThreads the number of concurrent background requests
+     */
+    public void setReadAheadThreads(final int readAheadThreads) {
+        this.readAheadThreads = readAheadThreads;
+    }
+
+    /**
+     * Restricts the read-ahead to keys matching a regular expression. By
+     * default all candidate keys are requested.
+     *
+     * @param readAheadPattern a regular expression matching the complete key
+     */
+    public void setReadAheadPattern(final String readAheadPattern) {
+        this.readAheadPattern = Pattern.compile(readAheadPattern);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+        for (final CompletableFuture<String> request : pending.values()) {
+            request.cancel(false);
+        }
+        pending.clear();
+    }
+
 }
@@ -17,6 +17,7 @@
 package org.metafacture.metamorph.maps;
 
 import org.metafacture.metamorph.api.MorphExecutionException;
+import org.metafacture.metamorph.api.Prefetchable;
 import org.metafacture.metamorph.api.helpers.AbstractReadOnlyMap;
 
 import java.io.Closeable;
@@ -24,29 +25,54 @@
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
 
 /**
  * A map implementation that queries an sql database.
+ * <p>
+ * The map opens {@link #setPoolSize poolSize} connections which are shared
+ * by all threads using the map. Lookups can be cached by setting a
+ * {@link #setCacheSize cacheSize}; keys which are not found are cached as
+ * well. Note that Metamorph looks up each key twice (once to check whether
+ * the key exists and once to get the value), so a cache also halves the
+ * number of queries.
+ * <p>
+ * If a {@link #setPrefetchQuery prefetchQuery} is set in addition to the
+ * cache, Metamorph resolves the keys of all lookups in a record with one
+ * query per record before processing the record (see {@link Prefetchable}).
  *
  * @author Daniel Schäfer
  * @author Markus Michael Geipel
  *
  */
-public final class SqlMap extends AbstractReadOnlyMap<String, String> implements Closeable {
+public final class SqlMap extends AbstractReadOnlyMap<String, String> implements Closeable, Prefetchable {
 
-    private boolean isUninitialized = true;
+    public static final int DEFAULT_POOL_SIZE = 1;
 
-    private Connection conn;
+    private volatile boolean isUninitialized = true;
+
+    private final List<Connection> connections = new ArrayList<>();
+    private BlockingQueue<PreparedStatement> statements;
+    private LookupCache cache;
+
+    private String url;
     private String host;
     private String login;
     private String password;
     private String database;
     private String query;
+    private String prefetchQuery;
     private String driver;
-
-    private PreparedStatement preparedStatement;
+    private int cacheSize;
+    private int poolSize = DEFAULT_POOL_SIZE;
 
     /**
      * Creates an instance of {@link SqlMap}.
@@ -55,41 +81,61 @@ public SqlMap() {
     }
 
     /**
-     * Initializes the prepared statement using the {@link #query}.
+     * Opens the database connections and initializes the prepared statements
+     * using the {@link #query}.
      */
-    public void init() {
+    public synchronized void init() {
+        if (!isUninitialized) {
+            return;
+        }
+        statements = new ArrayBlockingQueue<>(poolSize);
         try {
-            preparedStatement = getMySqlConnection().prepareStatement(query);
+            for (int i = 0; i < poolSize; ++i) {
+                statements.add(openConnection().prepareStatement(query));
+            }
         }
         catch (final SQLException e) {
             throw new MorphExecutionException("sqlmap: could not create prepared statement for query", e);
         }
+        cache = cacheSize > 0 ? new LookupCache(cacheSize) : null;
         isUninitialized = false;
     }
 
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
         try {
-            if (conn != null) {
-                conn.close();
+            for (final Connection connection : connections) {
+                connection.close();
             }
         }
         catch (final SQLException e) {
             throw new MorphExecutionException("sqlmap: could not close db connection", e);
         }
+        finally {
+            connections.clear();
+            isUninitialized = true;
+        }
     }
 
-    private Connection getMySqlConnection() {
+    private Connection openConnection() {
+        final Connection connection;
         try {
-            Class.forName(driver);
-
-            conn = DriverManager.getConnection("jdbc:mysql://" + host + "/" +
-                    database + "?" + "user=" + login + "&" + "password=" + password);
+            if (driver != null) {
+                Class.forName(driver);
+            }
+            if (url != null) {
+                connection = DriverManager.getConnection(url, login, password);
+            }
+            else {
+                connection = DriverManager.getConnection("jdbc:mysql://" + host + "/" +
+                        database + "?" + "user=" + login + "&" + "password=" + password);
+            }
         }
         catch (final ClassNotFoundException | SQLException e) {
             throw new MorphExecutionException("sqlmap: cannot create db connection", e);
         }
-        return conn;
+        connections.add(connection);
+        return connection;
     }
 
     @Override
@@ -97,22 +143,69 @@ public String get(final Object key) {
         if (isUninitialized) {
             init();
         }
-        String resultString = null;
-        final ResultSet resultSet;
-        try {
-            preparedStatement.setString(1, key.toString());
-            resultSet = preparedStatement.executeQuery();
-            if (resultSet.first()) {
-                resultString = resultSet.getString(1);
+        final String keyString = key.toString();
+        if (cache != null) {
+            final Optional<String> cached = cache.get(keyString);
+            if (cached != null) {
+                return cached.orElse(null);
             }
-            resultSet.close();
+        }
+        final PreparedStatement statement = borrowStatement();
+        final String resultString;
+        try {
+            resultString = SqlQueries.queryValue(statement, keyString);
         }
         catch (final SQLException e) {
             throw new MorphExecutionException("sqlmap: execution of prepared statement failed", e);
         }
+        finally {
+            statements.add(statement);
+        }
+        if (cache != null) {
+            cache.put(keyString, resultString);
+        }
         return resultString;
     }
 
+    @Override
+    public boolean isPrefetching() {
+        return prefetchQuery != null && cacheSize > 0;
+    }
+
+    @Override
+    public void prefetch(final Collection<String> keys) {
+        if (isUninitialized) {
+            init();
+        }
+        final List<String> missingKeys = keys.stream()
+                .filter(k -> !cache.contains(k))
+                .collect(Collectors.toList());
+        if (missingKeys.isEmpty()) {
+            return;
+        }
+        final PreparedStatement statement = borrowStatement();
+        try {
+            final Map<String, String> values = SqlQueries.queryValues(statement.getConnection(), prefetchQuery, missingKeys);
+            missingKeys.forEach(k -> cache.put(k, values.get(k)));
+        }
+        catch (final SQLException e) {
+            throw new MorphExecutionException("sqlmap: execution of prefetch query failed", e);
+        }
+        finally {
+            statements.add(statement);
+        }
+    }
+
+    private PreparedStatement borrowStatement() {
+        try {
+            return statements.take();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MorphExecutionException("sqlmap: interrupted while waiting for a db connection", e);
+        }
+    }
+
     /**
      * Sets the driver.
      *
@@ -122,6 +215,19 @@ public void setDriver(final String driver) {
         this.driver = driver;
     }
 
+    /**
+     * Sets the JDBC url of the database. If the url is set, {@link #setHost
+     * host} and {@link #setDatabase database} are ignored and the connection
+     * is opened with {@link #setLogin login} and {@link #setPassword
+     * password}. Otherwise, a MySQL url is created from the host and
+     * database.
+     *
+     * @param url the JDBC url
+     */
+    public void setUrl(final String url) {
+        this.url = url;
+    }
+
     /**
      * Sets the host.
      *
@@ -167,4 +273,44 @@ public void setQuery(final String query) {
         this.query = query;
     }
 
+    /**
+     * Sets the query used to prefetch the values of many keys at once. The
+     * query must contain a single placeholder which is expanded into a list
+     * of placeholders, e.g. {@code SELECT id, name FROM names WHERE id IN (?)}.
+     * It must return the key in the first and the value in the second column.
+     * Prefetching requires a {@link #setCacheSize cache}.
+     *
+     * @param prefetchQuery the prefetch query
+     */
+    public void setPrefetchQuery(final String prefetchQuery) {
+        this.prefetchQuery = prefetchQuery;
+    }
+
+    /**
+     * Sets the maximum number of lookup results which are cached. The least
+     * recently used results are evicted first.
+     * <p>
+     * <strong>Default value: 0 (no caching)</strong>
+     *
+     * @param cacheSize the maximum number of cached results
+     */
+    public void setCacheSize(final int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Sets the number of database connections which are shared by all
+     * threads using this map.
+     * <p>
+     * <strong>Default value: {@value #DEFAULT_POOL_SIZE}</strong>
+     *
+     * @param poolSize the number of connections
+     */
+    public void setPoolSize(final int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("'poolSize' must be at least 1");
+        }
+        this.poolSize = poolSize;
+    }
+
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph.maps;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the lookup queries of {@link SqlMap} and {@link JndiSqlMap}.
+ */
+final class SqlQueries {
+
+    /**
+     * Maximum number of keys in a single prefetch query.
+     */
+    static final int MAX_PREFETCH_KEYS = 500;
+
+    private static final String PLACEHOLDER = "?";
+    private static final String PLACEHOLDER_SEPARATOR = ", ";
+
+    private SqlQueries() {
+        // No instances allowed
+    }
+
+    /**
+     * Looks up the value for a single key. The statement must take the key
+     * as its only parameter and return the value in its first column.
+     *
+     * @param statement the lookup statement
+     * @param key       the key
+     * @return the value or null if the query returned no rows
+     * @throws SQLException if the query fails
+     */
+    static String queryValue(final PreparedStatement statement, final String key) throws SQLException {
+        String value = null;
+        statement.setString(1, key);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+                value = resultSet.getString(1);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Looks up the values for many keys. The query must contain a single
+     * placeholder which is expanded into one placeholder per key, for
+     * instance {@code SELECT id, name FROM names WHERE id IN (?)}. It must
+     * return the key in its first and the value in its second column. The
+     * keys are sent in chunks of at most {@value #MAX_PREFETCH_KEYS} keys.
+     *
+     * @param connection the database connection
+     * @param query      the prefetch query
+     * @param keys       the keys
+     * @return the values of all keys which were found
+     * @throws SQLException if the query fails
+     */
+    static Map<String, String> queryValues(final Connection connection, final String query,
+            final Collection<String> keys) throws SQLException {
+        final Map<String, String> values = new HashMap<>();
+        final List<String> chunk = new ArrayList<>(Math.min(keys.size(), MAX_PREFETCH_KEYS));
+        for (final String key : keys) {
+            chunk.add(key);
+            if (chunk.size() == MAX_PREFETCH_KEYS) {
+                queryChunk(connection, query, chunk, values);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            queryChunk(connection, query, chunk, values);
+        }
+        return values;
+    }
+
+    private static void queryChunk(final Connection connection, final String query,
+            final List<String> keys, final Map<String, String> values) throws SQLException {
+        final String placeholders = String.join(PLACEHOLDER_SEPARATOR, Collections.nCopies(keys.size(), PLACEHOLDER));
+        try (PreparedStatement statement = connection.prepareStatement(query.replace(PLACEHOLDER, placeholders))) {
+            for (int i = 0; i < keys.size(); ++i) {
+                statement.setString(i + 1, keys.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    values.put(resultSet.getString(1), resultSet.getString(2));
+                }
+            }
+        }
+    }
+
+}
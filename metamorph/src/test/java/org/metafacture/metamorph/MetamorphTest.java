@@ -19,6 +19,7 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -26,6 +27,7 @@
 import org.metafacture.framework.helpers.DefaultStreamReceiver;
 import org.metafacture.metamorph.api.Maps;
 import org.metafacture.metamorph.api.NamedValueReceiver;
+import org.metafacture.metamorph.api.Prefetchable;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -33,8 +35,15 @@
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -142,6 +151,91 @@ public void shouldReturnDefaultValueIfMapIsKnownButNameIsUnknown() {
         assertEquals("defaultValue", metamorph.getValue("testMap", "nameNotInMap"));
     }
 
+    @Test
+    public void shouldPrefetchOnlyValuesOfLookupSources() {
+        final PrefetchingMap map = new PrefetchingMap();
+        metamorph.registerLookupSource("testMap", "testEntity.testLiteral");
+        metamorph.putMap("testMap", map);
+
+        metamorph.startRecord("testId");
+        metamorph.startEntity("testEntity");
+        metamorph.literal("testLiteral", "key1");
+        metamorph.literal("otherLiteral", "key2");
+        metamorph.endEntity();
+        metamorph.literal("testLiteral", "key3");
+        metamorph.endRecord();
+
+        assertEquals(Arrays.asList(Collections.singleton("key1")), map.prefetchedKeys);
+    }
+
+    @Test
+    public void shouldNotPrefetchRecordsWithoutLookupSourceValues() {
+        final PrefetchingMap map = new PrefetchingMap();
+        metamorph.registerLookupSource("testMap", "testLiteral");
+        metamorph.putMap("testMap", map);
+
+        metamorph.startRecord("testId");
+        metamorph.literal("otherLiteral", "key1");
+        metamorph.endRecord();
+
+        assertEquals(Collections.emptyList(), map.prefetchedKeys);
+    }
+
+    @Test
+    public void shouldRegisterOnlyLookupsReceivingSourceValuesForPrefetching() {
+        final Metamorph morph = InlineMorph.in(this)
+            .with("<rules>")
+            .with("  <data source='_id'>")
+            .with("    <lookup in='testMap' />")
+            .with("  </data>")
+            .with("  <data source='direct'>")
+            .with("    <lookup in='testMap' />")
+            .with("  </data>")
+            .with("  <data source='transformed'>")
+            .with("    <trim />")
+            .with("    <lookup in='testMap' />")
+            .with("  </data>")
+            .with("</rules>")
+            .with("<maps>")
+            .with("  <javamap name='testMap' class='" + PrefetchingMap.class.getName() + "' />")
+            .with("</maps>")
+            .createConnectedTo(new DefaultStreamReceiver());
+        final PrefetchingMap map = (PrefetchingMap) morph.getMap("testMap");
+
+        morph.startRecord("testId");
+        morph.literal("direct", "key1");
+        morph.literal("transformed", " key2 ");
+        morph.literal("other", "key3");
+        morph.endRecord();
+
+        assertEquals(Arrays.asList(new HashSet<>(Arrays.asList("testId", "key1"))), map.prefetchedKeys);
+    }
+
+    @Test
+    public void shouldDiscardPrefetchedRecordIfPrefetchFails() {
+        final PrefetchingMap map = new PrefetchingMap();
+        metamorph.registerLookupSource("testMap", "testLiteral");
+        metamorph.putMap("testMap", map);
+
+        map.failing = true;
+        metamorph.startRecord("1");
+        metamorph.literal("testLiteral", "key1");
+        try {
+            metamorph.endRecord();
+            fail("prefetch should have failed");
+        }
+        catch (final IllegalStateException e) {
+            assertEquals("prefetch failed", e.getMessage());
+        }
+
+        map.failing = false;
+        metamorph.startRecord("2");
+        metamorph.literal("testLiteral", "key2");
+        metamorph.endRecord();
+
+        assertEquals(Arrays.asList(Collections.singleton("key1"), Collections.singleton("key2")), map.prefetchedKeys);
+    }
+
     @Test(expected=IllegalStateException.class)
     public void shouldThrowIllegalStateExceptionIfEntityIsNotClosed() {
         metamorph.startRecord("");
@@ -179,4 +273,33 @@ private void assertNamedValue(final boolean matching, final Consumer<Metamorph>
         }
     }
 
+    /**
+     * A map recording the keys it is asked to prefetch.
+     */
+    public static final class PrefetchingMap extends HashMap<String, String> implements Prefetchable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Set<String>> prefetchedKeys = new ArrayList<>();
+
+        private boolean failing;
+
+        public PrefetchingMap() {
+        }
+
+        @Override
+        public boolean isPrefetching() {
+            return true;
+        }
+
+        @Override
+        public void prefetch(final Collection<String> keys) {
+            prefetchedKeys.add(new HashSet<>(keys));
+            if (failing) {
+                throw new IllegalStateException("prefetch failed");
+            }
+        }
+
+    }
+
 }
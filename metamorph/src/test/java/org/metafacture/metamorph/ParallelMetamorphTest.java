@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.metafacture.framework.StreamReceiver;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+/**
+ * Tests for class {@link ParallelMetamorph}.
+ */
+public final class ParallelMetamorphTest {
+
+    private static final String MORPH_DEF =
+            "org/metafacture/metamorph/parallel-metamorph-test.xml";
+
+    private static final int RECORD_COUNT = 500;
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private StreamReceiver receiver;
+
+    private ParallelMetamorph parallelMetamorph;
+
+    @Before
+    public void setup() {
+        parallelMetamorph = new ParallelMetamorph(MORPH_DEF);
+        parallelMetamorph.setThreads(4);
+        parallelMetamorph.setCapacity(16);
+        parallelMetamorph.setReceiver(receiver);
+    }
+
+    @Test
+    public void shouldPassOnRecordsInInputOrder() {
+        sendRecords();
+        parallelMetamorph.closeStream();
+
+        final InOrder ordered = inOrder(receiver);
+        for (int i = 0; i < RECORD_COUNT; ++i) {
+            ordered.verify(receiver).startRecord(String.valueOf(i));
+            ordered.verify(receiver).literal("out", "value" + i);
+            ordered.verify(receiver).endRecord();
+        }
+        ordered.verify(receiver).closeStream();
+        ordered.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void shouldPassOnAllRecordsIfNotOrdered() {
+        parallelMetamorph.setOrdered(false);
+
+        sendRecords();
+        parallelMetamorph.closeStream();
+
+        for (int i = 0; i < RECORD_COUNT; ++i) {
+            verify(receiver).startRecord(String.valueOf(i));
+            verify(receiver).literal("out", "value" + i);
+        }
+        verify(receiver, times(RECORD_COUNT)).endRecord();
+        verify(receiver).closeStream();
+    }
+
+    @Test
+    public void shouldShareMapsWithAllWorkers() {
+        parallelMetamorph.putValue("shared", "key", "mappedValue");
+
+        for (int i = 0; i < RECORD_COUNT; ++i) {
+            parallelMetamorph.startRecord(String.valueOf(i));
+            parallelMetamorph.literal("mapped", "key");
+            parallelMetamorph.endRecord();
+        }
+        parallelMetamorph.closeStream();
+
+        verify(receiver, times(RECORD_COUNT)).literal("mapped", "mappedValue");
+    }
+
+    @Test
+    public void shouldResetWorkersAndForwardResetStreamOnlyOnce() {
+        sendRecords();
+        parallelMetamorph.resetStream();
+        sendRecords();
+        parallelMetamorph.closeStream();
+
+        verify(receiver, times(2 * RECORD_COUNT)).literal(any(), any());
+        verify(receiver).resetStream();
+        verify(receiver).closeStream();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAllowAddingMapsWhileWorkersAreRunning() {
+        parallelMetamorph.startRecord("1");
+
+        try {
+            parallelMetamorph.putValue("new", "key", "value");
+        }
+        finally {
+            parallelMetamorph.closeStream();
+        }
+    }
+
+    @Test(expected = MetamorphException.class)
+    public void shouldRethrowExceptionsFromWorkerThreads() {
+        doThrow(new IllegalStateException("failure"))
+                .when(receiver).literal(any(), any());
+
+        sendRecords();
+        parallelMetamorph.closeStream();
+    }
+
+    private void sendRecords() {
+        for (int i = 0; i < RECORD_COUNT; ++i) {
+            parallelMetamorph.startRecord(String.valueOf(i));
+            parallelMetamorph.startEntity("entity");
+            parallelMetamorph.literal("ignored", "value" + i);
+            parallelMetamorph.endEntity();
+            parallelMetamorph.literal("data", "value" + i);
+            parallelMetamorph.endRecord();
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.metafacture.framework.StreamReceiver;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Tests for class {@link ProfilingInterceptorFactory}.
+ */
+public final class ProfilingInterceptorFactoryTest {
+
+    private static final String MORPH_DEF =
+            "org/metafacture/metamorph/profiling-test.xml";
+
+    private static final int RECORD_COUNT = 3;
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Mock
+    private StreamReceiver receiver;
+
+    @Test
+    public void shouldNotProfileByDefault() {
+        final Metamorph metamorph = new Metamorph(MORPH_DEF);
+
+        assertNull(metamorph.getProfiler());
+    }
+
+    @Test
+    public void shouldRecordInvocationsAndEmittedValuesPerElement() {
+        final Metamorph metamorph = new Metamorph(MORPH_DEF);
+        metamorph.setProfile(true);
+        metamorph.setReceiver(receiver);
+
+        sendRecords(metamorph);
+        metamorph.closeStream();
+
+        final InOrder ordered = Mockito.inOrder(receiver);
+        for (int i = 0; i < RECORD_COUNT; ++i) {
+            ordered.verify(receiver).startRecord(String.valueOf(i));
+            ordered.verify(receiver).literal("regexp", String.valueOf(i));
+            ordered.verify(receiver).literal("combined", "x" + i + "y");
+            ordered.verify(receiver).endRecord();
+        }
+        ordered.verify(receiver).closeStream();
+        ordered.verifyNoMoreInteractions();
+
+        final ProfilingInterceptorFactory profiler = metamorph.getProfiler();
+        assertProfile(profiler, "Regexp", RECORD_COUNT, RECORD_COUNT);
+        assertProfile(profiler, "Combine", 2 * RECORD_COUNT, RECORD_COUNT);
+        assertEquals(3, profiler.getProfiles().stream()
+                .filter(p -> p.getElement().equals("Data")).count());
+    }
+
+    @Test
+    public void shouldWriteJsonReportOnCloseStream() throws IOException {
+        final File report = tempFolder.newFile("profile.json");
+
+        final Metamorph metamorph = new Metamorph(MORPH_DEF);
+        metamorph.setProfileReport(report.getPath());
+        metamorph.setReceiver(receiver);
+
+        sendRecords(metamorph);
+        metamorph.closeStream();
+
+        final String json = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[\n  {\"element\":"));
+        assertTrue(json.contains("{\"element\":\"Combine\",\"location\":"));
+        assertTrue(json.contains("\"invocations\":6,\"emitted\":3,\"flushes\":0"));
+    }
+
+    @Test
+    public void shouldKeepMapsAddedBeforeProfilingIsEnabled() {
+        final Map<String, String> map = Collections.singletonMap("key", "value");
+
+        final Metamorph metamorph = new Metamorph(MORPH_DEF);
+        metamorph.putMap("external", map);
+        metamorph.putValue("values", "key", "value");
+        metamorph.setProfile(true);
+
+        assertSame(map, metamorph.getMap("external"));
+        assertEquals("value", metamorph.getValue("values", "key"));
+    }
+
+    @Test
+    public void shouldAggregateProfilesOfParallelWorkers() throws IOException {
+        final File report = tempFolder.newFile("profile.json");
+
+        final ParallelMetamorph metamorph = new ParallelMetamorph(MORPH_DEF);
+        metamorph.setThreads(2);
+        metamorph.setProfileReport(report.getPath());
+        metamorph.setReceiver(receiver);
+
+        sendRecords(metamorph);
+        metamorph.closeStream();
+
+        assertProfile(metamorph.getProfiler(), "Combine", 2 * RECORD_COUNT, RECORD_COUNT);
+        final String json = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"invocations\":6,\"emitted\":3,\"flushes\":0"));
+    }
+
+    private void sendRecords(final StreamReceiver metamorph) {
+        for (int i = 0; i < RECORD_COUNT; ++i) {
+            metamorph.startRecord(String.valueOf(i));
+            metamorph.literal("a", "x" + i);
+            metamorph.literal("b", "y");
+            metamorph.endRecord();
+        }
+    }
+
+    private void assertProfile(final ProfilingInterceptorFactory profiler, final String element,
+            final long invocations, final long emitted) {
+        final ProfilingInterceptorFactory.NodeProfile profile = profiler.getProfiles().stream()
+                .filter(p -> p.getElement().equals(element))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+
+        assertEquals(invocations, profile.getInvocations());
+        assertEquals(emitted, profile.getEmitted());
+        assertTrue(profile.getTotalNanos() >= profile.getSelfNanos());
+    }
+
+}
@@ -60,4 +60,52 @@ public void shouldMakeOutputFormatConfigurable() {
         );
     }
 
+    @Test
+    public void shouldRemoveLeadingZeros() {
+        assertMorph(receiver,
+                "<rules>" +
+                "  <data source='date'>" +
+                "    <dateformat outputformat='SHORT' language='en' removeLeadingZeros='true' />" +
+                "  </data>" +
+                "</rules>",
+                i -> {
+                    i.startRecord("1");
+                    i.literal("date", "05.03.2004");
+                    i.endRecord();
+                },
+                o -> {
+                    o.get().startRecord("1");
+                    o.get().literal("date", "3/5/4");
+                    o.get().endRecord();
+                }
+        );
+    }
+
+    @Test
+    public void shouldReturnUnparsableValuesUnchanged() {
+        assertMorph(receiver,
+                "<rules>" +
+                "  <data source='date'>" +
+                "    <dateformat inputformat='yyyy-MM-dd' outputformat='MEDIUM' language='en' />" +
+                "  </data>" +
+                "</rules>",
+                i -> {
+                    i.startRecord("1");
+                    i.literal("date", "no date");
+                    i.literal("date", "2004-03-05");
+                    i.literal("date", "no date");
+                    i.literal("date", "2004-03-05");
+                    i.endRecord();
+                },
+                o -> {
+                    o.get().startRecord("1");
+                    o.get().literal("date", "no date");
+                    o.get().literal("date", "Mar 5, 2004");
+                    o.get().literal("date", "no date");
+                    o.get().literal("date", "Mar 5, 2004");
+                    o.get().endRecord();
+                }
+        );
+    }
+
 }
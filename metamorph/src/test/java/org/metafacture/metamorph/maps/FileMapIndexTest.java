@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph.maps;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Tests for class {@link FileMapIndex}.
+ */
+public final class FileMapIndexTest {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldMergeSortedRunsIntoIndex() {
+        final Path file = indexFile();
+
+        try (FileMapIndex.Builder builder = new FileMapIndex.Builder(file, "", 1024)) {
+            for (int i = 0; i < ENTRY_COUNT; ++i) {
+                final int n = i * 7919 % ENTRY_COUNT;
+                builder.add("key" + n, "value" + n);
+            }
+            builder.write();
+        }
+
+        final FileMapIndex index = open(file);
+        Assert.assertEquals(ENTRY_COUNT, index.size());
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            Assert.assertEquals("value" + i, index.get("key" + i));
+        }
+        Assert.assertNull(index.get("key" + ENTRY_COUNT));
+        assertOnlyIndexFileLeft();
+    }
+
+    @Test
+    public void shouldKeepValueAddedLastForDuplicateKeys() {
+        final Path file = indexFile();
+
+        try (FileMapIndex.Builder builder = new FileMapIndex.Builder(file, "", 1024)) {
+            for (int round = 0; round < 3; ++round) {
+                for (int i = 0; i < ENTRY_COUNT; ++i) {
+                    builder.add("key" + i, "value" + round);
+                }
+            }
+            builder.add("key0", "last");
+            builder.write();
+        }
+
+        final FileMapIndex index = open(file);
+        Assert.assertEquals(ENTRY_COUNT, index.size());
+        Assert.assertEquals("last", index.get("key0"));
+        Assert.assertEquals("value2", index.get("key1"));
+        Assert.assertEquals("value2", index.get("key" + (ENTRY_COUNT - 1)));
+    }
+
+    @Test
+    public void shouldMergeManyRunsInSeveralPasses() {
+        final Path file = indexFile();
+
+        // Every entry exceeds the sort buffer, so each entry forms a run:
+        try (FileMapIndex.Builder builder = new FileMapIndex.Builder(file, "", 1)) {
+            for (int i = ENTRY_COUNT - 1; i >= 0; --i) {
+                builder.add("key" + i, "value" + i);
+            }
+            builder.write();
+        }
+
+        final FileMapIndex index = open(file);
+        Assert.assertEquals(ENTRY_COUNT, index.size());
+        Assert.assertEquals("value0", index.get("key0"));
+        Assert.assertEquals("value999", index.get("key999"));
+        Assert.assertEquals("key0", index.keySet().iterator().next());
+        assertOnlyIndexFileLeft();
+    }
+
+    @Test
+    public void shouldReplaceOpenIndexIfFileWasRebuilt() throws IOException {
+        final Path file = indexFile();
+
+        final FileMapIndex first = FileMapIndex.open(file, 0, b -> b.add("key", "first"));
+        Assert.assertSame(first, open(file));
+
+        try (FileMapIndex.Builder builder = new FileMapIndex.Builder(file)) {
+            builder.add("key", "second");
+            builder.write();
+        }
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10000));
+
+        final FileMapIndex second = open(file);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("second", second.get("key"));
+        Assert.assertSame(second, open(file));
+    }
+
+    @Test
+    public void shouldRebuildIndexIfSourceIsNewer() throws IOException {
+        final Path file = indexFile();
+
+        FileMapIndex.open(file, 0, b -> b.add("key", "first"));
+        final long sourceLastModified = Files.getLastModifiedTime(file).toMillis() + 10000;
+
+        final FileMapIndex index = FileMapIndex.open(file, sourceLastModified, b -> b.add("key", "second"));
+        Assert.assertEquals("second", index.get("key"));
+    }
+
+    @Test
+    public void shouldRebuildIndexIfParametersChanged() {
+        final Path file = indexFile();
+
+        final FileMapIndex first = FileMapIndex.open(file, "keyColumn=0", 0, b -> b.add("key", "first"));
+        Assert.assertSame(first, FileMapIndex.open(file, "keyColumn=0", 0, b -> Assert.fail("index should not be written")));
+
+        final FileMapIndex second = FileMapIndex.open(file, "keyColumn=1", 0, b -> b.add("key", "second"));
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("keyColumn=1", second.getParameters());
+        Assert.assertEquals("second", second.get("key"));
+    }
+
+    private Path indexFile() {
+        return tempFolder.getRoot().toPath().resolve("index-test.idx");
+    }
+
+    private static FileMapIndex open(final Path file) {
+        final Consumer<FileMapIndex.Builder> entries = b -> Assert.fail("index should not be written");
+        return FileMapIndex.open(file, 0, entries);
+    }
+
+    private void assertOnlyIndexFileLeft() {
+        Assert.assertEquals(Arrays.asList("index-test.idx"), Arrays.asList(tempFolder.getRoot().list()));
+    }
+
+}
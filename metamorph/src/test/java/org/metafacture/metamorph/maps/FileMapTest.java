@@ -21,6 +21,7 @@
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.metafacture.framework.StreamReceiver;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
@@ -39,6 +40,9 @@ public final class FileMapTest {
     @Rule
     public final MockitoRule mockitoRule = MockitoJUnit.rule();
 
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
     @Mock
     private StreamReceiver receiver;
 
@@ -365,6 +369,60 @@ public void shouldNotLoadFileWithTooManyExpectedColumns() {
         });
     }
 
+    @Test
+    public void shouldLookupValuesInIndexedFileMap() {
+        final String index = tempFolder.getRoot().getAbsolutePath() + "/file-map-test.idx";
+        assertMorph(receiver, buildMorph("lookup in", "index=\"" + index + "\""),
+                i -> {
+                    i.startRecord("1");
+                    i.literal("1", "gw");
+                    i.literal("1", "fj");
+                    i.literal("1", "nx");
+                    i.endRecord();
+                },
+                o -> {
+                    o.get().startRecord("1");
+                    o.get().literal("1", "Germany");
+                    o.get().literal("1", "Fiji");
+                    o.get().endRecord();
+                }
+        );
+    }
+
+    @Test
+    public void shouldUseExistingIndexWithoutReadingFiles() {
+        final String index = tempFolder.getRoot().getAbsolutePath() + "/file-map-test.idx";
+
+        final FileMap writingMap = new FileMap();
+        writingMap.setFile(MAPS + "file-map-test.txt");
+        writingMap.setIndex(index);
+        Assert.assertEquals("Germany", writingMap.get("gw"));
+
+        final FileMap readingMap = new FileMap();
+        readingMap.setFile("does-not-exist.txt");
+        readingMap.setIndex(index);
+        Assert.assertEquals("Germany", readingMap.get("gw"));
+        Assert.assertEquals(writingMap.keySet(), readingMap.keySet());
+    }
+
+    @Test
+    public void shouldRebuildIndexWrittenWithOtherColumns() {
+        final String index = tempFolder.getRoot().getAbsolutePath() + "/file-map-test.idx";
+
+        final FileMap writingMap = new FileMap();
+        writingMap.setFile(MAPS + "file-map-test.txt");
+        writingMap.setIndex(index);
+        Assert.assertEquals("Germany", writingMap.get("gw"));
+
+        final FileMap swappedMap = new FileMap();
+        swappedMap.setFile(MAPS + "file-map-test.txt");
+        swappedMap.setIndex(index);
+        swappedMap.setKeyColumn(1);
+        swappedMap.setValueColumn(0);
+        Assert.assertEquals("gw", swappedMap.get("Germany"));
+        Assert.assertNull(swappedMap.get("gw"));
+    }
+
     private void assertMap(final int size, final Consumer<FileMap> consumer) {
         final FileMap fileMap = new FileMap();
         fileMap.setFile(MAPS + "file-map-test-columns.txt");
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph.maps;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for class {@link RestMap} using a local HTTP server.
+ */
+public final class RestMapTest {
+
+    private static final String SLOW_KEY = "slow";
+    private static final int SLOW_RESPONSE_TIME = 2000;
+
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+
+    private CountDownLatch concurrentRequests = new CountDownLatch(0);
+    private HttpServer server;
+    private RestMap restMap;
+
+    @Before
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        restMap = new RestMap("http://localhost:" + server.getAddress().getPort() + "/${key}");
+    }
+
+    @After
+    public void cleanup() {
+        restMap.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldReturnResponseAsValue() {
+        Assert.assertEquals("value of a", restMap.get("a"));
+        Assert.assertEquals("value of b c", restMap.get("b c"));
+    }
+
+    @Test
+    public void shouldReturnNullForMissingKeys() {
+        Assert.assertNull(restMap.get("missing"));
+        Assert.assertFalse(restMap.containsKey("missing"));
+    }
+
+    @Test
+    public void shouldReturnNullIfReadTimesOut() {
+        restMap.setReadTimeout(SLOW_RESPONSE_TIME / 10);
+
+        Assert.assertNull(restMap.get(SLOW_KEY));
+    }
+
+    @Test
+    public void shouldRequestKeysAgainWithoutCache() {
+        restMap.get("a");
+        restMap.get("a");
+
+        Assert.assertEquals(2, requestCount("a"));
+    }
+
+    @Test
+    public void shouldCacheValuesAndMissingKeys() {
+        restMap.setCacheSize(10);
+
+        Assert.assertEquals("value of a", restMap.get("a"));
+        Assert.assertEquals("value of a", restMap.get("a"));
+        Assert.assertNull(restMap.get("missing"));
+        Assert.assertNull(restMap.get("missing"));
+
+        Assert.assertEquals(1, requestCount("a"));
+        Assert.assertEquals(1, requestCount("missing"));
+    }
+
+    @Test
+    public void shouldExpireCachedValues() throws InterruptedException {
+        restMap.setCacheSize(10);
+        restMap.setCacheTtl(50);
+
+        restMap.get("a");
+        Thread.sleep(100);
+        restMap.get("a");
+
+        Assert.assertEquals(2, requestCount("a"));
+    }
+
+    @Test
+    public void shouldNotReadAheadWithoutCache() {
+        restMap.setReadAheadThreads(4);
+
+        Assert.assertFalse(restMap.isPrefetching());
+    }
+
+    @Test
+    public void shouldReadAheadConcurrently() {
+        restMap.setCacheSize(10);
+        restMap.setReadAheadThreads(4);
+        concurrentRequests = new CountDownLatch(4);
+
+        restMap.prefetch(Arrays.asList("a", "b", "c", "d"));
+
+        Assert.assertEquals("value of a", restMap.get("a"));
+        Assert.assertEquals("value of b", restMap.get("b"));
+        Assert.assertEquals("value of c", restMap.get("c"));
+        Assert.assertEquals("value of d", restMap.get("d"));
+        Assert.assertEquals(4, maxActiveRequests.get());
+        for (final String key : Arrays.asList("a", "b", "c", "d")) {
+            Assert.assertEquals(1, requestCount(key));
+        }
+    }
+
+    @Test
+    public void shouldReadAheadMatchingKeysOnly() {
+        restMap.setCacheSize(10);
+        restMap.setReadAheadThreads(2);
+        restMap.setReadAheadPattern("[a-c]");
+
+        restMap.prefetch(Arrays.asList("a", "x"));
+        restMap.get("a");
+
+        Assert.assertEquals(1, requestCount("a"));
+        Assert.assertEquals(0, requestCount("x"));
+    }
+
+    @Test
+    public void shouldNotBlockLookupsOfCancelledReadAheadRequests() throws Exception {
+        restMap.setCacheSize(10);
+        restMap.setReadAheadThreads(1);
+
+        restMap.prefetch(Arrays.asList(SLOW_KEY, "a"));
+        final CompletableFuture<String> lookup = CompletableFuture.supplyAsync(() -> restMap.get("a"));
+        Thread.sleep(100);
+        restMap.close();
+
+        Assert.assertEquals("value of a", lookup.get(SLOW_RESPONSE_TIME / 2, TimeUnit.MILLISECONDS));
+    }
+
+    private int requestCount(final String key) {
+        final AtomicInteger count = requestCounts.get(key);
+        return count == null ? 0 : count.get();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String key = exchange.getRequestURI().getPath().substring(1);
+        requestCounts.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        maxActiveRequests.accumulateAndGet(activeRequests.incrementAndGet(), Math::max);
+        try {
+            awaitConcurrentRequests(key);
+            if ("missing".equals(key)) {
+                exchange.sendResponseHeaders(404, -1);
+            }
+            else {
+                final byte[] body = ("value of " + key).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+        finally {
+            activeRequests.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void awaitConcurrentRequests(final String key) {
+        concurrentRequests.countDown();
+        try {
+            if (SLOW_KEY.equals(key)) {
+                Thread.sleep(SLOW_RESPONSE_TIME);
+            }
+            else {
+                concurrentRequests.await(SLOW_RESPONSE_TIME, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Deutsche Nationalbibliothek et al
+ *
+ * Licensed under the Apache License, Version 2.0 the "License";
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.metafacture.metamorph.maps;
+
+import static org.metafacture.metamorph.TestHelpers.assertMorph;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.metafacture.framework.StreamReceiver;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Tests for class {@link SqlMap} using an in-memory database.
+ */
+public final class SqlMapTest {
+
+    private static final String URL = "jdbc:h2:mem:sqlmaptest;DB_CLOSE_DELAY=-1";
+    private static final String DRIVER = "org.h2.Driver";
+    private static final String QUERY = "SELECT name FROM countries WHERE id = ?";
+    private static final String PREFETCH_QUERY = "SELECT id, name FROM countries WHERE id IN (?)";
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private StreamReceiver receiver;
+
+    private Connection connection;
+    private SqlMap sqlMap;
+
+    @Before
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+        execute("CREATE TABLE countries (id VARCHAR(8) PRIMARY KEY, name VARCHAR(64))");
+        execute("INSERT INTO countries VALUES ('gw', 'Germany'), ('fj', 'Fiji')");
+
+        sqlMap = new SqlMap();
+        sqlMap.setUrl(URL);
+        sqlMap.setDriver(DRIVER);
+        sqlMap.setLogin("sa");
+        sqlMap.setPassword("");
+        sqlMap.setQuery(QUERY);
+    }
+
+    @After
+    public void cleanup() throws SQLException, IOException {
+        sqlMap.close();
+        execute("DROP TABLE countries");
+        connection.close();
+    }
+
+    @Test
+    public void shouldLookupValues() {
+        Assert.assertEquals("Germany", sqlMap.get("gw"));
+        Assert.assertEquals("Fiji", sqlMap.get("fj"));
+        Assert.assertNull(sqlMap.get("xx"));
+    }
+
+    @Test
+    public void shouldCacheFoundAndMissingKeys() throws SQLException {
+        sqlMap.setCacheSize(10);
+        Assert.assertEquals("Germany", sqlMap.get("gw"));
+        Assert.assertNull(sqlMap.get("xx"));
+
+        execute("DELETE FROM countries WHERE id = 'gw'");
+        execute("INSERT INTO countries VALUES ('xx', 'Unknown')");
+
+        Assert.assertEquals("Germany", sqlMap.get("gw"));
+        Assert.assertNull(sqlMap.get("xx"));
+        Assert.assertNull(sqlMap.get("gw2"));
+    }
+
+    @Test
+    public void shouldPrefetchKeys() throws SQLException {
+        sqlMap.setCacheSize(10);
+        sqlMap.setPrefetchQuery(PREFETCH_QUERY);
+        Assert.assertTrue(sqlMap.isPrefetching());
+
+        sqlMap.prefetch(Arrays.asList("gw", "fj", "xx"));
+        execute("DELETE FROM countries");
+
+        Assert.assertEquals("Germany", sqlMap.get("gw"));
+        Assert.assertEquals("Fiji", sqlMap.get("fj"));
+        Assert.assertNull(sqlMap.get("xx"));
+    }
+
+    @Test
+    public void shouldNotPrefetchWithoutCache() {
+        sqlMap.setPrefetchQuery(PREFETCH_QUERY);
+        Assert.assertFalse(sqlMap.isPrefetching());
+    }
+
+    @Test
+    public void shouldLookupValuesWithPrefetchingInMorph() {
+        assertMorph(receiver,
+                "<rules>" +
+                "  <data source='1'>" +
+                "    <lookup in='countries' />" +
+                "  </data>" +
+                "</rules>" +
+                "<maps>" +
+                "  <sqlmap name='countries' url='" + URL + "' driver='" + DRIVER + "'" +
+                "      login='sa' password='' query='" + QUERY + "'" +
+                "      prefetchQuery='" + PREFETCH_QUERY + "' cacheSize='100' poolSize='2' />" +
+                "</maps>",
+                i -> {
+                    i.startRecord("1");
+                    i.literal("1", "gw");
+                    i.startEntity("e");
+                    i.literal("2", "fj");
+                    i.endEntity();
+                    i.literal("1", "fj");
+                    i.literal("1", "xx");
+                    i.endRecord();
+                },
+                o -> {
+                    o.get().startRecord("1");
+                    o.get().literal("1", "Germany");
+                    o.get().literal("1", "Fiji");
+                    o.get().endRecord();
+                }
+        );
+    }
+
+    private void execute(final String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+}